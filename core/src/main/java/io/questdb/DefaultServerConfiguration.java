@@ -46,6 +46,22 @@ public class DefaultServerConfiguration implements ServerConfiguration {
     private final DefaultLineTcpReceiverConfiguration lineTcpReceiverConfiguration = new DefaultLineTcpReceiverConfiguration();
     private final DefaultPGWireConfiguration pgWireConfiguration = new DefaultPGWireConfiguration();
     private final DefaultMetricsConfiguration metricsConfiguration = new DefaultMetricsConfiguration();
+    private final WorkerPoolConfiguration queryWorkerPoolConfiguration = new WorkerPoolConfiguration() {
+        @Override
+        public int[] getWorkerAffinity() {
+            return new int[0];
+        }
+
+        @Override
+        public int getWorkerCount() {
+            return 0;
+        }
+
+        @Override
+        public boolean haltOnError() {
+            return false;
+        }
+    };
 
     public DefaultServerConfiguration(CharSequence root) {
         this.cairoConfiguration = new DefaultCairoConfiguration(root);
@@ -81,6 +97,11 @@ public class DefaultServerConfiguration implements ServerConfiguration {
         return httpServerConfiguration;
     }
 
+    @Override
+    public WorkerPoolConfiguration getQueryWorkerPoolConfiguration() {
+        return queryWorkerPoolConfiguration;
+    }
+
     @Override
     public PGWireConfiguration getPGWireConfiguration() {
         return pgWireConfiguration;
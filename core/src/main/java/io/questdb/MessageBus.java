@@ -41,6 +41,12 @@ public interface MessageBus extends Closeable {
 
     CairoConfiguration getConfiguration();
 
+    Sequence getHashJoinPubSeq();
+
+    RingQueue<HashJoinTask> getHashJoinQueue();
+
+    Sequence getHashJoinSubSeq();
+
     Sequence getIndexerPubSequence();
 
     RingQueue<ColumnIndexerTask> getIndexerQueue();
@@ -89,6 +95,32 @@ public interface MessageBus extends Closeable {
 
     MCSequence getO3PurgeSubSeq();
 
+    ParkingWaitStrategy getQueryWorkerWaitStrategy();
+
+    Sequence getPageFrameFilterPubSeq();
+
+    RingQueue<PageFrameFilterTask> getPageFrameFilterQueue();
+
+    Sequence getPageFrameFilterSubSeq();
+
+    Sequence getPartitionCompressPubSeq();
+
+    RingQueue<PartitionCompressTask> getPartitionCompressQueue();
+
+    Sequence getPartitionCompressSubSeq();
+
+    Sequence getRadixSortPubSeq();
+
+    RingQueue<RadixSortTask> getRadixSortQueue();
+
+    Sequence getRadixSortSubSeq();
+
+    Sequence getSampleByPubSeq();
+
+    RingQueue<SampleByTask> getSampleByQueue();
+
+    Sequence getSampleBySubSeq();
+
     MPSequence getTableWriterCommandPubSeq();
 
     RingQueue<TableWriterTask> getTableWriterCommandQueue();
@@ -101,9 +133,17 @@ public interface MessageBus extends Closeable {
 
     FanOut getTableWriterEventFanOut();
 
+    Sequence getTextImportPubSeq();
+
+    RingQueue<TextImportTask> getTextImportQueue();
+
+    Sequence getTextImportSubSeq();
+
     Sequence getVectorAggregatePubSeq();
 
     RingQueue<VectorAggregateTask> getVectorAggregateQueue();
 
     Sequence getVectorAggregateSubSeq();
+
+    ParkingWaitStrategy getWorkerWaitStrategy();
 }
@@ -32,6 +32,8 @@ import io.questdb.tasks.*;
 import org.jetbrains.annotations.NotNull;
 
 public class MessageBusImpl implements MessageBus {
+    // parked workers in excess of the capacity wake up on their sleep timeout only
+    private static final int WORKER_WAIT_STRATEGY_CAPACITY = 64;
     private final RingQueue<ColumnIndexerTask> indexerQueue;
     private final MPSequence indexerPubSeq;
     private final MCSequence indexerSubSeq;
@@ -68,6 +70,30 @@ public class MessageBusImpl implements MessageBus {
     private final MPSequence latestByPubSeq;
     private final MCSequence latestBySubSeq;
 
+    private final RingQueue<HashJoinTask> hashJoinQueue;
+    private final MPSequence hashJoinPubSeq;
+    private final MCSequence hashJoinSubSeq;
+
+    private final RingQueue<TextImportTask> textImportQueue;
+    private final MPSequence textImportPubSeq;
+    private final MCSequence textImportSubSeq;
+
+    private final RingQueue<PageFrameFilterTask> pageFrameFilterQueue;
+    private final MPSequence pageFrameFilterPubSeq;
+    private final MCSequence pageFrameFilterSubSeq;
+
+    private final RingQueue<PartitionCompressTask> partitionCompressQueue;
+    private final MPSequence partitionCompressPubSeq;
+    private final MCSequence partitionCompressSubSeq;
+
+    private final RingQueue<RadixSortTask> radixSortQueue;
+    private final MPSequence radixSortPubSeq;
+    private final MCSequence radixSortSubSeq;
+
+    private final RingQueue<SampleByTask> sampleByQueue;
+    private final MPSequence sampleByPubSeq;
+    private final MCSequence sampleBySubSeq;
+
     private final RingQueue<TableWriterTask> tableWriterCommandQueue;
     private final MPSequence tableWriterCommandPubSeq;
     private final FanOut tableWriterCommandSubSeq;
@@ -76,54 +102,90 @@ public class MessageBusImpl implements MessageBus {
     private final MPSequence tableWriterEventPubSeq;
     private final FanOut tableWriterEventSubSeq;
     private final CairoConfiguration configuration;
+    private final ParkingWaitStrategy workerWaitStrategy;
+    private final ParkingWaitStrategy queryWorkerWaitStrategy;
 
     public MessageBusImpl(@NotNull CairoConfiguration configuration) {
         this.configuration = configuration;
+        // publishers to the queues below wake up workers parked on these strategies; query tasks
+        // wake up shared workers when there is no dedicated query worker parked
+        this.workerWaitStrategy = new ParkingWaitStrategy(WORKER_WAIT_STRATEGY_CAPACITY, 1_000_000L);
+        this.queryWorkerWaitStrategy = new ParkingWaitStrategy(WORKER_WAIT_STRATEGY_CAPACITY, 1_000_000L, workerWaitStrategy);
         this.indexerQueue = new RingQueue<>(ColumnIndexerTask::new, configuration.getColumnIndexerQueueCapacity());
         this.indexerPubSeq = new MPSequence(indexerQueue.getCycle());
-        this.indexerSubSeq = new MCSequence(indexerQueue.getCycle());
+        this.indexerSubSeq = new MCSequence(indexerQueue.getCycle(), workerWaitStrategy);
         indexerPubSeq.then(indexerSubSeq).then(indexerPubSeq);
 
         this.vectorAggregateQueue = new RingQueue<>(VectorAggregateTask::new, configuration.getVectorAggregateQueueCapacity());
         this.vectorAggregatePubSeq = new MPSequence(vectorAggregateQueue.getCycle());
-        this.vectorAggregateSubSeq = new MCSequence(vectorAggregateQueue.getCycle());
+        this.vectorAggregateSubSeq = new MCSequence(vectorAggregateQueue.getCycle(), queryWorkerWaitStrategy);
         vectorAggregatePubSeq.then(vectorAggregateSubSeq).then(vectorAggregatePubSeq);
 
         this.o3CallbackQueue = new RingQueue<>(O3CallbackTask::new, configuration.getO3CallbackQueueCapacity());
         this.o3CallbackPubSeq = new MPSequence(this.o3CallbackQueue.getCycle());
-        this.o3CallbackSubSeq = new MCSequence(this.o3CallbackQueue.getCycle());
+        this.o3CallbackSubSeq = new MCSequence(this.o3CallbackQueue.getCycle(), workerWaitStrategy);
         o3CallbackPubSeq.then(o3CallbackSubSeq).then(o3CallbackPubSeq);
 
         this.o3PartitionQueue = new RingQueue<>(O3PartitionTask::new, configuration.getO3PartitionQueueCapacity());
         this.o3PartitionPubSeq = new MPSequence(this.o3PartitionQueue.getCycle());
-        this.o3PartitionSubSeq = new MCSequence(this.o3PartitionQueue.getCycle());
+        this.o3PartitionSubSeq = new MCSequence(this.o3PartitionQueue.getCycle(), workerWaitStrategy);
         o3PartitionPubSeq.then(o3PartitionSubSeq).then(o3PartitionPubSeq);
 
         this.o3OpenColumnQueue = new RingQueue<>(O3OpenColumnTask::new, configuration.getO3OpenColumnQueueCapacity());
         this.o3OpenColumnPubSeq = new MPSequence(this.o3OpenColumnQueue.getCycle());
-        this.o3OpenColumnSubSeq = new MCSequence(this.o3OpenColumnQueue.getCycle());
+        this.o3OpenColumnSubSeq = new MCSequence(this.o3OpenColumnQueue.getCycle(), workerWaitStrategy);
         o3OpenColumnPubSeq.then(o3OpenColumnSubSeq).then(o3OpenColumnPubSeq);
 
         this.o3CopyQueue = new RingQueue<>(O3CopyTask::new, configuration.getO3CopyQueueCapacity());
         this.o3CopyPubSeq = new MPSequence(this.o3CopyQueue.getCycle());
-        this.o3CopySubSeq = new MCSequence(this.o3CopyQueue.getCycle());
+        this.o3CopySubSeq = new MCSequence(this.o3CopyQueue.getCycle(), workerWaitStrategy);
         o3CopyPubSeq.then(o3CopySubSeq).then(o3CopyPubSeq);
 
         this.o3PurgeDiscoveryQueue = new RingQueue<>(O3PurgeDiscoveryTask::new, configuration.getO3PurgeDiscoveryQueueCapacity());
         this.o3PurgeDiscoveryPubSeq = new MPSequence(this.o3PurgeDiscoveryQueue.getCycle());
-        this.o3PurgeDiscoverySubSeq = new MCSequence(this.o3PurgeDiscoveryQueue.getCycle());
+        this.o3PurgeDiscoverySubSeq = new MCSequence(this.o3PurgeDiscoveryQueue.getCycle(), workerWaitStrategy);
         this.o3PurgeDiscoveryPubSeq.then(this.o3PurgeDiscoverySubSeq).then(o3PurgeDiscoveryPubSeq);
 
         this.o3PurgeQueue = new RingQueue<>(O3PurgeTask::new, configuration.getO3PurgeQueueCapacity());
         this.o3PurgePubSeq = new MPSequence(this.o3PurgeQueue.getCycle());
-        this.o3PurgeSubSeq = new MCSequence(this.o3PurgeQueue.getCycle());
+        this.o3PurgeSubSeq = new MCSequence(this.o3PurgeQueue.getCycle(), workerWaitStrategy);
         this.o3PurgePubSeq.then(this.o3PurgeSubSeq).then(this.o3PurgePubSeq);
 
         this.latestByQueue = new RingQueue<>(LatestByTask::new, configuration.getLatestByQueueCapacity());
         this.latestByPubSeq = new MPSequence(latestByQueue.getCycle());
-        this.latestBySubSeq = new MCSequence(latestByQueue.getCycle());
+        this.latestBySubSeq = new MCSequence(latestByQueue.getCycle(), queryWorkerWaitStrategy);
         latestByPubSeq.then(latestBySubSeq).then(latestByPubSeq);
 
+        this.hashJoinQueue = new RingQueue<>(HashJoinTask::new, configuration.getHashJoinQueueCapacity());
+        this.hashJoinPubSeq = new MPSequence(hashJoinQueue.getCycle());
+        this.hashJoinSubSeq = new MCSequence(hashJoinQueue.getCycle(), queryWorkerWaitStrategy);
+        hashJoinPubSeq.then(hashJoinSubSeq).then(hashJoinPubSeq);
+
+        this.textImportQueue = new RingQueue<>(TextImportTask::new, configuration.getSqlCopyQueueCapacity());
+        this.textImportPubSeq = new MPSequence(textImportQueue.getCycle());
+        this.textImportSubSeq = new MCSequence(textImportQueue.getCycle(), workerWaitStrategy);
+        textImportPubSeq.then(textImportSubSeq).then(textImportPubSeq);
+
+        this.pageFrameFilterQueue = new RingQueue<>(PageFrameFilterTask::new, configuration.getPageFrameFilterQueueCapacity());
+        this.pageFrameFilterPubSeq = new MPSequence(pageFrameFilterQueue.getCycle());
+        this.pageFrameFilterSubSeq = new MCSequence(pageFrameFilterQueue.getCycle(), queryWorkerWaitStrategy);
+        pageFrameFilterPubSeq.then(pageFrameFilterSubSeq).then(pageFrameFilterPubSeq);
+
+        this.partitionCompressQueue = new RingQueue<>(PartitionCompressTask::new, configuration.getPartitionCompressionQueueCapacity());
+        this.partitionCompressPubSeq = new MPSequence(partitionCompressQueue.getCycle());
+        this.partitionCompressSubSeq = new MCSequence(partitionCompressQueue.getCycle(), workerWaitStrategy);
+        partitionCompressPubSeq.then(partitionCompressSubSeq).then(partitionCompressPubSeq);
+
+        this.radixSortQueue = new RingQueue<>(RadixSortTask::new, configuration.getRadixSortQueueCapacity());
+        this.radixSortPubSeq = new MPSequence(radixSortQueue.getCycle());
+        this.radixSortSubSeq = new MCSequence(radixSortQueue.getCycle(), queryWorkerWaitStrategy);
+        radixSortPubSeq.then(radixSortSubSeq).then(radixSortPubSeq);
+
+        this.sampleByQueue = new RingQueue<>(SampleByTask::new, configuration.getSampleByQueueCapacity());
+        this.sampleByPubSeq = new MPSequence(sampleByQueue.getCycle());
+        this.sampleBySubSeq = new MCSequence(sampleByQueue.getCycle(), queryWorkerWaitStrategy);
+        sampleByPubSeq.then(sampleBySubSeq).then(sampleByPubSeq);
+
         // todo: move to configuration
         this.tableWriterCommandQueue = new RingQueue<>(
                 TableWriterTask::new,
@@ -152,6 +214,21 @@ public class MessageBusImpl implements MessageBus {
         return configuration;
     }
 
+    @Override
+    public Sequence getHashJoinPubSeq() {
+        return hashJoinPubSeq;
+    }
+
+    @Override
+    public RingQueue<HashJoinTask> getHashJoinQueue() {
+        return hashJoinQueue;
+    }
+
+    @Override
+    public Sequence getHashJoinSubSeq() {
+        return hashJoinSubSeq;
+    }
+
     @Override
     public Sequence getIndexerPubSequence() {
         return indexerPubSeq;
@@ -272,6 +349,66 @@ public class MessageBusImpl implements MessageBus {
         return o3PurgeSubSeq;
     }
 
+    @Override
+    public Sequence getPageFrameFilterPubSeq() {
+        return pageFrameFilterPubSeq;
+    }
+
+    @Override
+    public RingQueue<PageFrameFilterTask> getPageFrameFilterQueue() {
+        return pageFrameFilterQueue;
+    }
+
+    @Override
+    public Sequence getPageFrameFilterSubSeq() {
+        return pageFrameFilterSubSeq;
+    }
+
+    @Override
+    public Sequence getPartitionCompressPubSeq() {
+        return partitionCompressPubSeq;
+    }
+
+    @Override
+    public RingQueue<PartitionCompressTask> getPartitionCompressQueue() {
+        return partitionCompressQueue;
+    }
+
+    @Override
+    public Sequence getPartitionCompressSubSeq() {
+        return partitionCompressSubSeq;
+    }
+
+    @Override
+    public Sequence getRadixSortPubSeq() {
+        return radixSortPubSeq;
+    }
+
+    @Override
+    public RingQueue<RadixSortTask> getRadixSortQueue() {
+        return radixSortQueue;
+    }
+
+    @Override
+    public Sequence getRadixSortSubSeq() {
+        return radixSortSubSeq;
+    }
+
+    @Override
+    public Sequence getSampleByPubSeq() {
+        return sampleByPubSeq;
+    }
+
+    @Override
+    public RingQueue<SampleByTask> getSampleByQueue() {
+        return sampleByQueue;
+    }
+
+    @Override
+    public Sequence getSampleBySubSeq() {
+        return sampleBySubSeq;
+    }
+
     @Override
     public MPSequence getTableWriterCommandPubSeq() {
         return tableWriterCommandPubSeq;
@@ -302,6 +439,21 @@ public class MessageBusImpl implements MessageBus {
         return tableWriterEventSubSeq;
     }
 
+    @Override
+    public Sequence getTextImportPubSeq() {
+        return textImportPubSeq;
+    }
+
+    @Override
+    public RingQueue<TextImportTask> getTextImportQueue() {
+        return textImportQueue;
+    }
+
+    @Override
+    public Sequence getTextImportSubSeq() {
+        return textImportSubSeq;
+    }
+
     @Override
     public Sequence getVectorAggregatePubSeq() {
         return vectorAggregatePubSeq;
@@ -316,4 +468,14 @@ public class MessageBusImpl implements MessageBus {
     public Sequence getVectorAggregateSubSeq() {
         return vectorAggregateSubSeq;
     }
+
+    @Override
+    public ParkingWaitStrategy getQueryWorkerWaitStrategy() {
+        return queryWorkerWaitStrategy;
+    }
+
+    @Override
+    public ParkingWaitStrategy getWorkerWaitStrategy() {
+        return workerWaitStrategy;
+    }
 }
@@ -89,6 +89,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int mkdirMode;
     private final int parallelIndexThreshold;
     private final int readerPoolMaxSegments;
+    private final long readerPoolRefreshInterval;
     private final long spinLockTimeoutUs;
     private final int sqlCacheRows;
     private final int sqlCacheBlocks;
@@ -119,6 +120,16 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlSortValueMaxPages;
     private final long workStealTimeoutNanos;
     private final boolean parallelIndexingEnabled;
+    private final boolean sqlParallelFilterEnabled;
+    private final boolean sqlParallelSampleByEnabled;
+    private final boolean sqlParallelHashJoinEnabled;
+    private final boolean sqlRadixSortEnabled;
+    private final boolean sqlJitFilterEnabled;
+    private final boolean walEnabled;
+    private final int walBufferSize;
+    private final int sqlPageFrameMaxRows;
+    private final int sqlParallelQueryLimit;
+    private final int sqlParallelQueryTaskLimit;
     private final int sqlJoinMetadataPageSize;
     private final int sqlJoinMetadataMaxResizes;
     private final int lineUdpCommitRate;
@@ -132,7 +143,15 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean sharedWorkerHaltOnError;
     private final long sharedWorkerYieldThreshold;
     private final long sharedWorkerSleepThreshold;
+    private final long sharedWorkerSleepTimeout;
+    private final boolean sharedWorkerEventDriven;
+    private final int[] queryWorkerAffinity;
+    private final int queryWorkerCount;
+    private final boolean queryWorkerHaltOnError;
+    private final long queryWorkerYieldThreshold;
+    private final long queryWorkerSleepThreshold;
     private final WorkerPoolConfiguration workerPoolConfiguration = new PropWorkerPoolConfiguration();
+    private final WorkerPoolConfiguration queryWorkerPoolConfiguration = new PropQueryWorkerPoolConfiguration();
     private final PGWireConfiguration pgWireConfiguration = new PropPGWireConfiguration();
     private final InputFormatConfiguration inputFormatConfiguration;
     private final LineProtoTimestampAdapter lineUdpTimestampAdapter;
@@ -142,6 +161,9 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean lineUdpUnicast;
     private final boolean lineUdpOwnThread;
     private final int sqlCopyBufferSize;
+    private final long sqlCopyChunkSize;
+    private final int sqlCopyQueueCapacity;
+    private final boolean sqlParallelCopyEnabled;
     private final long writerDataAppendPageSize;
     private final long writerMiscAppendPageSize;
     private final int sqlAnalyticColumnPoolCapacity;
@@ -156,6 +178,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlBindVariablePoolSize;
     private final DateLocale locale;
     private final String backupRoot;
+    private final String sqlSpillRoot;
+    private final long sqlSpillMaxSize;
     private final DateFormat backupDirTimestampFormat;
     private final CharSequence backupTempDirName;
     private final int backupMkdirMode;
@@ -202,6 +226,9 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int o3PurgeDiscoveryQueueCapacity;
     private final int o3PurgeQueueCapacity;
     private final int o3ColumnMemorySize;
+    private final int o3CommitLagMaxPartitions;
+    private final boolean partitionCompressionEnabled;
+    private final boolean partitionStatsEnabled;
     private final int maxUncommittedRows;
     private final long commitLag;
     private final long instanceHashLo;
@@ -271,6 +298,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int pgNetEventCapacity;
     private int pgNetIOQueueCapacity;
     private long pgNetIdleConnectionTimeout;
+    private long pgNetHeartbeatInterval;
     private long pgNetQueuedConnectionTimeout;
     private int pgNetInterestQueueCapacity;
     private int pgNetListenBacklog;
@@ -299,6 +327,9 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int pgInsertCacheBlockCount;
     private int pgInsertCacheRowCount;
     private int pgInsertPoolCapacity;
+    private long pgInsertGroupCommitInterval;
+    private int pgInsertGroupCommitRowCount;
+    private long pgNamedPortalIdleTimeout;
     private int pgNamedStatementCacheCapacity;
     private int pgNamesStatementPoolCapacity;
     private int pgPendingWritersCacheCapacity;
@@ -350,6 +381,12 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int httpMinRcvBufSize;
     private int httpMinSndBufSize;
     private final int latestByQueueCapacity;
+    private final int pageFrameFilterQueueCapacity;
+    private final int partitionCompressionQueueCapacity;
+    private final DecodedColumnCache decodedColumnCache = new DecodedColumnCache();
+    private final int sampleByQueueCapacity;
+    private final int radixSortQueueCapacity;
+    private final int hashJoinQueueCapacity;
     private final int sampleByIndexSearchPageSize;
     private final int binaryEncodingMaxLength;
     private final long writerDataIndexKeyAppendPageSize;
@@ -526,6 +563,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.pgNetEventCapacity = getInt(properties, env, "pg.net.event.capacity", 1024);
                 this.pgNetIOQueueCapacity = getInt(properties, env, "pg.net.io.queue.capacity", 1024);
                 this.pgNetIdleConnectionTimeout = getLong(properties, env, "pg.net.idle.timeout", 300_000);
+                this.pgNetHeartbeatInterval = getLong(properties, env, "pg.net.heartbeat.interval", 10_000);
                 this.pgNetQueuedConnectionTimeout = getLong(properties, env, "pg.net.idle.timeout", 5_000);
                 this.pgNetInterestQueueCapacity = getInt(properties, env, "pg.net.interest.queue.capacity", 1024);
                 this.pgNetListenBacklog = getInt(properties, env, "pg.net.listen.backlog", 50_000);
@@ -559,6 +597,9 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.pgInsertCacheBlockCount = getInt(properties, env, "pg.insert.cache.block.count", 8);
                 this.pgInsertCacheRowCount = getInt(properties, env, "pg.insert.cache.row.count", 8);
                 this.pgInsertPoolCapacity = getInt(properties, env, "pg.insert.pool.capacity", 64);
+                this.pgInsertGroupCommitInterval = getLong(properties, env, "pg.insert.group.commit.interval", 0) * 1_000;
+                this.pgInsertGroupCommitRowCount = getInt(properties, env, "pg.insert.group.commit.row.count", 1000);
+                this.pgNamedPortalIdleTimeout = getLong(properties, env, "pg.named.portal.idle.timeout", 300_000);
                 this.pgNamedStatementCacheCapacity = getInt(properties, env, "pg.named.statement.cache.capacity", 32);
                 this.pgNamesStatementPoolCapacity = getInt(properties, env, "pg.named.statement.pool.capacity", 32);
                 this.pgPendingWritersCacheCapacity = getInt(properties, env, "pg.pending.writers.cache.capacity", 16);
@@ -577,6 +618,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.maxSwapFileCount = getInt(properties, env, "cairo.max.swap.file.count", 30);
             this.parallelIndexThreshold = getInt(properties, env, "cairo.parallel.index.threshold", 100000);
             this.readerPoolMaxSegments = getInt(properties, env, "cairo.reader.pool.max.segments", 5);
+            this.readerPoolRefreshInterval = getLong(properties, env, "cairo.reader.pool.refresh.interval", 100);
             this.spinLockTimeoutUs = getLong(properties, env, "cairo.spin.lock.timeout", 1_000_000);
             this.sqlCacheRows = getInt(properties, env, "cairo.cache.rows", 16);
             this.sqlCacheBlocks = getIntSize(properties, env, "cairo.cache.blocks", 4);
@@ -606,6 +648,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlSortValueMaxPages = getIntSize(properties, env, "cairo.sql.sort.value.max.pages", Integer.MAX_VALUE);
             this.workStealTimeoutNanos = getLong(properties, env, "cairo.work.steal.timeout.nanos", 10_000);
             this.parallelIndexingEnabled = getBoolean(properties, env, "cairo.parallel.indexing.enabled", true);
+            this.sqlParallelFilterEnabled = getBoolean(properties, env, "cairo.sql.parallel.filter.enabled", true);
+            this.sqlParallelSampleByEnabled = getBoolean(properties, env, "cairo.sql.parallel.sample.by.enabled", true);
+            this.sqlRadixSortEnabled = getBoolean(properties, env, "cairo.sql.radix.sort.enabled", true);
+            this.sqlParallelHashJoinEnabled = getBoolean(properties, env, "cairo.sql.parallel.hash.join.enabled", true);
+            this.sqlJitFilterEnabled = getBoolean(properties, env, "cairo.sql.jit.filter.enabled", true);
+            this.walEnabled = getBoolean(properties, env, "cairo.wal.enabled", false);
+            this.walBufferSize = getIntSize(properties, env, "cairo.wal.buffer.size", 1024 * 1024);
+            this.sqlPageFrameMaxRows = getInt(properties, env, "cairo.sql.page.frame.max.rows", 1_000_000);
+            this.sqlParallelQueryLimit = getInt(properties, env, "cairo.sql.parallel.query.limit", 0);
+            this.sqlParallelQueryTaskLimit = getInt(properties, env, "cairo.sql.parallel.query.task.limit", 0);
             this.sqlJoinMetadataPageSize = getIntSize(properties, env, "cairo.sql.join.metadata.page.size", 16384);
             this.sqlJoinMetadataMaxResizes = getIntSize(properties, env, "cairo.sql.join.metadata.max.resizes", Integer.MAX_VALUE);
             this.sqlAnalyticColumnPoolCapacity = getInt(properties, env, "cairo.sql.analytic.column.pool.capacity", 64);
@@ -616,6 +668,9 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlInsertModelPoolCapacity = getInt(properties, env, "cairo.sql.insert.model.pool.capacity", 64);
             this.sqlCopyModelPoolCapacity = getInt(properties, env, "cairo.sql.copy.model.pool.capacity", 32);
             this.sqlCopyBufferSize = getIntSize(properties, env, "cairo.sql.copy.buffer.size", 2 * 1024 * 1024);
+            this.sqlCopyChunkSize = getLongSize(properties, env, "cairo.sql.copy.chunk.size", 64 * 1024 * 1024);
+            this.sqlCopyQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.sql.copy.queue.capacity", 32));
+            this.sqlParallelCopyEnabled = getBoolean(properties, env, "cairo.sql.parallel.copy.enabled", true);
 
             this.writerDataIndexKeyAppendPageSize = Files.ceilPageSize(getLongSize(properties, env, "cairo.writer.data.index.key.append.page.size", 512 * 1024));
             this.writerDataIndexValueAppendPageSize = Files.ceilPageSize(getLongSize(properties, env, "cairo.writer.data.index.value.append.page.size", 16 * 1024 * 1024));
@@ -654,6 +709,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.backupDirTimestampFormat = getTimestampFormat(properties, env);
             this.backupTempDirName = getString(properties, env, "cairo.sql.backup.dir.tmp.name", "tmp");
             this.backupMkdirMode = getInt(properties, env, "cairo.sql.backup.mkdir.mode", 509);
+            this.sqlSpillRoot = getString(properties, env, "cairo.sql.spill.root", null);
+            this.sqlSpillMaxSize = getLongSize(properties, env, "cairo.sql.spill.max.size", 16L * 1024 * 1024 * 1024);
             this.tableBlockWriterQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.table.block.writer.queue.capacity", 256));
             this.columnIndexerQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.column.indexer.queue.capacity", 64));
             this.vectorAggregateQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.vector.aggregate.queue.capacity", 128));
@@ -668,6 +725,10 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.maxUncommittedRows = getInt(properties, env, "cairo.max.uncommitted.rows", 500_000);
             this.commitLag = getLong(properties, env, "cairo.commit.lag", 300_000) * 1_000;
             this.o3QuickSortEnabled = getBoolean(properties, env, "cairo.o3.quicksort.enabled", false);
+            this.o3CommitLagMaxPartitions = getInt(properties, env, "cairo.o3.commit.lag.max.partitions", 0);
+            this.partitionCompressionEnabled = getBoolean(properties, env, "cairo.partition.compression.enabled", false);
+            this.partitionCompressionQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.partition.compression.queue.capacity", 64));
+            this.partitionStatsEnabled = getBoolean(properties, env, "cairo.partition.stats.enabled", false);
             this.sqlAnalyticStorePageSize = Numbers.ceilPow2(getIntSize(properties, env, "cairo.sql.analytic.store.page.size", 1024 * 1024));
             this.sqlAnalyticStoreMaxPages = Numbers.ceilPow2(getIntSize(properties, env, "cairo.sql.analytic.store.max.pages", Integer.MAX_VALUE));
             this.sqlAnalyticRowIdPageSize = Numbers.ceilPow2(getIntSize(properties, env, "cairo.sql.analytic.rowid.page.size", 512 * 1024));
@@ -676,6 +737,10 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlAnalyticTreeKeyMaxPages = Numbers.ceilPow2(getInt(properties, env, "cairo.sql.analytic.tree.max.pages", Integer.MAX_VALUE));
             this.sqlTxnScoreboardEntryCount = Numbers.ceilPow2(getInt(properties, env, "cairo.o3.txn.scoreboard.entry.count", 16384));
             this.latestByQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.latestby.queue.capacity", 32));
+            this.pageFrameFilterQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.page.frame.filter.queue.capacity", 64));
+            this.sampleByQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.sample.by.queue.capacity", 64));
+            this.radixSortQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.radix.sort.queue.capacity", 64));
+            this.hashJoinQueueCapacity = Numbers.ceilPow2(getInt(properties, env, "cairo.hash.join.queue.capacity", 64));
             this.telemetryEnabled = getBoolean(properties, env, "telemetry.enabled", true);
             this.telemetryDisableCompletely = getBoolean(properties, env, "telemetry.disable.completely", false);
             this.telemetryQueueCapacity = getInt(properties, env, "telemetry.queue.capacity", 512);
@@ -760,11 +825,20 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.minIdleMsBeforeWriterRelease = getLong(properties, env, "line.tcp.min.idle.ms.before.writer.release", 10_000);
             }
 
+            this.queryWorkerCount = getInt(properties, env, "query.worker.count", 0);
+            cpuUsed += this.queryWorkerCount;
+            this.queryWorkerAffinity = getAffinity(properties, env, "query.worker.affinity", queryWorkerCount);
+            this.queryWorkerHaltOnError = getBoolean(properties, env, "query.worker.haltOnError", false);
+            this.queryWorkerYieldThreshold = getLong(properties, env, "query.worker.yield.threshold", 10);
+            this.queryWorkerSleepThreshold = getLong(properties, env, "query.worker.sleep.threshold", 10000);
+
             this.sharedWorkerCount = getInt(properties, env, "shared.worker.count", Math.max(1, (cpuAvailable - 1) / 2 - cpuUsed));
             this.sharedWorkerAffinity = getAffinity(properties, env, "shared.worker.affinity", sharedWorkerCount);
             this.sharedWorkerHaltOnError = getBoolean(properties, env, "shared.worker.haltOnError", false);
             this.sharedWorkerYieldThreshold = getLong(properties, env, "shared.worker.yield.threshold", 10);
             this.sharedWorkerSleepThreshold = getLong(properties, env, "shared.worker.sleep.threshold", 10000);
+            this.sharedWorkerSleepTimeout = getLong(properties, env, "shared.worker.sleep.timeout", 1);
+            this.sharedWorkerEventDriven = getBoolean(properties, env, "shared.worker.event.driven", false);
 
             this.metricsEnabled = getBoolean(properties, env, "metrics.enabled", false);
 
@@ -828,6 +902,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         return workerPoolConfiguration;
     }
 
+    @Override
+    public WorkerPoolConfiguration getQueryWorkerPoolConfiguration() {
+        return queryWorkerPoolConfiguration;
+    }
+
     @Override
     public PGWireConfiguration getPGWireConfiguration() {
         return pgWireConfiguration;
@@ -1504,6 +1583,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlCopyBufferSize;
         }
 
+        @Override
+        public long getSqlCopyChunkSize() {
+            return sqlCopyChunkSize;
+        }
+
+        @Override
+        public int getSqlCopyQueueCapacity() {
+            return sqlCopyQueueCapacity;
+        }
+
         @Override
         public int getCopyPoolCapacity() {
             return sqlCopyModelPoolCapacity;
@@ -1589,16 +1678,46 @@ public class PropServerConfiguration implements ServerConfiguration {
             return mkdirMode;
         }
 
+        @Override
+        public int getPageFrameFilterQueueCapacity() {
+            return pageFrameFilterQueueCapacity;
+        }
+
+        @Override
+        public int getHashJoinQueueCapacity() {
+            return hashJoinQueueCapacity;
+        }
+
         @Override
         public int getParallelIndexThreshold() {
             return parallelIndexThreshold;
         }
 
+        @Override
+        public int getPartitionCompressionQueueCapacity() {
+            return partitionCompressionQueueCapacity;
+        }
+
+        @Override
+        public int getRadixSortQueueCapacity() {
+            return radixSortQueueCapacity;
+        }
+
+        @Override
+        public int getSampleByQueueCapacity() {
+            return sampleByQueueCapacity;
+        }
+
         @Override
         public int getReaderPoolMaxSegments() {
             return readerPoolMaxSegments;
         }
 
+        @Override
+        public long getReaderPoolRefreshInterval() {
+            return readerPoolRefreshInterval;
+        }
+
         @Override
         public CharSequence getRoot() {
             return root;
@@ -1719,6 +1838,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlModelPoolCapacity;
         }
 
+        @Override
+        public int getSqlPageFrameMaxRows() {
+            return sqlPageFrameMaxRows;
+        }
+
+        @Override
+        public int getSqlParallelQueryLimit() {
+            return sqlParallelQueryLimit;
+        }
+
+        @Override
+        public int getSqlParallelQueryTaskLimit() {
+            return sqlParallelQueryTaskLimit;
+        }
+
         @Override
         public long getSqlSortKeyPageSize() {
             return sqlSortKeyPageSize;
@@ -1799,6 +1933,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlSortValuePageSize;
         }
 
+        @Override
+        public long getSqlSpillMaxSize() {
+            return sqlSpillMaxSize;
+        }
+
+        @Override
+        public CharSequence getSqlSpillRoot() {
+            return sqlSpillRoot;
+        }
+
         @Override
         public int getSqlSortValueMaxPages() {
             return sqlSortValueMaxPages;
@@ -1819,6 +1963,46 @@ public class PropServerConfiguration implements ServerConfiguration {
             return parallelIndexingEnabled;
         }
 
+        @Override
+        public boolean isSqlParallelFilterEnabled() {
+            return sqlParallelFilterEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelCopyEnabled() {
+            return sqlParallelCopyEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelHashJoinEnabled() {
+            return sqlParallelHashJoinEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelSampleByEnabled() {
+            return sqlParallelSampleByEnabled;
+        }
+
+        @Override
+        public boolean isSqlRadixSortEnabled() {
+            return sqlRadixSortEnabled;
+        }
+
+        @Override
+        public boolean isSqlJitFilterEnabled() {
+            return sqlJitFilterEnabled;
+        }
+
+        @Override
+        public boolean isWalEnabled() {
+            return walEnabled;
+        }
+
+        @Override
+        public int getWalBufferSize() {
+            return walBufferSize;
+        }
+
         @Override
         public int getSqlJoinMetadataPageSize() {
             return sqlJoinMetadataPageSize;
@@ -1934,6 +2118,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return o3OpenColumnQueueCapacity;
         }
 
+        @Override
+        public int getO3CommitLagMaxPartitions() {
+            return o3CommitLagMaxPartitions;
+        }
+
         @Override
         public int getO3CopyQueueCapacity() {
             return o3CopyQueueCapacity;
@@ -1959,6 +2148,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return instanceHashLo;
         }
 
+        @Override
+        public DecodedColumnCache getDecodedColumnCache() {
+            return decodedColumnCache;
+        }
+
         @Override
         public int getTxnScoreboardEntryCount() {
             return sqlTxnScoreboardEntryCount;
@@ -1974,6 +2168,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return commitLag;
         }
 
+        @Override
+        public boolean isPartitionCompressionEnabled() {
+            return partitionCompressionEnabled;
+        }
+
+        @Override
+        public boolean isPartitionStatsEnabled() {
+            return partitionStatsEnabled;
+        }
+
         @Override
         public boolean isO3QuickSortEnabled() {
             return o3QuickSortEnabled;
@@ -2286,6 +2490,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return MicrosecondClockImpl.INSTANCE;
         }
 
+        @Override
+        public NanosecondClock getNanosecondClock() {
+            return NanosecondClockImpl.INSTANCE;
+        }
+
         @Override
         public MillisecondClock getMillisecondClock() {
             return MillisecondClockImpl.INSTANCE;
@@ -2409,6 +2618,58 @@ public class PropServerConfiguration implements ServerConfiguration {
         public long getSleepThreshold() {
             return sharedWorkerSleepThreshold;
         }
+
+        @Override
+        public long getSleepTimeout() {
+            return sharedWorkerSleepTimeout;
+        }
+
+        @Override
+        public boolean isEventDriven() {
+            return sharedWorkerEventDriven;
+        }
+    }
+
+    private class PropQueryWorkerPoolConfiguration implements WorkerPoolConfiguration {
+        @Override
+        public int[] getWorkerAffinity() {
+            return queryWorkerAffinity;
+        }
+
+        @Override
+        public int getWorkerCount() {
+            return queryWorkerCount;
+        }
+
+        @Override
+        public boolean haltOnError() {
+            return queryWorkerHaltOnError;
+        }
+
+        @Override
+        public String getPoolName() {
+            return "query";
+        }
+
+        @Override
+        public long getYieldThreshold() {
+            return queryWorkerYieldThreshold;
+        }
+
+        @Override
+        public long getSleepThreshold() {
+            return queryWorkerSleepThreshold;
+        }
+
+        @Override
+        public long getSleepTimeout() {
+            return sharedWorkerSleepTimeout;
+        }
+
+        @Override
+        public boolean isEventDriven() {
+            return sharedWorkerEventDriven;
+        }
     }
 
     private class PropWaitProcessorConfiguration implements WaitProcessorConfiguration {
@@ -2481,6 +2742,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return pgNetIOQueueCapacity;
         }
 
+        @Override
+        public long getHeartbeatInterval() {
+            return pgNetHeartbeatInterval;
+        }
+
         @Override
         public long getIdleConnectionTimeout() {
             return pgNetIdleConnectionTimeout;
@@ -2594,6 +2860,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return pgInsertCacheRowCount;
         }
 
+        @Override
+        public long getInsertGroupCommitInterval() {
+            return pgInsertGroupCommitInterval;
+        }
+
+        @Override
+        public int getInsertGroupCommitRowCount() {
+            return pgInsertGroupCommitRowCount;
+        }
+
         @Override
         public int getInsertPoolCapacity() {
             return pgInsertPoolCapacity;
@@ -2604,6 +2880,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return pgMaxBlobSizeOnQuery;
         }
 
+        @Override
+        public long getNamedPortalIdleTimeout() {
+            return pgNamedPortalIdleTimeout;
+        }
+
         @Override
         public int getNamedStatementCacheCapacity() {
             return pgNamedStatementCacheCapacity;
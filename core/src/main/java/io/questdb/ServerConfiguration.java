@@ -47,6 +47,12 @@ public interface ServerConfiguration {
 
     WorkerPoolConfiguration getWorkerPoolConfiguration();
 
+    /**
+     * @return configuration of the pool that runs parallel query jobs, when its worker count
+     * is zero the jobs run on the shared pool
+     */
+    WorkerPoolConfiguration getQueryWorkerPoolConfiguration();
+
     PGWireConfiguration getPGWireConfiguration();
 
     MetricsConfiguration getMetricsConfiguration();
@@ -128,6 +128,11 @@ public class ServerMain {
         }
 
         final WorkerPool workerPool = new WorkerPool(configuration.getWorkerPoolConfiguration());
+        // query jobs run on their own pool when one is configured, so that heavy queries
+        // do not take workers away from O3 and indexing jobs on the shared pool
+        final WorkerPool queryWorkerPool = configuration.getQueryWorkerPoolConfiguration().getWorkerCount() > 0
+                ? new WorkerPool(configuration.getQueryWorkerPoolConfiguration())
+                : null;
         final FunctionFactoryCache functionFactoryCache = new FunctionFactoryCache(
                 configuration.getCairoConfiguration(),
                 ServiceLoader.load(FunctionFactory.class, FunctionFactory.class.getClassLoader())
@@ -136,7 +141,10 @@ public class ServerMain {
 
         LogFactory.configureFromSystemProperties(workerPool);
         final CairoEngine cairoEngine = new CairoEngine(configuration.getCairoConfiguration());
+        workerPool.assignWaitStrategy(cairoEngine.getMessageBus().getWorkerWaitStrategy());
         workerPool.assign(cairoEngine.getWriterMaintenanceJob());
+        workerPool.assign(cairoEngine.getReaderRefreshJob());
+        workerPool.assign(cairoEngine.getApplyWalJob());
         instancesToClean.add(cairoEngine);
 
         if (!configuration.getCairoConfiguration().getTelemetryConfiguration().getDisableCompletely()) {
@@ -155,8 +163,18 @@ public class ServerMain {
         workerPool.assign(new O3CopyJob(cairoEngine.getMessageBus()));
         workerPool.assign(new O3PurgeDiscoveryJob(cairoEngine.getMessageBus(), workerPool.getWorkerCount()));
         workerPool.assign(new O3PurgeJob(cairoEngine.getMessageBus()));
+        workerPool.assign(new PartitionCompressJob(cairoEngine.getMessageBus()));
         O3Utils.initBuf(workerPool.getWorkerCount() + 1);
 
+        // query jobs are assigned before http server is created, which would otherwise assign them to its own pool
+        if (queryWorkerPool != null) {
+            cairoEngine.assignQueryJobs(queryWorkerPool);
+            queryWorkerPool.assignWaitStrategy(cairoEngine.getMessageBus().getQueryWorkerWaitStrategy());
+            queryWorkerPool.assignCleaner(Path.CLEANER);
+        } else {
+            cairoEngine.assignQueryJobs(workerPool);
+        }
+
         Metrics metrics;
         if (configuration.getMetricsConfiguration().isEnabled()) {
             metrics = Metrics.enabled();
@@ -205,6 +223,9 @@ public class ServerMain {
             ));
 
             startQuestDb(workerPool, cairoEngine, log);
+            if (queryWorkerPool != null) {
+                queryWorkerPool.start(log);
+            }
             if (configuration.getHttpServerConfiguration().isEnabled()) {
                 logWebConsoleUrls(log, configuration);
             }
@@ -219,6 +240,9 @@ public class ServerMain {
 
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 System.err.println(new Date() + " QuestDB is shutting down");
+                if (queryWorkerPool != null) {
+                    queryWorkerPool.halt();
+                }
                 shutdownQuestDb(workerPool, instancesToClean);
                 System.err.println(new Date() + " QuestDB is down");
             }));
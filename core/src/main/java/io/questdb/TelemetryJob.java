@@ -146,6 +146,11 @@ public class TelemetryJob extends SynchronizedJob implements Closeable {
         configWriter = Misc.free(configWriter);
     }
 
+    @Override
+    public int getPriority() {
+        return PRIORITY_LOW;
+    }
+
     @Override
     public boolean runSerially() {
         if (enabled) {
@@ -0,0 +1,352 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryMR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.std.*;
+import io.questdb.std.str.NativeLPSZ;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays committed {@link WalWriter} segments into tables. Tables are applied when WAL writer notifies
+ * commit and, once after start, for every table that has WAL directory. When table writer is busy,
+ * the table is retried on the next run.
+ * <p>
+ * Segment is removed after table writer commits its rows. Should the process stop between the two,
+ * segment is applied again on restart, i.e. delivery is at-least-once.
+ * <p>
+ * Segment that table writer rejects is renamed to have {@link #FAILED_SEGMENT_FILE_EXT} extension, so that
+ * subsequent segments of the table can still be applied. Rejected segments are kept on disk for inspection
+ * and counted by {@link #getFailedSegmentCount()}. Segments that fail because of I/O error are retried.
+ */
+public class ApplyWalJob extends SynchronizedJob implements Closeable {
+    private static final Log LOG = LogFactory.getLog(ApplyWalJob.class);
+    static final CharSequence FAILED_SEGMENT_FILE_EXT = ".failed";
+    private static final CharSequence LOCK_REASON = "walApply";
+    private final CairoEngine engine;
+    private final FilesFacade ff;
+    private final CharSequence root;
+    private final ConcurrentHashMap<Boolean> pendingTables = new ConcurrentHashMap<>();
+    private final AtomicLong segmentSequence;
+    private final AtomicLong failedSegmentCount = new AtomicLong();
+    private final LongList segmentIds = new LongList();
+    private final IntList columnIndexes = new IntList();
+    private final Path path = new Path();
+    private final Path other = new Path();
+    private final NativeLPSZ nativeLPSZ = new NativeLPSZ();
+    private final MemoryMR segmentMem = Vm.getMRInstance();
+    private final FindVisitor onFindTable = this::onFindTable;
+    private final FindVisitor onFindSegment = this::onFindSegment;
+    private boolean recovered = false;
+
+    public ApplyWalJob(CairoEngine engine) {
+        final CairoConfiguration configuration = engine.getConfiguration();
+        this.engine = engine;
+        this.ff = configuration.getFilesFacade();
+        this.root = configuration.getRoot();
+        this.segmentSequence = new AtomicLong(configuration.getMicrosecondClock().getTicks());
+    }
+
+    @Override
+    public int getPriority() {
+        return PRIORITY_HIGH;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(path);
+        Misc.free(other);
+        Misc.free(segmentMem);
+    }
+
+    public long getFailedSegmentCount() {
+        return failedSegmentCount.get();
+    }
+
+    public long nextSegmentId() {
+        return segmentSequence.incrementAndGet();
+    }
+
+    public void notifyCommitted(String tableName) {
+        pendingTables.put(tableName, Boolean.TRUE);
+    }
+
+    private static long applyValue(MemoryMR mem, long offset, byte op, TableWriter.Row row, int columnIndex) {
+        switch (op) {
+            case WalWriter.OP_BIN:
+                if (columnIndex > -1) {
+                    row.putBin(columnIndex, mem.getBin(offset));
+                }
+                return offset + Long.BYTES + Math.max(0, mem.getBinLen(offset));
+            case WalWriter.OP_BOOL:
+                if (columnIndex > -1) {
+                    row.putBool(columnIndex, mem.getBool(offset));
+                }
+                return offset + Byte.BYTES;
+            case WalWriter.OP_BYTE:
+                if (columnIndex > -1) {
+                    row.putByte(columnIndex, mem.getByte(offset));
+                }
+                return offset + Byte.BYTES;
+            case WalWriter.OP_CHAR:
+                if (columnIndex > -1) {
+                    row.putChar(columnIndex, mem.getChar(offset));
+                }
+                return offset + Character.BYTES;
+            case WalWriter.OP_DATE:
+                if (columnIndex > -1) {
+                    row.putDate(columnIndex, mem.getLong(offset));
+                }
+                return offset + Long.BYTES;
+            case WalWriter.OP_DOUBLE:
+                if (columnIndex > -1) {
+                    row.putDouble(columnIndex, mem.getDouble(offset));
+                }
+                return offset + Double.BYTES;
+            case WalWriter.OP_FLOAT:
+                if (columnIndex > -1) {
+                    row.putFloat(columnIndex, mem.getFloat(offset));
+                }
+                return offset + Float.BYTES;
+            case WalWriter.OP_GEOHASH:
+                if (columnIndex > -1) {
+                    row.putGeoHash(columnIndex, mem.getLong(offset));
+                }
+                return offset + Long.BYTES;
+            case WalWriter.OP_GEOHASH_DEG:
+                if (columnIndex > -1) {
+                    row.putGeoHashDeg(columnIndex, mem.getDouble(offset), mem.getDouble(offset + Double.BYTES));
+                }
+                return offset + 2 * Double.BYTES;
+            case WalWriter.OP_INT:
+                if (columnIndex > -1) {
+                    row.putInt(columnIndex, mem.getInt(offset));
+                }
+                return offset + Integer.BYTES;
+            case WalWriter.OP_LONG:
+                if (columnIndex > -1) {
+                    row.putLong(columnIndex, mem.getLong(offset));
+                }
+                return offset + Long.BYTES;
+            case WalWriter.OP_LONG256:
+                if (columnIndex > -1) {
+                    row.putLong256(
+                            columnIndex,
+                            mem.getLong(offset),
+                            mem.getLong(offset + Long.BYTES),
+                            mem.getLong(offset + 2 * Long.BYTES),
+                            mem.getLong(offset + 3 * Long.BYTES)
+                    );
+                }
+                return offset + Long256.BYTES;
+            case WalWriter.OP_SHORT:
+                if (columnIndex > -1) {
+                    row.putShort(columnIndex, mem.getShort(offset));
+                }
+                return offset + Short.BYTES;
+            case WalWriter.OP_TIMESTAMP:
+                if (columnIndex > -1) {
+                    row.putTimestamp(columnIndex, mem.getLong(offset));
+                }
+                return offset + Long.BYTES;
+            default:
+                final CharSequence value = mem.getStr(offset);
+                if (columnIndex > -1) {
+                    applyStr(op, value, row, columnIndex);
+                }
+                return offset + Vm.getStorageLength(value);
+        }
+    }
+
+    private static void applyStr(byte op, CharSequence value, TableWriter.Row row, int columnIndex) {
+        switch (op) {
+            case WalWriter.OP_GEO_STR:
+                row.putGeoStr(columnIndex, value);
+                break;
+            case WalWriter.OP_STR:
+                row.putStr(columnIndex, value);
+                break;
+            case WalWriter.OP_SYM:
+                row.putSym(columnIndex, value);
+                break;
+            default:
+                throw CairoException.instance(0).put("unknown WAL operation [op=").put(op).put(']');
+        }
+    }
+
+    private boolean applyTable(String tableName) {
+        path.of(root).concat(tableName).concat(WalWriter.WAL_DIR_NAME).slash$();
+        final int rootLen = path.length();
+        segmentIds.clear();
+        ff.iterateDir(path, onFindSegment);
+        if (segmentIds.size() == 0) {
+            return false;
+        }
+        // segment ids follow commit order
+        segmentIds.sort();
+
+        final TableWriter writer;
+        try {
+            writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, tableName, LOCK_REASON);
+        } catch (EntryUnavailableException e) {
+            // try again later
+            pendingTables.put(tableName, Boolean.TRUE);
+            return false;
+        } catch (CairoException e) {
+            LOG.error().$("could not open writer [table=").$(tableName)
+                    .$(", ex=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+            return false;
+        }
+
+        try {
+            for (int i = 0, n = segmentIds.size(); i < n; i++) {
+                WalWriter.segmentFileName(path.trimTo(rootLen), segmentIds.getQuick(i)).$();
+                try {
+                    replaySegment(writer);
+                    writer.commit();
+                } catch (CairoException e) {
+                    LOG.error().$("could not apply WAL segment [path=").$(path)
+                            .$(", ex=").$(e.getFlyweightMessage())
+                            .$(", errno=").$(e.getErrno())
+                            .I$();
+                    writer.rollback();
+                    if (e.getErrno() != 0) {
+                        // I/O error, leave this and subsequent segments to be retried
+                        pendingTables.put(tableName, Boolean.TRUE);
+                        return false;
+                    }
+                    // rows are rejected by table writer, retrying would fail the same way and block
+                    // subsequent segments
+                    quarantineSegment();
+                    continue;
+                }
+                if (!ff.remove(path)) {
+                    // segment would be applied again
+                    LOG.error().$("could not remove applied WAL segment [path=").$(path).$(", errno=").$(ff.errno()).I$();
+                }
+            }
+            LOG.info().$("applied WAL [table=").$(tableName).$(", segments=").$(segmentIds.size()).I$();
+        } finally {
+            writer.close();
+        }
+        return true;
+    }
+
+    private void quarantineSegment() {
+        failedSegmentCount.incrementAndGet();
+        other.of(path).put(FAILED_SEGMENT_FILE_EXT).$();
+        if (ff.rename(path, other)) {
+            LOG.error().$("WAL segment is not applied, renamed [from=").$(path).$(", to=").$(other).I$();
+        } else {
+            // segment would be applied again
+            LOG.error().$("could not rename failed WAL segment [from=").$(path).$(", to=").$(other).$(", errno=").$(ff.errno()).I$();
+        }
+    }
+
+    private void onFindSegment(long name, int type) {
+        nativeLPSZ.of(name);
+        if (type != Files.DT_DIR && Chars.endsWith(nativeLPSZ, WalWriter.SEGMENT_FILE_EXT)) {
+            try {
+                segmentIds.add(Numbers.parseLong(nativeLPSZ, 0, nativeLPSZ.length() - WalWriter.SEGMENT_FILE_EXT.length()));
+            } catch (NumericException ignore) {
+                // not a segment
+            }
+        }
+    }
+
+    private void onFindTable(long name, int type) {
+        nativeLPSZ.of(name);
+        if (type == Files.DT_DIR && nativeLPSZ.charAt(0) != '.') {
+            final String tableName = Chars.toString(nativeLPSZ);
+            if (ff.exists(path.of(root).concat(tableName).concat(WalWriter.WAL_DIR_NAME).$())) {
+                pendingTables.put(tableName, Boolean.TRUE);
+            }
+        }
+    }
+
+    private void replaySegment(TableWriter writer) {
+        final long size = ff.length(path);
+        segmentMem.of(ff, path, size, size, MemoryTag.MMAP_DEFAULT);
+        try {
+            // map segment columns to current table columns by name and type
+            final TableWriterMetadata metadata = writer.getMetadata();
+            long offset = 0;
+            final int columnCount = segmentMem.getInt(offset);
+            offset += Integer.BYTES;
+            columnIndexes.clear();
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = segmentMem.getInt(offset);
+                offset += Integer.BYTES;
+                final CharSequence columnName = segmentMem.getStr(offset);
+                offset += Vm.getStorageLength(columnName);
+                final int columnIndex = metadata.getColumnIndexQuiet(columnName);
+                columnIndexes.add(columnIndex > -1 && metadata.getColumnType(columnIndex) == columnType ? columnIndex : -1);
+            }
+
+            while (offset < size) {
+                final TableWriter.Row row = writer.newRow(segmentMem.getLong(offset));
+                offset += Long.BYTES;
+                int index;
+                while ((index = segmentMem.getInt(offset)) != WalWriter.END_OF_ROW) {
+                    final byte op = segmentMem.getByte(offset + Integer.BYTES);
+                    offset = applyValue(segmentMem, offset + Integer.BYTES + Byte.BYTES, op, row, columnIndexes.getQuick(index));
+                }
+                offset += Integer.BYTES;
+                row.append();
+            }
+        } finally {
+            segmentMem.close();
+        }
+    }
+
+    @Override
+    protected boolean runSerially() {
+        if (!recovered) {
+            recovered = true;
+            ff.iterateDir(path.of(root).$(), onFindTable);
+        }
+
+        if (pendingTables.isEmpty()) {
+            return false;
+        }
+
+        boolean useful = false;
+        for (CharSequence tableName : pendingTables.keySet()) {
+            pendingTables.remove(tableName);
+            useful |= applyTable((String) tableName);
+        }
+        return useful;
+    }
+}
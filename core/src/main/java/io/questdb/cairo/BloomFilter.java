@@ -0,0 +1,231 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.cairo;
+
+import io.questdb.std.*;
+
+import java.io.Closeable;
+
+/**
+ * Bloom filter of column values in a sealed partition. Equality predicate uses it to skip partition, which does not
+ * contain the value, without scanning column data. Filter is stored in ".bf" file next to column data:
+ * <pre>
+ * long row count | long bit count | long[bit count / 64] bits
+ * </pre>
+ * INT and LONG values are both hashed as LONG, so that filter agrees with SQL comparison of the two. STRING values
+ * are hashed by their chars, NULL strings are not added.
+ * <p>
+ * Row count must be equal to the partition size for filter to be used, same as for {@link ColumnStats}.
+ */
+public class BloomFilter implements Closeable {
+    // ~1% false positive rate
+    private static final int BITS_PER_VALUE = 10;
+    private static final int HASH_COUNT = 7;
+    private static final long MIN_BIT_COUNT = 64;
+    // 128MB per column partition, filter of larger partition has higher false positive rate
+    private static final long MAX_BIT_COUNT = 1L << 30;
+    private static final long OFFSET_ROW_COUNT = 0;
+    private static final long OFFSET_BIT_COUNT = 8;
+    private static final long OFFSET_BITS = 16;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private long addr;
+    private long capacity;
+    private long bitCount;
+    private long rowCount;
+
+    public static long hash(long value) {
+        // murmur3 finalizer
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    public static long hash(CharSequence value) {
+        return hash(value, 0, value.length());
+    }
+
+    public static long hash(CharSequence value, int lo, int hi) {
+        long h = FNV_OFFSET_BASIS;
+        for (int i = lo; i < hi; i++) {
+            h = (h ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return hash(h);
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.STRING:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Checks value hash against filter file.
+     *
+     * @param ff        files facade
+     * @param fd        descriptor of filter file
+     * @param rowCount  expected number of partition rows
+     * @param hash      value hash, see {@link #hash(long)} and {@link #hash(CharSequence)}
+     * @param tempMem8b 8 bytes of memory to read file into
+     * @return false when partition definitely does not contain the value
+     */
+    public static boolean mayContain(FilesFacade ff, long fd, long rowCount, long hash, long tempMem8b) {
+        if (readLong(ff, fd, OFFSET_ROW_COUNT, tempMem8b) != rowCount) {
+            return true;
+        }
+        final long bitCount = readLong(ff, fd, OFFSET_BIT_COUNT, tempMem8b);
+        if (bitCount < MIN_BIT_COUNT || (bitCount & (bitCount - 1)) != 0) {
+            return true;
+        }
+        for (int i = 0; i < HASH_COUNT; i++) {
+            final long bit = bitOf(hash, i, bitCount);
+            if (ff.read(fd, tempMem8b, Long.BYTES, OFFSET_BITS + ((bit >>> 6) << 3)) != Long.BYTES) {
+                return true;
+            }
+            if ((Unsafe.getUnsafe().getLong(tempMem8b) & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (addr != 0) {
+            Unsafe.free(addr, capacity, MemoryTag.NATIVE_DEFAULT);
+            addr = 0;
+            capacity = 0;
+        }
+    }
+
+    /**
+     * Builds filter of column values.
+     *
+     * @param columnType type of the column
+     * @param dataAddr   address of column data
+     * @param dataSize   size of column data in bytes
+     * @param valueCount number of values in column data
+     * @param columnTop  number of rows preceding column data, these rows are NULL
+     */
+    public void of(int columnType, long dataAddr, long dataSize, long valueCount, long columnTop) {
+        rowCount = columnTop + valueCount;
+        bitCount = Math.min(MAX_BIT_COUNT, Numbers.ceilPow2(Math.max(MIN_BIT_COUNT, rowCount * BITS_PER_VALUE)));
+        final long size = bitCount >>> 3;
+        if (size > capacity) {
+            addr = Unsafe.realloc(addr, capacity, size, MemoryTag.NATIVE_DEFAULT);
+            capacity = size;
+        }
+        Vect.memset(addr, size, 0);
+
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+                if (columnTop > 0) {
+                    add(hash(Numbers.INT_NaN));
+                }
+                for (long i = 0; i < valueCount; i++) {
+                    add(hash(Unsafe.getUnsafe().getInt(dataAddr + (i << 2))));
+                }
+                break;
+            case ColumnType.LONG:
+                if (columnTop > 0) {
+                    add(hash(Numbers.LONG_NaN));
+                }
+                for (long i = 0; i < valueCount; i++) {
+                    add(hash(Unsafe.getUnsafe().getLong(dataAddr + (i << 3))));
+                }
+                break;
+            default:
+                ofStrings(dataAddr, dataSize, valueCount);
+                break;
+        }
+    }
+
+    public void write(FilesFacade ff, long fd, long tempMem8b) {
+        writeLong(ff, fd, OFFSET_ROW_COUNT, rowCount, tempMem8b);
+        writeLong(ff, fd, OFFSET_BIT_COUNT, bitCount, tempMem8b);
+        final long size = bitCount >>> 3;
+        if (ff.write(fd, addr, size, OFFSET_BITS) != size) {
+            throw CairoException.instance(ff.errno()).put("could not write bloom filter [fd=").put(fd).put(']');
+        }
+    }
+
+    private static long bitOf(long hash, int i, long bitCount) {
+        // double hashing, second hash is odd to visit distinct bits
+        return (hash + i * (Long.rotateLeft(hash, 32) | 1)) & (bitCount - 1);
+    }
+
+    private static long readLong(FilesFacade ff, long fd, long offset, long tempMem8b) {
+        if (ff.read(fd, tempMem8b, Long.BYTES, offset) != Long.BYTES) {
+            return -1;
+        }
+        return Unsafe.getUnsafe().getLong(tempMem8b);
+    }
+
+    private static void writeLong(FilesFacade ff, long fd, long offset, long value, long tempMem8b) {
+        Unsafe.getUnsafe().putLong(tempMem8b, value);
+        if (ff.write(fd, tempMem8b, Long.BYTES, offset) != Long.BYTES) {
+            throw CairoException.instance(ff.errno()).put("could not write bloom filter [fd=").put(fd).put(']');
+        }
+    }
+
+    private void add(long hash) {
+        for (int i = 0; i < HASH_COUNT; i++) {
+            final long bit = bitOf(hash, i, bitCount);
+            final long p = addr + ((bit >>> 6) << 3);
+            Unsafe.getUnsafe().putLong(p, Unsafe.getUnsafe().getLong(p) | (1L << (bit & 63)));
+        }
+    }
+
+    private void ofStrings(long dataAddr, long dataSize, long valueCount) {
+        final long hi = dataAddr + dataSize;
+        long p = dataAddr;
+        for (long i = 0; i < valueCount; i++) {
+            if (p + Integer.BYTES > hi) {
+                throw CairoException.instance(0).put("string column is shorter than partition [size=").put(dataSize).put(']');
+            }
+            final int len = Unsafe.getUnsafe().getInt(p);
+            p += Integer.BYTES;
+            if (len == TableUtils.NULL_LEN) {
+                continue;
+            }
+            if (len < 0 || p + len * 2L > hi) {
+                throw CairoException.instance(0).put("string column is shorter than partition [size=").put(dataSize).put(']');
+            }
+            long h = FNV_OFFSET_BASIS;
+            for (int j = 0; j < len; j++) {
+                h = (h ^ Unsafe.getUnsafe().getChar(p + j * 2L)) * FNV_PRIME;
+            }
+            add(hash(h));
+            p += len * 2L;
+        }
+    }
+}
@@ -93,6 +93,11 @@ public interface CairoConfiguration {
 
     CharSequence getDbDirectory(); // env['cairo.root'], defaults to db
 
+    /**
+     * @return cache of decoded compressed columns, which is shared by table readers
+     */
+    DecodedColumnCache getDecodedColumnCache();
+
     DateLocale getDefaultDateLocale();
 
     CharSequence getDefaultMapType();
@@ -113,6 +118,8 @@ public interface CairoConfiguration {
 
     int getGroupByPoolCapacity();
 
+    int getHashJoinQueueCapacity();
+
     long getIdleCheckInterval();
 
     long getInactiveReaderTTL();
@@ -148,6 +155,8 @@ public interface CairoConfiguration {
 
     int getO3ColumnMemorySize();
 
+    int getO3CommitLagMaxPartitions();
+
     int getO3CopyQueueCapacity();
 
     int getO3OpenColumnQueueCapacity();
@@ -160,8 +169,16 @@ public interface CairoConfiguration {
 
     int getO3PurgeQueueCapacity();
 
+    int getPageFrameFilterQueueCapacity();
+
     int getParallelIndexThreshold();
 
+    int getPartitionCompressionQueueCapacity();
+
+    int getRadixSortQueueCapacity();
+
+    int getSampleByQueueCapacity();
+
     default Rnd getRandom() {
         Rnd rnd = RANDOM.get();
         if (rnd == null) {
@@ -175,6 +192,12 @@ public interface CairoConfiguration {
 
     int getReaderPoolMaxSegments();
 
+    /**
+     * Interval, in milliseconds, at which readers resting in the pool are reloaded in the background. Non-positive
+     * value disables background reload, readers are then reloaded by threads that take them out of the pool.
+     */
+    long getReaderPoolRefreshInterval();
+
     int getRenameTableModelPoolCapacity();
 
     CharSequence getRoot(); // some folder with suffix env['cairo.root'] e.g. /.../db
@@ -207,6 +230,10 @@ public interface CairoConfiguration {
 
     int getSqlCopyBufferSize();
 
+    long getSqlCopyChunkSize();
+
+    int getSqlCopyQueueCapacity();
+
     int getSqlDistinctTimestampKeyCapacity();
 
     double getSqlDistinctTimestampLoadFactor();
@@ -248,6 +275,12 @@ public interface CairoConfiguration {
 
     int getSqlModelPoolCapacity();
 
+    int getSqlPageFrameMaxRows();
+
+    int getSqlParallelQueryLimit();
+
+    int getSqlParallelQueryTaskLimit();
+
     int getSqlSortKeyMaxPages();
 
     long getSqlSortKeyPageSize();
@@ -260,6 +293,11 @@ public interface CairoConfiguration {
 
     int getSqlSortValuePageSize();
 
+    long getSqlSpillMaxSize();
+
+    // null disables spilling of SQL operator memory to disk
+    CharSequence getSqlSpillRoot();
+
     int getTableBlockWriterQueueCapacity();
 
     TelemetryConfiguration getTelemetryConfiguration();
@@ -276,5 +314,28 @@ public interface CairoConfiguration {
 
     boolean isO3QuickSortEnabled();
 
+    boolean isPartitionCompressionEnabled();
+
+    boolean isPartitionStatsEnabled();
+
     boolean isParallelIndexingEnabled();
+
+    boolean isSqlParallelFilterEnabled();
+
+    boolean isSqlParallelCopyEnabled();
+
+    boolean isSqlParallelHashJoinEnabled();
+
+    boolean isSqlParallelSampleByEnabled();
+
+    boolean isSqlRadixSortEnabled();
+
+    boolean isSqlJitFilterEnabled();
+
+    boolean isWalEnabled();
+
+    /**
+     * @return size of WAL writer's memory buffer, rows are written out to segment file whenever the buffer fills up
+     */
+    int getWalBufferSize();
 }
@@ -32,7 +32,14 @@ import io.questdb.cairo.pool.ReaderPool;
 import io.questdb.cairo.pool.WriterPool;
 import io.questdb.cairo.pool.WriterSource;
 import io.questdb.cairo.sql.ReaderOutOfDateException;
+import io.questdb.cairo.vm.MemoryCARWSpillImpl;
 import io.questdb.cairo.vm.api.MemoryMARW;
+import io.questdb.griffin.engine.groupby.SampleByJob;
+import io.questdb.griffin.engine.groupby.vect.GroupByJob;
+import io.questdb.griffin.engine.join.HashJoinJob;
+import io.questdb.griffin.engine.orderby.RadixSortJob;
+import io.questdb.griffin.engine.table.LatestByAllIndexedJob;
+import io.questdb.griffin.engine.table.PageFrameFilterJob;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.*;
@@ -52,7 +59,10 @@ public class CairoEngine implements Closeable, WriterSource {
     private final ReaderPool readerPool;
     private final CairoConfiguration configuration;
     private final WriterMaintenanceJob writerMaintenanceJob;
+    private final ReaderRefreshJob readerRefreshJob;
+    private final ApplyWalJob applyWalJob;
     private final MessageBus messageBus;
+    private final QueryAdmissionController queryAdmissionController;
     private final RingQueue<TelemetryTask> telemetryQueue;
     private final MPSequence telemetryPubSeq;
     private final SCSequence telemetrySubSeq;
@@ -61,13 +71,17 @@ public class CairoEngine implements Closeable, WriterSource {
     private final long tableIdMemSize;
     private long tableIdFd = -1;
     private long tableIdMem = 0;
+    private boolean queryJobsAssigned = false;
 
     public CairoEngine(CairoConfiguration configuration) {
         this.configuration = configuration;
         this.messageBus = new MessageBusImpl(configuration);
+        this.queryAdmissionController = new QueryAdmissionController(configuration);
         this.writerPool = new WriterPool(configuration, messageBus);
         this.readerPool = new ReaderPool(configuration);
         this.writerMaintenanceJob = new WriterMaintenanceJob(configuration);
+        this.readerRefreshJob = new ReaderRefreshJob(configuration);
+        this.applyWalJob = new ApplyWalJob(this);
         if (configuration.getTelemetryConfiguration().getEnabled()) {
             this.telemetryQueue = new RingQueue<>(TelemetryTask::new, configuration.getTelemetryConfiguration().getQueueCapacity());
             this.telemetryPubSeq = new MPSequence(telemetryQueue.getCycle());
@@ -84,6 +98,10 @@ public class CairoEngine implements Closeable, WriterSource {
         final FanOut fanOut = messageBus.getTableWriterCommandFanOut();
         fanOut.and(tableWriterCmdSubSeq = new MCSequence(fanOut.current(), tableWriterCmdQueue.getCycle()));
         openTableId();
+        final CharSequence spillRoot = configuration.getSqlSpillRoot();
+        if (spillRoot != null) {
+            MemoryCARWSpillImpl.removeStaleSpillFiles(configuration.getFilesFacade(), spillRoot);
+        }
         try {
             EngineMigration.migrateEngineTo(this, ColumnType.VERSION, false);
         } catch (Throwable e) {
@@ -100,6 +118,7 @@ public class CairoEngine implements Closeable, WriterSource {
 
     @Override
     public void close() {
+        Misc.free(applyWalJob);
         Misc.free(writerPool);
         Misc.free(readerPool);
         freeTableId();
@@ -171,6 +190,29 @@ public class CairoEngine implements Closeable, WriterSource {
         return new TableWriter(configuration, tableName, messageBus, null, true, DefaultLifecycleManager.INSTANCE, backupDirName);
     }
 
+    /**
+     * Assigns jobs that execute tasks of parallel queries to the pool and limits number of tasks
+     * each query can have in flight by the number of pool workers, unless the limit is configured
+     * explicitly. Query jobs are assigned to the first pool only, subsequent calls are ignored.
+     *
+     * @param pool worker pool that is going to execute query tasks
+     * @return true when jobs have been assigned to the pool
+     */
+    public synchronized boolean assignQueryJobs(WorkerPool pool) {
+        if (queryJobsAssigned) {
+            return false;
+        }
+        pool.assign(new GroupByJob(messageBus));
+        pool.assign(new HashJoinJob(messageBus));
+        pool.assign(new LatestByAllIndexedJob(messageBus));
+        pool.assign(new PageFrameFilterJob(messageBus));
+        pool.assign(new RadixSortJob(messageBus));
+        pool.assign(new SampleByJob(messageBus));
+        queryAdmissionController.setWorkerCount(pool.getWorkerCount());
+        queryJobsAssigned = true;
+        return true;
+    }
+
     public int getBusyReaderCount() {
         return readerPool.getBusyCount();
     }
@@ -179,6 +221,10 @@ public class CairoEngine implements Closeable, WriterSource {
         return writerPool.getBusyCount();
     }
 
+    public ApplyWalJob getApplyWalJob() {
+        return applyWalJob;
+    }
+
     public CairoConfiguration getConfiguration() {
         return configuration;
     }
@@ -228,6 +274,17 @@ public class CairoEngine implements Closeable, WriterSource {
         return reader;
     }
 
+    public QueryAdmissionController getQueryAdmissionController() {
+        return queryAdmissionController;
+    }
+
+    /**
+     * Job that reloads idle pooled readers ahead of queries, see {@link CairoConfiguration#getReaderPoolRefreshInterval()}.
+     */
+    public Job getReaderRefreshJob() {
+        return readerRefreshJob;
+    }
+
     public int getStatus(
             CairoSecurityContext securityContext,
             Path path,
@@ -271,6 +328,22 @@ public class CairoEngine implements Closeable, WriterSource {
         return writerPool.get(tableName, lockReason);
     }
 
+    /**
+     * Opens writer that appends rows to table's write-ahead log. Unlike {@link #getWriter}, this does not fail
+     * because table is busy, unless table is not partitioned. Rows of such table cannot be out of order, which
+     * WAL writer is unable to check before the log is applied. Rows become visible to readers once the log is
+     * applied by {@link #getApplyWalJob()}.
+     */
+    public WalWriter getWalWriter(CairoSecurityContext securityContext, CharSequence tableName) {
+        securityContext.checkWritePermission();
+        try (TableReader reader = readerPool.get(tableName)) {
+            if (reader.getPartitionedBy() == PartitionBy.NONE && reader.getMetadata().getTimestampIndex() > -1) {
+                throw EntryUnavailableException.instance("WAL requires partitioned table");
+            }
+            return new WalWriter(configuration, reader.getTableName(), reader.getMetadata(), reader.getVersion(), applyWalJob);
+        }
+    }
+
     public Job getWriterMaintenanceJob() {
         return writerMaintenanceJob;
     }
@@ -481,6 +554,35 @@ public class CairoEngine implements Closeable, WriterSource {
         }
     }
 
+    private class ReaderRefreshJob extends SynchronizedJob {
+
+        private final MicrosecondClock clock;
+        private final long refreshInterval;
+        private long last = 0;
+
+        public ReaderRefreshJob(CairoConfiguration configuration) {
+            this.clock = configuration.getMicrosecondClock();
+            this.refreshInterval = configuration.getReaderPoolRefreshInterval() * 1000;
+        }
+
+        @Override
+        public int getPriority() {
+            return PRIORITY_LOW;
+        }
+
+        @Override
+        protected boolean runSerially() {
+            if (refreshInterval > 0) {
+                long t = clock.getTicks();
+                if (last + refreshInterval < t) {
+                    last = t;
+                    return readerPool.refreshInactive();
+                }
+            }
+            return false;
+        }
+    }
+
     private class WriterMaintenanceJob extends SynchronizedJob {
 
         private final MicrosecondClock clock;
@@ -492,6 +594,11 @@ public class CairoEngine implements Closeable, WriterSource {
             this.checkInterval = configuration.getIdleCheckInterval() * 1000;
         }
 
+        @Override
+        public int getPriority() {
+            return PRIORITY_LOW;
+        }
+
         @Override
         protected boolean runSerially() {
             long t = clock.getTicks();
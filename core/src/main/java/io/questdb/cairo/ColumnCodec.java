@@ -0,0 +1,414 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.cairo;
+
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Unsafe;
+
+/**
+ * Codecs for fixed-size columns of sealed partitions. Compressed column is stored in ".dz" file, which
+ * replaces ".d" file of the column. The file starts with a header:
+ * <pre>
+ * int codec | int value size shift | long value count
+ * </pre>
+ * followed by a bit stream, stored in 64-bit words and consumed starting with the least significant bit.
+ * Values are encoded as:
+ * <ul>
+ *     <li>delta-of-delta for TIMESTAMP and DATE; regular intervals cost a single bit per value</li>
+ *     <li>XOR with previous value for DOUBLE, as described in Facebook's Gorilla paper</li>
+ *     <li>frame-of-reference with bit-packing in blocks of 128 values for INT and LONG</li>
+ * </ul>
+ */
+public final class ColumnCodec {
+    public static final int CODEC_NONE = 0;
+    public static final int CODEC_DELTA_OF_DELTA = 1;
+    public static final int CODEC_XOR = 2;
+    public static final int CODEC_FRAME_OF_REFERENCE = 3;
+    public static final long HEADER_SIZE = 16;
+    private static final int FOR_BLOCK_SIZE = 128;
+
+    private ColumnCodec() {
+    }
+
+    public static int codecOf(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.TIMESTAMP:
+            case ColumnType.DATE:
+                return CODEC_DELTA_OF_DELTA;
+            case ColumnType.DOUBLE:
+                return CODEC_XOR;
+            case ColumnType.INT:
+            case ColumnType.LONG:
+                return CODEC_FRAME_OF_REFERENCE;
+            default:
+                return CODEC_NONE;
+        }
+    }
+
+    /**
+     * Decodes compressed column into memory, which must be at least {@link #getDecodedSize(long)} bytes long.
+     *
+     * @param srcAddr address of compressed column, including header
+     * @param srcSize size of compressed column
+     * @param dstAddr address to decode values to
+     */
+    public static void decode(long srcAddr, long srcSize, long dstAddr) {
+        if (srcSize < HEADER_SIZE) {
+            throw CairoException.instance(0).put("compressed column is truncated [size=").put(srcSize).put(']');
+        }
+        final int codec = Unsafe.getUnsafe().getInt(srcAddr);
+        final int shift = Unsafe.getUnsafe().getInt(srcAddr + 4);
+        final long count = Unsafe.getUnsafe().getLong(srcAddr + 8);
+        final BitReader reader = new BitReader(srcAddr + HEADER_SIZE, srcAddr + srcSize);
+        switch (codec) {
+            case CODEC_DELTA_OF_DELTA:
+                decodeDeltaOfDelta(reader, dstAddr, count);
+                break;
+            case CODEC_XOR:
+                decodeXor(reader, dstAddr, count);
+                break;
+            case CODEC_FRAME_OF_REFERENCE:
+                decodeFrameOfReference(reader, dstAddr, count, shift);
+                break;
+            default:
+                throw CairoException.instance(0).put("unknown column codec [codec=").put(codec).put(']');
+        }
+    }
+
+    /**
+     * Encodes column values and writes them to file, header included. Buffer is used to stage
+     * the output, its size must be multiple of 8 and at least 32 bytes.
+     *
+     * @return number of bytes written to file
+     */
+    public static long encode(
+            FilesFacade ff,
+            long fd,
+            int columnType,
+            long srcAddr,
+            long count,
+            long bufAddr,
+            long bufSize
+    ) {
+        final int codec = codecOf(columnType);
+        final int shift = ColumnType.pow2SizeOf(columnType);
+        final BitWriter writer = new BitWriter(ff, fd, bufAddr, bufSize);
+        writer.putHeader(codec, shift, count);
+        switch (codec) {
+            case CODEC_DELTA_OF_DELTA:
+                encodeDeltaOfDelta(writer, srcAddr, count);
+                break;
+            case CODEC_XOR:
+                encodeXor(writer, srcAddr, count);
+                break;
+            case CODEC_FRAME_OF_REFERENCE:
+                encodeFrameOfReference(writer, srcAddr, count, shift);
+                break;
+            default:
+                throw CairoException.instance(0).put("column type cannot be compressed [type=").put(ColumnType.nameOf(columnType)).put(']');
+        }
+        return writer.finish();
+    }
+
+    public static long getDecodedSize(long srcAddr) {
+        return Unsafe.getUnsafe().getLong(srcAddr + 8) << Unsafe.getUnsafe().getInt(srcAddr + 4);
+    }
+
+    private static void decodeDeltaOfDelta(BitReader reader, long dstAddr, long count) {
+        if (count == 0) {
+            return;
+        }
+        long value = reader.read(64);
+        Unsafe.getUnsafe().putLong(dstAddr, value);
+        long delta = 0;
+        for (long i = 1; i < count; i++) {
+            int ones = 0;
+            while (ones < 5 && reader.read(1) == 1) {
+                ones++;
+            }
+            final long z;
+            switch (ones) {
+                case 0:
+                    z = 0;
+                    break;
+                case 1:
+                    z = reader.read(7);
+                    break;
+                case 2:
+                    z = reader.read(9);
+                    break;
+                case 3:
+                    z = reader.read(12);
+                    break;
+                case 4:
+                    z = reader.read(32);
+                    break;
+                default:
+                    z = reader.read(64);
+                    break;
+            }
+            delta += (z >>> 1) ^ -(z & 1);
+            value += delta;
+            Unsafe.getUnsafe().putLong(dstAddr + (i << 3), value);
+        }
+    }
+
+    private static void decodeFrameOfReference(BitReader reader, long dstAddr, long count, int shift) {
+        for (long lo = 0; lo < count; lo += FOR_BLOCK_SIZE) {
+            final long hi = Math.min(lo + FOR_BLOCK_SIZE, count);
+            final long min = reader.read(64);
+            final int width = (int) reader.read(7);
+            if (shift == 2) {
+                for (long i = lo; i < hi; i++) {
+                    Unsafe.getUnsafe().putInt(dstAddr + (i << 2), (int) (min + reader.read(width)));
+                }
+            } else {
+                for (long i = lo; i < hi; i++) {
+                    Unsafe.getUnsafe().putLong(dstAddr + (i << 3), min + reader.read(width));
+                }
+            }
+        }
+    }
+
+    private static void decodeXor(BitReader reader, long dstAddr, long count) {
+        if (count == 0) {
+            return;
+        }
+        long bits = reader.read(64);
+        Unsafe.getUnsafe().putLong(dstAddr, bits);
+        int leading = 0;
+        int trailing = 0;
+        for (long i = 1; i < count; i++) {
+            if (reader.read(1) == 1) {
+                if (reader.read(1) == 1) {
+                    leading = (int) reader.read(6);
+                    trailing = 64 - leading - (int) reader.read(6) - 1;
+                }
+                bits ^= reader.read(64 - leading - trailing) << trailing;
+            }
+            Unsafe.getUnsafe().putLong(dstAddr + (i << 3), bits);
+        }
+    }
+
+    private static void encodeDeltaOfDelta(BitWriter writer, long srcAddr, long count) {
+        if (count == 0) {
+            return;
+        }
+        long prev = Unsafe.getUnsafe().getLong(srcAddr);
+        writer.write(prev, 64);
+        long prevDelta = 0;
+        for (long i = 1; i < count; i++) {
+            final long value = Unsafe.getUnsafe().getLong(srcAddr + (i << 3));
+            final long delta = value - prev;
+            final long deltaOfDelta = delta - prevDelta;
+            // zigzag keeps small negative values small
+            final long z = (deltaOfDelta << 1) ^ (deltaOfDelta >> 63);
+            // prefix is a run of ones terminated by zero, bits are written starting with the lowest
+            if (z == 0) {
+                writer.write(0, 1);
+            } else if (z >>> 7 == 0) {
+                writer.write(0b01, 2);
+                writer.write(z, 7);
+            } else if (z >>> 9 == 0) {
+                writer.write(0b011, 3);
+                writer.write(z, 9);
+            } else if (z >>> 12 == 0) {
+                writer.write(0b0111, 4);
+                writer.write(z, 12);
+            } else if (z >>> 32 == 0) {
+                writer.write(0b01111, 5);
+                writer.write(z, 32);
+            } else {
+                writer.write(0b11111, 5);
+                writer.write(z, 64);
+            }
+            prevDelta = delta;
+            prev = value;
+        }
+    }
+
+    private static void encodeFrameOfReference(BitWriter writer, long srcAddr, long count, int shift) {
+        for (long lo = 0; lo < count; lo += FOR_BLOCK_SIZE) {
+            final long hi = Math.min(lo + FOR_BLOCK_SIZE, count);
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (long i = lo; i < hi; i++) {
+                final long value = getValue(srcAddr, i, shift);
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            // difference is treated as unsigned, it fits 64 bits even when block has NULLs
+            final int width = 64 - Long.numberOfLeadingZeros(max - min);
+            writer.write(min, 64);
+            writer.write(width, 7);
+            for (long i = lo; i < hi; i++) {
+                writer.write(getValue(srcAddr, i, shift) - min, width);
+            }
+        }
+    }
+
+    private static void encodeXor(BitWriter writer, long srcAddr, long count) {
+        if (count == 0) {
+            return;
+        }
+        long prev = Unsafe.getUnsafe().getLong(srcAddr);
+        writer.write(prev, 64);
+        int leading = -1;
+        int trailing = 0;
+        for (long i = 1; i < count; i++) {
+            final long bits = Unsafe.getUnsafe().getLong(srcAddr + (i << 3));
+            final long xor = bits ^ prev;
+            if (xor == 0) {
+                writer.write(0, 1);
+            } else {
+                final int lz = Long.numberOfLeadingZeros(xor);
+                final int tz = Long.numberOfTrailingZeros(xor);
+                if (leading != -1 && lz >= leading && tz >= trailing) {
+                    // meaningful bits fit the previous window
+                    writer.write(0b01, 2);
+                    writer.write(xor >>> trailing, 64 - leading - trailing);
+                } else {
+                    final int significant = 64 - lz - tz;
+                    writer.write(0b11, 2);
+                    writer.write(lz, 6);
+                    writer.write(significant - 1, 6);
+                    writer.write(xor >>> tz, significant);
+                    leading = lz;
+                    trailing = tz;
+                }
+            }
+            prev = bits;
+        }
+    }
+
+    private static long getValue(long srcAddr, long index, int shift) {
+        return shift == 2 ? Unsafe.getUnsafe().getInt(srcAddr + (index << 2)) : Unsafe.getUnsafe().getLong(srcAddr + (index << 3));
+    }
+
+    private static long mask(int bits) {
+        return bits == 64 ? -1L : (1L << bits) - 1;
+    }
+
+    private static class BitReader {
+        private final long hi;
+        private long p;
+        private long acc;
+        private int accBits;
+
+        private BitReader(long lo, long hi) {
+            this.p = lo;
+            this.hi = hi;
+        }
+
+        private long read(int bits) {
+            if (bits <= accBits) {
+                final long result = acc & mask(bits);
+                acc = bits == 64 ? 0 : acc >>> bits;
+                accBits -= bits;
+                return result;
+            }
+
+            if (p + 8 > hi) {
+                throw CairoException.instance(0).put("compressed column is truncated");
+            }
+            final long word = Unsafe.getUnsafe().getLong(p);
+            p += 8;
+            final int need = bits - accBits;
+            final long result = acc | ((word & mask(need)) << accBits);
+            acc = need == 64 ? 0 : word >>> need;
+            accBits = 64 - need;
+            return result;
+        }
+    }
+
+    private static class BitWriter {
+        private final FilesFacade ff;
+        private final long fd;
+        private final long bufAddr;
+        private final long bufLimit;
+        private long p;
+        private long fileOffset;
+        private long acc;
+        private int accBits;
+
+        private BitWriter(FilesFacade ff, long fd, long bufAddr, long bufSize) {
+            this.ff = ff;
+            this.fd = fd;
+            this.bufAddr = bufAddr;
+            this.bufLimit = bufAddr + bufSize;
+            this.p = bufAddr;
+        }
+
+        private long finish() {
+            if (accBits > 0) {
+                putWord(acc);
+                acc = 0;
+                accBits = 0;
+            }
+            flush();
+            return fileOffset;
+        }
+
+        private void flush() {
+            final long len = p - bufAddr;
+            if (ff.write(fd, bufAddr, len, fileOffset) != len) {
+                throw CairoException.instance(ff.errno()).put("could not write compressed column [fd=").put(fd).put(']');
+            }
+            fileOffset += len;
+            p = bufAddr;
+        }
+
+        private void putHeader(int codec, int shift, long count) {
+            Unsafe.getUnsafe().putInt(p, codec);
+            Unsafe.getUnsafe().putInt(p + 4, shift);
+            Unsafe.getUnsafe().putLong(p + 8, count);
+            p += HEADER_SIZE;
+        }
+
+        private void putWord(long word) {
+            if (p + 8 > bufLimit) {
+                flush();
+            }
+            Unsafe.getUnsafe().putLong(p, word);
+            p += 8;
+        }
+
+        private void write(long value, int bits) {
+            if (bits == 0) {
+                return;
+            }
+            value &= mask(bits);
+            final int free = 64 - accBits;
+            if (bits < free) {
+                acc |= value << accBits;
+                accBits += bits;
+            } else {
+                putWord(acc | (value << accBits));
+                final int rest = bits - free;
+                acc = rest == 0 ? 0 : value >>> free;
+                accBits = rest;
+            }
+        }
+    }
+}
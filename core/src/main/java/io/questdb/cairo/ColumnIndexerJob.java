@@ -35,6 +35,11 @@ public class ColumnIndexerJob extends AbstractQueueConsumerJob<ColumnIndexerTask
         super(messageBus.getIndexerQueue(), messageBus.getIndexerSubSequence());
     }
 
+    @Override
+    public int getPriority() {
+        return PRIORITY_HIGH;
+    }
+
     protected boolean doRun(int workerId, long cursor) {
         final ColumnIndexerTask queueItem = queue.get(cursor);
         // copy values and release queue item
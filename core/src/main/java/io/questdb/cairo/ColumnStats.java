@@ -0,0 +1,207 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.cairo;
+
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+
+/**
+ * Min/max statistics of fixed-size numeric column in a sealed partition. Statistics are stored in ".st" file
+ * next to column data:
+ * <pre>
+ * long row count | long null count | long min | long max
+ * </pre>
+ * Min and max of integer columns include NULL values, which are the smallest values of respective types. This way
+ * partition with NULLs is never skipped by a predicate NULL value could satisfy. Min and max of DOUBLE columns
+ * exclude NaN and are stored as bits of double value, both are NaN when column has no values.
+ * <p>
+ * Row count must be equal to the partition size for statistics to be used. Partition that was appended to after
+ * statistics were written is therefore never skipped.
+ */
+public class ColumnStats {
+    private static final long OFFSET_ROW_COUNT = 0;
+    private static final long OFFSET_NULL_COUNT = 8;
+    private static final long OFFSET_MIN = 16;
+    private static final long OFFSET_MAX = 24;
+    private long rowCount;
+    private long nullCount;
+    private long min;
+    private long max;
+
+    public static boolean isFloatingPoint(int columnType) {
+        return ColumnType.tagOf(columnType) == ColumnType.DOUBLE;
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMaxDouble() {
+        return Double.longBitsToDouble(max);
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public double getMinDouble() {
+        return Double.longBitsToDouble(min);
+    }
+
+    public long getNullCount() {
+        return nullCount;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Computes statistics of column values.
+     *
+     * @param columnType type of the column
+     * @param addr       address of column data
+     * @param valueCount number of values at the address
+     * @param columnTop  number of rows preceding column data, these rows are NULL
+     */
+    public void of(int columnType, long addr, long valueCount, long columnTop) {
+        rowCount = columnTop + valueCount;
+        nullCount = columnTop;
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+                ofIntegers(addr, valueCount, 0, columnTop, 0);
+                break;
+            case ColumnType.SHORT:
+                ofIntegers(addr, valueCount, 1, columnTop, 0);
+                break;
+            case ColumnType.INT:
+                ofIntegers(addr, valueCount, 2, columnTop, Numbers.INT_NaN);
+                break;
+            case ColumnType.DOUBLE:
+                ofDoubles(addr, valueCount);
+                break;
+            default:
+                ofIntegers(addr, valueCount, 3, columnTop, Numbers.LONG_NaN);
+                break;
+        }
+    }
+
+    public boolean read(FilesFacade ff, long fd, long tempMem8b) {
+        if (ff.read(fd, tempMem8b, Long.BYTES, OFFSET_ROW_COUNT) != Long.BYTES) {
+            return false;
+        }
+        rowCount = Unsafe.getUnsafe().getLong(tempMem8b);
+        if (ff.read(fd, tempMem8b, Long.BYTES, OFFSET_NULL_COUNT) != Long.BYTES) {
+            return false;
+        }
+        nullCount = Unsafe.getUnsafe().getLong(tempMem8b);
+        if (ff.read(fd, tempMem8b, Long.BYTES, OFFSET_MIN) != Long.BYTES) {
+            return false;
+        }
+        min = Unsafe.getUnsafe().getLong(tempMem8b);
+        if (ff.read(fd, tempMem8b, Long.BYTES, OFFSET_MAX) != Long.BYTES) {
+            return false;
+        }
+        max = Unsafe.getUnsafe().getLong(tempMem8b);
+        return true;
+    }
+
+    public void write(FilesFacade ff, long fd, long tempMem8b) {
+        writeLong(ff, fd, OFFSET_ROW_COUNT, rowCount, tempMem8b);
+        writeLong(ff, fd, OFFSET_NULL_COUNT, nullCount, tempMem8b);
+        writeLong(ff, fd, OFFSET_MIN, min, tempMem8b);
+        writeLong(ff, fd, OFFSET_MAX, max, tempMem8b);
+    }
+
+    private static long getInteger(long addr, int shift) {
+        switch (shift) {
+            case 0:
+                return Unsafe.getUnsafe().getByte(addr);
+            case 1:
+                return Unsafe.getUnsafe().getShort(addr);
+            case 2:
+                return Unsafe.getUnsafe().getInt(addr);
+            default:
+                return Unsafe.getUnsafe().getLong(addr);
+        }
+    }
+
+    private static void writeLong(FilesFacade ff, long fd, long offset, long value, long tempMem8b) {
+        Unsafe.getUnsafe().putLong(tempMem8b, value);
+        if (ff.write(fd, tempMem8b, Long.BYTES, offset) != Long.BYTES) {
+            throw CairoException.instance(ff.errno()).put("could not write column statistics [fd=").put(fd).put(']');
+        }
+    }
+
+    private void ofDoubles(long addr, long valueCount) {
+        double lo = Double.NaN;
+        double hi = Double.NaN;
+        for (long i = 0; i < valueCount; i++) {
+            final double value = Unsafe.getUnsafe().getDouble(addr + (i << 3));
+            if (value != value) {
+                nullCount++;
+            } else if (lo != lo) {
+                lo = hi = value;
+            } else {
+                lo = Math.min(lo, value);
+                hi = Math.max(hi, value);
+            }
+        }
+        min = Double.doubleToRawLongBits(lo);
+        max = Double.doubleToRawLongBits(hi);
+    }
+
+    private void ofIntegers(long addr, long valueCount, int shift, long columnTop, long nullValue) {
+        long lo = Long.MAX_VALUE;
+        long hi = Long.MIN_VALUE;
+        if (columnTop > 0) {
+            // column top reads as NULL, or zero for types without NULL
+            lo = hi = nullValue;
+        }
+        for (long i = 0; i < valueCount; i++) {
+            final long value = getInteger(addr + (i << shift), shift);
+            if (value == nullValue && nullValue != 0) {
+                nullCount++;
+            }
+            lo = Math.min(lo, value);
+            hi = Math.max(hi, value);
+        }
+        min = lo;
+        max = hi;
+    }
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.cairo;
+
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+
+/**
+ * Conjunction of "column op constant" predicates, which are checked against column statistics of a partition
+ * before the partition is scanned. Predicates are taken from the filter applied to rows of the partition, so the
+ * partition can be skipped when any one of them cannot match a single row. Equality predicates on columns with
+ * bloom filter are checked against the filter.
+ */
+public class ColumnStatsFilter {
+    public static final int OP_EQ = 0;
+    public static final int OP_LT = 1;
+    public static final int OP_LE = 2;
+    public static final int OP_GT = 3;
+    public static final int OP_GE = 4;
+    // largest magnitude of LONG constant, which compares the same way as a long and as a double
+    public static final long MAX_EXACT_DOUBLE_LONG = 1L << 53;
+    // same tolerance as double equality function
+    private static final double EQ_TOLERANCE = 0.0000000001;
+    private final IntList columnIndexes = new IntList();
+    private final IntList columnTypes = new IntList();
+    private final IntList ops = new IntList();
+    private final LongList values = new LongList();
+    private final ColumnStats stats = new ColumnStats();
+    private final IntList bloomColumnIndexes = new IntList();
+    private final LongList bloomHashes = new LongList();
+
+    public static int flip(int op) {
+        switch (op) {
+            case OP_LT:
+                return OP_GT;
+            case OP_LE:
+                return OP_GE;
+            case OP_GT:
+                return OP_LT;
+            case OP_GE:
+                return OP_LE;
+            default:
+                return op;
+        }
+    }
+
+    public void add(int columnIndex, int columnType, int op, long value) {
+        columnIndexes.add(columnIndex);
+        columnTypes.add(columnType);
+        ops.add(op);
+        values.add(value);
+    }
+
+    public void add(int columnIndex, int columnType, int op, double value) {
+        add(columnIndex, columnType, op, Double.doubleToRawLongBits(value));
+    }
+
+    public void addBloom(int columnIndex, long hash) {
+        bloomColumnIndexes.add(columnIndex);
+        bloomHashes.add(hash);
+    }
+
+    /**
+     * @return false when statistics or bloom filters prove that none of partition rows can match the filter
+     */
+    public boolean mayMatch(TableReader reader, int partitionIndex) {
+        for (int i = 0, n = columnIndexes.size(); i < n; i++) {
+            if (reader.readColumnStats(partitionIndex, columnIndexes.getQuick(i), stats) && !mayMatch(i)) {
+                return false;
+            }
+        }
+        for (int i = 0, n = bloomColumnIndexes.size(); i < n; i++) {
+            if (!reader.bloomFilterMayContain(partitionIndex, bloomColumnIndexes.getQuick(i), bloomHashes.getQuick(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return columnIndexes.size() + bloomColumnIndexes.size();
+    }
+
+    private boolean mayMatch(int index) {
+        final int op = ops.getQuick(index);
+        if (ColumnStats.isFloatingPoint(columnTypes.getQuick(index))) {
+            final double value = Double.longBitsToDouble(values.getQuick(index));
+            if (value != value) {
+                // "= NaN" matches NULL values, which are counted but are not part of min/max;
+                // other comparisons to NaN are left to the row filter
+                return op != OP_EQ || stats.getNullCount() > 0;
+            }
+            final double min = stats.getMinDouble();
+            final double max = stats.getMaxDouble();
+            if (min != min) {
+                // all values are NaN, which does not compare to a number
+                return false;
+            }
+            switch (op) {
+                case OP_LT:
+                    return min < value;
+                case OP_LE:
+                    return min <= value;
+                case OP_GT:
+                    return max > value;
+                case OP_GE:
+                    return max >= value;
+                default:
+                    return value >= min - EQ_TOLERANCE && value <= max + EQ_TOLERANCE;
+            }
+        }
+
+        final long min = stats.getMin();
+        final long max = stats.getMax();
+        final long value = values.getQuick(index);
+        switch (op) {
+            case OP_LT:
+                return min < value;
+            case OP_LE:
+                return min <= value;
+            case OP_GT:
+                return max > value;
+            case OP_GE:
+                return max >= value;
+            default:
+                return value >= min && value <= max;
+        }
+    }
+}
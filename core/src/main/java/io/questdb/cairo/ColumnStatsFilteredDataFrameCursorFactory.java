@@ -0,0 +1,129 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.cairo.sql.DataFrameCursorFactory;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Misc;
+import io.questdb.std.str.CharSink;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Skips data frames of partitions, which column statistics prove to have no rows matching the filter.
+ */
+public class ColumnStatsFilteredDataFrameCursorFactory implements DataFrameCursorFactory {
+    private final DataFrameCursorFactory base;
+    private final ColumnStatsFilteredDataFrameCursor cursor;
+
+    public ColumnStatsFilteredDataFrameCursorFactory(DataFrameCursorFactory base, ColumnStatsFilter filter) {
+        this.base = base;
+        this.cursor = new ColumnStatsFilteredDataFrameCursor(filter);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(base);
+    }
+
+    @Override
+    public DataFrameCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        return cursor.of(base.getCursor(executionContext));
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        base.toSink(sink);
+    }
+
+    private static class ColumnStatsFilteredDataFrameCursor implements DataFrameCursor {
+        private final ColumnStatsFilter filter;
+        private DataFrameCursor base;
+        private int lastPartitionIndex;
+        private boolean lastPartitionMayMatch;
+
+        private ColumnStatsFilteredDataFrameCursor(ColumnStatsFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public void close() {
+            base = Misc.free(base);
+        }
+
+        @Override
+        public StaticSymbolTable getSymbolTable(int columnIndex) {
+            return base.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public TableReader getTableReader() {
+            return base.getTableReader();
+        }
+
+        @Override
+        public @Nullable DataFrame next() {
+            DataFrame frame;
+            while ((frame = base.next()) != null) {
+                // interval cursor can return several frames of the same partition
+                final int partitionIndex = frame.getPartitionIndex();
+                if (partitionIndex != lastPartitionIndex) {
+                    lastPartitionIndex = partitionIndex;
+                    lastPartitionMayMatch = filter.mayMatch(base.getTableReader(), partitionIndex);
+                }
+                if (lastPartitionMayMatch) {
+                    return frame;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean reload() {
+            lastPartitionIndex = -1;
+            return base.reload();
+        }
+
+        @Override
+        public long size() {
+            // skipped partitions are not known in advance
+            return -1;
+        }
+
+        @Override
+        public void toTop() {
+            lastPartitionIndex = -1;
+            base.toTop();
+        }
+
+        private DataFrameCursor of(DataFrameCursor base) {
+            this.base = base;
+            this.lastPartitionIndex = -1;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+
+/**
+ * Compressed columns decoded into native memory. Readers that open the same compressed file share
+ * decoded column, it is freed when the last of them releases it. Compressed files are identified by
+ * path, size and modification time, column compressed again after it was restored is decoded anew.
+ */
+public class DecodedColumnCache {
+    private static final Log LOG = LogFactory.getLog(DecodedColumnCache.class);
+    private final CharSequenceObjHashMap<Entry> entries = new CharSequenceObjHashMap<>();
+
+    /**
+     * @param fd      descriptor of compressed file
+     * @param minSize size of memory to be returned, memory past decoded column is zeroed
+     * @return decoded column, it has to be released via {@link #release(Entry)}
+     */
+    public Entry acquire(FilesFacade ff, LPSZ name, long fd, long minSize, int memoryTag) {
+        final long fileSize = ff.length(fd);
+        final long modified = ff.getLastModified(name);
+        synchronized (this) {
+            final Entry entry = entries.get(name);
+            if (entry != null && entry.matches(fileSize, modified, minSize)) {
+                entry.refCount++;
+                return entry;
+            }
+        }
+
+        // decoding can take a while, other files are acquired and released meanwhile
+        final Entry decoded = decode(ff, name, fd, fileSize, modified, minSize, memoryTag);
+        synchronized (this) {
+            final Entry entry = entries.get(name);
+            if (entry != null) {
+                if (entry.matches(fileSize, modified, minSize)) {
+                    entry.refCount++;
+                    free(decoded);
+                    return entry;
+                }
+                // stale entry is freed by its last reader
+                entry.cached = false;
+                entries.remove(name);
+            }
+            decoded.cached = true;
+            entries.put(decoded.key, decoded);
+            return decoded;
+        }
+    }
+
+    public synchronized void release(Entry entry) {
+        if (--entry.refCount == 0) {
+            if (entry.cached) {
+                entries.remove(entry.key);
+            }
+            free(entry);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static Entry decode(FilesFacade ff, LPSZ name, long fd, long fileSize, long modified, long minSize, int memoryTag) {
+        if (fileSize < ColumnCodec.HEADER_SIZE) {
+            throw CairoException.instance(0).put("compressed column is truncated [file=").put(name).put(']');
+        }
+        final Entry entry = new Entry(Chars.toString(name), fileSize, modified);
+        final long srcAddr = TableUtils.mapRO(ff, fd, fileSize, memoryTag);
+        try {
+            final long decodedSize = ColumnCodec.getDecodedSize(srcAddr);
+            // same as mapped memory, size requested by the caller is honoured even when file is shorter
+            final long memSize = Math.max(minSize, decodedSize);
+            if (memSize > 0) {
+                entry.address = Unsafe.malloc(memSize, MemoryTag.NATIVE_DEFAULT);
+                entry.size = memSize;
+                try {
+                    ColumnCodec.decode(srcAddr, fileSize, entry.address);
+                } catch (Throwable e) {
+                    free(entry);
+                    throw e;
+                }
+                if (memSize > decodedSize) {
+                    Vect.memset(entry.address + decodedSize, memSize - decodedSize, 0);
+                }
+            }
+        } finally {
+            ff.munmap(srcAddr, fileSize, memoryTag);
+        }
+        LOG.debug().$("decoded ").$(name).$(" [size=").$(entry.size).$(']').$();
+        return entry;
+    }
+
+    private static void free(Entry entry) {
+        if (entry.address != 0) {
+            Unsafe.free(entry.address, entry.size, MemoryTag.NATIVE_DEFAULT);
+            entry.address = 0;
+            entry.size = 0;
+        }
+    }
+
+    public static class Entry {
+        private final String key;
+        private final long fileSize;
+        private final long modified;
+        private long address;
+        private long size;
+        private int refCount = 1;
+        private boolean cached;
+
+        private Entry(String key, long fileSize, long modified) {
+            this.key = key;
+            this.fileSize = fileSize;
+            this.modified = modified;
+        }
+
+        public long getAddress() {
+            return address;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        private boolean matches(long fileSize, long modified, long minSize) {
+            return this.fileSize == fileSize && this.modified == modified && size >= minSize;
+        }
+    }
+}
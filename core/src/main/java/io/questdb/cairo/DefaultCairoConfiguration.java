@@ -47,6 +47,8 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
 
     private final BuildInformation buildInformation = new BuildInformationHolder();
 
+    private final DecodedColumnCache decodedColumnCache = new DecodedColumnCache();
+
     private final long databaseIdLo;
     private final long databaseIdHi;
 
@@ -93,6 +95,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024 * 1024;
     }
 
+    @Override
+    public long getSqlCopyChunkSize() {
+        return 64 * 1024 * 1024;
+    }
+
+    @Override
+    public int getSqlCopyQueueCapacity() {
+        return 32;
+    }
+
     @Override
     public int getCopyPoolCapacity() {
         return 16;
@@ -178,16 +190,46 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 509;
     }
 
+    @Override
+    public int getPageFrameFilterQueueCapacity() {
+        return 64;
+    }
+
+    @Override
+    public int getHashJoinQueueCapacity() {
+        return 64;
+    }
+
     @Override
     public int getParallelIndexThreshold() {
         return 100000;
     }
 
+    @Override
+    public int getPartitionCompressionQueueCapacity() {
+        return 64;
+    }
+
+    @Override
+    public int getRadixSortQueueCapacity() {
+        return 64;
+    }
+
+    @Override
+    public int getSampleByQueueCapacity() {
+        return 64;
+    }
+
     @Override
     public int getReaderPoolMaxSegments() {
         return 5;
     }
 
+    @Override
+    public long getReaderPoolRefreshInterval() {
+        return 100;
+    }
+
     @Override
     public CharSequence getRoot() {
         return root;
@@ -310,6 +352,21 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024;
     }
 
+    @Override
+    public int getSqlPageFrameMaxRows() {
+        return 1_000_000;
+    }
+
+    @Override
+    public int getSqlParallelQueryLimit() {
+        return 0;
+    }
+
+    @Override
+    public int getSqlParallelQueryTaskLimit() {
+        return 0;
+    }
+
     @Override
     public long getSqlSortKeyPageSize() {
         return 4 * Numbers.SIZE_1MB;
@@ -390,6 +447,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return Numbers.SIZE_1MB * 16;
     }
 
+    @Override
+    public long getSqlSpillMaxSize() {
+        return 16L * 1024 * Numbers.SIZE_1MB;
+    }
+
+    @Override
+    public CharSequence getSqlSpillRoot() {
+        return null;
+    }
+
     @Override
     public int getSqlSortValueMaxPages() {
         return 1024;
@@ -410,6 +477,46 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isSqlParallelFilterEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelCopyEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelSampleByEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlRadixSortEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlJitFilterEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isWalEnabled() {
+        return false;
+    }
+
+    @Override
+    public int getWalBufferSize() {
+        return 1024 * 1024;
+    }
+
     @Override
     public int getSqlJoinMetadataPageSize() {
         return 16 * 1024;
@@ -525,6 +632,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024;
     }
 
+    @Override
+    public int getO3CommitLagMaxPartitions() {
+        return 0;
+    }
+
     @Override
     public int getO3CopyQueueCapacity() {
         return 1024;
@@ -550,6 +662,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return databaseIdLo;
     }
 
+    @Override
+    public DecodedColumnCache getDecodedColumnCache() {
+        return decodedColumnCache;
+    }
+
     @Override
     public int getTxnScoreboardEntryCount() {
         return 8192;
@@ -565,6 +682,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 0;
     }
 
+    @Override
+    public boolean isPartitionCompressionEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isPartitionStatsEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isO3QuickSortEnabled() {
         return false;
@@ -59,6 +59,11 @@ public class O3CallbackJob extends AbstractQueueConsumerJob<O3CallbackTask> {
         }
     }
 
+    @Override
+    public int getPriority() {
+        return PRIORITY_HIGH;
+    }
+
     @Override
     protected boolean doRun(int workerId, long cursor) {
         O3CallbackTask task = queue.get(cursor);
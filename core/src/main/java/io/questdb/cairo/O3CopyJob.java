@@ -981,6 +981,11 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
         w.setMaxValue(count - 1);
     }
 
+    @Override
+    public int getPriority() {
+        return PRIORITY_HIGH;
+    }
+
     @Override
     protected boolean doRun(int workerId, long cursor) {
         copy(queue.get(cursor), cursor, subSeq);
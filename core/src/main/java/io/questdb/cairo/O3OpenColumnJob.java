@@ -3000,6 +3000,11 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
         }
     }
 
+    @Override
+    public int getPriority() {
+        return PRIORITY_HIGH;
+    }
+
     @Override
     protected boolean doRun(int workerId, long cursor) {
         // increment worker index to leave room for anonymous worker to steal work
@@ -1047,6 +1047,11 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
         }
     }
 
+    @Override
+    public int getPriority() {
+        return PRIORITY_HIGH;
+    }
+
     @Override
     protected boolean doRun(int workerId, long cursor) {
         processPartition(workerId + 1, queue.get(cursor), cursor, subSeq);
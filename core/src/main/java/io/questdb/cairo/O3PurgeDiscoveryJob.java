@@ -64,6 +64,11 @@ public class O3PurgeDiscoveryJob extends AbstractQueueConsumerJob<O3PurgeDiscove
         }
     }
 
+    @Override
+    public int getPriority() {
+        return PRIORITY_LOW;
+    }
+
     public static boolean discoverPartitions(
             FilesFacade ff,
             MutableCharSink sink,
@@ -43,6 +43,11 @@ public class O3PurgeJob extends AbstractQueueConsumerJob<O3PurgeTask> {
         this.configuration = messageBus.getConfiguration();
     }
 
+    @Override
+    public int getPriority() {
+        return PRIORITY_LOW;
+    }
+
     public static int purgePartitionDir(
             FilesFacade ff,
             Path path,
@@ -0,0 +1,225 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.MessageBus;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.AbstractQueueConsumerJob;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+import io.questdb.tasks.PartitionCompressTask;
+
+/**
+ * Compresses columns of sealed partitions off the writer thread. Writer queues partitions as commits
+ * seal them and waits for its queued partitions before it modifies, drops or renames anything they
+ * contain. Column is compressed into .dz file next to .d file, which is removed once .dz file is
+ * complete. Readers keep using .d file until then.
+ */
+public class PartitionCompressJob extends AbstractQueueConsumerJob<PartitionCompressTask> {
+    static final long COMPRESSION_BUF_SIZE = 1024 * 1024;
+    private static final Log LOG = LogFactory.getLog(PartitionCompressJob.class);
+    private final FilesFacade ff;
+
+    public PartitionCompressJob(MessageBus messageBus) {
+        super(messageBus.getPartitionCompressQueue(), messageBus.getPartitionCompressSubSeq());
+        this.ff = messageBus.getConfiguration().getFilesFacade();
+    }
+
+    /**
+     * Compresses single column of a partition.
+     *
+     * @param path  partition directory
+     * @param other partition directory, used to build path of compressed file
+     * @return true when column is compressed, false when it does not exist or does not compress
+     * @throws CairoException when column could not be compressed, raw column file is left intact
+     */
+    public static boolean compressColumn(
+            FilesFacade ff,
+            Path path,
+            Path other,
+            CharSequence columnName,
+            int columnType,
+            long rowCount,
+            int commitMode,
+            long bufAddr
+    ) {
+        final int plen = path.length();
+        if (rowCount < 1 || !ff.exists(TableUtils.dFile(path.trimTo(plen), columnName))) {
+            return false;
+        }
+
+        final long srcSize = rowCount << ColumnType.pow2SizeOf(columnType);
+        final long srcFd = TableUtils.openRO(ff, path, LOG);
+        long dstFd = -1;
+        long dstSize;
+        try {
+            if (ff.length(srcFd) < srcSize) {
+                throw CairoException.instance(0).put("column is shorter than partition [path=").put(path)
+                        .put(", size=").put(srcSize)
+                        .put(']');
+            }
+            final long srcAddr = TableUtils.mapRO(ff, srcFd, srcSize, MemoryTag.MMAP_TABLE_WRITER);
+            try {
+                dstFd = TableUtils.openRW(ff, TableUtils.dzFile(other.trimTo(plen), columnName), LOG);
+                dstSize = ColumnCodec.encode(ff, dstFd, columnType, srcAddr, rowCount, bufAddr, COMPRESSION_BUF_SIZE);
+                // file can be left over from failed attempt
+                ff.truncate(dstFd, dstSize);
+                if (commitMode != CommitMode.NOSYNC) {
+                    ff.fsync(dstFd);
+                }
+            } finally {
+                ff.munmap(srcAddr, srcSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+        } catch (CairoException e) {
+            if (dstFd != -1) {
+                ff.close(dstFd);
+                dstFd = -1;
+            }
+            removeQuiet(ff, TableUtils.dzFile(other.trimTo(plen), columnName));
+            throw e;
+        } finally {
+            ff.close(srcFd);
+            if (dstFd != -1) {
+                ff.close(dstFd);
+            }
+        }
+
+        if (dstSize >= srcSize) {
+            LOG.info().$("column does not compress, left as is [path=").$(path).I$();
+            removeQuiet(ff, TableUtils.dzFile(other.trimTo(plen), columnName));
+            return false;
+        }
+
+        // readers choose .d file when both files exist
+        if (!ff.remove(path)) {
+            final int errno = ff.errno();
+            removeQuiet(ff, TableUtils.dzFile(other.trimTo(plen), columnName));
+            throw CairoException.instance(errno).put("cannot remove compressed column [path=").put(path).put(']');
+        }
+        LOG.info().$("compressed [path=").$(path)
+                .$(", size=").$(srcSize)
+                .$(", compressedSize=").$(dstSize)
+                .I$();
+        return true;
+    }
+
+    /**
+     * Compresses columns listed by the task. Failure to compress a column is logged, the column stays raw.
+     * Paths are overwritten with paths of partition files. Writer passes its own paths because thread local
+     * paths can be in use by O3 jobs it is helping with.
+     */
+    public static void compressPartition(FilesFacade ff, PartitionCompressTask task, Path path, Path other) {
+        compressPartition(ff, task, path, other, false);
+    }
+
+    /**
+     * Same as {@link #compressPartition(FilesFacade, PartitionCompressTask, Path, Path)} but stops at the first
+     * column that could not be compressed. Columns compressed before it stay compressed.
+     *
+     * @throws CairoException when column could not be compressed
+     */
+    public static void compressPartitionOrFail(FilesFacade ff, PartitionCompressTask task, Path path, Path other) {
+        compressPartition(ff, task, path, other, true);
+    }
+
+    private static void compressPartition(FilesFacade ff, PartitionCompressTask task, Path path, Path other, boolean failFast) {
+        partitionPath(path, task);
+        partitionPath(other, task);
+        final int plen = path.length();
+        final long bufAddr = Unsafe.malloc(COMPRESSION_BUF_SIZE, MemoryTag.NATIVE_DEFAULT);
+        try {
+            for (int i = 0, n = task.getColumnCount(); i < n; i++) {
+                try {
+                    compressColumn(
+                            ff,
+                            path.trimTo(plen),
+                            other.trimTo(plen),
+                            task.getColumnName(i),
+                            task.getColumnType(i),
+                            task.getColumnRowCount(i),
+                            task.getCommitMode(),
+                            bufAddr
+                    );
+                } catch (CairoException e) {
+                    if (failFast) {
+                        throw e;
+                    }
+                    LOG.error().$("could not compress column [path=").$(path.trimTo(plen))
+                            .$(", column=").$(task.getColumnName(i))
+                            .$(", errno=").$(e.getErrno())
+                            .$(", error=").$(e.getFlyweightMessage())
+                            .I$();
+                }
+            }
+        } finally {
+            Unsafe.free(bufAddr, COMPRESSION_BUF_SIZE, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    @Override
+    public int getPriority() {
+        return PRIORITY_LOW;
+    }
+
+    static void run(FilesFacade ff, PartitionCompressTask task, long cursor, Sequence subSeq, Path path, Path other) {
+        final SOUnboundedCountDownLatch doneLatch = task.getDoneLatch();
+        try {
+            compressPartition(ff, task, path, other);
+        } catch (Throwable e) {
+            LOG.error().$("could not compress partition [path=").$(task.getTablePath())
+                    .$(", ts=").$ts(task.getPartitionTimestamp())
+                    .$(", error=").$(e)
+                    .I$();
+        } finally {
+            subSeq.done(cursor);
+            doneLatch.countDown();
+        }
+    }
+
+    private static void partitionPath(Path path, PartitionCompressTask task) {
+        path.of(task.getTablePath());
+        TableUtils.setPathForPartition(path, task.getPartitionBy(), task.getPartitionTimestamp(), false);
+        TableUtils.txnPartitionConditionally(path, task.getPartitionNameTxn());
+    }
+
+    private static void removeQuiet(FilesFacade ff, LPSZ name) {
+        if (ff.exists(name) && !ff.remove(name)) {
+            LOG.error().$("cannot remove: ").utf8(name).$(" [errno=").$(ff.errno()).$(']').$();
+        }
+    }
+
+    @Override
+    protected boolean doRun(int workerId, long cursor) {
+        final PartitionCompressTask task = queue.get(cursor);
+        run(ff, task, cursor, subSeq, Path.getThreadLocal(task.getTablePath()), Path.getThreadLocal2(task.getTablePath()));
+        return true;
+    }
+}
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.cairo;
+
+import io.questdb.mp.Sequence;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for queries that publish tasks to worker queues. The number of queries
+ * that can have tasks queued at the same time is limited by {@link CairoConfiguration#getSqlParallelQueryLimit()}.
+ * Queries over the limit are not rejected, they run all of their tasks on the query thread.
+ * Admitted queries can have up to {@link CairoConfiguration#getSqlParallelQueryTaskLimit()} tasks
+ * queued or running on workers, the rest of their tasks run on the query thread as well. When the task
+ * limit is not configured, it is the number of workers in the pool that executes query jobs, see
+ * {@link CairoEngine#assignQueryJobs(io.questdb.mp.WorkerPool)}.
+ * <p>
+ * Query dispatches its tasks as follows:
+ * <pre>
+ * final int taskLimit = admissionController.acquire();
+ * try {
+ *     ...
+ *     final long seq = admissionController.next(pubSeq, taskLimit, queuedCount, doneLatch);
+ *     ...
+ * } finally {
+ *     admissionController.release(taskLimit);
+ * }
+ * </pre>
+ */
+public class QueryAdmissionController {
+    private final AtomicInteger activeQueryCount = new AtomicInteger();
+    private final int queryLimit;
+    private final int configuredTaskLimit;
+    private volatile int taskLimit;
+
+    public QueryAdmissionController(CairoConfiguration configuration) {
+        this.queryLimit = configuration.getSqlParallelQueryLimit();
+        this.configuredTaskLimit = configuration.getSqlParallelQueryTaskLimit();
+        this.taskLimit = configuredTaskLimit > 0 ? configuredTaskLimit : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Admits query to publish tasks to worker queues.
+     *
+     * @return max number of tasks query can have in flight on worker queues, 0 when query is not
+     * admitted and has to run all tasks on its own thread
+     */
+    public int acquire() {
+        if (queryLimit > 0) {
+            int count;
+            do {
+                count = activeQueryCount.get();
+                if (count >= queryLimit) {
+                    return 0;
+                }
+            } while (!activeQueryCount.compareAndSet(count, count + 1));
+        } else {
+            activeQueryCount.incrementAndGet();
+        }
+        return taskLimit;
+    }
+
+    public int getActiveQueryCount() {
+        return activeQueryCount.get();
+    }
+
+    /**
+     * Claims next slot on worker queue unless query already has as many tasks in flight as it is allowed to.
+     *
+     * @param pubSeq      publisher sequence of worker queue
+     * @param taskLimit   value returned by {@link #acquire()}
+     * @param queuedCount number of tasks query has published so far
+     * @param doneLatch   latch counted down by every completed task, reset before the first task was published
+     * @return slot on the queue or negative value when task has to run on the query thread
+     */
+    public long next(Sequence pubSeq, int taskLimit, int queuedCount, SOUnboundedCountDownLatch doneLatch) {
+        // latch count goes from 0 down to -queuedCount as tasks complete
+        return queuedCount + doneLatch.getCount() < taskLimit ? pubSeq.next() : -1;
+    }
+
+    public void release(int taskLimit) {
+        if (taskLimit > 0) {
+            activeQueryCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Sets task limit to the number of workers executing query jobs unless the limit is configured.
+     * Queries that have been admitted already keep the limit they have acquired.
+     *
+     * @param workerCount number of workers in the pool query jobs are assigned to
+     */
+    public void setWorkerCount(int workerCount) {
+        if (configuredTaskLimit <= 0) {
+            // query thread runs tasks too, so it can make progress even if the pool has no workers
+            this.taskLimit = Math.max(1, workerCount);
+        }
+    }
+}
@@ -27,6 +27,7 @@ package io.questdb.cairo;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.cairo.sql.SymbolTableSource;
 import io.questdb.cairo.vm.MemoryCMRImpl;
+import io.questdb.cairo.vm.MemoryCZRImpl;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMR;
 import io.questdb.cairo.vm.api.MemoryR;
@@ -156,6 +157,36 @@ public class TableReader implements Closeable, SymbolTableSource {
         return result / countTotal;
     }
 
+    /**
+     * Checks value against bloom filter of column in the partition.
+     *
+     * @param partitionIndex index of partition
+     * @param columnIndex    index of column, which has bloom filter
+     * @param hash           value hash, see {@link BloomFilter#hash(long)}
+     * @return false when partition does not contain the value, true when it may or there is no filter
+     */
+    public boolean bloomFilterMayContain(int partitionIndex, int columnIndex, long hash) {
+        final long partitionSize = openPartition(partitionIndex);
+        if (partitionSize < 1) {
+            return true;
+        }
+
+        try {
+            TableUtils.txnPartitionConditionally(pathGenPartitioned(partitionIndex), txFile.getPartitionNameTxn(partitionIndex));
+            final long fd = ff.openRO(TableUtils.bfFile(path, metadata.getColumnName(columnIndex)));
+            if (fd < 0) {
+                return true;
+            }
+            try {
+                return BloomFilter.mayContain(ff, fd, partitionSize, hash, tempMem8b);
+            } finally {
+                ff.close(fd);
+            }
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     @Override
     public void close() {
         if (isOpen()) {
@@ -366,73 +397,62 @@ public class TableReader implements Closeable, SymbolTableSource {
         return openPartition0(partitionIndex);
     }
 
-    public void reconcileOpenPartitionsFrom(int partitionIndex) {
-        int txPartitionCount = txFile.getPartitionCount();
-        int txPartitionIndex = partitionIndex;
-        boolean changed = false;
-
-        while (partitionIndex < partitionCount && txPartitionIndex < txPartitionCount) {
-            final int offset = partitionIndex * PARTITIONS_SLOT_SIZE;
-            final long openPartitionTimestamp = openPartitionInfo.getQuick(offset);
-            final long openPartitionSize = openPartitionInfo.getQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE);
-            final long openPartitionDataTxn = openPartitionInfo.getQuick(offset + PARTITIONS_SLOT_OFFSET_DATA_TXN);
-            final long openPartitionNameTxn = openPartitionInfo.getQuick(offset + PARTITIONS_SLOT_OFFSET_NAME_TXN);
-
-            long txPartTs = txFile.getPartitionTimestamp(txPartitionIndex);
+    /**
+     * Reads statistics TableWriter stored for the column when partition was sealed.
+     *
+     * @return false when column has no statistics in the partition or they are out of date
+     */
+    public boolean readColumnStats(int partitionIndex, int columnIndex, ColumnStats stats) {
+        final long partitionSize = openPartition(partitionIndex);
+        if (partitionSize < 1) {
+            return false;
+        }
 
-            if (openPartitionTimestamp < txPartTs) {
-                // Deleted partitions
-                // This will decrement partitionCount
-                deletePartition(partitionIndex);
-            } else if (openPartitionTimestamp > txPartTs) {
-                // Insert partition
-                insertPartition(partitionIndex, txPartTs);
-                changed = true;
-                txPartitionIndex++;
-                partitionIndex++;
-            } else {
-                // Refresh partition
-                long newPartitionSize = txFile.getPartitionSize(txPartitionIndex);
-                final long txPartitionDataTxn = txFile.getPartitionDataTxn(partitionIndex);
-                final long txPartitionNameTxn = txFile.getPartitionNameTxn(partitionIndex);
-                if (openPartitionNameTxn == txPartitionNameTxn && openPartitionDataTxn == txPartitionDataTxn) {
-                    if (openPartitionSize != newPartitionSize) {
-                        if (openPartitionSize > -1L) {
-                            reloadPartition(partitionIndex, newPartitionSize, txPartitionNameTxn);
-                            this.openPartitionInfo.setQuick(partitionIndex * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_SIZE, newPartitionSize);
-                            LOG.debug().$("updated partition size [partition=").$(openPartitionTimestamp).I$();
-                        }
-                        changed = true;
-                    }
-                } else {
-                    // clear the partition size in case we truncated it
-                    this.openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE, -1);
-                    openPartition0(partitionIndex);
-                    this.openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_NAME_TXN, txPartitionNameTxn);
-                    changed = true;
-                }
-                txPartitionIndex++;
-                partitionIndex++;
+        try {
+            TableUtils.txnPartitionConditionally(pathGenPartitioned(partitionIndex), txFile.getPartitionNameTxn(partitionIndex));
+            final long fd = ff.openRO(TableUtils.stFile(path, metadata.getColumnName(columnIndex)));
+            if (fd < 0) {
+                return false;
+            }
+            try {
+                return stats.read(ff, fd, tempMem8b) && stats.getRowCount() == partitionSize;
+            } finally {
+                ff.close(fd);
             }
+        } finally {
+            path.trimTo(rootLen);
         }
+    }
 
-        // if while finished on txPartitionIndex == txPartitionCount condition
-        // remove deleted opened partitions
-        while (partitionIndex < partitionCount) {
-            deletePartition(partitionIndex);
-            changed = true;
-        }
+    public void reconcileOpenPartitionsFrom(int partitionIndex) {
+        reconcileOpenPartitionsFrom(partitionIndex, true);
+    }
 
-        // if while finished on partitionIndex == partitionCount condition
-        // insert new partitions at the end
-        for (; partitionIndex < txPartitionCount; partitionIndex++) {
-            insertPartition(partitionIndex, txFile.getPartitionTimestamp(partitionIndex));
-            changed = true;
+    /**
+     * Moves passive reader, one that rests in the pool, to the latest transaction, reusing its open partitions. The
+     * transaction is not held after the reload, so thread that takes reader out of the pool later finds little or
+     * nothing left to reload.
+     *
+     * @return true when reader moved to new transaction
+     */
+    public boolean refresh() {
+        if (active || this.txn == txFile.readTxn()) {
+            return false;
         }
-
-        if (changed) {
-            reloadSymbolMapCounts();
+        final long prevStructVersion = this.txFile.getStructureVersion();
+        final long prevPartitionVersion = this.txFile.getPartitionTableVersion();
+        final long prevDataVersion = this.txFile.getDataVersion();
+        // this acquires transaction regardless of outcome
+        final boolean reloaded = readTxnSlow();
+        try {
+            if (reloaded) {
+                reloadStruct(prevStructVersion);
+                reconcileOpenPartitions(prevPartitionVersion, prevDataVersion);
+            }
+        } finally {
+            txnScoreboard.releaseTxn(txn);
         }
+        return reloaded;
     }
 
     public boolean reload() {
@@ -810,15 +830,50 @@ public class TableReader implements Closeable, SymbolTableSource {
             MemoryMR mem,
             long columnSize
     ) {
-        if (mem != null && mem != NullColumn.INSTANCE) {
+        if (mem instanceof MemoryCMRImpl) {
             mem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_READER);
         } else {
             mem = Vm.getMRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER);
-            columns.setQuick(primaryIndex, mem);
+            Misc.free(columns.getAndSetQuick(primaryIndex, mem));
         }
         return mem;
     }
 
+    private void openFixedColumnMemory(Path path, CharSequence name, ObjList<MemoryMR> columns, int primaryIndex, MemoryMR mem, long columnSize) {
+        final int plen = path.length();
+        // columns of sealed partitions can be compressed, writer replaces .d file with .dz file
+        // and back at any time, so we fall back to the other file when the one we checked is gone
+        if (ff.exists(TableUtils.dFile(path, name))) {
+            try {
+                openOrCreateMemory(path, columns, primaryIndex, mem, columnSize);
+                return;
+            } catch (CairoException e) {
+                if (!ff.exists(TableUtils.dzFile(path.trimTo(plen), name))) {
+                    throw e;
+                }
+            }
+        } else {
+            TableUtils.dzFile(path.trimTo(plen), name);
+        }
+
+        try {
+            openCompressedMemory(path, columns, primaryIndex, columns.getQuick(primaryIndex), columnSize);
+        } catch (CairoException e) {
+            if (!ff.exists(TableUtils.dFile(path.trimTo(plen), name))) {
+                throw e;
+            }
+            openOrCreateMemory(path, columns, primaryIndex, columns.getQuick(primaryIndex), columnSize);
+        }
+    }
+
+    private void openCompressedMemory(Path path, ObjList<MemoryMR> columns, int primaryIndex, MemoryMR mem, long columnSize) {
+        if (!(mem instanceof MemoryCZRImpl)) {
+            mem = new MemoryCZRImpl(configuration.getDecodedColumnCache());
+            Misc.free(columns.getAndSetQuick(primaryIndex, mem));
+        }
+        mem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_READER);
+    }
+
     private long openPartition0(int partitionIndex) {
         if (txFile.getPartitionCount() < 2 && txFile.getTransientRowCount() == 0) {
             return -1;
@@ -843,9 +898,13 @@ public class TableReader implements Closeable, SymbolTableSource {
                         .$(", partitionCount=").$(partitionCount)
                         .$(']').$();
 
+                // remember which version of partition we mapped, reload compares it to
+                // the transaction file to tell appended partitions from rewritten ones
+                final int offset = partitionIndex * PARTITIONS_SLOT_SIZE;
+                this.openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_NAME_TXN, partitionNameTxn);
+                this.openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_DATA_TXN, txFile.getPartitionDataTxn(partitionIndex));
                 if (partitionSize > 0) {
                     openPartitionColumns(path, getColumnBase(partitionIndex), partitionSize);
-                    final int offset = partitionIndex * PARTITIONS_SLOT_SIZE;
                     this.openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE, partitionSize);
                 }
 
@@ -967,35 +1026,14 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
     }
 
-    private void reconcileOpenPartitions(long prevPartitionVersion) {
+    private void reconcileOpenPartitions(long prevPartitionVersion, long prevDataVersion) {
         // Reconcile partition full or partial will only update row count of last partition and append new partitions
         if (this.txFile.getPartitionTableVersion() == prevPartitionVersion) {
             int partitionIndex = Math.max(0, partitionCount - 1);
             final int txPartitionCount = txFile.getPartitionCount();
             if (partitionIndex < txPartitionCount) {
                 if (partitionIndex < partitionCount) {
-                    final int offset = partitionIndex * PARTITIONS_SLOT_SIZE;
-                    final long openPartitionSize = openPartitionInfo.getQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE);
-                    // we check that open partition size is non-negative to avoid loading
-                    // partition that is not yet in memory
-                    if (openPartitionSize > -1) {
-                        final long openPartitionNameTxn = openPartitionInfo.getQuick(offset + PARTITIONS_SLOT_OFFSET_NAME_TXN);
-                        final long openPartitionDataTxn = openPartitionInfo.getQuick(offset + PARTITIONS_SLOT_OFFSET_DATA_TXN);
-                        final long txPartitionSize = txFile.getPartitionSize(partitionIndex);
-                        final long txPartitionNameTxn = txFile.getPartitionNameTxn(partitionIndex);
-                        final long txPartitionDataTxn = txFile.getPartitionDataTxn(partitionIndex);
-
-                        if (openPartitionNameTxn == txPartitionNameTxn && openPartitionDataTxn == txPartitionDataTxn) {
-                            if (openPartitionSize != txPartitionSize) {
-                                reloadPartition(partitionIndex, txPartitionSize, txPartitionNameTxn);
-                                this.openPartitionInfo.setQuick(partitionIndex * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_SIZE, txPartitionSize);
-                                LOG.debug().$("updated partition size [partition=").$(openPartitionInfo.getQuick(offset)).I$();
-                            }
-                        } else {
-                            openPartition0(partitionIndex);
-                            this.openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_NAME_TXN, txPartitionNameTxn);
-                        }
-                    }
+                    refreshPartition(partitionIndex, false);
                     partitionIndex++;
                 }
                 for (; partitionIndex < txPartitionCount; partitionIndex++) {
@@ -1005,7 +1043,95 @@ public class TableReader implements Closeable, SymbolTableSource {
             }
             return;
         }
-        reconcileOpenPartitionsFrom(0);
+        reconcileOpenPartitionsFrom(0, txFile.getDataVersion() != prevDataVersion);
+    }
+
+    private void reconcileOpenPartitionsFrom(int partitionIndex, boolean truncated) {
+        int txPartitionCount = txFile.getPartitionCount();
+        int txPartitionIndex = partitionIndex;
+        boolean changed = false;
+
+        while (partitionIndex < partitionCount && txPartitionIndex < txPartitionCount) {
+            final long openPartitionTimestamp = openPartitionInfo.getQuick(partitionIndex * PARTITIONS_SLOT_SIZE);
+            long txPartTs = txFile.getPartitionTimestamp(txPartitionIndex);
+
+            if (openPartitionTimestamp < txPartTs) {
+                // Deleted partitions
+                // This will decrement partitionCount
+                deletePartition(partitionIndex);
+            } else if (openPartitionTimestamp > txPartTs) {
+                // Insert partition
+                insertPartition(partitionIndex, txPartTs);
+                changed = true;
+                txPartitionIndex++;
+                partitionIndex++;
+            } else {
+                changed |= refreshPartition(partitionIndex, truncated);
+                txPartitionIndex++;
+                partitionIndex++;
+            }
+        }
+
+        // if while finished on txPartitionIndex == txPartitionCount condition
+        // remove deleted opened partitions
+        while (partitionIndex < partitionCount) {
+            deletePartition(partitionIndex);
+            changed = true;
+        }
+
+        // if while finished on partitionIndex == partitionCount condition
+        // insert new partitions at the end
+        for (; partitionIndex < txPartitionCount; partitionIndex++) {
+            insertPartition(partitionIndex, txFile.getPartitionTimestamp(partitionIndex));
+            changed = true;
+        }
+
+        if (changed) {
+            reloadSymbolMapCounts();
+        }
+    }
+
+    /**
+     * Brings open partition in line with the transaction file. Mapped columns are reused for as long as
+     * partition keeps its name and only grows: rows appended to the last partition, as well as O3 rows appended
+     * to an older partition in place, extend existing mappings. Partition is remapped only when O3 rewrote it
+     * under a new name or when table was truncated. Partitions that are not open yet are left to be opened on demand.
+     *
+     * @param partitionIndex index of partition, which is the same in reader and transaction file
+     * @param truncated      true when table data version changed since the last reload
+     * @return true when partition changed
+     */
+    private boolean refreshPartition(int partitionIndex, boolean truncated) {
+        final int offset = partitionIndex * PARTITIONS_SLOT_SIZE;
+        final long openPartitionSize = openPartitionInfo.getQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE);
+        final long openPartitionNameTxn = openPartitionInfo.getQuick(offset + PARTITIONS_SLOT_OFFSET_NAME_TXN);
+        final long openPartitionDataTxn = openPartitionInfo.getQuick(offset + PARTITIONS_SLOT_OFFSET_DATA_TXN);
+        final long txPartitionSize = txFile.getPartitionSize(partitionIndex);
+        final long txPartitionNameTxn = txFile.getPartitionNameTxn(partitionIndex);
+        final long txPartitionDataTxn = txFile.getPartitionDataTxn(partitionIndex);
+
+        if (openPartitionSize == txPartitionSize && openPartitionNameTxn == txPartitionNameTxn && openPartitionDataTxn == txPartitionDataTxn) {
+            return false;
+        }
+
+        if (openPartitionSize < 0) {
+            // partition will be opened from the transaction file when it is first read
+            openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_NAME_TXN, txPartitionNameTxn);
+            openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_DATA_TXN, txPartitionDataTxn);
+            return true;
+        }
+
+        if (openPartitionNameTxn == txPartitionNameTxn && openPartitionSize <= txPartitionSize && !truncated) {
+            reloadPartition(partitionIndex, txPartitionSize, txPartitionNameTxn, openPartitionDataTxn != txPartitionDataTxn);
+            openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE, txPartitionSize);
+            openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_DATA_TXN, txPartitionDataTxn);
+            LOG.debug().$("updated partition size [partition=").$ts(openPartitionInfo.getQuick(offset)).$(", size=").$(txPartitionSize).I$();
+        } else {
+            // clear the partition size in case we truncated it
+            openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE, -1);
+            openPartition0(partitionIndex);
+        }
+        return true;
     }
 
     private boolean reload(boolean activation) {
@@ -1042,7 +1168,7 @@ public class TableReader implements Closeable, SymbolTableSource {
             // When column is added mid-table existence the .top file is only
             // created in the current partition. Older partitions would simply have no
             // column file. This makes it necessary to check for .d file existence
-            if (partitionRowCount > 0 &&  ff.exists(TableUtils.dFile(path.trimTo(plen), name))) {
+            if (partitionRowCount > 0 && (ff.exists(TableUtils.dFile(path.trimTo(plen), name)) || ff.exists(TableUtils.dzFile(path.trimTo(plen), name)))) {
                 final int columnType = metadata.getColumnType(columnIndex);
 
                 if (ColumnType.isVariableLength(columnType)) {
@@ -1054,8 +1180,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                     openOrCreateMemory(path, columns, primaryIndex, mem1, columnSize);
                 } else {
                     long columnSize = columnRowCount << ColumnType.pow2SizeOf(columnType);
-                    TableUtils.dFile(path.trimTo(plen), name);
-                    openOrCreateMemory(path, columns, primaryIndex, mem1, columnSize);
+                    openFixedColumnMemory(path.trimTo(plen), name, columns, primaryIndex, mem1, columnSize);
                     Misc.free(columns.getAndSetQuick(secondaryIndex, null));
                 }
 
@@ -1120,8 +1245,9 @@ public class TableReader implements Closeable, SymbolTableSource {
      *
      * @param partitionIndex index of partition
      * @param rowCount       number of rows in partition
+     * @param checkFiles     when true, columns whose files were replaced on disk are reopened rather than extended
      */
-    private void reloadPartition(int partitionIndex, long rowCount, long openPartitionNameTxn) {
+    private void reloadPartition(int partitionIndex, long rowCount, long openPartitionNameTxn, boolean checkFiles) {
         Path path = pathGenPartitioned(partitionIndex);
         TableUtils.txnPartitionConditionally(path, openPartitionNameTxn);
         try {
@@ -1130,7 +1256,9 @@ public class TableReader implements Closeable, SymbolTableSource {
             for (int i = 0; i < columnCount; i++) {
                 final int index = getPrimaryColumnIndex(columnBase, i);
                 final MemoryMR mem1 = columns.getQuick(index);
-                if (mem1 instanceof NullColumn) {
+                // partition can be unsealed before it is appended to, which swaps compressed
+                // column file for raw one, and dropped partition can be re-created under the same name
+                if (mem1 instanceof NullColumn || (checkFiles && mem1.isDeleted())) {
                     reloadColumnAt(
                             path,
                             columns,
@@ -1165,13 +1293,14 @@ public class TableReader implements Closeable, SymbolTableSource {
         // Save tx file versions on stack
         final long prevStructVersion = this.txFile.getStructureVersion();
         final long prevPartitionVersion = this.txFile.getPartitionTableVersion();
+        final long prevDataVersion = this.txFile.getDataVersion();
 
         // reload tx file, this will update the versions
         if (this.readTxnSlow()) {
             reloadStruct(prevStructVersion);
             // partition reload will apply truncate if necessary
             // applyTruncate for non-partitioned tables only
-            reconcileOpenPartitions(prevPartitionVersion);
+            reconcileOpenPartitions(prevPartitionVersion, prevDataVersion);
             return true;
         }
 
@@ -1239,7 +1368,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                             //    instance and the column from disk
                             // 3. Column hasn't been altered and we can skip to next column.
                             MemoryMR col = columns.getQuick(getPrimaryColumnIndex(base, i));
-                            if ((col instanceof MemoryCMRImpl && col.isDeleted()) || col instanceof NullColumn) {
+                            if (((col instanceof MemoryCMRImpl || col instanceof MemoryCZRImpl) && col.isDeleted()) || col instanceof NullColumn) {
                                 reloadColumnAt(
                                         path,
                                         columns,
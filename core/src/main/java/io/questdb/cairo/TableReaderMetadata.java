@@ -210,6 +210,10 @@ public class TableReaderMetadata extends BaseRecordMetadata implements Closeable
         return id;
     }
 
+    public boolean isColumnBloomFiltered(int columnIndex) {
+        return TableUtils.isColumnBloomFiltered(metaMem, columnIndex);
+    }
+
     public int getPartitionBy() {
         return metaMem.getInt(TableUtils.META_OFFSET_PARTITION_BY);
     }
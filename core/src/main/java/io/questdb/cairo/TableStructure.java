@@ -39,6 +39,10 @@ public interface TableStructure {
 
     boolean isSequential(int columnIndex);
 
+    default boolean isBloomFiltered(int columnIndex) {
+        return false;
+    }
+
     int getPartitionBy();
 
     boolean getSymbolCacheFlag(int columnIndex);
@@ -67,6 +67,9 @@ public final class TableUtils {
     public static final long META_OFFSET_COMMIT_LAG = 24;
     public static final String FILE_SUFFIX_I = ".i";
     public static final String FILE_SUFFIX_D = ".d";
+    public static final String FILE_SUFFIX_DZ = ".dz";
+    public static final String FILE_SUFFIX_ST = ".st";
+    public static final String FILE_SUFFIX_BF = ".bf";
     public static final int LONGS_PER_TX_ATTACHED_PARTITION = 4;
     public static final int LONGS_PER_TX_ATTACHED_PARTITION_MSB = Numbers.msb(LONGS_PER_TX_ATTACHED_PARTITION);
     public static final DateFormat fmtDay;
@@ -109,6 +112,7 @@ public final class TableUtils {
     static final long META_OFFSET_PARTITION_BY = 4;
     static final int META_FLAG_BIT_INDEXED = 1;
     static final int META_FLAG_BIT_SEQUENTIAL = 1 << 1;
+    static final int META_FLAG_BIT_BLOOM_FILTER = 1 << 2;
     static final String TODO_FILE_NAME = "_todo_";
     private static final int MIN_SYMBOL_CAPACITY = 2;
     private static final int MAX_SYMBOL_CAPACITY = Numbers.ceilPow2(Integer.MAX_VALUE);
@@ -182,6 +186,10 @@ public final class TableUtils {
                     flags |= META_FLAG_BIT_SEQUENTIAL;
                 }
 
+                if (structure.isBloomFiltered(i)) {
+                    flags |= META_FLAG_BIT_BLOOM_FILTER;
+                }
+
                 mem.putLong(flags);
                 mem.putInt(structure.getIndexBlockCapacity(i));
                 mem.putLong(structure.getColumnHash(i));
@@ -275,10 +283,18 @@ public final class TableUtils {
         return pTransitionIndex;
     }
 
+    public static LPSZ bfFile(Path path, CharSequence columnName) {
+        return path.concat(columnName).put(FILE_SUFFIX_BF).$();
+    }
+
     public static LPSZ dFile(Path path, CharSequence columnName) {
         return path.concat(columnName).put(FILE_SUFFIX_D).$();
     }
 
+    public static LPSZ dzFile(Path path, CharSequence columnName) {
+        return path.concat(columnName).put(FILE_SUFFIX_DZ).$();
+    }
+
     public static int exists(FilesFacade ff, Path path, CharSequence root, CharSequence name) {
         return exists(ff, path, root, name, 0, name.length());
     }
@@ -742,6 +758,10 @@ public final class TableUtils {
         }
     }
 
+    public static LPSZ stFile(Path path, CharSequence columnName) {
+        return path.concat(columnName).put(FILE_SUFFIX_ST).$();
+    }
+
     public static int toIndexKey(int symbolKey) {
         return symbolKey == SymbolTable.VALUE_IS_NULL ? 0 : symbolKey + 1;
     }
@@ -920,6 +940,10 @@ public final class TableUtils {
         return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_SEQUENTIAL) != 0;
     }
 
+    static boolean isColumnBloomFiltered(MemoryR metaMem, int columnIndex) {
+        return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_BLOOM_FILTER) != 0;
+    }
+
     static int getIndexBlockCapacity(MemoryR metaMem, int columnIndex) {
         return metaMem.getInt(META_OFFSET_COLUMN_TYPES + columnIndex * META_COLUMN_DATA_SIZE + 4 + 8);
     }
@@ -49,16 +49,16 @@ import io.questdb.tasks.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.Closeable;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.LongConsumer;
 
 import static io.questdb.cairo.StatusCode.*;
 import static io.questdb.cairo.TableUtils.*;
 import static io.questdb.std.Files.isDots;
 
-public class TableWriter implements Closeable {
+public class TableWriter implements TableWriterAPI {
     public static final int TIMESTAMP_MERGE_ENTRY_BYTES = Long.BYTES * 2;
     public static final int O3_BLOCK_NONE = -1;
     public static final int O3_BLOCK_O3 = 1;
@@ -84,6 +84,9 @@ public class TableWriter implements Closeable {
     private final ObjList<ColumnIndexer> denseIndexers = new ObjList<>();
     private final Path path;
     private final Path other;
+    // partition compression paths, thread local paths are in use by O3 jobs when writer compresses partitions
+    private final Path compressPath = new Path();
+    private final Path compressOther = new Path();
     private final LongList rowValueIsNotNull = new LongList();
     private final Row regularRow = new RowImpl();
     private final int rootLen;
@@ -127,6 +130,9 @@ public class TableWriter implements Closeable {
     private final O3ColumnUpdateMethod oooSortVarColumnRef = this::o3SortVarColumn;
     private final O3ColumnUpdateMethod oooSortFixColumnRef = this::o3SortFixColumn;
     private final SOUnboundedCountDownLatch o3DoneLatch = new SOUnboundedCountDownLatch();
+    private final SOUnboundedCountDownLatch compressDoneLatch = new SOUnboundedCountDownLatch();
+    // used to compress partition on writer thread when compression queue is full
+    private final PartitionCompressTask compressTask = new PartitionCompressTask();
     private final AtomicLong o3PartitionUpdRemaining = new AtomicLong();
     private final AtomicInteger o3ErrorCount = new AtomicInteger();
     private final MemoryMARW todoMem = Vm.getMARWInstance();
@@ -142,6 +148,11 @@ public class TableWriter implements Closeable {
     private final MPSequence o3PartitionUpdatePubSeq;
     private final SCSequence o3PartitionUpdateSubSeq;
     private final boolean o3QuickSortEnabled;
+    private final int o3CommitLagMaxPartitions;
+    private final boolean partitionCompressionEnabled;
+    private final boolean partitionStatsEnabled;
+    private final ColumnStats columnStats = new ColumnStats();
+    private final BloomFilter bloomFilter = new BloomFilter();
     private final LongConsumer appendTimestampSetter;
     private final MemoryMR indexMem = Vm.getMRInstance();
     private final MemoryFR slaveMetaMem = new MemoryFCRImpl();
@@ -176,6 +187,13 @@ public class TableWriter implements Closeable {
     private LifecycleManager lifecycleManager;
     private String designatedTimestampColumnName;
     private long o3RowCount;
+    // rows left uncommitted by last commit with lag because of partition limit, they are in addition to lag rows
+    private long o3DeferredRowCount;
+    // partitions from this timestamp up to the active one are compressed and get column statistics once they are sealed
+    private long sealedPartitionLo = Long.MIN_VALUE;
+    // number of partitions queued for compression since writer last waited for compression jobs
+    private int compressQueuedCount;
+    private boolean bloomFiltersEnabled;
     private final O3ColumnUpdateMethod o3MoveUncommittedRef = this::o3MoveUncommitted0;
     private long lastPartitionTimestamp;
     private boolean o3InError = false;
@@ -226,6 +244,9 @@ public class TableWriter implements Closeable {
         this.fileOperationRetryCount = configuration.getFileOperationRetryCount();
         this.tableName = Chars.toString(tableName);
         this.o3QuickSortEnabled = configuration.isO3QuickSortEnabled();
+        this.o3CommitLagMaxPartitions = configuration.getO3CommitLagMaxPartitions();
+        this.partitionCompressionEnabled = configuration.isPartitionCompressionEnabled();
+        this.partitionStatsEnabled = configuration.isPartitionStatsEnabled();
         // todo: move these sequences and queue onto message bus
         this.o3PartitionUpdateQueue = new RingQueue<O3PartitionUpdateTask>(O3PartitionUpdateTask.CONSTRUCTOR, configuration.getO3PartitionUpdateQueueCapacity());
         this.o3PartitionUpdatePubSeq = new MPSequence(this.o3PartitionUpdateQueue.getCycle());
@@ -285,6 +306,9 @@ public class TableWriter implements Closeable {
                     break;
             }
             this.columnCount = metadata.getColumnCount();
+            for (int i = 0; i < columnCount; i++) {
+                bloomFiltersEnabled |= isColumnBloomFiltered(metaMem, i);
+            }
             if (metadata.getTimestampIndex() > -1) {
                 this.designatedTimestampColumnName = metadata.getColumnName(metadata.getTimestampIndex());
             }
@@ -320,6 +344,10 @@ public class TableWriter implements Closeable {
             configureAppendPosition();
             purgeUnusedPartitions();
             clearTodoLog();
+            if (partitionBy != PartitionBy.NONE && txWriter.getMaxTimestamp() != Numbers.LONG_NaN) {
+                // partitions sealed before writer was open are left as they are
+                this.sealedPartitionLo = timestampFloorMethod.floor(txWriter.getMaxTimestamp());
+            }
         } catch (Throwable e) {
             doClose(false);
             throw e;
@@ -620,6 +648,11 @@ public class TableWriter implements Closeable {
                 }
             }
 
+            // partition could have been compressed by the table it was detached from
+            path.trimTo(rootLen);
+            unsealPartition(timestamp);
+            setPathForPartition(path, partitionBy, timestamp, false);
+
             if (ff.exists(path.$())) {
                 // find out lo, hi ranges of partition attached as well as size
                 final long partitionSize = readPartitionSizeMinMax(ff, path, timestampCol, tempMem16b, timestamp);
@@ -693,7 +726,7 @@ public class TableWriter implements Closeable {
     }
 
     public boolean checkMaxAndCommitLag(int commitMode) {
-        if (!hasO3() || getO3RowCount0() < metadata.getMaxUncommittedRows()) {
+        if (!hasO3() || getO3RowCount0() < metadata.getMaxUncommittedRows() + o3DeferredRowCount) {
             return false;
         }
         commit(commitMode, metadata.getCommitLag());
@@ -707,6 +740,7 @@ public class TableWriter implements Closeable {
         }
     }
 
+    @Override
     public void commit() {
         commit(defaultCommitMode);
     }
@@ -719,6 +753,7 @@ public class TableWriter implements Closeable {
         commit(defaultCommitMode, metadata.getCommitLag());
     }
 
+    @Override
     public void commitWithLag(long lagMicros) {
         commit(defaultCommitMode, lagMicros);
     }
@@ -727,6 +762,60 @@ public class TableWriter implements Closeable {
         commit(commitMode, metadata.getCommitLag());
     }
 
+    /**
+     * @return false when partition is not attached or is the active one
+     * @throws CairoException when column of the partition could not be compressed
+     */
+    public boolean compressPartition(long timestamp) {
+        if (partitionBy == PartitionBy.NONE) {
+            return false;
+        }
+        timestamp = getPartitionLo(timestamp);
+
+        if (!txWriter.attachedPartitionsContains(timestamp)) {
+            LOG.error().$("partition is not attached [path=").$(path).$(", timestamp=").$ts(timestamp).I$();
+            return false;
+        }
+
+        if (timestamp == getPartitionLo(txWriter.getMaxTimestamp())) {
+            LOG.error().$("cannot compress active partition [path=").$(path).$(", timestamp=").$ts(timestamp).I$();
+            return false;
+        }
+
+        awaitPartitionCompression();
+        preparePartitionCompressTask(compressTask, timestamp, defaultCommitMode);
+        PartitionCompressJob.compressPartitionOrFail(ff, compressTask, compressPath, compressOther);
+        return true;
+    }
+
+    public void compressPartition(Function function, int posForError) throws SqlException {
+        if (partitionBy == PartitionBy.NONE) {
+            throw SqlException.$(posForError, "table is not partitioned");
+        }
+
+        if (txWriter.getPartitionCount() == 0) {
+            throw SqlException.$(posForError, "table is empty");
+        }
+
+        // active partition is skipped, it is still being written to
+        for (int i = 0, n = txWriter.getPartitionCount() - 1; i < n; i++) {
+            final long partitionTimestamp = txWriter.getPartitionTimestamp(i);
+            dropPartitionFunctionRec.setTimestamp(partitionTimestamp);
+            if (function.getBool(dropPartitionFunctionRec)) {
+                try {
+                    compressPartition(partitionTimestamp);
+                } catch (CairoException e) {
+                    final StringSink partitionName = Misc.getThreadLocalBuilder();
+                    TableUtils.setSinkForPartition(partitionName, partitionBy, partitionTimestamp, false);
+                    throw SqlException.$(posForError, "could not compress partition '").put(partitionName)
+                            .put("' [errno=").put(e.getErrno())
+                            .put(", error=").put(e.getFlyweightMessage())
+                            .put(']');
+                }
+            }
+        }
+    }
+
     public int getColumnIndex(CharSequence name) {
         int index = metadata.getColumnIndexQuiet(name);
         if (index > -1) {
@@ -747,10 +836,19 @@ public class TableWriter implements Closeable {
         return txWriter.getMaxTimestamp();
     }
 
+    @Override
     public TableWriterMetadata getMetadata() {
         return metadata;
     }
 
+    /**
+     * @return number of O3 rows that the last commit with lag left uncommitted, in addition to lag rows,
+     * because they belong to partitions past the cairo.o3.commit.lag.max.partitions limit
+     */
+    public long getO3DeferredRowCount() {
+        return o3DeferredRowCount;
+    }
+
     public long getO3RowCount() {
         return hasO3() ? getO3RowCount0() : 0;
     }
@@ -781,6 +879,7 @@ public class TableWriter implements Closeable {
         return txWriter.getRawMemory();
     }
 
+    @Override
     public long getStructureVersion() {
         return txWriter.getStructureVersion();
     }
@@ -789,6 +888,7 @@ public class TableWriter implements Closeable {
         return symbolMapWriters.getQuick(columnIndex).put(symValue);
     }
 
+    @Override
     public String getTableName() {
         return tableName;
     }
@@ -809,6 +909,7 @@ public class TableWriter implements Closeable {
         return tempMem16b != 0;
     }
 
+    @Override
     public Row newRow(long timestamp) {
 
         switch (rowActon) {
@@ -864,6 +965,7 @@ public class TableWriter implements Closeable {
         return row;
     }
 
+    @Override
     public Row newRow() {
         return newRow(0L);
     }
@@ -905,6 +1007,8 @@ public class TableWriter implements Closeable {
 
         LOG.info().$("removing column '").utf8(name).$("' from ").$(path).$();
 
+        awaitPartitionCompression();
+
         // check if we are moving timestamp from a partitioned table
         final int timestampIndex = metaMem.getInt(META_OFFSET_TIMESTAMP_INDEX);
         boolean timestamp = index == timestampIndex;
@@ -976,6 +1080,7 @@ public class TableWriter implements Closeable {
     }
 
     public boolean removePartition(long timestamp) {
+        awaitPartitionCompression();
         long minTimestamp = txWriter.getMinTimestamp();
         long maxTimestamp = txWriter.getMaxTimestamp();
 
@@ -1069,6 +1174,7 @@ public class TableWriter implements Closeable {
         LOG.info().$("renaming column '").utf8(currentName).$("' to '").utf8(newName).$("' from ").$(path).$();
 
         commit();
+        awaitPartitionCompression();
 
         this.metaSwapIndex = renameColumnFromMeta(index, newName);
 
@@ -1314,6 +1420,7 @@ public class TableWriter implements Closeable {
         }
     }
 
+    @Override
     public void rollback() {
         checkDistressed();
         if (o3InError || inTransaction()) {
@@ -1423,6 +1530,8 @@ public class TableWriter implements Closeable {
             return;
         }
 
+        awaitPartitionCompression();
+
         // this is a crude block to test things for now
         todoMem.putLong(0, ++todoTxn); // write txn, reader will first read txn at offset 24 and then at offset 0
         Unsafe.getUnsafe().storeFence(); // make sure we do not write hash before writing txn (view from another thread)
@@ -1457,6 +1566,7 @@ public class TableWriter implements Closeable {
 
         txWriter.resetTimestamp();
         txWriter.truncate();
+        sealedPartitionLo = Long.MIN_VALUE;
 
         // todo: check and clear O3 memory
         row = regularRow;
@@ -1791,6 +1901,28 @@ public class TableWriter implements Closeable {
         return index;
     }
 
+    /**
+     * Waits for compression of partitions queued by this writer and helps running compression tasks meanwhile.
+     * Queued partitions must not be modified, removed or have their columns changed until they are compressed.
+     */
+    private void awaitPartitionCompression() {
+        if (compressQueuedCount == 0) {
+            return;
+        }
+        final RingQueue<PartitionCompressTask> queue = messageBus.getPartitionCompressQueue();
+        final Sequence subSeq = messageBus.getPartitionCompressSubSeq();
+        while (compressDoneLatch.getCount() > -compressQueuedCount) {
+            final long cursor = subSeq.next();
+            if (cursor > -1) {
+                PartitionCompressJob.run(ff, queue.get(cursor), cursor, subSeq, compressPath, compressOther);
+            } else {
+                LockSupport.parkNanos(1);
+            }
+        }
+        compressDoneLatch.reset();
+        compressQueuedCount = 0;
+    }
+
     private void bumpMasterRef() {
         if ((masterRef & 1) == 0) {
             masterRef++;
@@ -1899,6 +2031,9 @@ public class TableWriter implements Closeable {
             updateIndexes();
             txWriter.commit(commitMode, this.denseSymbolMapWriters);
             o3ProcessPartitionRemoveCandidates();
+            if (partitionCompressionEnabled || partitionStatsEnabled || bloomFiltersEnabled) {
+                processSealedPartitions(commitMode);
+            }
         }
 
         tick();
@@ -2086,6 +2221,9 @@ public class TableWriter implements Closeable {
                     if (isSequential(metaMem, i)) {
                         flags |= META_FLAG_BIT_SEQUENTIAL;
                     }
+                    if (isColumnBloomFiltered(metaMem, i)) {
+                        flags |= META_FLAG_BIT_BLOOM_FILTER;
+                    }
                     ddlMem.putLong(flags);
                     ddlMem.putInt(indexValueBlockSize);
                     ddlMem.putLong(getColumnHash(metaMem, i));
@@ -2199,7 +2337,89 @@ public class TableWriter implements Closeable {
         symbolMapWriters.extendAndSet(columnCount, w);
     }
 
+    private void decompressColumn(int plen, CharSequence columnName) {
+        if (!ff.exists(dzFile(path.trimTo(plen), columnName))) {
+            return;
+        }
+
+        if (ff.exists(dFile(other.trimTo(plen), columnName))) {
+            // compression did not complete
+            removeFileAndOrLog(ff, path);
+            return;
+        }
+
+        final long srcFd = TableUtils.openRO(ff, path, LOG);
+        try {
+            final long srcSize = ff.length(srcFd);
+            if (srcSize < ColumnCodec.HEADER_SIZE) {
+                throw CairoException.instance(0).put("compressed column is truncated [path=").put(path).put(']');
+            }
+            final long srcAddr = TableUtils.mapRO(ff, srcFd, srcSize, MemoryTag.MMAP_TABLE_WRITER);
+            try {
+                final long dstSize = ColumnCodec.getDecodedSize(srcAddr);
+                // column is decoded into temporary file first, readers must not see .d file before it is complete
+                other.trimTo(plen).concat(columnName).put(FILE_SUFFIX_D).put(".tmp").$();
+                final long dstFd = TableUtils.openRW(ff, other, LOG);
+                try {
+                    final long dstAddr = TableUtils.mapRW(ff, dstFd, dstSize, MemoryTag.MMAP_TABLE_WRITER);
+                    try {
+                        ColumnCodec.decode(srcAddr, srcSize, dstAddr);
+                    } finally {
+                        ff.munmap(dstAddr, dstSize, MemoryTag.MMAP_TABLE_WRITER);
+                    }
+                    ff.truncate(dstFd, dstSize);
+                    ff.fsync(dstFd);
+                } finally {
+                    ff.close(dstFd);
+                }
+            } finally {
+                ff.munmap(srcAddr, srcSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+        } finally {
+            ff.close(srcFd);
+        }
+
+        if (!ff.rename(other, dFile(path.trimTo(plen), columnName))) {
+            throw CairoException.instance(ff.errno()).put("could not rename [from=").put(other).put(", to=").put(path).put(']');
+        }
+        removeFileAndOrLog(ff, dzFile(path.trimTo(plen), columnName));
+        LOG.info().$("decompressed [path=").$(path.trimTo(plen).concat(columnName).put(FILE_SUFFIX_D).$()).I$();
+    }
+
+    /**
+     * Prepares sealed partition to be modified. Compressed columns are restored to raw files, which O3 jobs and
+     * partition appends work with, and column statistics and bloom filters, which are about to become stale, are
+     * removed.
+     */
+    private void unsealPartition(long partitionTimestamp) {
+        if (partitionBy == PartitionBy.NONE) {
+            return;
+        }
+        awaitPartitionCompression();
+        setStateForTimestamp(path, partitionTimestamp, false);
+        setStateForTimestamp(other, partitionTimestamp, false);
+        final int plen = path.length();
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (ColumnStats.isSupported(columnType)) {
+                    removeFileAndOrLog(ff, stFile(path.trimTo(plen), metadata.getColumnName(i)));
+                }
+                if (BloomFilter.isSupported(columnType)) {
+                    removeFileAndOrLog(ff, bfFile(path.trimTo(plen), metadata.getColumnName(i)));
+                }
+                if (ColumnCodec.codecOf(columnType) != ColumnCodec.CODEC_NONE) {
+                    decompressColumn(plen, metadata.getColumnName(i));
+                }
+            }
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+    }
+
     private void doClose(boolean truncate) {
+        awaitPartitionCompression();
         consumeO3PartitionRemoveTasks();
         boolean tx = inTransaction();
         freeSymbolMapWriters();
@@ -2209,7 +2429,10 @@ public class TableWriter implements Closeable {
         Misc.free(ddlMem);
         Misc.free(indexMem);
         Misc.free(other);
+        Misc.free(compressPath);
+        Misc.free(compressOther);
         Misc.free(todoMem);
+        Misc.free(bloomFilter);
         freeColumns(truncate & !distressed);
         try {
             releaseLock(!truncate | tx | performRecovery | distressed);
@@ -2470,6 +2693,7 @@ public class TableWriter implements Closeable {
      */
     private boolean o3Commit(long lag) {
         o3RowCount = getO3RowCount0();
+        o3DeferredRowCount = 0;
         o3PartitionRemoveCandidates.clear();
         o3ErrorCount.set(0);
         o3ColumnCounters.clear();
@@ -2568,6 +2792,25 @@ public class TableWriter implements Closeable {
                 srcOooMax = o3RowCount;
             }
 
+            if (lag > 0 && srcOooMax > 0 && o3CommitLagMaxPartitions > 0 && partitionBy != PartitionBy.NONE) {
+                // Merge cost grows with number of partitions O3 data touches. Commit with lag is not obliged
+                // to commit everything, so we limit it to the oldest partitions and leave the rest
+                // with the lag rows for the next commit. Commit remains synchronous, merging in the background
+                // would need O3 buffers and partition state, which the next batch reuses, to be double-buffered.
+                final long partitionLimitMax = o3PartitionLimitHi(sortedTimestampsAddr, srcOooMax, o3CommitLagMaxPartitions);
+                if (partitionLimitMax < srcOooMax && srcOooMax - partitionLimitMax <= maxUncommittedRows) {
+                    o3DeferredRowCount = srcOooMax - partitionLimitMax;
+                    srcOooMax = partitionLimitMax;
+                    o3LagRowCount = o3RowCount - srcOooMax;
+                    LOG.info().$("o3 commit partition limit [table=").$(tableName)
+                            .$(", maxPartitions=").$(o3CommitLagMaxPartitions)
+                            .$(", deferredRowCount=").$(o3DeferredRowCount)
+                            .$(", srcOooMax=").$(srcOooMax)
+                            .$(", o3LagRowCount=").$(o3LagRowCount)
+                            .I$();
+                }
+            }
+
             if (srcOooMax == 0) {
                 return true;
             }
@@ -2633,6 +2876,10 @@ public class TableWriter implements Closeable {
                                 srcDataMax = getPartitionSizeByIndex(partitionIndex);
                             }
                             srcNameTxn = getPartitionNameTxnByIndex(partitionIndex);
+                            if (!last) {
+                                // O3 jobs work with uncompressed columns and invalidate statistics
+                                unsealPartition(partitionTimestamp);
+                            }
                         } else {
                             srcDataMax = 0;
                             srcNameTxn = -1;
@@ -2834,6 +3081,7 @@ public class TableWriter implements Closeable {
 
     private void clearO3() {
         this.o3MasterRef = -1; // clears o3 flag, hasO3() will be returning false
+        this.o3DeferredRowCount = 0;
         rowActon = ROW_ACTION_SWITCH_PARTITION;
         // transaction log is either not required or pending
         activeColumns = columns;
@@ -3498,6 +3746,27 @@ public class TableWriter implements Closeable {
         }
     }
 
+    /**
+     * Finds the end of the sorted O3 rows that fall into the first maxPartitions partitions.
+     *
+     * @return index of the first row past the last of these partitions, or srcOooMax when O3 data
+     * spans fewer partitions
+     */
+    private long o3PartitionLimitHi(long sortedTimestampsAddr, long srcOooMax, int maxPartitions) {
+        long hi = 0;
+        for (int i = 0; i < maxPartitions && hi < srcOooMax; i++) {
+            final long partitionTimestampMax = timestampCeilMethod.ceil(getTimestampIndexValue(sortedTimestampsAddr, hi)) - 1;
+            hi = Vect.boundedBinarySearchIndexT(
+                    sortedTimestampsAddr,
+                    partitionTimestampMax,
+                    hi,
+                    srcOooMax - 1,
+                    BinarySearch.SCAN_DOWN
+            ) + 1;
+        }
+        return hi;
+    }
+
     private void o3ShiftLagRowsUp(int timestampIndex, long o3LagRowCount, long o3RowCount) {
         o3PendingCallbackTasks.clear();
 
@@ -3757,6 +4026,8 @@ public class TableWriter implements Closeable {
 
     private void openPartition(long timestamp) {
         try {
+            // partition can become active again, for example when newer partitions are removed
+            unsealPartition(timestamp);
             setStateForTimestamp(path, timestamp, true);
             int plen = path.length();
             if (ff.mkdirs(path.slash$(), mkDirMode) != 0) {
@@ -3844,6 +4115,33 @@ public class TableWriter implements Closeable {
         indexCount = denseIndexers.size();
     }
 
+    private void preparePartitionCompressTask(PartitionCompressTask task, long partitionTimestamp, int commitMode) {
+        final long partitionSize = txWriter.getPartitionSizeByPartitionTimestamp(partitionTimestamp);
+        path.trimTo(rootLen);
+        task.of(
+                path,
+                partitionBy,
+                partitionTimestamp,
+                txWriter.getPartitionNameTxnByPartitionTimestamp(partitionTimestamp),
+                commitMode,
+                compressDoneLatch
+        );
+        setStateForTimestamp(path, partitionTimestamp, false);
+        final int plen = path.length();
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (ColumnCodec.codecOf(columnType) != ColumnCodec.CODEC_NONE) {
+                    final CharSequence columnName = metadata.getColumnName(i);
+                    final long columnTop = readColumnTop(ff, path.trimTo(plen), columnName, plen, tempMem16b, false);
+                    task.addColumn(columnName, columnType, partitionSize - columnTop);
+                }
+            }
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     private void processCommandQueue() {
         final long cursor = commandSubSeq.next();
         if (cursor > -1) {
@@ -3869,10 +4167,59 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void processSealedPartitions(int commitMode) {
+        final long maxTimestamp = txWriter.getMaxTimestamp();
+        if (partitionBy == PartitionBy.NONE || maxTimestamp == Numbers.LONG_NaN) {
+            return;
+        }
+
+        final long activePartitionTimestamp = timestampFloorMethod.floor(maxTimestamp);
+        if (activePartitionTimestamp <= sealedPartitionLo) {
+            return;
+        }
+
+        for (int i = 0, n = txWriter.getPartitionCount() - 1; i < n; i++) {
+            final long partitionTimestamp = txWriter.getPartitionTimestamp(i);
+            if (partitionTimestamp >= sealedPartitionLo) {
+                // statistics are computed from raw column files, so they go first
+                if (partitionStatsEnabled || bloomFiltersEnabled) {
+                    writePartitionStats(partitionTimestamp, commitMode);
+                }
+                if (partitionCompressionEnabled) {
+                    publishPartitionCompressTask(partitionTimestamp, commitMode);
+                }
+            }
+        }
+        sealedPartitionLo = activePartitionTimestamp;
+    }
+
+    private void publishPartitionCompressTask(long partitionTimestamp, int commitMode) {
+        final long cursor = messageBus.getPartitionCompressPubSeq().next();
+        if (cursor > -1) {
+            try {
+                preparePartitionCompressTask(messageBus.getPartitionCompressQueue().get(cursor), partitionTimestamp, commitMode);
+            } finally {
+                compressQueuedCount++;
+                messageBus.getPartitionCompressPubSeq().done(cursor);
+            }
+        } else {
+            // queue is full, compress on writer thread
+            preparePartitionCompressTask(compressTask, partitionTimestamp, commitMode);
+            PartitionCompressJob.compressPartition(ff, compressTask, compressPath, compressOther);
+        }
+    }
+
     private long readMinTimestamp(long partitionTimestamp) {
         setStateForTimestamp(other, partitionTimestamp, false);
         try {
+            final int plen = other.length();
+            long offset = 0;
             dFile(other, metadata.getColumnName(metadata.getTimestampIndex()));
+            if (!ff.exists(other)) {
+                // delta-of-delta stream of compressed timestamp column starts with the first value as is
+                dzFile(other.trimTo(plen), metadata.getColumnName(metadata.getTimestampIndex()));
+                offset = ColumnCodec.HEADER_SIZE;
+            }
             if (ff.exists(other)) {
                 // read min timestamp value
                 final long fd = TableUtils.openRO(ff, other, LOG);
@@ -3880,7 +4227,7 @@ public class TableWriter implements Closeable {
                     return TableUtils.readLongOrFail(
                             ff,
                             fd,
-                            0,
+                            offset,
                             tempMem16b,
                             other
                     );
@@ -3964,6 +4311,9 @@ public class TableWriter implements Closeable {
                     path.concat(nativeLPSZ);
                     int plen = path.length();
                     removeLambda.remove(ff, dFile(path, columnName));
+                    removeLambda.remove(ff, dzFile(path.trimTo(plen), columnName));
+                    removeLambda.remove(ff, stFile(path.trimTo(plen), columnName));
+                    removeLambda.remove(ff, bfFile(path.trimTo(plen), columnName));
                     removeLambda.remove(ff, iFile(path.trimTo(plen), columnName));
                     removeLambda.remove(ff, topFile(path.trimTo(plen), columnName));
                     removeLambda.remove(ff, BitmapIndexUtils.keyFileName(path.trimTo(plen), columnName));
@@ -4088,6 +4438,10 @@ public class TableWriter implements Closeable {
                 // They are probably about to be attached.
                 return;
             }
+            if (Chars.equals(nativeLPSZ, WalWriter.WAL_DIR_NAME)) {
+                // write-ahead log is yet to be applied
+                return;
+            }
             try {
                 long txn = 0;
                 int txnSep = Chars.indexOf(nativeLPSZ, '.');
@@ -4191,6 +4545,9 @@ public class TableWriter implements Closeable {
                     other.concat(nativeLPSZ);
                     int plen = path.length();
                     renameFileOrLog(ff, dFile(path.trimTo(plen), columnName), dFile(other.trimTo(plen), newName));
+                    renameFileOrLog(ff, dzFile(path.trimTo(plen), columnName), dzFile(other.trimTo(plen), newName));
+                    renameFileOrLog(ff, stFile(path.trimTo(plen), columnName), stFile(other.trimTo(plen), newName));
+                    renameFileOrLog(ff, bfFile(path.trimTo(plen), columnName), bfFile(other.trimTo(plen), newName));
                     renameFileOrLog(ff, iFile(path.trimTo(plen), columnName), iFile(other.trimTo(plen), newName));
                     renameFileOrLog(ff, topFile(path.trimTo(plen), columnName), topFile(other.trimTo(plen), newName));
                     renameFileOrLog(ff, BitmapIndexUtils.keyFileName(path.trimTo(plen), columnName), BitmapIndexUtils.keyFileName(other.trimTo(plen), newName));
@@ -4807,12 +5164,97 @@ public class TableWriter implements Closeable {
         if (isSequential(metaMem, i)) {
             flags |= META_FLAG_BIT_SEQUENTIAL;
         }
+
+        if (isColumnBloomFiltered(metaMem, i)) {
+            flags |= META_FLAG_BIT_BLOOM_FILTER;
+        }
         ddlMem.putLong(flags);
         ddlMem.putInt(getIndexBlockCapacity(metaMem, i));
         ddlMem.putLong(getColumnHash(metaMem, i));
         ddlMem.skip(8);
     }
 
+    private void writeBloomFilter(int plen, CharSequence columnName, int columnType, long columnTop, long valueCount, int commitMode) {
+        if (!ff.exists(dFile(path.trimTo(plen), columnName))) {
+            // column was added after the partition was sealed
+            return;
+        }
+
+        long fd = TableUtils.openRO(ff, path, LOG);
+        try {
+            final long size;
+            if (ColumnType.isVariableLength(columnType)) {
+                size = ff.length(fd);
+            } else {
+                size = valueCount << ColumnType.pow2SizeOf(columnType);
+                if (ff.length(fd) < size) {
+                    LOG.error().$("column is shorter than partition, no bloom filter [path=").$(path)
+                            .$(", size=").$(size)
+                            .I$();
+                    return;
+                }
+            }
+            final long addr = size > 0 ? TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_TABLE_WRITER) : 0;
+            try {
+                bloomFilter.of(columnType, addr, size, valueCount, columnTop);
+            } finally {
+                if (addr != 0) {
+                    ff.munmap(addr, size, MemoryTag.MMAP_TABLE_WRITER);
+                }
+            }
+        } finally {
+            ff.close(fd);
+        }
+
+        fd = TableUtils.openRW(ff, bfFile(path.trimTo(plen), columnName), LOG);
+        try {
+            bloomFilter.write(ff, fd, tempMem16b);
+            if (commitMode != CommitMode.NOSYNC) {
+                ff.fsync(fd);
+            }
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    private void writeColumnStats(int plen, CharSequence columnName, int columnType, long columnTop, long valueCount, int commitMode) {
+        if (!ff.exists(dFile(path.trimTo(plen), columnName))) {
+            // column was added after the partition was sealed
+            return;
+        }
+
+        final long size = valueCount << ColumnType.pow2SizeOf(columnType);
+        long fd = TableUtils.openRO(ff, path, LOG);
+        try {
+            if (ff.length(fd) < size) {
+                LOG.error().$("column is shorter than partition, no statistics [path=").$(path)
+                        .$(", size=").$(size)
+                        .I$();
+                return;
+            }
+            final long addr = size > 0 ? TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_TABLE_WRITER) : 0;
+            try {
+                columnStats.of(columnType, addr, valueCount, columnTop);
+            } finally {
+                if (addr != 0) {
+                    ff.munmap(addr, size, MemoryTag.MMAP_TABLE_WRITER);
+                }
+            }
+        } finally {
+            ff.close(fd);
+        }
+
+        fd = TableUtils.openRW(ff, stFile(path.trimTo(plen), columnName), LOG);
+        try {
+            columnStats.write(ff, fd, tempMem16b);
+            if (commitMode != CommitMode.NOSYNC) {
+                ff.fsync(fd);
+            }
+        } finally {
+            ff.close(fd);
+        }
+    }
+
     private void writeColumnTop(CharSequence name) {
         writeColumnTop(name, txWriter.getTransientRowCount());
     }
@@ -4827,6 +5269,41 @@ public class TableWriter implements Closeable {
         );
     }
 
+    private void writePartitionStats(long partitionTimestamp, int commitMode) {
+        final long partitionSize = txWriter.getPartitionSizeByPartitionTimestamp(partitionTimestamp);
+        setStateForTimestamp(path, partitionTimestamp, false);
+        final int plen = path.length();
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                final boolean stats = partitionStatsEnabled && ColumnStats.isSupported(columnType);
+                final boolean bloom = BloomFilter.isSupported(columnType) && isColumnBloomFiltered(metaMem, i);
+                if (stats || bloom) {
+                    final CharSequence columnName = metadata.getColumnName(i);
+                    try {
+                        final long columnTop = readColumnTop(ff, path.trimTo(plen), columnName, plen, tempMem16b, false);
+                        if (stats) {
+                            writeColumnStats(plen, columnName, columnType, columnTop, partitionSize - columnTop, commitMode);
+                        }
+                        if (bloom) {
+                            writeBloomFilter(plen, columnName, columnType, columnTop, partitionSize - columnTop, commitMode);
+                        }
+                    } catch (CairoException e) {
+                        // data is committed, partition is scanned without statistics
+                        LOG.error().$("could not write column statistics [path=").$(path)
+                                .$(", errno=").$(e.getErrno())
+                                .$(", error=").$(e.getFlyweightMessage())
+                                .I$();
+                        removeFileAndOrLog(ff, stFile(path.trimTo(plen), columnName));
+                        removeFileAndOrLog(ff, bfFile(path.trimTo(plen), columnName));
+                    }
+                }
+            }
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     private void writeRestoreMetaTodo(CharSequence columnName) {
         try {
             writeRestoreMetaTodo();
@@ -5167,5 +5644,6 @@ public class TableWriter implements Closeable {
         IGNORED_FILES.add(META_FILE_NAME);
         IGNORED_FILES.add(TXN_FILE_NAME);
         IGNORED_FILES.add(TODO_FILE_NAME);
+        IGNORED_FILES.add(WalWriter.WAL_DIR_NAME);
     }
 }
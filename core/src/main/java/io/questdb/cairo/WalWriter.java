@@ -0,0 +1,473 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.model.IntervalUtils;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Appends rows to table's write-ahead log. Unlike {@link TableWriter}, any number of WAL writers can be open
+ * for the same table at the same time, and none of them blocks table writer.
+ * <p>
+ * Rows are journaled as sequence of {@link TableWriter.Row} calls, which are buffered in memory. Whenever buffer
+ * reaches {@link CairoConfiguration#getWalBufferSize()}, it is written out to a temporary segment file, so that
+ * large transactions are not held in memory. Commit writes the rest of the buffer and renames the file after
+ * engine-wide segment sequence, then notifies {@link ApplyWalJob}, which replays segment through table writer
+ * once the writer is free. Replay goes through the same code path as direct insert, including conversions and
+ * out-of-order merge.
+ * <p>
+ * Segment layout is:
+ * <pre>
+ * int column count
+ * (int column type, str column name) for each column
+ * (long timestamp, (int column index, byte op, value)*, int -1) for each row
+ * </pre>
+ * Column names are recorded so that segment can be applied after table structure has changed. Values of
+ * columns that have since been removed or changed type are skipped.
+ * <p>
+ * Insert is acknowledged once the segment is written, so values that table writer would reject are rejected
+ * here, before they reach the segment. Timestamp and long256 strings are parsed on write for the same reason.
+ * Rollback, and failed commit, remove temporary segment file together with the rest of the transaction.
+ * Tables that are not partitioned cannot take out-of-order rows, which is why such tables have no WAL.
+ */
+public class WalWriter implements TableWriterAPI {
+    public static final String WAL_DIR_NAME = "wal";
+    static final CharSequence SEGMENT_FILE_EXT = ".wal";
+    static final int END_OF_ROW = -1;
+    static final byte OP_BIN = 0;
+    static final byte OP_BOOL = 1;
+    static final byte OP_BYTE = 2;
+    static final byte OP_CHAR = 3;
+    static final byte OP_DATE = 4;
+    static final byte OP_DOUBLE = 5;
+    static final byte OP_FLOAT = 6;
+    static final byte OP_GEOHASH = 7;
+    static final byte OP_GEOHASH_DEG = 8;
+    static final byte OP_GEO_STR = 9;
+    static final byte OP_INT = 10;
+    static final byte OP_LONG = 11;
+    static final byte OP_LONG256 = 12;
+    static final byte OP_SHORT = 13;
+    static final byte OP_STR = 14;
+    static final byte OP_SYM = 15;
+    static final byte OP_TIMESTAMP = 16;
+    private static final Log LOG = LogFactory.getLog(WalWriter.class);
+    private static final CharSequence TMP_FILE_EXT = ".tmp";
+    private final FilesFacade ff;
+    private final String tableName;
+    private final GenericRecordMetadata metadata;
+    private final int timestampIndex;
+    private final long structureVersion;
+    private final ApplyWalJob applyWalJob;
+    private final int commitMode;
+    private final int mkDirMode;
+    private final MemoryCARW mem;
+    private final long bufferSize;
+    private final Path path = new Path();
+    private final Path other = new Path();
+    private final RowImpl row = new RowImpl();
+    private final int rootLen;
+    private long headerSize;
+    private long rowStart;
+    private long rowCount;
+    private boolean walDirExists = false;
+    private long fd = -1;
+    private long segmentId;
+    private long segmentSize;
+
+    public WalWriter(
+            CairoConfiguration configuration,
+            String tableName,
+            RecordMetadata metadata,
+            long structureVersion,
+            ApplyWalJob applyWalJob
+    ) {
+        this.ff = configuration.getFilesFacade();
+        this.tableName = tableName;
+        this.metadata = GenericRecordMetadata.copyOf(metadata);
+        this.timestampIndex = metadata.getTimestampIndex();
+        this.structureVersion = structureVersion;
+        this.applyWalJob = applyWalJob;
+        this.commitMode = configuration.getCommitMode();
+        this.mkDirMode = configuration.getMkDirMode();
+        this.mem = Vm.getCARWInstance(configuration.getMiscAppendPageSize(), Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT);
+        this.bufferSize = configuration.getWalBufferSize();
+        this.path.of(configuration.getRoot()).concat(tableName).concat(WAL_DIR_NAME).slash$();
+        this.rootLen = path.length();
+        putHeader();
+    }
+
+    static Path segmentFileName(Path path, long segmentId) {
+        return path.put(segmentId).put(SEGMENT_FILE_EXT);
+    }
+
+    @Override
+    public void close() {
+        // uncommitted rows are discarded, same as when table writer is returned to pool
+        removeSegment();
+        Misc.free(mem);
+        Misc.free(path);
+        Misc.free(other);
+    }
+
+    @Override
+    public void commit() {
+        try {
+            if (rowCount > 0) {
+                writeSegment();
+                applyWalJob.notifyCommitted(tableName);
+            }
+        } finally {
+            // rows of failed commit may have been written out partially, the transaction is discarded
+            rollback();
+        }
+    }
+
+    @Override
+    public void commitWithLag(long lagMicros) {
+        // lag is applied by table writer when segment is replayed
+        commit();
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public long getStructureVersion() {
+        return structureVersion;
+    }
+
+    @Override
+    public String getTableName() {
+        return tableName;
+    }
+
+    @Override
+    public TableWriter.Row newRow() {
+        return newRow(0L);
+    }
+
+    @Override
+    public TableWriter.Row newRow(long timestamp) {
+        if (timestampIndex > -1 && timestamp < Timestamps.O3_MIN_TS) {
+            throw CairoException.instance(0).put("timestamp before 1970-01-01 is not allowed");
+        }
+        if (mem.getAppendOffset() >= bufferSize) {
+            // rows are written out between rows only, so that row being appended can be cancelled
+            flush();
+        }
+        rowStart = mem.getAppendOffset();
+        mem.putLong(timestamp);
+        return row;
+    }
+
+    @Override
+    public void rollback() {
+        removeSegment();
+        if (segmentSize > 0) {
+            // header has been written out with the rows
+            segmentSize = 0;
+            mem.jumpTo(0);
+            putHeader();
+        } else {
+            mem.jumpTo(headerSize);
+        }
+        rowCount = 0;
+    }
+
+    private void flush() {
+        if (fd == -1) {
+            openSegment();
+        }
+        final long len = mem.getAppendOffset();
+        if (ff.write(fd, mem.getAddress(), len, segmentSize) != len) {
+            throw CairoException.instance(ff.errno()).put("could not write [file=").put(path).put(']');
+        }
+        segmentSize += len;
+        mem.jumpTo(0);
+    }
+
+    private void openSegment() {
+        if (!walDirExists) {
+            if (ff.mkdirs(path.trimTo(rootLen).$(), mkDirMode) != 0) {
+                throw CairoException.instance(ff.errno()).put("could not create WAL directory [path=").put(path).put(']');
+            }
+            walDirExists = true;
+        }
+
+        // segment ids are unique within engine instance; skip ids left behind by previous instance, if any
+        do {
+            segmentId = applyWalJob.nextSegmentId();
+        } while (ff.exists(segmentFileName(path.trimTo(rootLen), segmentId).$()));
+
+        final int nameLen = path.length();
+        other.of(path).$();
+        path.trimTo(nameLen).put(TMP_FILE_EXT).$();
+
+        fd = ff.openRW(path);
+        if (fd < 0) {
+            throw CairoException.instance(ff.errno()).put("could not open [file=").put(path).put(']');
+        }
+    }
+
+    private void putColumn(int columnIndex, byte op) {
+        mem.putInt(columnIndex);
+        mem.putByte(op);
+    }
+
+    private void putHeader() {
+        final int columnCount = metadata.getColumnCount();
+        mem.putInt(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            mem.putInt(metadata.getColumnType(i));
+            mem.putStr(metadata.getColumnName(i));
+        }
+        headerSize = mem.getAppendOffset();
+    }
+
+    private void removeSegment() {
+        if (fd != -1) {
+            ff.close(fd);
+            fd = -1;
+            ff.remove(path);
+        }
+    }
+
+    private void writeSegment() {
+        flush();
+        if (commitMode != CommitMode.NOSYNC && ff.fsync(fd) != 0) {
+            throw CairoException.instance(ff.errno()).put("could not fsync [file=").put(path).put(']');
+        }
+        ff.close(fd);
+        fd = -1;
+
+        if (!ff.rename(path, other)) {
+            final int errno = ff.errno();
+            ff.remove(path);
+            throw CairoException.instance(errno).put("could not rename [from=").put(path).put(", to=").put(other).put(']');
+        }
+
+        LOG.debug().$("committed [table=").$(tableName).$(", segment=").$(segmentId).$(", rows=").$(rowCount).$(']').$();
+    }
+
+    private class RowImpl implements TableWriter.Row {
+        @Override
+        public void append() {
+            mem.putInt(END_OF_ROW);
+            rowCount++;
+        }
+
+        @Override
+        public void cancel() {
+            mem.jumpTo(rowStart);
+        }
+
+        @Override
+        public void putBin(int columnIndex, long address, long len) {
+            putColumn(columnIndex, OP_BIN);
+            mem.putBin(address, len);
+        }
+
+        @Override
+        public void putBin(int columnIndex, BinarySequence sequence) {
+            putColumn(columnIndex, OP_BIN);
+            mem.putBin(sequence);
+        }
+
+        @Override
+        public void putBool(int columnIndex, boolean value) {
+            putColumn(columnIndex, OP_BOOL);
+            mem.putBool(value);
+        }
+
+        @Override
+        public void putByte(int columnIndex, byte value) {
+            putColumn(columnIndex, OP_BYTE);
+            mem.putByte(value);
+        }
+
+        @Override
+        public void putChar(int columnIndex, char value) {
+            putColumn(columnIndex, OP_CHAR);
+            mem.putChar(value);
+        }
+
+        @Override
+        public void putDate(int columnIndex, long value) {
+            putColumn(columnIndex, OP_DATE);
+            mem.putLong(value);
+        }
+
+        @Override
+        public void putDouble(int columnIndex, double value) {
+            putColumn(columnIndex, OP_DOUBLE);
+            mem.putDouble(value);
+        }
+
+        @Override
+        public void putFloat(int columnIndex, float value) {
+            putColumn(columnIndex, OP_FLOAT);
+            mem.putFloat(value);
+        }
+
+        @Override
+        public void putGeoHash(int columnIndex, long value) {
+            putColumn(columnIndex, OP_GEOHASH);
+            mem.putLong(value);
+        }
+
+        @Override
+        public void putGeoHashDeg(int index, double lat, double lon) {
+            putColumn(index, OP_GEOHASH_DEG);
+            mem.putDouble(lat);
+            mem.putDouble(lon);
+        }
+
+        @Override
+        public void putGeoStr(int columnIndex, CharSequence value) {
+            putColumn(columnIndex, OP_GEO_STR);
+            mem.putStr(value);
+        }
+
+        @Override
+        public void putInt(int columnIndex, int value) {
+            putColumn(columnIndex, OP_INT);
+            mem.putInt(value);
+        }
+
+        @Override
+        public void putLong(int columnIndex, long value) {
+            putColumn(columnIndex, OP_LONG);
+            mem.putLong(value);
+        }
+
+        @Override
+        public void putLong256(int columnIndex, long l0, long l1, long l2, long l3) {
+            putColumn(columnIndex, OP_LONG256);
+            mem.putLong(l0);
+            mem.putLong(l1);
+            mem.putLong(l2);
+            mem.putLong(l3);
+        }
+
+        @Override
+        public void putLong256(int columnIndex, Long256 value) {
+            putLong256(columnIndex, value.getLong0(), value.getLong1(), value.getLong2(), value.getLong3());
+        }
+
+        @Override
+        public void putLong256(int columnIndex, CharSequence hexString) {
+            final long offset = mem.getAppendOffset();
+            putColumn(columnIndex, OP_LONG256);
+            try {
+                mem.putLong256(hexString);
+            } catch (CairoException e) {
+                mem.jumpTo(offset);
+                throw e;
+            }
+        }
+
+        @Override
+        public void putLong256(int columnIndex, @NotNull CharSequence hexString, int start, int end) {
+            final long offset = mem.getAppendOffset();
+            putColumn(columnIndex, OP_LONG256);
+            try {
+                mem.putLong256(hexString, start, end);
+            } catch (CairoException e) {
+                mem.jumpTo(offset);
+                throw e;
+            }
+        }
+
+        @Override
+        public void putShort(int columnIndex, short value) {
+            putColumn(columnIndex, OP_SHORT);
+            mem.putShort(value);
+        }
+
+        @Override
+        public void putStr(int columnIndex, CharSequence value) {
+            putColumn(columnIndex, OP_STR);
+            mem.putStr(value);
+        }
+
+        @Override
+        public void putStr(int columnIndex, char value) {
+            putColumn(columnIndex, OP_STR);
+            mem.putStr(value);
+        }
+
+        @Override
+        public void putStr(int columnIndex, CharSequence value, int pos, int len) {
+            putColumn(columnIndex, OP_STR);
+            mem.putStr(value, pos, len);
+        }
+
+        @Override
+        public void putSym(int columnIndex, CharSequence value) {
+            putColumn(columnIndex, OP_SYM);
+            mem.putStr(value);
+        }
+
+        @Override
+        public void putSym(int columnIndex, char value) {
+            putColumn(columnIndex, OP_SYM);
+            mem.putStr(value);
+        }
+
+        @Override
+        public void putSymIndex(int columnIndex, int symIndex) {
+            // symbol keys are local to table's symbol map, which is owned by table writer
+            throw CairoException.instance(0).put("symbol index cannot be written to WAL [table=").put(tableName).put(']');
+        }
+
+        @Override
+        public void putTimestamp(int columnIndex, long value) {
+            putColumn(columnIndex, OP_TIMESTAMP);
+            mem.putLong(value);
+        }
+
+        @Override
+        public void putTimestamp(int columnIndex, CharSequence value) {
+            long l;
+            try {
+                l = value != null ? IntervalUtils.parseFloorPartialDate(value) : Numbers.LONG_NaN;
+            } catch (NumericException e) {
+                throw CairoException.instance(0).put("Invalid timestamp: ").put(value);
+            }
+            putTimestamp(columnIndex, l);
+        }
+    }
+}
@@ -253,7 +253,7 @@ public class FastMap implements Map {
     }
 
     @Override
-    public MapKey withKey() {
+    public Key withKey() {
         return key.init();
     }
 
@@ -306,6 +306,18 @@ public class FastMap implements Map {
         return hashFunction.hash(key.startAddress + keyDataOffset, key.len - keyDataOffset) & mask;
     }
 
+    private FastMapValue findValue(Key keyWriter, FastMapValue value) {
+        int index = hashFunction.hash(keyWriter.startAddress + keyDataOffset, keyWriter.len - keyDataOffset) & mask;
+        long offset = offsets.get(index);
+        if (offset == -1) {
+            return null;
+        } else if (eq(keyWriter, offset)) {
+            return valueOf(kStart + offset, false, value);
+        } else {
+            return probeReadOnly(keyWriter, index, value);
+        }
+    }
+
     private FastMapValue probeReadOnly(Key keyWriter, int index, FastMapValue value) {
         long offset;
         while ((offset = offsets.get(index = (++index & mask))) != -1) {
@@ -445,6 +457,27 @@ public class FastMap implements Map {
             }
         }
 
+        /**
+         * Looks up this key in another map with identical key and value types. Neither map is
+         * modified, so threads can each look up keys written into their own maps in one shared
+         * map, provided nothing writes to the shared map at the same time.
+         *
+         * @param map map to look up, it must be built with the same key and value types
+         * @return value of the other map, which is only valid until the next lookup of this key
+         */
+        public MapValue findValue(FastMap map) {
+            commit();
+            return map.findValue(this, value);
+        }
+
+        /**
+         * @return hash of key data written so far, the same hash maps use to place the key
+         */
+        public int hash() {
+            commit();
+            return hashFunction.hash(startAddress + keyDataOffset, len - keyDataOffset);
+        }
+
         @Override
         public void put(Record record, RecordSink sink) {
             sink.copy(record, this);
@@ -182,6 +182,50 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
         return true;
     }
 
+    /**
+     * Reloads readers resting in the pool that fell behind their tables. Readers are taken out of the pool for
+     * the duration of reload, reader that fails to reload is closed.
+     *
+     * @return true when at least one reader was reloaded
+     */
+    public boolean refreshInactive() {
+        if (isClosed()) {
+            return false;
+        }
+        final long thread = Thread.currentThread().getId();
+        boolean useful = false;
+        for (Map.Entry<CharSequence, Entry> me : entries.entrySet()) {
+            Entry e = me.getValue();
+            if (e.lockOwner != UNLOCKED) {
+                continue;
+            }
+            do {
+                for (int i = 0; i < ENTRY_SIZE; i++) {
+                    if (e.readers[i] != null && Unsafe.cas(e.allocations, i, UNALLOCATED, thread)) {
+                        final R r = e.readers[i];
+                        try {
+                            // reader could have been closed before we got hold of it
+                            if (r != null) {
+                                useful |= r.refresh();
+                            }
+                        } catch (CairoException ex) {
+                            LOG.error().$("could not refresh [table=`").utf8(r.getTableName())
+                                    .$("`, at=").$(e.index).$(':').$(i)
+                                    .$(", errno=").$(ex.getErrno())
+                                    .$(", error=").$(ex.getFlyweightMessage())
+                                    .I$();
+                            closeReader(thread, e, i, PoolListener.EV_EXPIRE, PoolConstants.CR_DISTRESSED);
+                        } finally {
+                            Unsafe.arrayPutOrdered(e.allocations, i, UNALLOCATED);
+                        }
+                    }
+                }
+                e = e.next;
+            } while (e != null);
+        }
+        return useful;
+    }
+
     public void unlock(CharSequence name) {
         Entry e = entries.get(name);
         long thread = Thread.currentThread().getId();
@@ -131,6 +131,12 @@ public interface Function extends Closeable {
         return getType() == ColumnType.UNDEFINED;
     }
 
+    // If function can be evaluated concurrently by multiple threads, each with its own record.
+    // Such functions and all of their arguments must not keep per-call state, e.g. sinks or matchers.
+    default boolean isReadThreadSafe() {
+        return false;
+    }
+
     default void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
     }
 
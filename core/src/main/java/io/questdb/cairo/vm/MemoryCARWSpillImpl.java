@@ -0,0 +1,185 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.NativeLPSZ;
+import io.questdb.std.str.Path;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A version of {@link MemoryCARWImpl} that moves its contents into a temporary memory-mapped file once
+ * the in-memory budget of "maxPages" pages is exhausted. The file is created under the spill root
+ * and can keep growing up to "spillMaxSize" bytes. Clearing the memory unmaps and removes the file,
+ * subsequent writes start in native memory again.
+ * <p>
+ * Spill file names start with the time the process started, so that a restarted process does not reuse
+ * files left behind by a crash. Such files are removed by {@link #removeStaleSpillFiles(FilesFacade, CharSequence)}.
+ */
+public class MemoryCARWSpillImpl extends MemoryCARWImpl {
+    private static final Log LOG = LogFactory.getLog(MemoryCARWSpillImpl.class);
+    private static final String SPILL_FILE_PREFIX = "spill-";
+    private static final String SPILL_FILE_SUFFIX = ".d";
+    private static final long PROCESS_START = Os.currentTimeMicros();
+    private static final AtomicLong SPILL_ID = new AtomicLong();
+    private final MemoryCMARWImpl spillMem = new MemoryCMARWImpl();
+    private final CharSequence spillRoot;
+    private final int mkDirMode;
+    private final long pageSize;
+    private final long memoryLimit;
+    private final int memoryTag;
+    private Path spillPath;
+
+    public MemoryCARWSpillImpl(
+            FilesFacade ff,
+            CharSequence spillRoot,
+            int mkDirMode,
+            long pageSize,
+            int maxPages,
+            long spillMaxSize,
+            int memoryTag
+    ) {
+        super(pageSize, Math.max(maxPages, (int) Math.min(Integer.MAX_VALUE, spillMaxSize / Numbers.ceilPow2(pageSize))), memoryTag);
+        this.ff = ff;
+        this.spillRoot = spillRoot;
+        this.mkDirMode = mkDirMode;
+        this.pageSize = Numbers.ceilPow2(pageSize);
+        this.memoryLimit = this.pageSize * maxPages;
+        this.memoryTag = memoryTag;
+    }
+
+    @Override
+    public void clear() {
+        if (isSpilled()) {
+            spillMem.close(false);
+            if (!ff.remove(spillPath)) {
+                LOG.error().$("could not remove spill file [path=").$(spillPath).$(", errno=").$(ff.errno()).$(']').$();
+            }
+            handleMemoryReleased();
+        } else {
+            super.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        spillPath = Misc.free(spillPath);
+    }
+
+    /**
+     * Removes spill files of earlier processes from the spill root. Files of the current process are kept,
+     * they belong to queries that are still running.
+     *
+     * @param ff        files facade
+     * @param spillRoot directory of spill files
+     */
+    public static void removeStaleSpillFiles(FilesFacade ff, CharSequence spillRoot) {
+        try (Path path = new Path()) {
+            path.of(spillRoot).$();
+            if (!ff.exists(path)) {
+                return;
+            }
+            final int rootLen = path.length();
+            final NativeLPSZ name = new NativeLPSZ();
+            final long p = ff.findFirst(path);
+            if (p > 0) {
+                try {
+                    do {
+                        if (ff.findType(p) != Files.DT_FILE) {
+                            continue;
+                        }
+                        name.of(ff.findName(p));
+                        if (isStaleSpillFile(name)) {
+                            path.trimTo(rootLen).concat(name).$();
+                            if (ff.remove(path)) {
+                                LOG.info().$("removed stale spill file [path=").$(path).$(']').$();
+                            } else {
+                                LOG.error().$("could not remove stale spill file [path=").$(path).$(", errno=").$(ff.errno()).$(']').$();
+                            }
+                        }
+                    } while (ff.findNext(p) > 0);
+                } finally {
+                    ff.findClose(p);
+                }
+            }
+        }
+    }
+
+    public boolean isSpilled() {
+        return spillMem.getFd() != -1;
+    }
+
+    @Override
+    protected long reallocateMemory(long currentBaseAddress, long currentSize, long newSize) {
+        if (isSpilled()) {
+            spillMem.extend(newSize);
+            return spillMem.addressOf(0);
+        }
+
+        if (newSize <= memoryLimit) {
+            return super.reallocateMemory(currentBaseAddress, currentSize, newSize);
+        }
+
+        openSpillFile(newSize);
+        if (currentBaseAddress != 0) {
+            Vect.memcpy(spillMem.addressOf(0), currentBaseAddress, currentSize);
+            Unsafe.free(currentBaseAddress, currentSize, memoryTag);
+        }
+        LOG.info().$("spilled to disk [path=").$(spillPath).$(", size=").$(newSize).$(']').$();
+        return spillMem.addressOf(0);
+    }
+
+    private static boolean isStaleSpillFile(CharSequence name) {
+        if (!Chars.startsWith(name, SPILL_FILE_PREFIX) || !Chars.endsWith(name, SPILL_FILE_SUFFIX)) {
+            return false;
+        }
+        final int hi = Chars.indexOf(name, SPILL_FILE_PREFIX.length(), '-');
+        if (hi == -1) {
+            return false;
+        }
+        try {
+            return Numbers.parseLong(name, SPILL_FILE_PREFIX.length(), hi) != PROCESS_START;
+        } catch (NumericException e) {
+            return false;
+        }
+    }
+
+    private void openSpillFile(long size) {
+        if (spillPath == null) {
+            spillPath = new Path();
+        }
+        spillPath.of(spillRoot).slash$();
+        if (!ff.exists(spillPath) && ff.mkdirs(spillPath, mkDirMode) != 0) {
+            throw CairoException.instance(ff.errno()).put("could not create spill directory [path=").put(spillPath).put(']');
+        }
+        spillPath.chop$().put(SPILL_FILE_PREFIX).put(PROCESS_START).put('-').put(SPILL_ID.incrementAndGet()).put(SPILL_FILE_SUFFIX).$();
+        spillMem.of(ff, spillPath, pageSize, -1, MemoryTag.MMAP_DEFAULT);
+        spillMem.extend(size);
+    }
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.DecodedColumnCache;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.vm.api.MemoryMR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.str.LPSZ;
+
+/**
+ * Read-only contiguous memory over compressed column file. Column is decoded into native memory
+ * when file is open, readers of the same file share decoded column via {@link DecodedColumnCache}.
+ * Compressed columns belong to sealed partitions and cannot be extended.
+ */
+public class MemoryCZRImpl extends AbstractMemoryCR implements MemoryMR {
+    private static final Log LOG = LogFactory.getLog(MemoryCZRImpl.class);
+    private final DecodedColumnCache cache;
+    private DecodedColumnCache.Entry entry;
+
+    public MemoryCZRImpl(DecodedColumnCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void close() {
+        if (entry != null) {
+            cache.release(entry);
+            entry = null;
+            this.size = 0;
+            this.pageAddress = 0;
+        }
+        if (fd != -1) {
+            ff.close(fd);
+            LOG.debug().$("closed [fd=").$(fd).$(']').$();
+            fd = -1;
+        }
+        grownLength = 0;
+    }
+
+    @Override
+    public void extend(long newSize) {
+        if (newSize > size) {
+            throw CairoException.instance(0).put("compressed column cannot be extended [fd=").put(fd)
+                    .put(", size=").put(size)
+                    .put(", newSize=").put(newSize)
+                    .put(']');
+        }
+        grownLength = Math.max(newSize, grownLength);
+    }
+
+    @Override
+    public void growToFileSize() {
+        // size of decoded column does not depend on file size
+    }
+
+    @Override
+    public boolean isMapped(long offset, long len) {
+        return offset + len <= size;
+    }
+
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag) {
+        close();
+        this.ff = ff;
+        if (!ff.exists(name)) {
+            throw CairoException.instance(0).put("File not found: ").put(name);
+        }
+        fd = TableUtils.openRO(ff, name, LOG);
+        try {
+            entry = cache.acquire(ff, name, fd, size, memoryTag);
+            this.pageAddress = entry.getAddress();
+            this.size = entry.getSize();
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+        LOG.debug().$("open ").$(name).$(" [fd=").$(fd).$(", size=").$(this.size).$(']').$();
+    }
+}
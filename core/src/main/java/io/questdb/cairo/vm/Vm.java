@@ -24,6 +24,7 @@
 
 package io.questdb.cairo.vm;
 
+import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.vm.api.*;
 import io.questdb.log.Log;
 import io.questdb.std.Files;
@@ -116,6 +117,26 @@ public class Vm {
         return new MemoryCMARWImpl(ff, name, ff.getPageSize(), -1, memoryTag);
     }
 
+    /**
+     * Returns memory that moves to a temporary file under {@link CairoConfiguration#getSqlSpillRoot()}
+     * instead of failing when maxPages are exhausted. Plain native memory is returned when spilling is disabled.
+     */
+    public static MemoryARW getSpillARWInstance(CairoConfiguration configuration, long pageSize, int maxPages, int memoryTag) {
+        final CharSequence spillRoot = configuration.getSqlSpillRoot();
+        if (spillRoot == null) {
+            return new MemoryCARWImpl(pageSize, maxPages, memoryTag);
+        }
+        return new MemoryCARWSpillImpl(
+                configuration.getFilesFacade(),
+                spillRoot,
+                configuration.getMkDirMode(),
+                pageSize,
+                maxPages,
+                configuration.getSqlSpillMaxSize(),
+                memoryTag
+        );
+    }
+
     public static long getStorageLength(int len) {
         return STRING_LENGTH_BYTES + len * 2L;
     }
@@ -29,9 +29,8 @@ import io.questdb.WorkerPoolAwareConfiguration;
 import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.ColumnIndexerJob;
 import io.questdb.cutlass.http.processors.*;
+import io.questdb.cutlass.text.TextImportJob;
 import io.questdb.griffin.FunctionFactoryCache;
-import io.questdb.griffin.engine.groupby.vect.GroupByJob;
-import io.questdb.griffin.engine.table.LatestByAllIndexedJob;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.EagerThreadSetup;
@@ -180,10 +179,11 @@ public class HttpServer implements Closeable {
             }
         });
 
-        // jobs that help parallel execution of queries
+        // jobs that help parallel execution of queries, indexing and import;
+        // query jobs stay on the query pool when one has been assigned to the engine already
         workerPool.assign(new ColumnIndexerJob(cairoEngine.getMessageBus()));
-        workerPool.assign(new GroupByJob(cairoEngine.getMessageBus()));
-        workerPool.assign(new LatestByAllIndexedJob(cairoEngine.getMessageBus()));
+        workerPool.assign(new TextImportJob(cairoEngine.getMessageBus()));
+        cairoEngine.assignQueryJobs(workerPool);
     }
 
     @Nullable
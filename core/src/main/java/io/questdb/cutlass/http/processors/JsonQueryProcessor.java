@@ -105,6 +105,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         this.queryExecutors.extendAndSet(CompiledQuery.INSERT_AS_SELECT, sendConfirmation);
         this.queryExecutors.extendAndSet(CompiledQuery.COPY_REMOTE, JsonQueryProcessor::cannotCopyRemote);
         this.queryExecutors.extendAndSet(CompiledQuery.BACKUP_TABLE, sendConfirmation);
+        this.queryExecutors.extendAndSet(CompiledQuery.COPY_OUT, JsonQueryProcessor::cannotCopyOut);
         this.sqlExecutionContext = new SqlExecutionContextImpl(engine, workerCount);
         this.nanosecondClock = engine.getConfiguration().getNanosecondClock();
         this.interruptor = new HttpSqlExecutionInterruptor(configuration.getInterruptorConfiguration());
@@ -239,6 +240,15 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         readyForNextRequest(context);
     }
 
+    private static void cannotCopyOut(
+            JsonQueryProcessorState state,
+            CompiledQuery cc,
+            CharSequence keepAliveHeader
+    ) throws SqlException {
+        Misc.free(cc.getRecordCursorFactory());
+        throw SqlException.$(0, "copy to STDOUT is not supported over REST");
+    }
+
     private static void cannotCopyRemote(
             JsonQueryProcessorState state,
             CompiledQuery cc,
@@ -34,6 +34,8 @@ import io.questdb.network.DefaultIODispatcherConfiguration;
 import io.questdb.network.IODispatcherConfiguration;
 import io.questdb.network.NetworkFacade;
 import io.questdb.network.NetworkFacadeImpl;
+import io.questdb.std.NanosecondClock;
+import io.questdb.std.NanosecondClockImpl;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
 import io.questdb.std.datetime.millitime.MillisecondClock;
@@ -92,6 +94,11 @@ public class DefaultLineTcpReceiverConfiguration implements LineTcpReceiverConfi
         return MicrosecondClockImpl.INSTANCE;
     }
 
+    @Override
+    public NanosecondClock getNanosecondClock() {
+        return NanosecondClockImpl.INSTANCE;
+    }
+
     @Override
     public MillisecondClock getMillisecondClock() {
         return MillisecondClockImpl.INSTANCE;
@@ -48,6 +48,7 @@ import org.jetbrains.annotations.NotNull;
 import java.io.Closeable;
 import java.util.Arrays;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static io.questdb.network.IODispatcher.DISCONNECT_REASON_UNKNOWN_OPERATION;
 
@@ -62,15 +63,25 @@ class LineTcpMeasurementScheduler implements Closeable {
     private static final int INCOMPLETE_EVENT_ID = -2;
     private static final int RELEASE_WRITER_EVENT_ID = -3;
     private static final int[] DEFAULT_COLUMN_TYPES = new int[LineTcpParser.N_ENTITY_TYPES];
+    // Number of load check cycles a moved table stays on its new writer thread before it can be moved again
+    private static final int TABLE_MOVE_COOLDOWN_CYCLES = 3;
+    // Writer threads time one in this many measurement events of a table, it must be a power of 2
+    static final int WRITER_TIMING_SAMPLE_SIZE = 16;
+    private static final int WRITER_TIMING_SAMPLE_SHIFT = Numbers.msb(WRITER_TIMING_SAMPLE_SIZE);
+    private static final int WRITER_TIMING_SAMPLE_MASK = WRITER_TIMING_SAMPLE_SIZE - 1;
+    private static final long WRITER_NANOS_OFFSET = Unsafe.getFieldOffset(TableUpdateDetails.class, "writerNanos");
+    private static final long WRITER_EVENT_COUNT_OFFSET = Unsafe.getFieldOffset(TableUpdateDetails.class, "writerEventCount");
     private final CairoEngine engine;
     private final CairoSecurityContext securityContext;
     private final CairoConfiguration cairoConfiguration;
     private final MillisecondClock milliClock;
+    private final NanosecondClock nanoClock;
     private final RingQueue<LineTcpMeasurementEvent> queue;
     private final ReadWriteLock tableUpdateDetailsLock = new SimpleReadWriteLock();
     private final CharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsByTableName;
     private final CharSequenceObjHashMap<TableUpdateDetails> idleTableUpdateDetailsByTableName;
-    private final int[] loadByWriterThread;
+    private final long[] loadByWriterThread;
+    private final long[] busyNanosByWriterThread;
     private final int processedEventCountBeforeReshuffle;
     private final double maxLoadRatio;
     private final long maintenanceInterval;
@@ -84,6 +95,7 @@ class LineTcpMeasurementScheduler implements Closeable {
     private final LineTcpReceiverConfiguration configuration;
     private Sequence pubSeq;
     private int loadCheckCycles = 0;
+    private long lastLoadCheckNanos;
     private int reshuffleCount = 0;
     private LineTcpReceiver.SchedulerListener listener;
 
@@ -99,6 +111,7 @@ class LineTcpMeasurementScheduler implements Closeable {
         this.cairoConfiguration = engine.getConfiguration();
         this.configuration = lineConfiguration;
         this.milliClock = cairoConfiguration.getMillisecondClock();
+        this.nanoClock = lineConfiguration.getNanosecondClock();
         this.commitMode = cairoConfiguration.getCommitMode();
 
         this.netIoJobs = new NetworkIOJob[ioWorkerPool.getWorkerCount()];
@@ -113,7 +126,9 @@ class LineTcpMeasurementScheduler implements Closeable {
         // in worker threads.
         tableUpdateDetailsByTableName = new CharSequenceObjHashMap<>();
         idleTableUpdateDetailsByTableName = new CharSequenceObjHashMap<>();
-        loadByWriterThread = new int[writerWorkerPool.getWorkerCount()];
+        loadByWriterThread = new long[writerWorkerPool.getWorkerCount()];
+        busyNanosByWriterThread = new long[writerWorkerPool.getWorkerCount()];
+        lastLoadCheckNanos = nanoClock.getTicks();
         int maxMeasurementSize = lineConfiguration.getMaxMeasurementSize();
         int queueSize = lineConfiguration.getWriterQueueCapacity();
         queue = new RingQueue<>(
@@ -193,7 +208,7 @@ class LineTcpMeasurementScheduler implements Closeable {
     private TableUpdateDetails assignTableToWriterThread(String tableName) {
         TableUpdateDetails tableUpdateDetails;
         calcThreadLoad();
-        int leastLoad = Integer.MAX_VALUE;
+        long leastLoad = Long.MAX_VALUE;
         int threadId = 0;
         for (int n = 0; n < loadByWriterThread.length; n++) {
             if (loadByWriterThread[n] < leastLoad) {
@@ -214,7 +229,7 @@ class LineTcpMeasurementScheduler implements Closeable {
             final CharSequence tableName = tableNames.getQuick(n);
             final TableUpdateDetails stats = tableUpdateDetailsByTableName.get(tableName);
             if (stats != null) {
-                loadByWriterThread[stats.writerThreadId] += stats.eventsProcessedSinceReshuffle;
+                loadByWriterThread[stats.writerThreadId] += stats.writerCost;
             } else {
                 LOG.error().$("could not find static for table [name=").$(tableName).I$();
             }
@@ -225,7 +240,7 @@ class LineTcpMeasurementScheduler implements Closeable {
         return new NetworkIOJobImpl(dispatcher, workerId);
     }
 
-    int[] getLoadByWriterThread() {
+    long[] getLoadByWriterThread() {
         return loadByWriterThread;
     }
 
@@ -250,18 +265,19 @@ class LineTcpMeasurementScheduler implements Closeable {
         return null != pubSeq;
     }
 
-    private void reshuffleTablesAcrossWriterThreads() {
+    void reshuffleTablesAcrossWriterThreads() {
         LOG.debug().$("load check [cycle=").$(++loadCheckCycles).$(']').$();
+        updateTableCosts();
         calcThreadLoad();
         final int tableCount = tableUpdateDetailsByTableName.size();
         int fromThreadId = -1;
         int toThreadId = -1;
         TableUpdateDetails tableToMove = null;
-        int maxLoad = Integer.MAX_VALUE;
+        long maxLoad = Long.MAX_VALUE;
         while (true) {
-            int highestLoad = Integer.MIN_VALUE;
+            long highestLoad = Long.MIN_VALUE;
             int highestLoadedThreadId = -1;
-            int lowestLoad = Integer.MAX_VALUE;
+            long lowestLoad = Long.MAX_VALUE;
             int lowestLoadedThreadId = -1;
             for (int i = 0, n = loadByWriterThread.length; i < n; i++) {
                 if (loadByWriterThread[i] >= maxLoad) {
@@ -289,29 +305,35 @@ class LineTcpMeasurementScheduler implements Closeable {
                 break;
             }
 
+            // The table to move is the one that brings both threads closest to the mean of their loads. Moving a
+            // table that costs as much as the load difference or more would only swap the imbalance around
+            final long loadDiff = highestLoad - lowestLoad;
             int nTables = 0;
-            lowestLoad = Integer.MAX_VALUE;
-            String leastLoadedTableName = null;
+            long bestDistance = Long.MAX_VALUE;
+            TableUpdateDetails bestTable = null;
             for (int i = 0; i < tableCount; i++) {
                 TableUpdateDetails stats = tableUpdateDetailsByTableName.valueQuick(i);
-                if (stats.writerThreadId == highestLoadedThreadId && stats.eventsProcessedSinceReshuffle > 0) {
+                if (stats.writerThreadId == highestLoadedThreadId && stats.writerCost > 0) {
                     nTables++;
-                    if (stats.eventsProcessedSinceReshuffle < lowestLoad) {
-                        lowestLoad = stats.eventsProcessedSinceReshuffle;
-                        leastLoadedTableName = stats.tableName;
+                    if (stats.writerCost < loadDiff && loadCheckCycles - stats.lastMoveLoadCheckCycle > TABLE_MOVE_COOLDOWN_CYCLES) {
+                        final long distance = Math.abs(loadDiff - 2 * stats.writerCost);
+                        if (distance < bestDistance) {
+                            bestDistance = distance;
+                            bestTable = stats;
+                        }
                     }
                 }
             }
 
-            if (nTables < 2) {
-                // The most loaded thread only has 1 table with load assigned to it
+            if (nTables < 2 || bestTable == null) {
+                // The most loaded thread only has 1 table with load assigned to it or none of its tables can be moved
                 maxLoad = highestLoad;
                 continue;
             }
 
             fromThreadId = highestLoadedThreadId;
             toThreadId = lowestLoadedThreadId;
-            tableToMove = tableUpdateDetailsByTableName.get(leastLoadedTableName);
+            tableToMove = bestTable;
             break;
         }
 
@@ -328,12 +350,19 @@ class LineTcpMeasurementScheduler implements Closeable {
                     event.threadId = INCOMPLETE_EVENT_ID;
                     event.createReshuffleEvent(fromThreadId, toThreadId, tableToMove);
                     tableToMove.writerThreadId = toThreadId;
+                    tableToMove.lastMoveLoadCheckCycle = loadCheckCycles;
                     LOG.info()
                             .$("reshuffle cycle, requesting table move [cycle=").$(loadCheckCycles)
                             .$(", reshuffleCount=").$(++reshuffleCount)
                             .$(", table=").$(tableToMove.tableName)
+                            .$(", tableCost=").$(tableToMove.writerCost)
+                            .$(", tableBytes=").$(tableToMove.writerBytes)
                             .$(", fromThreadId=").$(fromThreadId)
+                            .$(", fromThreadLoad=").$(loadByWriterThread[fromThreadId])
+                            .$(", fromThreadBusyNanos=").$(busyNanosByWriterThread[fromThreadId])
                             .$(", toThreadId=").$(toThreadId)
+                            .$(", toThreadLoad=").$(loadByWriterThread[toThreadId])
+                            .$(", toThreadBusyNanos=").$(busyNanosByWriterThread[toThreadId])
                             .I$();
                 } finally {
                     pubSeq.done(seq);
@@ -388,6 +417,41 @@ class LineTcpMeasurementScheduler implements Closeable {
         }
     }
 
+    private void updateTableCosts() {
+        Arrays.fill(busyNanosByWriterThread, 0);
+        for (int i = 0, n = tableUpdateDetailsByTableName.size(); i < n; i++) {
+            final TableUpdateDetails stats = tableUpdateDetailsByTableName.valueQuick(i);
+            final long writerEventCount = stats.writerEventCount;
+            final long sampleCount = (writerEventCount >>> WRITER_TIMING_SAMPLE_SHIFT) - (stats.lastWriterEventCount >>> WRITER_TIMING_SAMPLE_SHIFT);
+            if (sampleCount > 0) {
+                // the estimate is kept for load checks that see too few events of the table to have a sample
+                final long writerSampleNanos = stats.writerSampleNanos;
+                stats.writerEventNanos = (writerSampleNanos - stats.lastWriterSampleNanos) / sampleCount;
+                stats.lastWriterSampleNanos = writerSampleNanos;
+            }
+            final long writerNanos = stats.writerNanos;
+            final long nanos = writerNanos - stats.lastWriterNanos + (writerEventCount - stats.lastWriterEventCount) * stats.writerEventNanos;
+            stats.lastWriterNanos = writerNanos;
+            stats.lastWriterEventCount = writerEventCount;
+            // smooth the cost over load checks, so that a single burst does not move tables around
+            stats.writerCost = (stats.writerCost + nanos) >>> 1;
+            busyNanosByWriterThread[stats.writerThreadId] += nanos;
+        }
+
+        final long now = nanoClock.getTicks();
+        final long elapsedNanos = now - lastLoadCheckNanos;
+        lastLoadCheckNanos = now;
+        if (LOG.isDebugEnabled()) {
+            for (int i = 0, n = busyNanosByWriterThread.length; i < n; i++) {
+                LOG.debug()
+                        .$("writer thread utilisation [threadId=").$(i)
+                        .$(", busyNanos=").$(busyNanosByWriterThread[i])
+                        .$(", elapsedNanos=").$(elapsedNanos)
+                        .I$();
+            }
+        }
+    }
+
     boolean tryButCouldNotCommit(NetworkIOJob netIoJob, LineTcpParser protoParser, FloatingDirectCharSink charSink) {
         TableUpdateDetails tableUpdateDetails;
         try {
@@ -439,8 +503,6 @@ class LineTcpMeasurementScheduler implements Closeable {
 
         TableUpdateDetails getTableUpdateDetails(CharSequence tableName);
 
-        ObjList<SymbolCache> getUnusedSymbolCaches();
-
         int getWorkerId();
     }
 
@@ -739,6 +801,7 @@ class LineTcpMeasurementScheduler implements Closeable {
                             job.floatingCharSink.asCharSequence(bufPos, hi);
                             int symIndex = writer.getSymbolIndex(colIndex, job.floatingCharSink);
                             row.putSymIndex(colIndex, symIndex);
+                            tableUpdateDetails.addPendingSymbol(colIndex, job.floatingCharSink, symIndex);
                             bufPos = hi;
                             break;
                         }
@@ -985,6 +1048,7 @@ class LineTcpMeasurementScheduler implements Closeable {
                     }
                 }
                 row.append();
+                tableUpdateDetails.writerBytes += bufPos - bufLo;
                 tableUpdateDetails.handleRowAppended();
             } catch (CairoException ex) {
                 LOG.error()
@@ -1003,14 +1067,39 @@ class LineTcpMeasurementScheduler implements Closeable {
         final String tableName;
         private final ThreadLocalDetails[] localDetailsArray;
         private int writerThreadId;
-        // Number of rows processed since the last reshuffle, this is an estimate because it is incremented by
-        // multiple threads without synchronisation
+        // Number of rows processed since the last reshuffle, it only decides when the next reshuffle runs, the load
+        // itself is measured by the writer threads. This is an estimate because it is incremented by multiple
+        // threads without synchronisation
         private int eventsProcessedSinceReshuffle = 0;
+        // Work the writer threads did for the table, these are updated by the owning writer thread only and read by
+        // the scheduler. Time outside measurement events is in writerNanos, the time of measurement events is
+        // sampled, the sampled events are in writerSampleNanos. The event count is written last with an ordered
+        // write, the scheduler reads it first to see the samples it counts. Bytes are reported, but not part of
+        // the cost, the time of the writer thread already includes the work of parsing and writing them
+        private volatile long writerNanos;
+        private long writerSampleNanos;
+        private volatile long writerEventCount;
+        private long writerBytes;
+        // Writer work at the last load check, the estimated time of a measurement event and the smoothed cost of
+        // the table, maintained by the scheduler
+        private long lastWriterNanos;
+        private long lastWriterSampleNanos;
+        private long lastWriterEventCount;
+        private long writerEventNanos;
+        private long writerCost;
+        private int lastMoveLoadCheckCycle = -TABLE_MOVE_COOLDOWN_CYCLES - 1;
         private TableWriter writer;
         private boolean assignedToJob = false;
         private long lastMeasurementMillis = Long.MAX_VALUE;
         private long lastCommitMillis;
         private int networkIOOwnerCount = 0;
+        // Symbol caches are shared by network IO threads, which read the list without locking.
+        // The list is copied on write under the lock when a cache is added for a new column
+        private volatile ObjList<SymbolCache> symbolCacheByColumnIndex = new ObjList<>();
+        private final ReentrantLock symbolCacheLock = new ReentrantLock();
+        // Symbol values resolved by the writer thread, they are published to the
+        // shared caches once the writer commits
+        private final ObjList<CharSequenceIntHashMap> pendingSymbolsByColumnIndex = new ObjList<>();
 
         private TableUpdateDetails(String tableName, int writerThreadId, NetworkIOJob[] netIoJobs) {
             this.tableName = tableName;
@@ -1018,7 +1107,7 @@ class LineTcpMeasurementScheduler implements Closeable {
             final int n = netIoJobs.length;
             localDetailsArray = new ThreadLocalDetails[n];
             for (int i = 0; i < n; i++) {
-                localDetailsArray[i] = new ThreadLocalDetails(netIoJobs[i].getUnusedSymbolCaches());
+                localDetailsArray[i] = new ThreadLocalDetails();
             }
             lastCommitMillis = milliClock.getTicks();
         }
@@ -1033,11 +1122,88 @@ class LineTcpMeasurementScheduler implements Closeable {
             }
         }
 
+        private SymbolCache addSymbolCache(Path path, int colIndex) {
+            symbolCacheLock.lock();
+            try {
+                final ObjList<SymbolCache> symbolCaches = symbolCacheByColumnIndex;
+                SymbolCache symCache = symbolCaches.getQuiet(colIndex);
+                if (null != symCache) {
+                    // another network IO thread added the cache
+                    return symCache;
+                }
+                try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, tableName)) {
+                    path.of(cairoConfiguration.getRoot()).concat(tableName);
+                    symCache = new SymbolCache(configuration);
+                    try {
+                        int symIndex = resolveSymbolIndex(reader.getMetadata(), colIndex);
+                        symCache.of(cairoConfiguration, path, reader.getMetadata().getColumnName(colIndex), symIndex);
+                    } catch (Throwable th) {
+                        symCache.close();
+                        throw th;
+                    }
+                }
+                final ObjList<SymbolCache> newSymbolCaches = new ObjList<>(Math.max(symbolCaches.size(), colIndex + 1));
+                newSymbolCaches.addAll(symbolCaches);
+                newSymbolCaches.extendAndSet(colIndex, symCache);
+                symbolCacheByColumnIndex = newSymbolCaches;
+                return symCache;
+            } finally {
+                symbolCacheLock.unlock();
+            }
+        }
+
+        void addPendingSymbol(int colIndex, CharSequence symValue, int symIndex) {
+            // values of columns that network IO threads do not look up are not worth caching
+            if (symIndex == SymbolTable.VALUE_NOT_FOUND || symbolCacheByColumnIndex.getQuiet(colIndex) == null) {
+                return;
+            }
+            CharSequenceIntHashMap pendingSymbols = pendingSymbolsByColumnIndex.getQuiet(colIndex);
+            if (null == pendingSymbols) {
+                pendingSymbols = new CharSequenceIntHashMap();
+                pendingSymbolsByColumnIndex.extendAndSet(colIndex, pendingSymbols);
+            }
+            final int index = pendingSymbols.keyIndex(symValue);
+            if (index > -1) {
+                pendingSymbols.putAt(index, Chars.toString(symValue), symIndex);
+            }
+        }
+
+        void addWriterEvents(long eventCount, long sampleNanos) {
+            writerSampleNanos += sampleNanos;
+            // the count is published last for the scheduler not to see a sample before its time
+            Unsafe.getUnsafe().putOrderedLong(this, WRITER_EVENT_COUNT_OFFSET, writerEventCount + eventCount);
+        }
+
+        void addWriterNanos(long nanos) {
+            Unsafe.getUnsafe().putOrderedLong(this, WRITER_NANOS_OFFSET, writerNanos + nanos);
+        }
+
+        private void clearPendingSymbols() {
+            for (int n = 0, sz = pendingSymbolsByColumnIndex.size(); n < sz; n++) {
+                final CharSequenceIntHashMap pendingSymbols = pendingSymbolsByColumnIndex.getQuick(n);
+                if (null != pendingSymbols) {
+                    pendingSymbols.clear();
+                }
+            }
+        }
+
+        private void clearSymbolCaches() {
+            symbolCacheLock.lock();
+            try {
+                final ObjList<SymbolCache> symbolCaches = symbolCacheByColumnIndex;
+                symbolCacheByColumnIndex = new ObjList<>();
+                Misc.freeObjList(symbolCaches);
+            } finally {
+                symbolCacheLock.unlock();
+            }
+        }
+
         private void closeLocals() {
             for (int n = 0; n < localDetailsArray.length; n++) {
                 LOG.info().$("closing table parsers [tableName=").$(tableName).$(']').$();
                 localDetailsArray[n] = Misc.free(localDetailsArray[n]);
             }
+            clearSymbolCaches();
         }
 
         private void closeNoLock() {
@@ -1050,6 +1216,7 @@ class LineTcpMeasurementScheduler implements Closeable {
                         LOG.error().$("cannot commit writer transaction, rolling back before releasing it [table=").$(tableName).$(",ex=").$(ex).I$();
                     } finally {
                         // returning to pool rolls back the transaction
+                        clearPendingSymbols();
                         writer = Misc.free(writer);
                     }
                 }
@@ -1059,7 +1226,11 @@ class LineTcpMeasurementScheduler implements Closeable {
 
         int getSymbolIndex(ThreadLocalDetails localDetails, int colIndex, CharSequence symValue) {
             if (colIndex >= 0) {
-                return localDetails.getSymbolIndex(colIndex, symValue);
+                SymbolCache symCache = symbolCacheByColumnIndex.getQuiet(colIndex);
+                if (null == symCache) {
+                    symCache = addSymbolCache(localDetails.path, colIndex);
+                }
+                return symCache.getSymbolKey(symValue);
             }
             return SymbolTable.VALUE_NOT_FOUND;
         }
@@ -1071,9 +1242,14 @@ class LineTcpMeasurementScheduler implements Closeable {
             return writer = engine.getWriter(securityContext, tableName, "ilpTcp");
         }
 
+        int getWriterThreadId() {
+            return writerThreadId;
+        }
+
         void handleRowAppended() {
             if (writer.checkMaxAndCommitLag(commitMode)) {
                 lastCommitMillis = milliClock.getTicks();
+                publishPendingSymbols();
             }
         }
 
@@ -1083,12 +1259,14 @@ class LineTcpMeasurementScheduler implements Closeable {
                 try {
                     if (commit) {
                         writer.commit();
+                        publishPendingSymbols();
                     }
                 } catch (Throwable ex) {
                     LOG.error().$("writer commit fails, force closing it [table=").$(writer.getTableName()).$(",ex=").$(ex).I$();
                 } finally {
                     // writer or FS can be in a bad state
                     // do not leave writer locked
+                    clearPendingSymbols();
                     writer = Misc.free(writer);
                 }
                 lastCommitMillis = milliClock.getTicks();
@@ -1103,14 +1281,44 @@ class LineTcpMeasurementScheduler implements Closeable {
                 LOG.debug().$("maintenance commit [table=").$(writer.getTableName()).I$();
                 try {
                     writer.commit();
+                    publishPendingSymbols();
                 } catch (Throwable e) {
                     LOG.error().$("could not commit [table=").$(writer.getTableName()).I$();
+                    clearPendingSymbols();
                     writer = Misc.free(writer);
                 }
                 lastCommitMillis = milliClock.getTicks();
             }
         }
 
+        private void publishPendingSymbols() {
+            final ObjList<SymbolCache> symbolCaches = symbolCacheByColumnIndex;
+            for (int n = 0, sz = pendingSymbolsByColumnIndex.size(); n < sz; n++) {
+                final CharSequenceIntHashMap pendingSymbols = pendingSymbolsByColumnIndex.getQuick(n);
+                if (null != pendingSymbols && pendingSymbols.size() > 0) {
+                    final SymbolCache symCache = symbolCaches.getQuiet(n);
+                    if (null != symCache) {
+                        final ObjList<CharSequence> symValues = pendingSymbols.keys();
+                        for (int i = 0, m = symValues.size(); i < m; i++) {
+                            final CharSequence symValue = symValues.getQuick(i);
+                            symCache.put(symValue, pendingSymbols.get(symValue));
+                        }
+                    }
+                    pendingSymbols.clear();
+                }
+            }
+        }
+
+        private int resolveSymbolIndex(TableReaderMetadata metadata, int colIndex) {
+            int symIndex = 0;
+            for (int n = 0; n < colIndex; n++) {
+                if (ColumnType.isSymbol(metadata.getColumnType(n))) {
+                    symIndex++;
+                }
+            }
+            return symIndex;
+        }
+
         ThreadLocalDetails startNewMeasurementEvent(int workerId) {
             ThreadLocalDetails localDetails = localDetailsArray[workerId];
             lastMeasurementMillis = milliClock.getTicks();
@@ -1125,51 +1333,18 @@ class LineTcpMeasurementScheduler implements Closeable {
         private class ThreadLocalDetails implements Closeable {
             private final Path path = new Path();
             private final ObjIntHashMap<CharSequence> columnIndexByName = new ObjIntHashMap<>();
-            private final ObjList<SymbolCache> symbolCacheByColumnIndex = new ObjList<>();
-            private final ObjList<SymbolCache> unusedSymbolCaches;
             // indexed by colIdx + 1, first value accounts for spurious, new cols (index -1)
             private final IntList geoHashBitsSizeByColIdx = new IntList();
             private final StringSink tempSink = new StringSink();
             private final MangledUtf8Sink mangledUtf8Sink = new MangledUtf8Sink(tempSink);
 
-            ThreadLocalDetails(ObjList<SymbolCache> unusedSymbolCaches) {
-                this.unusedSymbolCaches = unusedSymbolCaches;
-            }
-
             @Override
             public void close() {
-                Misc.freeObjList(symbolCacheByColumnIndex);
                 Misc.free(path);
             }
 
-            private SymbolCache addSymbolCache(int colIndex) {
-                try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, tableName)) {
-                    path.of(cairoConfiguration.getRoot()).concat(tableName);
-                    SymbolCache symCache;
-                    final int lastUnusedSymbolCacheIndex = unusedSymbolCaches.size() - 1;
-                    if (lastUnusedSymbolCacheIndex > -1) {
-                        symCache = unusedSymbolCaches.get(lastUnusedSymbolCacheIndex);
-                        unusedSymbolCaches.remove(lastUnusedSymbolCacheIndex);
-                    } else {
-                        symCache = new SymbolCache(configuration);
-                    }
-                    int symIndex = resolveSymbolIndex(reader.getMetadata(), colIndex);
-                    symCache.of(cairoConfiguration, path, reader.getMetadata().getColumnName(colIndex), symIndex);
-                    symbolCacheByColumnIndex.extendAndSet(colIndex, symCache);
-                    return symCache;
-                }
-            }
-
             void clear() {
                 columnIndexByName.clear();
-                for (int n = 0, sz = symbolCacheByColumnIndex.size(); n < sz; n++) {
-                    SymbolCache symCache = symbolCacheByColumnIndex.getQuick(n);
-                    if (null != symCache) {
-                        symCache.close();
-                        unusedSymbolCaches.add(symCache);
-                    }
-                }
-                symbolCacheByColumnIndex.clear();
                 geoHashBitsSizeByColIdx.clear();
             }
 
@@ -1231,25 +1406,6 @@ class LineTcpMeasurementScheduler implements Closeable {
             int getColumnTypeMeta(int colIndex) {
                 return geoHashBitsSizeByColIdx.getQuick(colIndex + 1); // first val accounts for new cols, index -1
             }
-
-            int getSymbolIndex(int colIndex, CharSequence symValue) {
-                SymbolCache symCache = symbolCacheByColumnIndex.getQuiet(colIndex);
-                if (null == symCache) {
-                    symCache = addSymbolCache(colIndex);
-                }
-                return symCache.getSymbolKey(symValue);
-            }
-
-            private int resolveSymbolIndex(TableReaderMetadata metadata, int colIndex) {
-                int symIndex = 0;
-                for (int n = 0; n < colIndex; n++) {
-                    if (ColumnType.isSymbol(metadata.getColumnType(n))) {
-                        symIndex++;
-                    }
-                }
-                return symIndex;
-            }
-
         }
     }
 
@@ -1300,7 +1456,10 @@ class LineTcpMeasurementScheduler implements Closeable {
 
             lastMaintenanceMillis = millis;
             for (int n = 0, sz = assignedTables.size(); n < sz; n++) {
-                assignedTables.getQuick(n).handleWriterThreadMaintenance(millis);
+                final TableUpdateDetails tableUpdateDetails = assignedTables.getQuick(n);
+                final long startNanos = nanoClock.getTicks();
+                tableUpdateDetails.handleWriterThreadMaintenance(millis);
+                tableUpdateDetails.addWriterNanos(nanoClock.getTicks() - startNanos);
             }
         }
 
@@ -1325,7 +1484,16 @@ class LineTcpMeasurementScheduler implements Closeable {
                                 event.tableUpdateDetails.assignedToJob = true;
                                 LOG.info().$("assigned table to writer thread [tableName=").$(event.tableUpdateDetails.tableName).$(", threadId=").$(workerId).I$();
                             }
-                            event.processMeasurementEvent(this);
+                            // only a sample of the events is timed to keep the clock off the hot path
+                            final TableUpdateDetails tableUpdateDetails = event.tableUpdateDetails;
+                            if (((tableUpdateDetails.writerEventCount + 1) & WRITER_TIMING_SAMPLE_MASK) == 0) {
+                                final long startNanos = nanoClock.getTicks();
+                                event.processMeasurementEvent(this);
+                                tableUpdateDetails.addWriterEvents(1, nanoClock.getTicks() - startNanos);
+                            } else {
+                                event.processMeasurementEvent(this);
+                                tableUpdateDetails.addWriterEvents(1, 0);
+                            }
                             eventProcessed = true;
                         } catch (Throwable ex) {
                             LOG.error().$("closing writer for because of error [table=").$(event.tableUpdateDetails.tableName).$(",ex=").$(ex).I$();
@@ -1411,7 +1579,9 @@ class LineTcpMeasurementScheduler implements Closeable {
                         .$("[tableName=").$(tableUpdateDetails.tableName)
                         .I$();
 
+                final long startNanos = nanoClock.getTicks();
                 tableUpdateDetails.handleWriterRelease(event.commitOnWriterClose);
+                tableUpdateDetails.addWriterNanos(nanoClock.getTicks() - startNanos);
             } finally {
                 tableUpdateDetailsLock.readLock().unlock();
             }
@@ -1423,7 +1593,6 @@ class LineTcpMeasurementScheduler implements Closeable {
         private final IODispatcher<LineTcpConnectionContext> dispatcher;
         private final int workerId;
         private final CharSequenceObjHashMap<TableUpdateDetails> localTableUpdateDetailsByTableName = new CharSequenceObjHashMap<>();
-        private final ObjList<SymbolCache> unusedSymbolCaches = new ObjList<>();
         // Context blocked on LineTcpMeasurementScheduler queue
         private LineTcpConnectionContext busyContext = null;
         private final IORequestProcessor<LineTcpConnectionContext> onRequest = this::onRequest;
@@ -1448,7 +1617,6 @@ class LineTcpMeasurementScheduler implements Closeable {
 
         @Override
         public void close() {
-            Misc.freeObjList(unusedSymbolCaches);
         }
 
         @Override
@@ -1456,11 +1624,6 @@ class LineTcpMeasurementScheduler implements Closeable {
             return localTableUpdateDetailsByTableName.get(tableName);
         }
 
-        @Override
-        public ObjList<SymbolCache> getUnusedSymbolCaches() {
-            return unusedSymbolCaches;
-        }
-
         @Override
         public int getWorkerId() {
             return workerId;
@@ -1506,6 +1669,8 @@ class LineTcpMeasurementScheduler implements Closeable {
                                 LineTcpMeasurementEvent event = queue.get(seq);
                                 event.createWriterReleaseEvent(tableUpdateDetails, true);
                                 removeTableUpdateDetails(tableUpdateDetails);
+                                // last network IO thread released the table, nobody is using the caches
+                                tableUpdateDetails.clearSymbolCaches();
                                 final CharSequence tableName = tableUpdateDetails.tableName;
                                 tableUpdateDetailsByTableName.remove(tableName);
                                 idleTableUpdateDetailsByTableName.put(tableName, tableUpdateDetails);
@@ -29,6 +29,7 @@ import io.questdb.cairo.CairoSecurityContext;
 import io.questdb.cutlass.line.LineProtoTimestampAdapter;
 import io.questdb.network.IODispatcherConfiguration;
 import io.questdb.network.NetworkFacade;
+import io.questdb.std.NanosecondClock;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.datetime.millitime.MillisecondClock;
 
@@ -60,6 +61,8 @@ public interface LineTcpReceiverConfiguration {
 
     MillisecondClock getMillisecondClock();
 
+    NanosecondClock getNanosecondClock();
+
     long getWriterIdleTimeout();
 
     int getNUpdatesPerLoadRebalance();
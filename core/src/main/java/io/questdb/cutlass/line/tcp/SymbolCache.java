@@ -31,20 +31,27 @@ import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMR;
 import io.questdb.std.Chars;
+import io.questdb.std.ConcurrentHashMap;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.MemoryTag;
-import io.questdb.std.ObjIntHashMap;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.str.Path;
 
 import java.io.Closeable;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Symbol value to key cache of a table column, shared by all network IO threads.
+ * <p>
+ * Lookups of cached values are lock-free. Values that are not cached yet are looked up in
+ * the symbol dictionary of the column by one thread at a time, other threads that miss the cache
+ * at the same time do not wait and let the writer thread resolve the value. Writer thread
+ * publishes keys it resolves once they are committed, see {@link #put(CharSequence, int)}.
+ */
 class SymbolCache implements Closeable {
-    private final ObjIntHashMap<CharSequence> symbolValueToKeyMap = new ObjIntHashMap<>(
-            256,
-            0.5,
-            SymbolTable.VALUE_NOT_FOUND
-    );
+    private final ConcurrentHashMap<Integer> symbolValueToKeyMap = new ConcurrentHashMap<>(256);
+    // guards symbol dictionary reader, which is not thread-safe
+    private final ReentrantLock readerLock = new ReentrantLock();
     private final MemoryMR txMem = Vm.getMRInstance();
     private final SymbolMapReaderImpl symbolMapReader = new SymbolMapReaderImpl();
     private final MicrosecondClock clock;
@@ -59,9 +66,14 @@ class SymbolCache implements Closeable {
 
     @Override
     public void close() {
-        symbolMapReader.close();
-        symbolValueToKeyMap.clear();
-        txMem.close();
+        readerLock.lock();
+        try {
+            symbolMapReader.close();
+            symbolValueToKeyMap.clear();
+            txMem.close();
+        } finally {
+            readerLock.unlock();
+        }
     }
 
     int getCacheValueCount() {
@@ -69,29 +81,38 @@ class SymbolCache implements Closeable {
     }
 
     int getSymbolKey(CharSequence symbolValue) {
-        final int index = symbolValueToKeyMap.keyIndex(symbolValue);
-        if (index < 0) {
-            return symbolValueToKeyMap.valueAt(index);
+        final Integer cachedKey = symbolValueToKeyMap.get(symbolValue);
+        if (cachedKey != null) {
+            return cachedKey;
         }
 
-        final int symbolValueCount = txMem.getInt(transientSymCountOffset);
-        final long ticks;
-
-        if (
-                symbolValueCount > symbolMapReader.size()
-                        && (ticks = clock.getTicks()) - lastSymbolReaderReloadTimestamp > waitUsBeforeReload
-        ) {
-            symbolMapReader.updateSymbolCount(symbolValueCount);
-            lastSymbolReaderReloadTimestamp = ticks;
+        if (!readerLock.tryLock()) {
+            // another thread is reading the dictionary, value will be resolved by the writer
+            return SymbolTable.VALUE_NOT_FOUND;
         }
 
-        final int symbolKey = symbolMapReader.keyOf(symbolValue);
+        try {
+            final int symbolValueCount = txMem.getInt(transientSymCountOffset);
+            final long ticks;
 
-        if (SymbolTable.VALUE_NOT_FOUND != symbolKey) {
-            symbolValueToKeyMap.putAt(index, Chars.toString(symbolValue), symbolKey);
-        }
+            if (
+                    symbolValueCount > symbolMapReader.size()
+                            && (ticks = clock.getTicks()) - lastSymbolReaderReloadTimestamp > waitUsBeforeReload
+            ) {
+                symbolMapReader.updateSymbolCount(symbolValueCount);
+                lastSymbolReaderReloadTimestamp = ticks;
+            }
+
+            final int symbolKey = symbolMapReader.keyOf(symbolValue);
 
-        return symbolKey;
+            if (SymbolTable.VALUE_NOT_FOUND != symbolKey) {
+                symbolValueToKeyMap.putIfAbsent(Chars.toString(symbolValue), symbolKey);
+            }
+
+            return symbolKey;
+        } finally {
+            readerLock.unlock();
+        }
     }
 
     void of(CairoConfiguration configuration, Path path, CharSequence columnName, int symbolIndexInTxFile) {
@@ -110,6 +131,17 @@ class SymbolCache implements Closeable {
         int symCount = txMem.getInt(transientSymCountOffset);
         path.trimTo(plen);
         symbolMapReader.of(configuration, path, columnName, symCount);
-        symbolValueToKeyMap.clear(symCount);
+        symbolValueToKeyMap.clear();
+    }
+
+    /**
+     * Caches key resolved by the table writer. Key must be committed, uncommitted keys are
+     * reassigned to other values when writer rolls back.
+     *
+     * @param symbolValue symbol value, cache keeps reference to it
+     * @param symbolKey   committed key of the value
+     */
+    void put(CharSequence symbolValue, int symbolKey) {
+        symbolValueToKeyMap.putIfAbsent(symbolValue, symbolKey);
     }
 }
@@ -43,6 +43,11 @@ public class DefaultPGWireConfiguration implements PGWireConfiguration {
         public String getDispatcherLogName() {
             return "pg-server";
         }
+
+        @Override
+        public long getHeartbeatInterval() {
+            return 10_000;
+        }
     };
 
     private final int[] workerAffinity = new int[]{-1};
@@ -163,11 +168,26 @@ public class DefaultPGWireConfiguration implements PGWireConfiguration {
         return 8;
     }
 
+    @Override
+    public long getInsertGroupCommitInterval() {
+        return 0;
+    }
+
+    @Override
+    public int getInsertGroupCommitRowCount() {
+        return 1000;
+    }
+
     @Override
     public int getInsertPoolCapacity() {
         return 32;
     }
 
+    @Override
+    public long getNamedPortalIdleTimeout() {
+        return 300_000;
+    }
+
     @Override
     public int getNamedStatementCacheCapacity() {
         return 32;
@@ -0,0 +1,298 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.cutlass.pgwire;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.CairoSecurityContext;
+import io.questdb.cairo.EntryUnavailableException;
+import io.questdb.cairo.TableWriterAPI;
+import io.questdb.cairo.pool.WriterSource;
+import io.questdb.cairo.sql.InsertMethod;
+import io.questdb.cairo.sql.InsertStatement;
+import io.questdb.cairo.sql.WriterOutOfDateException;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.network.IOOperation;
+import io.questdb.std.Chars;
+import io.questdb.std.ConcurrentHashMap;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+
+import java.io.Closeable;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces autocommit INSERTs into the same table from all PG Wire connections. Rows are appended to a writer
+ * shared by the table's group and committed once, either by the INSERT that brings the group to the row limit,
+ * or by this job once the interval has elapsed since the first pending row. Connection whose rows await the
+ * commit is paused rather than its worker, and is resumed for {@link IOOperation#WRITE} once the commit is done.
+ * That way clients are acknowledged with their rows durable just as with commit per INSERT, while workers go on
+ * serving other connections and jobs.
+ */
+class InsertGroupCommitter extends SynchronizedJob implements Closeable {
+    private static final Log LOG = LogFactory.getLog(InsertGroupCommitter.class);
+    private static final String WRITER_LOCK_REASON = "groupCommit";
+    // outcome of this many most recent commits is kept for connections that resume late
+    private static final int OUTCOME_HISTORY = 64;
+    private final CairoEngine engine;
+    private final MicrosecondClock clock;
+    private final long interval;
+    private final int rowCount;
+    private final ConcurrentHashMap<Group> groups = new ConcurrentHashMap<>();
+
+    InsertGroupCommitter(CairoEngine engine, long interval, int rowCount) {
+        this.engine = engine;
+        this.clock = engine.getConfiguration().getMicrosecondClock();
+        this.interval = interval;
+        this.rowCount = rowCount;
+    }
+
+    @Override
+    public void close() {
+        for (Group group : groups.values()) {
+            group.lock.lock();
+            try {
+                // pending rows are rolled back by the pool, paused connections are resumed to be told so
+                if (group.pendingRowCount > 0) {
+                    group.failed[(int) (group.txn % OUTCOME_HISTORY)] = true;
+                    group.pendingRowCount = 0;
+                    group.txn++;
+                    group.resumeWaiters();
+                }
+                group.writer = Misc.free(group.writer);
+            } finally {
+                group.lock.unlock();
+            }
+        }
+        groups.clear();
+    }
+
+    /**
+     * Appends rows of the insert to table's group.
+     *
+     * @return true when rows are committed, false when they await group commit. In the latter case the waiter's
+     * connection must be paused, it is resumed once the commit is done.
+     */
+    boolean execute(InsertStatement insert, SqlExecutionContext executionContext, Waiter waiter) throws SqlException {
+        final Group group = groupOf(insert.getTableName());
+        group.lock.lock();
+        try {
+            if (group.writer == null) {
+                try {
+                    group.writer = engine.getWriter(executionContext.getCairoSecurityContext(), insert.getTableName(), WRITER_LOCK_REASON);
+                } catch (EntryUnavailableException e) {
+                    // writer is busy outside of PG Wire, insert on our own as usual
+                    group.lock.unlock();
+                    try {
+                        waiter.rowCount = executeAndCommit(insert, executionContext);
+                        return true;
+                    } finally {
+                        group.lock.lock();
+                    }
+                }
+            }
+
+            if (group.writer.getStructureVersion() != insert.getStructureVersion()) {
+                // writer is shared, it cannot be closed by the insert statement
+                if (group.pendingRowCount == 0) {
+                    group.writer = Misc.free(group.writer);
+                }
+                throw WriterOutOfDateException.INSTANCE;
+            }
+
+            final long rows;
+            try {
+                final InsertMethod method = insert.createMethod(executionContext, group);
+                try {
+                    rows = method.execute();
+                } finally {
+                    method.popWriter();
+                }
+            } catch (Throwable e) {
+                // half-written row is cancelled by the next row or commit
+                if (group.pendingRowCount == 0) {
+                    group.writer = Misc.free(group.writer);
+                }
+                throw e;
+            }
+
+            waiter.rowCount = rows;
+            if (group.pendingRowCount == 0) {
+                group.pendingSince = clock.getTicks();
+            }
+            group.pendingRowCount += rows;
+
+            if (group.pendingRowCount >= rowCount || clock.getTicks() - group.pendingSince >= interval) {
+                group.commit();
+                return true;
+            }
+
+            // waiter must be ready to resume before it is visible to whoever commits
+            waiter.group = group;
+            waiter.txn = group.txn;
+            group.waiters.add(waiter);
+            return false;
+        } finally {
+            group.lock.unlock();
+        }
+    }
+
+    @Override
+    protected boolean runSerially() {
+        boolean useful = false;
+        for (Group group : groups.values()) {
+            // group that is busy appending rows is checked on the next run
+            if (group.lock.tryLock()) {
+                try {
+                    if (group.pendingRowCount > 0 && clock.getTicks() - group.pendingSince >= interval) {
+                        group.commit();
+                        useful = true;
+                    }
+                } catch (Throwable e) {
+                    // outcome is reported to paused connections
+                    useful = true;
+                } finally {
+                    group.lock.unlock();
+                }
+            }
+        }
+        return useful;
+    }
+
+    private static long executeAndCommit(InsertStatement insert, SqlExecutionContext executionContext) throws SqlException {
+        try (InsertMethod method = insert.createMethod(executionContext)) {
+            final long rows = method.execute();
+            method.commit();
+            return rows;
+        }
+    }
+
+    private Group groupOf(CharSequence tableName) {
+        Group group = groups.get(tableName);
+        if (group == null) {
+            group = new Group();
+            final Group other = groups.putIfAbsent(Chars.toString(tableName), group);
+            if (other != null) {
+                group = other;
+            }
+        }
+        return group;
+    }
+
+    /**
+     * Connection's view of its rows in group commit.
+     */
+    static class Waiter {
+        private final PGConnectionContext context;
+        private Group group;
+        private long txn;
+        private long rowCount;
+
+        Waiter(PGConnectionContext context) {
+            this.context = context;
+        }
+
+        /**
+         * Reports outcome of the commit that the waiter has been paused for.
+         *
+         * @return number of rows inserted
+         */
+        long checkOutcome() {
+            final Group group = this.group;
+            this.group = null;
+            group.lock.lock();
+            try {
+                group.checkOutcome(txn);
+            } finally {
+                group.lock.unlock();
+            }
+            return rowCount;
+        }
+
+        long getRowCount() {
+            return rowCount;
+        }
+
+        boolean isPaused() {
+            return group != null;
+        }
+    }
+
+    private static class Group implements WriterSource {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final boolean[] failed = new boolean[OUTCOME_HISTORY];
+        private final ObjList<Waiter> waiters = new ObjList<>();
+        private TableWriterAPI writer;
+        private long pendingRowCount;
+        private long pendingSince;
+        // number of commits made by the group, rows appended now go into commit with this number
+        private long txn;
+
+        @Override
+        public TableWriterAPI getWriter(CairoSecurityContext context, CharSequence name, CharSequence lockReason) {
+            return writer;
+        }
+
+        private void checkOutcome(long txn) {
+            if (this.txn - txn > OUTCOME_HISTORY) {
+                throw CairoException.instance(0).put("could not confirm outcome of group commit, check server log for details");
+            }
+            if (failed[(int) (txn % OUTCOME_HISTORY)]) {
+                throw CairoException.instance(0).put("group commit failed, check server log for details");
+            }
+        }
+
+        private void commit() {
+            final int slot = (int) (txn % OUTCOME_HISTORY);
+            final long rows = pendingRowCount;
+            pendingRowCount = 0;
+            txn++;
+            try {
+                writer.commit();
+                failed[slot] = false;
+            } catch (Throwable e) {
+                failed[slot] = true;
+                LOG.error().$("group commit failed [table=").$(writer.getTableName()).$(", rows=").$(rows).$(", e=").$(e).$(']').$();
+                throw e;
+            } finally {
+                // let other writers in, pool rolls back whatever did not make it
+                writer = Misc.free(writer);
+                resumeWaiters();
+            }
+        }
+
+        private void resumeWaiters() {
+            for (int i = 0, n = waiters.size(); i < n; i++) {
+                final PGConnectionContext context = waiters.getQuick(i).context;
+                context.getDispatcher().registerChannel(context, IOOperation.WRITE);
+            }
+            waiters.clear();
+        }
+    }
+}
@@ -33,11 +33,13 @@ import io.questdb.cutlass.text.TextLoader;
 import io.questdb.cutlass.text.types.TypeManager;
 import io.questdb.griffin.*;
 import io.questdb.griffin.engine.functions.bind.BindVariableServiceImpl;
+import io.questdb.griffin.model.CopyModel;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.network.*;
 import io.questdb.std.*;
 import io.questdb.std.datetime.DateLocale;
+import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.datetime.microtime.TimestampFormatUtils;
 import io.questdb.std.str.*;
 import org.jetbrains.annotations.Nullable;
@@ -83,6 +85,9 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     private static final byte MESSAGE_TYPE_CLOSE_COMPLETE = '3';
     private static final byte MESSAGE_TYPE_NO_DATA = 'n';
     private static final byte MESSAGE_TYPE_COPY_IN_RESPONSE = 'G';
+    private static final byte MESSAGE_TYPE_COPY_OUT_RESPONSE = 'H';
+    private static final byte MESSAGE_TYPE_COPY_DATA = 'd';
+    private static final byte MESSAGE_TYPE_COPY_DONE = 'c';
     private static final byte MESSAGE_TYPE_PORTAL_SUSPENDED = 's';
     private static final int NO_TRANSACTION = 0;
     private static final int IN_TRANSACTION = 1;
@@ -111,11 +116,13 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     private final Path path = new Path();
     private final IntList bindVariableTypes = new IntList();
     private final IntList selectColumnTypes = new IntList();
+    private final StringSink copyCharSink = new StringSink();
     private final WeakObjectPool<NamedStatementWrapper> namedStatementWrapperPool;
     private final WeakObjectPool<Portal> namedPortalPool;
     private final WeakAutoClosableObjectPool<TypesAndInsert> typesAndInsertPool;
     private final DateLocale locale;
-    private final CharSequenceObjHashMap<TableWriter> pendingWriters;
+    private final CharSequenceObjHashMap<TableWriterAPI> pendingWriters;
+    private final InsertGroupCommitter groupCommitter;
     private final DirectCharSink utf8Sink;
     private final TypeManager typeManager;
     private final AssociativeCache<TypesAndInsert> typesAndInsertCache;
@@ -123,6 +130,8 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     private final CharSequenceObjHashMap<Portal> namedPortalMap;
     private final IntList syncActions = new IntList(4);
     private final CairoEngine engine;
+    private final MillisecondClock clock;
+    private final long namedPortalIdleTimeout;
     private IntList activeSelectColumnTypes;
     private int parsePhaseBindVariableCount;
     private long sendBufferPtr;
@@ -154,6 +163,14 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     private int transactionState = NO_TRANSACTION;
     private final PGResumeProcessor resumeQueryCompleteRef = this::resumeQueryComplete;
     private NamedStatementWrapper wrapper;
+    // named portal being executed, its cursor is kept open when Execute row limit suspends it
+    private Portal currentPortal;
+    // COPY TO STDOUT factory is not cached, context owns it until copy is complete
+    private RecordCursorFactory copyOutFactory;
+    private int copyOutFormat;
+    private boolean copyOutHeader;
+    // length field of the CopyData message that is being filled, -1 when there is no such message
+    private long copyDataLenAddress = -1;
     private AssociativeCache<TypesAndSelect> typesAndSelectCache;
     private WeakAutoClosableObjectPool<TypesAndSelect> typesAndSelectPool;
     private final ObjectPool<DirectBinarySequence> binarySequenceParamsPool;
@@ -164,9 +181,22 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     private long maxRows;
     private final PGResumeProcessor resumeCursorExecuteRef = this::resumeCursorExecute;
     private final PGResumeProcessor resumeCursorQueryRef = this::resumeCursorQuery;
+    private final PGResumeProcessor resumeCopyOutExecuteRef = this::resumeCopyOutExecute;
+    private final PGResumeProcessor resumeCopyOutQueryRef = this::resumeCopyOutQuery;
+    private final PGResumeProcessor resumeCopyDoneExecuteRef = this::resumeCopyDoneExecute;
+    private final PGResumeProcessor resumeCopyDoneQueryRef = this::resumeCopyDoneQuery;
+    private final PGResumeProcessor resumeGroupCommitExecuteRef = this::resumeGroupCommitExecute;
+    private final InsertGroupCommitter.Waiter groupCommitWaiter = new InsertGroupCommitter.Waiter(this);
+    // completes the response once the connection is resumed after group commit
+    private PGResumeProcessor groupCommitResumeProcessor;
 
     public PGConnectionContext(CairoEngine engine, PGWireConfiguration configuration, int workerCount) {
+        this(engine, configuration, workerCount, null);
+    }
+
+    PGConnectionContext(CairoEngine engine, PGWireConfiguration configuration, int workerCount, @Nullable InsertGroupCommitter groupCommitter) {
         this.engine = engine;
+        this.groupCommitter = groupCommitter;
         this.utf8Sink = new DirectCharSink(engine.getConfiguration().getTextConfiguration().getUtf8SinkSize());
         this.typeManager = new TypeManager(engine.getConfiguration().getTextConfiguration(), utf8Sink);
         this.nf = configuration.getNetworkFacade();
@@ -201,6 +231,8 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         this.pendingWriters = new CharSequenceObjHashMap<>(configuration.getPendingWritersCacheSize());
         this.namedPortalMap = new CharSequenceObjHashMap<>(configuration.getNamedStatementCacheCapacity());
         this.binarySequenceParamsPool = new ObjectPool<>(DirectBinarySequence::new, configuration.getBinParamCountCapacity());
+        this.clock = configuration.getClock();
+        this.namedPortalIdleTimeout = configuration.getNamedPortalIdleTimeout();
     }
 
     public static int getInt(long address, long msgLimit, CharSequence errorMessage) throws BadProtocolException {
@@ -274,7 +306,7 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         clearRecvBuffer();
         typesAndInsertCache.clear();
         namedStatementMap.clear();
-        namedPortalMap.clear();
+        clearPortals();
         bindVariableService.clear();
         bindVariableTypes.clear();
         binarySequenceParamsPool.clear();
@@ -307,6 +339,12 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         return fd;
     }
 
+    @Override
+    public void heartbeat() {
+        // connection is idle, its suspended portals are not going to be evicted on Sync any time soon
+        evictIdlePortals(false);
+    }
+
     @Override
     public boolean invalid() {
         return fd == -1;
@@ -318,7 +356,7 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     }
 
     @Override
-    public TableWriter getWriter(CairoSecurityContext context, CharSequence name, CharSequence lockReason) {
+    public TableWriterAPI getWriter(CairoSecurityContext context, CharSequence name, CharSequence lockReason) {
         final int index = pendingWriters.keyIndex(name);
         if (index < 0) {
             return pendingWriters.valueAt(index);
@@ -331,12 +369,17 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
             @Transient AssociativeCache<TypesAndSelect> selectAndTypesCache,
             @Transient WeakAutoClosableObjectPool<TypesAndSelect> selectAndTypesPool,
             int operation
-    ) throws PeerDisconnectedException, PeerIsSlowToReadException, PeerIsSlowToWriteException, BadProtocolException {
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, PeerIsSlowToWriteException, QueryPausedException, BadProtocolException {
 
         this.typesAndSelectCache = selectAndTypesCache;
         this.typesAndSelectPool = selectAndTypesPool;
 
         try {
+            if (groupCommitWaiter.isPaused()) {
+                rowCount = groupCommitWaiter.checkOutcome();
+                groupCommitResumeProcessor.resume();
+            }
+
             if (bufferRemainingSize > 0) {
                 doSend(bufferRemainingOffset, bufferRemainingSize);
                 if (resumeProcessor != null) {
@@ -798,6 +841,103 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         rowCount += 1;
     }
 
+    private void putCopyBin(BinarySequence sequence, int columnIndex) throws SqlException {
+        if (sequence == null) {
+            putCopyNull();
+        } else {
+            final long blobSize = sequence.length();
+            if (blobSize < maxBlobSizeOnQuery) {
+                // bytea hex format, backslash is escaped in text format
+                responseAsciiSink.put(copyOutFormat == CopyModel.FORMAT_CSV ? "\\x" : "\\\\x");
+                for (long i = 0; i < blobSize; i++) {
+                    final byte b = sequence.byteAt(i);
+                    responseAsciiSink.put(Numbers.hexDigits[(b >> 4) & 0xf]);
+                    responseAsciiSink.put(Numbers.hexDigits[b & 0xf]);
+                }
+            } else {
+                throw SqlException.position(0)
+                        .put("blob is too large [blobSize=").put(blobSize)
+                        .put(", max=").put(maxBlobSizeOnQuery)
+                        .put(", columnIndex=").put(columnIndex)
+                        .put(']');
+            }
+        }
+    }
+
+    private void putCopyGeoHash(long value, int bitFlags) {
+        if (value == GeoHashes.NULL) {
+            putCopyNull();
+        } else if (bitFlags < 0) {
+            GeoHashes.appendCharsUnsafe(value, -bitFlags, responseAsciiSink);
+        } else {
+            GeoHashes.appendBinaryStringUnsafe(value, bitFlags, responseAsciiSink);
+        }
+    }
+
+    private void putCopyNull() {
+        // CSV null is an empty unquoted value
+        if (copyOutFormat != CopyModel.FORMAT_CSV) {
+            responseAsciiSink.put("\\N");
+        }
+    }
+
+    private void putCopyText(CharSequence value) {
+        if (value == null) {
+            putCopyNull();
+            return;
+        }
+
+        final int len = value.length();
+        if (copyOutFormat == CopyModel.FORMAT_CSV) {
+            boolean quote = len == 0;
+            for (int i = 0; i < len && !quote; i++) {
+                final char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                responseAsciiSink.encodeUtf8(value);
+                return;
+            }
+            responseAsciiSink.put('"');
+            int lo = 0;
+            for (int i = 0; i < len; i++) {
+                if (value.charAt(i) == '"') {
+                    // double the quote
+                    responseAsciiSink.encodeUtf8(value, lo, i + 1);
+                    lo = i;
+                }
+            }
+            responseAsciiSink.encodeUtf8(value, lo, len);
+            responseAsciiSink.put('"');
+        } else {
+            int lo = 0;
+            for (int i = 0; i < len; i++) {
+                final char c = value.charAt(i);
+                final char escaped;
+                switch (c) {
+                    case '\\':
+                        escaped = '\\';
+                        break;
+                    case '\t':
+                        escaped = 't';
+                        break;
+                    case '\n':
+                        escaped = 'n';
+                        break;
+                    case '\r':
+                        escaped = 'r';
+                        break;
+                    default:
+                        continue;
+                }
+                responseAsciiSink.encodeUtf8(value, lo, i);
+                responseAsciiSink.put('\\').put(escaped);
+                lo = i + 1;
+            }
+            responseAsciiSink.encodeUtf8(value, lo, len);
+        }
+    }
+
     private void putGeoHashStringByteValue(Record rec, int col, int bitFlags) {
         byte l = rec.getGeoByte(col);
         putGeoHashStringValue(l, bitFlags);
@@ -900,6 +1040,212 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         }
     }
 
+    private void appendCopyRow(Record record, int columnCount) throws SqlException {
+        if (copyOutFormat == CopyModel.FORMAT_BINARY) {
+            // binary tuple has the same layout as DataRow message body
+            responseAsciiSink.putNetworkShort((short) columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                appendCopyValueBin(record, i);
+            }
+        } else {
+            final char delimiter = copyOutFormat == CopyModel.FORMAT_CSV ? ',' : '\t';
+            for (int i = 0; i < columnCount; i++) {
+                if (i > 0) {
+                    responseAsciiSink.put(delimiter);
+                }
+                appendCopyValueText(record, i);
+            }
+            responseAsciiSink.put('\n');
+        }
+        rowCount++;
+    }
+
+    private void appendCopyValueBin(Record record, int columnIndex) throws SqlException {
+        final int type = activeSelectColumnTypes.getQuick(2 * columnIndex);
+        switch (ColumnType.tagOf(type)) {
+            case ColumnType.BOOLEAN:
+                responseAsciiSink.putNetworkInt(Byte.BYTES);
+                responseAsciiSink.put((byte) (record.getBool(columnIndex) ? 1 : 0));
+                break;
+            case ColumnType.BYTE:
+                appendByteColumnBin(record, columnIndex);
+                break;
+            case ColumnType.SHORT:
+                appendShortColumnBin(record, columnIndex);
+                break;
+            case ColumnType.CHAR:
+                appendCharColumn(record, columnIndex);
+                break;
+            case ColumnType.INT:
+                appendIntColumnBin(record, columnIndex);
+                break;
+            case ColumnType.LONG:
+                appendLongColumnBin(record, columnIndex);
+                break;
+            case ColumnType.DATE:
+                appendDateColumnBin(record, columnIndex);
+                break;
+            case ColumnType.TIMESTAMP:
+                appendTimestampColumnBin(record, columnIndex);
+                break;
+            case ColumnType.FLOAT:
+                appendFloatColumnBin(record, columnIndex);
+                break;
+            case ColumnType.DOUBLE:
+                appendDoubleColumnBin(record, columnIndex);
+                break;
+            case ColumnType.SYMBOL:
+                appendSymbolColumn(record, columnIndex);
+                break;
+            case ColumnType.BINARY:
+                appendBinColumn(record, columnIndex);
+                break;
+            case ColumnType.LONG256:
+                appendLong256Column(record, columnIndex);
+                break;
+            case ColumnType.GEOBYTE:
+                putGeoHashStringByteValue(record, columnIndex, activeSelectColumnTypes.getQuick(2 * columnIndex + 1));
+                break;
+            case ColumnType.GEOSHORT:
+                putGeoHashStringShortValue(record, columnIndex, activeSelectColumnTypes.getQuick(2 * columnIndex + 1));
+                break;
+            case ColumnType.GEOINT:
+                putGeoHashStringIntValue(record, columnIndex, activeSelectColumnTypes.getQuick(2 * columnIndex + 1));
+                break;
+            case ColumnType.GEOLONG:
+                putGeoHashStringLongValue(record, columnIndex, activeSelectColumnTypes.getQuick(2 * columnIndex + 1));
+                break;
+            default:
+                // STRING and NULL
+                appendStrColumn(record, columnIndex);
+                break;
+        }
+    }
+
+    private void appendCopyValueText(Record record, int columnIndex) throws SqlException {
+        final int type = activeSelectColumnTypes.getQuick(2 * columnIndex);
+        switch (ColumnType.tagOf(type)) {
+            case ColumnType.BOOLEAN:
+                responseAsciiSink.put(record.getBool(columnIndex) ? 't' : 'f');
+                break;
+            case ColumnType.BYTE:
+                responseAsciiSink.put((int) record.getByte(columnIndex));
+                break;
+            case ColumnType.SHORT:
+                responseAsciiSink.put((int) record.getShort(columnIndex));
+                break;
+            case ColumnType.CHAR:
+                final char charValue = record.getChar(columnIndex);
+                if (charValue == 0) {
+                    putCopyNull();
+                } else {
+                    copyCharSink.clear();
+                    copyCharSink.put(charValue);
+                    putCopyText(copyCharSink);
+                }
+                break;
+            case ColumnType.INT:
+                final int intValue = record.getInt(columnIndex);
+                if (intValue != Numbers.INT_NaN) {
+                    responseAsciiSink.put(intValue);
+                } else {
+                    putCopyNull();
+                }
+                break;
+            case ColumnType.LONG:
+                final long longValue = record.getLong(columnIndex);
+                if (longValue != Numbers.LONG_NaN) {
+                    responseAsciiSink.put(longValue);
+                } else {
+                    putCopyNull();
+                }
+                break;
+            case ColumnType.DATE:
+                final long dateValue = record.getDate(columnIndex);
+                if (dateValue != Numbers.LONG_NaN) {
+                    PG_DATE_MILLI_TIME_Z_FORMAT.format(dateValue, null, null, responseAsciiSink);
+                } else {
+                    putCopyNull();
+                }
+                break;
+            case ColumnType.TIMESTAMP:
+                final long timestampValue = record.getTimestamp(columnIndex);
+                if (timestampValue != Numbers.LONG_NaN) {
+                    TimestampFormatUtils.PG_TIMESTAMP_FORMAT.format(timestampValue, null, null, responseAsciiSink);
+                } else {
+                    putCopyNull();
+                }
+                break;
+            case ColumnType.FLOAT:
+                final float floatValue = record.getFloat(columnIndex);
+                if (floatValue == floatValue) {
+                    responseAsciiSink.put(floatValue, 3);
+                } else {
+                    putCopyNull();
+                }
+                break;
+            case ColumnType.DOUBLE:
+                final double doubleValue = record.getDouble(columnIndex);
+                if (doubleValue == doubleValue) {
+                    responseAsciiSink.put(doubleValue);
+                } else {
+                    putCopyNull();
+                }
+                break;
+            case ColumnType.SYMBOL:
+                putCopyText(record.getSym(columnIndex));
+                break;
+            case ColumnType.BINARY:
+                putCopyBin(record.getBin(columnIndex), columnIndex);
+                break;
+            case ColumnType.LONG256:
+                final Long256 long256Value = record.getLong256A(columnIndex);
+                if (long256Value.getLong0() == Numbers.LONG_NaN &&
+                        long256Value.getLong1() == Numbers.LONG_NaN &&
+                        long256Value.getLong2() == Numbers.LONG_NaN &&
+                        long256Value.getLong3() == Numbers.LONG_NaN) {
+                    putCopyNull();
+                } else {
+                    Numbers.appendLong256(long256Value.getLong0(), long256Value.getLong1(), long256Value.getLong2(), long256Value.getLong3(), responseAsciiSink);
+                }
+                break;
+            case ColumnType.GEOBYTE:
+                putCopyGeoHash(record.getGeoByte(columnIndex), activeSelectColumnTypes.getQuick(2 * columnIndex + 1));
+                break;
+            case ColumnType.GEOSHORT:
+                putCopyGeoHash(record.getGeoShort(columnIndex), activeSelectColumnTypes.getQuick(2 * columnIndex + 1));
+                break;
+            case ColumnType.GEOINT:
+                putCopyGeoHash(record.getGeoInt(columnIndex), activeSelectColumnTypes.getQuick(2 * columnIndex + 1));
+                break;
+            case ColumnType.GEOLONG:
+                putCopyGeoHash(record.getGeoLong(columnIndex), activeSelectColumnTypes.getQuick(2 * columnIndex + 1));
+                break;
+            default:
+                // STRING and NULL
+                putCopyText(record.getStr(columnIndex));
+                break;
+        }
+    }
+
+    private void appendSingleCopyRow(Record record, int columnCount) throws SqlException {
+        // send buffer is empty at this point, row that does not fit is an error
+        beginCopyData();
+        responseAsciiSink.bookmark();
+        try {
+            appendCopyRow(record, columnCount);
+        } catch (NoSpaceLeftInResponseBufferException e) {
+            LOG.error().$("not enough space in buffer for row data [buffer=").$(sendBufferSize).I$();
+            responseAsciiSink.resetToBookmark();
+            endCopyData();
+            throw CairoException.instance(0).put("server configuration error: not enough space in send buffer for row data");
+        } catch (SqlException | CairoException e) {
+            responseAsciiSink.resetToBookmark();
+            endCopyData();
+            throw e;
+        }
+    }
+
     private void assertTrue(boolean check, String message) throws BadProtocolException {
         if (check) {
             return;
@@ -992,7 +1338,10 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     }
 
     private void buildSelectColumnTypes() {
-        final RecordMetadata m = typesAndSelect.getFactory().getMetadata();
+        buildSelectColumnTypes(typesAndSelect.getFactory().getMetadata());
+    }
+
+    private void buildSelectColumnTypes(RecordMetadata m) {
         final int columnCount = m.getColumnCount();
         activeSelectColumnTypes.setPos(2 * columnCount);
 
@@ -1013,8 +1362,14 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         }
     }
 
+    private void beginCopyData() {
+        responseAsciiSink.put(MESSAGE_TYPE_COPY_DATA);
+        copyDataLenAddress = responseAsciiSink.skip();
+    }
+
     private void clearCursorAndFactory() {
         resumeProcessor = null;
+        currentPortal = null;
         currentCursor = Misc.free(currentCursor);
         // do not free factory, it will be cached
         currentFactory = null;
@@ -1029,6 +1384,16 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         }
     }
 
+    private void clearPortals() {
+        for (int i = 0, n = namedPortalMap.size(); i < n; i++) {
+            final Portal portal = namedPortalMap.valueQuick(i);
+            releasePortalCursor(portal);
+            namedPortalPool.push(portal);
+        }
+        namedPortalMap.clear();
+        currentPortal = null;
+    }
+
     void clearRecvBuffer() {
         recvBufferWriteOffset = 0;
         recvBufferReadOffset = 0;
@@ -1087,6 +1452,14 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
                     queryTag = TAG_COPY;
                     sendCopyInResponse(compiler.getEngine(), cc.getTextLoader());
                     break;
+                case CompiledQuery.COPY_OUT:
+                    // uncached
+                    queryTag = TAG_COPY;
+                    copyOutFactory = Misc.free(copyOutFactory);
+                    copyOutFactory = cc.getRecordCursorFactory();
+                    copyOutFormat = cc.getCopyFormat();
+                    copyOutHeader = cc.isCopyHeader();
+                    break;
                 case CompiledQuery.SET:
                     configureContextForSet();
                     break;
@@ -1245,8 +1618,43 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         }
     }
 
-    private void executeInsert() throws SqlException {
-        final TableWriter w;
+    private void endCopyData() {
+        if (copyDataLenAddress != -1) {
+            if (sendBufferPtr == copyDataLenAddress + Integer.BYTES) {
+                // do not send empty message
+                sendBufferPtr = copyDataLenAddress - 1;
+            } else {
+                responseAsciiSink.putLen(copyDataLenAddress);
+            }
+            copyDataLenAddress = -1;
+        }
+    }
+
+    /**
+     * Closes cursors of named portals that have been suspended for longer than the idle timeout.
+     *
+     * @param releaseFactory true to return factories of evicted portals to the cache of the current worker,
+     *                       false when called outside worker, factories are then returned on the next Sync
+     */
+    private void evictIdlePortals(boolean releaseFactory) {
+        if (namedPortalIdleTimeout > 0) {
+            final long deadline = clock.getTicks() - namedPortalIdleTimeout;
+            for (int i = 0, n = namedPortalMap.size(); i < n; i++) {
+                final Portal portal = namedPortalMap.valueQuick(i);
+                if (portal.currentCursor != null && portal.suspendedAt < deadline) {
+                    LOG.info().$("evicting idle portal cursor [name=").$(namedPortalMap.keys().getQuick(i)).$(']').$();
+                    portal.currentCursor = Misc.free(portal.currentCursor);
+                    portal.evicted = true;
+                }
+                if (portal.evicted && releaseFactory) {
+                    releasePortalCursor(portal);
+                }
+            }
+        }
+    }
+
+    private void executeInsert(PGResumeProcessor groupCommitResumeProcessor) throws SqlException, QueryPausedException {
+        final TableWriterAPI w;
         try {
             switch (transactionState) {
                 case IN_TRANSACTION:
@@ -1265,9 +1673,18 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
                     break;
                 default:
                     // in any other case we will commit in place
-                    try (final InsertMethod m2 = typesAndInsert.getInsert().createMethod(sqlExecutionContext, this)) {
-                        rowCount = m2.execute();
-                        m2.commit();
+                    if (groupCommitter != null) {
+                        this.groupCommitResumeProcessor = groupCommitResumeProcessor;
+                        if (!groupCommitter.execute(typesAndInsert.getInsert(), sqlExecutionContext, groupCommitWaiter)) {
+                            // context must not be changed from here on, it may already be resumed by whoever commits
+                            throw QueryPausedException.INSTANCE;
+                        }
+                        rowCount = groupCommitWaiter.getRowCount();
+                    } else {
+                        try (final InsertMethod m2 = typesAndInsert.getInsert().createMethod(sqlExecutionContext, this)) {
+                            rowCount = m2.execute();
+                            m2.commit();
+                        }
                     }
                     break;
             }
@@ -1292,7 +1709,7 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
             case COMMIT_TRANSACTION:
                 try {
                     for (int i = 0, n = pendingWriters.size(); i < n; i++) {
-                        final TableWriter m = pendingWriters.valueQuick(i);
+                        final TableWriterAPI m = pendingWriters.valueQuick(i);
                         m.commit();
                         Misc.free(m);
                     }
@@ -1304,7 +1721,7 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
             case ROLLING_BACK_TRANSACTION:
                 try {
                     for (int i = 0, n = pendingWriters.size(); i < n; i++) {
-                        final TableWriter m = pendingWriters.valueQuick(i);
+                        final TableWriterAPI m = pendingWriters.valueQuick(i);
                         m.rollback();
                         Misc.free(m);
                     }
@@ -1350,7 +1767,7 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
      * any additional bytes received
      */
     private void parse(long address, int len, @Transient SqlCompiler compiler)
-            throws PeerDisconnectedException, PeerIsSlowToReadException, BadProtocolException, SqlException {
+            throws PeerDisconnectedException, PeerIsSlowToReadException, QueryPausedException, BadProtocolException, SqlException {
 
         if (requireInitialMessage) {
             processInitialMessage(address, len);
@@ -1424,6 +1841,7 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
                 processSyncActions();
                 prepareReadyForQuery();
                 prepareForNewQuery();
+                evictIdlePortals(true);
                 // fall thru
             case 'H': // flush
                 sendAndReset();
@@ -1492,6 +1910,30 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         }
     }
 
+    private void prepareCopyDone() {
+        if (copyOutFormat == CopyModel.FORMAT_BINARY) {
+            // file trailer
+            responseAsciiSink.put(MESSAGE_TYPE_COPY_DATA);
+            responseAsciiSink.putNetworkInt(Integer.BYTES + Short.BYTES);
+            responseAsciiSink.putNetworkShort((short) -1);
+        }
+        responseAsciiSink.put(MESSAGE_TYPE_COPY_DONE);
+        responseAsciiSink.putIntDirect(INT_BYTES_X);
+        prepareCommandComplete(true);
+    }
+
+    private void prepareCopyOutResponse(int columnCount) {
+        final short format = (short) (copyOutFormat == CopyModel.FORMAT_BINARY ? 1 : 0);
+        responseAsciiSink.put(MESSAGE_TYPE_COPY_OUT_RESPONSE);
+        final long addr = responseAsciiSink.skip();
+        responseAsciiSink.put((byte) format);
+        responseAsciiSink.putNetworkShort((short) columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            responseAsciiSink.putNetworkShort(format);
+        }
+        responseAsciiSink.putLen(addr);
+    }
+
     private void prepareDescribePortalResponse() {
         if (typesAndSelect != null) {
             try {
@@ -1542,6 +1984,8 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
             characterStore.clear();
             bindVariableService.clear();
             currentCursor = Misc.free(currentCursor);
+            copyOutFactory = Misc.free(copyOutFactory);
+            copyDataLenAddress = -1;
             typesAndInsert = null;
             typesAndSelect = null;
             rowCount = 0;
@@ -1774,7 +2218,9 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
                 if (portalName != null) {
                     final int index = namedPortalMap.keyIndex(portalName);
                     if (index < 0) {
-                        namedPortalPool.push(namedPortalMap.valueAt(index));
+                        final Portal portal = namedPortalMap.valueAt(index);
+                        releasePortalCursor(portal);
+                        namedPortalPool.push(portal);
                         namedPortalMap.removeAt(index);
                     } else {
                         LOG.error().$("invalid portal name [value=").$(portalName).$(']').$();
@@ -1825,7 +2271,7 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     }
 
     private void processExec(long lo, long msgLimit, SqlCompiler compiler)
-            throws PeerDisconnectedException, PeerIsSlowToReadException, SqlException, BadProtocolException {
+            throws PeerDisconnectedException, PeerIsSlowToReadException, QueryPausedException, SqlException, BadProtocolException {
         final long hi = getStringLength(lo, msgLimit, "bad portal name length");
         final CharSequence portalName = getPortalName(lo, hi);
         if (portalName != null) {
@@ -1836,18 +2282,37 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         final int maxRows = getInt(lo, msgLimit, "could not read max rows value");
 
         processSyncActions();
+        Portal portal = null;
+        if (portalName != null) {
+            portal = namedPortalMap.get(portalName);
+            if (portal != null) {
+                if (portal.evicted) {
+                    throw CairoException.instance(0).put("portal cursor was closed after being idle [name=").put(portalName).put(']');
+                }
+                if (portal.currentCursor != null) {
+                    resumePortal(portal, maxRows);
+                    return;
+                }
+            }
+        }
+        currentPortal = portal;
         processExecute(maxRows, compiler);
+        currentPortal = null;
         wrapper = null;
     }
 
-    private void processExecute(int maxRows, SqlCompiler compiler) throws PeerDisconnectedException, PeerIsSlowToReadException, SqlException {
+    private void processExecute(int maxRows, SqlCompiler compiler)
+            throws PeerDisconnectedException, PeerIsSlowToReadException, QueryPausedException, SqlException {
         if (typesAndSelect != null) {
             LOG.debug().$("executing query").$();
             setupFactoryAndCursor(compiler);
             sendCursor(maxRows, resumeCursorExecuteRef, resumeCommandCompleteRef);
+        } else if (copyOutFactory != null) {
+            LOG.debug().$("executing copy out").$();
+            sendCopyOut(resumeCopyOutExecuteRef, resumeCopyDoneExecuteRef);
         } else if (typesAndInsert != null) {
             LOG.debug().$("executing insert").$();
-            executeInsert();
+            executeInsert(resumeGroupCommitExecuteRef);
         } else { //this must be a OK/SET/COMMIT/ROLLBACK or empty query
             executeTag();
             prepareCommandComplete(false);
@@ -1993,7 +2458,7 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     }
 
     private void processQuery(long lo, long limit, @Transient SqlCompiler compiler)
-            throws BadProtocolException, SqlException, PeerDisconnectedException, PeerIsSlowToReadException {
+            throws BadProtocolException, SqlException, PeerDisconnectedException, PeerIsSlowToReadException, QueryPausedException {
         // simple query, typically a script, which we don't yet support
         prepareForNewQuery();
         parseQueryText(lo, limit - 1, compiler);
@@ -2006,8 +2471,10 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
             setupFactoryAndCursor(compiler);
             prepareRowDescription();
             sendCursor(0, resumeCursorQueryRef, resumeQueryCompleteRef);
+        } else if (copyOutFactory != null) {
+            sendCopyOut(resumeCopyOutQueryRef, resumeCopyDoneQueryRef);
         } else if (typesAndInsert != null) {
-            executeInsert();
+            executeInsert(resumeQueryCompleteRef);
         } else {
             executeTag();
             prepareCommandComplete(false);
@@ -2085,6 +2552,37 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         prepareCommandComplete(true);
     }
 
+    private void resumeGroupCommitExecute() {
+        prepareCommandComplete(true);
+        currentPortal = null;
+        wrapper = null;
+    }
+
+    private void resumeCopyDoneExecute() {
+        resumeProcessor = null;
+        prepareCopyDone();
+    }
+
+    private void resumeCopyDoneQuery() throws PeerDisconnectedException, PeerIsSlowToReadException {
+        resumeCopyDoneExecute();
+        sendReadyForNewQuery();
+    }
+
+    private void resumeCopyOutExecute() throws SqlException, PeerDisconnectedException, PeerIsSlowToReadException {
+        final Record record = currentCursor.getRecord();
+        final int columnCount = copyOutFactory.getMetadata().getColumnCount();
+        appendSingleCopyRow(record, columnCount);
+        sendCopyData0(record, columnCount, resumeCopyDoneExecuteRef);
+    }
+
+    private void resumeCopyOutQuery() throws SqlException, PeerDisconnectedException, PeerIsSlowToReadException {
+        final Record record = currentCursor.getRecord();
+        final int columnCount = copyOutFactory.getMetadata().getColumnCount();
+        appendSingleCopyRow(record, columnCount);
+        sendCopyData0(record, columnCount, resumeCopyDoneQueryRef);
+        sendReadyForNewQuery();
+    }
+
     private void resumeCursorExecute() throws SqlException, PeerDisconnectedException, PeerIsSlowToReadException {
         final Record record = currentCursor.getRecord();
         final int columnCount = currentFactory.getMetadata().getColumnCount();
@@ -2106,11 +2604,38 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         sendCursor0(record, columnCount, resumeQueryCompleteRef);
     }
 
+    private void resumePortal(Portal portal, int maxRows)
+            throws PeerDisconnectedException, PeerIsSlowToReadException, SqlException {
+        LOG.debug().$("resuming portal").$();
+        // take ownership of the cursor, should it fail the context will clean up
+        currentCursor = portal.currentCursor;
+        currentFactory = portal.currentFactory;
+        typesAndSelect = portal.typesAndSelect;
+        queryText = portal.queryText;
+        activeSelectColumnTypes = portal.selectColumnTypes;
+        queryTag = TAG_SELECT;
+        portal.currentCursor = null;
+        portal.currentFactory = null;
+        portal.typesAndSelect = null;
+        currentPortal = portal;
+        sendCursor(maxRows, resumeCursorExecuteRef, resumeCommandCompleteRef);
+        currentPortal = null;
+    }
+
     private void resumeQueryComplete() throws PeerDisconnectedException, PeerIsSlowToReadException {
         prepareCommandComplete(true);
         sendReadyForNewQuery();
     }
 
+    private void releasePortalCursor(Portal portal) {
+        portal.currentCursor = Misc.free(portal.currentCursor);
+        portal.currentFactory = null;
+        if (portal.typesAndSelect != null) {
+            typesAndSelectCache.put(portal.queryText, portal.typesAndSelect);
+            portal.typesAndSelect = null;
+        }
+    }
+
     private void sendAndReset() throws PeerDisconnectedException, PeerIsSlowToReadException {
         doSend(0, (int) (sendBufferPtr - sendBuffer));
         responseAsciiSink.reset();
@@ -2142,6 +2667,80 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         sendAndReset();
     }
 
+    private void sendCopyData0(Record record, int columnCount, PGResumeProcessor copyDoneResumeProcessor)
+            throws PeerDisconnectedException, PeerIsSlowToReadException, SqlException {
+        // rows are packed into CopyData messages as large as send buffer allows rather
+        // than framed one message per row
+        while (true) {
+            responseAsciiSink.bookmark();
+            try {
+                if (!currentCursor.hasNext()) {
+                    break;
+                }
+                appendCopyRow(record, columnCount);
+            } catch (NoSpaceLeftInResponseBufferException e) {
+                responseAsciiSink.resetToBookmark();
+                endCopyData();
+                sendAndReset();
+                appendSingleCopyRow(record, columnCount);
+            } catch (SqlException | CairoException e) {
+                responseAsciiSink.resetToBookmark();
+                endCopyData();
+                throw e;
+            }
+        }
+
+        endCopyData();
+        currentCursor = Misc.free(currentCursor);
+        copyOutFactory = Misc.free(copyOutFactory);
+        if (sendBufferLimit - sendBufferPtr < PROTOCOL_TAIL_COMMAND_LENGTH) {
+            resumeProcessor = copyDoneResumeProcessor;
+            sendAndReset();
+        }
+        resumeProcessor = null;
+        prepareCopyDone();
+    }
+
+    private void sendCopyOut(PGResumeProcessor copyResumeProcessor, PGResumeProcessor copyDoneResumeProcessor)
+            throws PeerDisconnectedException, PeerIsSlowToReadException, SqlException {
+        final RecordMetadata metadata = copyOutFactory.getMetadata();
+        final int columnCount = metadata.getColumnCount();
+        activeSelectColumnTypes = selectColumnTypes;
+        buildSelectColumnTypes(metadata);
+        currentCursor = copyOutFactory.getCursor(sqlExecutionContext);
+        rowCount = 0;
+
+        try {
+            prepareCopyOutResponse(columnCount);
+            beginCopyData();
+            if (copyOutFormat == CopyModel.FORMAT_BINARY) {
+                // signature, flags and header extension length
+                responseAsciiSink.put("PGCOPY\n");
+                responseAsciiSink.put((byte) 0xff);
+                responseAsciiSink.put("\r\n");
+                responseAsciiSink.put((byte) 0);
+                responseAsciiSink.putIntDirect(0);
+                responseAsciiSink.putIntDirect(0);
+            } else if (copyOutHeader) {
+                for (int i = 0; i < columnCount; i++) {
+                    if (i > 0) {
+                        responseAsciiSink.put(copyOutFormat == CopyModel.FORMAT_CSV ? ',' : '\t');
+                    }
+                    putCopyText(metadata.getColumnName(i));
+                }
+                responseAsciiSink.put('\n');
+            }
+        } catch (NoSpaceLeftInResponseBufferException e) {
+            LOG.error().$("not enough space in buffer for copy header [buffer=").$(sendBufferSize).I$();
+            responseAsciiSink.reset();
+            copyDataLenAddress = -1;
+            throw CairoException.instance(0).put("server configuration error: not enough space in send buffer for copy header");
+        }
+
+        resumeProcessor = copyResumeProcessor;
+        sendCopyData0(currentCursor.getRecord(), columnCount, copyDoneResumeProcessor);
+    }
+
     private void sendCursor(
             int maxRows,
             PGResumeProcessor cursorResumeProcessor,
@@ -2158,7 +2757,12 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         final RecordMetadata metadata = currentFactory.getMetadata();
         final int columnCount = metadata.getColumnCount();
         final long cursorRowCount = currentCursor.size();
-        this.maxRows = maxRows > 0 ? Long.min(maxRows, cursorRowCount) : Long.MAX_VALUE;
+        if (maxRows > 0) {
+            // cursor size is -1 when it is not known upfront
+            this.maxRows = cursorRowCount > -1 ? Long.min(maxRows, cursorRowCount) : maxRows;
+        } else {
+            this.maxRows = Long.MAX_VALUE;
+        }
         this.resumeProcessor = cursorResumeProcessor;
         sendCursor0(record, columnCount, commandCompleteResumeProcessor);
     }
@@ -2196,6 +2800,9 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
             prepareCommandComplete(true);
         } else {
             prepareSuspended();
+            if (currentPortal != null) {
+                suspendPortal();
+            }
         }
     }
 
@@ -2256,6 +2863,27 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
         recvBufferReadOffset = 0;
     }
 
+    private void suspendPortal() {
+        // keep cursor open in the portal so that the following Execute messages
+        // continue fetching it while the connection is free to run other queries
+        final Portal portal = currentPortal;
+        portal.currentCursor = currentCursor;
+        portal.currentFactory = currentFactory;
+        portal.typesAndSelect = typesAndSelect;
+        portal.queryText = Chars.toString(queryText);
+        if (activeSelectColumnTypes != portal.selectColumnTypes) {
+            portal.selectColumnTypes.clear();
+            portal.selectColumnTypes.addAll(activeSelectColumnTypes);
+        }
+        portal.suspendedAt = clock.getTicks();
+        currentCursor = null;
+        currentFactory = null;
+        typesAndSelect = null;
+        resumeProcessor = null;
+        currentPortal = null;
+        completed = true;
+    }
+
     private void validateParameterCounts(short parameterFormatCount, short parameterValueCount, int parameterTypeCount) throws BadProtocolException {
         if (parameterValueCount > 0) {
             if (parameterValueCount < parameterTypeCount) {
@@ -2275,11 +2903,25 @@ public class PGConnectionContext implements IOContext, Mutable, WriterSource {
     }
 
     public static class Portal implements Mutable {
+        public final IntList selectColumnTypes = new IntList();
         public CharSequence statementName = null;
+        // cursor of suspended portal and the factory it was obtained from
+        public RecordCursor currentCursor;
+        public RecordCursorFactory currentFactory;
+        public TypesAndSelect typesAndSelect;
+        public CharSequence queryText;
+        public long suspendedAt;
+        public boolean evicted;
 
         @Override
         public void clear() {
             statementName = null;
+            currentCursor = Misc.free(currentCursor);
+            currentFactory = null;
+            typesAndSelect = null;
+            queryText = null;
+            selectColumnTypes.clear();
+            evicted = false;
         }
     }
 
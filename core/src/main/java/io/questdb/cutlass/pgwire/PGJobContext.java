@@ -30,6 +30,7 @@ import io.questdb.griffin.SqlCompiler;
 import io.questdb.network.PeerDisconnectedException;
 import io.questdb.network.PeerIsSlowToReadException;
 import io.questdb.network.PeerIsSlowToWriteException;
+import io.questdb.network.QueryPausedException;
 import io.questdb.std.AssociativeCache;
 import io.questdb.std.Misc;
 import io.questdb.std.WeakAutoClosableObjectPool;
@@ -64,6 +65,7 @@ public class PGJobContext implements Closeable {
             throws PeerIsSlowToWriteException,
             PeerIsSlowToReadException,
             PeerDisconnectedException,
+            QueryPausedException,
             BadProtocolException {
         context.handleClientOperation(compiler, selectAndTypesCache, selectAndTypesPool, operation);
     }
@@ -29,6 +29,8 @@ import io.questdb.network.IODispatcherConfiguration;
 import io.questdb.network.NetworkFacade;
 import io.questdb.std.Rnd;
 import io.questdb.std.datetime.DateLocale;
+import io.questdb.std.datetime.millitime.MillisecondClock;
+import io.questdb.std.datetime.millitime.MillisecondClockImpl;
 
 public interface PGWireConfiguration extends WorkerPoolAwareConfiguration {
     int getBinParamCountCapacity();
@@ -61,10 +63,27 @@ public interface PGWireConfiguration extends WorkerPoolAwareConfiguration {
 
     int getInsertCacheRowCount();
 
+    /**
+     * @return time in microseconds that autocommit INSERT waits for inserts from other connections
+     * into the same table to share its commit, 0 commits every INSERT on its own
+     */
+    long getInsertGroupCommitInterval();
+
+    /**
+     * @return number of rows after which group commit does not wait for interval to elapse
+     */
+    int getInsertGroupCommitRowCount();
+
     int getInsertPoolCapacity();
 
     int getMaxBlobSizeOnQuery();
 
+    /**
+     * @return time in milliseconds that a suspended named portal keeps its cursor open
+     * between Execute messages before the cursor is closed, 0 keeps it open until the portal is closed
+     */
+    long getNamedPortalIdleTimeout();
+
     int getNamedStatementCacheCapacity();
 
     int getNamesStatementPoolCapacity();
@@ -81,6 +100,10 @@ public interface PGWireConfiguration extends WorkerPoolAwareConfiguration {
 
     DateLocale getDefaultDateLocale();
 
+    default MillisecondClock getClock() {
+        return MillisecondClockImpl.INSTANCE;
+    }
+
     // this is used in tests to fix pseudo-random generator
     default Rnd getRandom() {
         return null;
@@ -63,6 +63,9 @@ public class PGWireServer implements Closeable {
         );
 
         workerPool.assign(dispatcher);
+        if (contextFactory.groupCommitter != null) {
+            workerPool.assign(contextFactory.groupCommitter);
+        }
 
         for (int i = 0, n = workerPool.getWorkerCount(); i < n; i++) {
             final PGJobContext jobContext = new PGJobContext(configuration, engine, functionFactoryCache);
@@ -75,6 +78,8 @@ public class PGWireServer implements Closeable {
                         context.getDispatcher().registerChannel(context, IOOperation.READ);
                     } catch (PeerIsSlowToReadException e) {
                         context.getDispatcher().registerChannel(context, IOOperation.WRITE);
+                    } catch (QueryPausedException e) {
+                        // connection is registered by whoever completes the query
                     } catch (PeerDisconnectedException e) {
                         context.getDispatcher().disconnect(context, operation == IOOperation.READ ? DISCONNECT_REASON_PEER_DISCONNECT_AT_RECV : DISCONNECT_REASON_PEER_DISCONNECT_AT_SEND);
                     } catch (BadProtocolException e) {
@@ -135,16 +140,21 @@ public class PGWireServer implements Closeable {
 
     private static class PGConnectionContextFactory implements IOContextFactory<PGConnectionContext>, Closeable, EagerThreadSetup {
         private final ThreadLocal<WeakObjectPool<PGConnectionContext>> contextPool;
+        private final InsertGroupCommitter groupCommitter;
         private boolean closed = false;
 
         public PGConnectionContextFactory(CairoEngine engine, PGWireConfiguration configuration, int workerCount) {
+            this.groupCommitter = configuration.getInsertGroupCommitInterval() > 0
+                    ? new InsertGroupCommitter(engine, configuration.getInsertGroupCommitInterval(), configuration.getInsertGroupCommitRowCount())
+                    : null;
             this.contextPool = new ThreadLocal<>(() -> new WeakObjectPool<>(() ->
-                    new PGConnectionContext(engine, configuration, workerCount), configuration.getConnectionPoolInitialCapacity()));
+                    new PGConnectionContext(engine, configuration, workerCount, groupCommitter), configuration.getConnectionPoolInitialCapacity()));
         }
 
         @Override
         public void close() {
             closed = true;
+            Misc.free(groupCommitter);
         }
 
         @Override
@@ -141,6 +141,18 @@ public class CairoTextWriter implements Closeable, Mutable {
         return designatedTimestampColumnName;
     }
 
+    TimestampAdapter getTimestampAdapter() {
+        return timestampAdapter;
+    }
+
+    int getTimestampIndex() {
+        return timestampIndex;
+    }
+
+    int getWriterPartitionBy() {
+        return writer.getPartitionBy();
+    }
+
     public int getWarnings() {
         return warnings;
     }
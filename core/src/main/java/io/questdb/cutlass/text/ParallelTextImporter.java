@@ -0,0 +1,436 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.cutlass.text;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.PartitionBy;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cutlass.text.types.TimestampAdapter;
+import io.questdb.cutlass.text.types.TypeManager;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.std.str.DirectByteCharSequence;
+import io.questdb.std.str.DirectCharSink;
+import io.questdb.tasks.TextImportTask;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports memory mapped text into a table with designated timestamp.
+ * <p>
+ * Text is split into chunks on line boundaries. Chunks are lexed by worker threads,
+ * each building an index of (timestamp, line address) pairs sorted by timestamp. Lines
+ * are then written one partition at a time in timestamp order, which saves unordered
+ * input from O3 merges. Values are written by the listener used for serial import.
+ * <p>
+ * Chunk boundaries are found by scanning text for new line characters that are not
+ * inside quoted values. Quotes are tracked the same way as {@link TextLexer} does, so
+ * that chunks can be lexed independently of one another.
+ */
+public class ParallelTextImporter implements Closeable, Mutable, TextImportTask.Handler {
+    private static final Log LOG = LogFactory.getLog(ParallelTextImporter.class);
+    private static final int INDEX_INITIAL_CAPACITY = 1024;
+    private final CairoEngine engine;
+    private final TextConfiguration textConfiguration;
+    private final TypeManager typeManager;
+    private final ObjList<Chunk> chunks = new ObjList<>();
+    private final ObjList<Slot> slots = new ObjList<>();
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+    private final AtomicInteger errorCount = new AtomicInteger();
+    private TextLexer lineLexer;
+    private DirectLongList partitionIndex;
+    private DirectLongList sortBuffer;
+    private CharSequence tableName;
+    private TimestampAdapter timestampAdapter;
+    private byte columnDelimiter;
+    private int columnCount;
+    private int timestampIndex;
+    private boolean skipLinesWithExtraValues;
+    private long hi;
+    private long lineCount;
+    private long errorLineCount;
+
+    public ParallelTextImporter(CairoEngine engine, TypeManager typeManager) {
+        this.engine = engine;
+        this.textConfiguration = engine.getConfiguration().getTextConfiguration();
+        this.typeManager = typeManager;
+    }
+
+    /**
+     * Scans text from "lo", which must be at the start of a line, and finds the first new line
+     * character at or after "ptr" that is not inside a quoted value.
+     *
+     * @return address after the new line character, or "hi" when there is none
+     */
+    static long nextLine(long lo, long ptr, long hi, byte columnDelimiter) {
+        boolean fieldStart = true;
+        boolean inQuote = false;
+        boolean delayedOutQuote = false;
+        long p = lo;
+        while (p < hi) {
+            final byte c = Unsafe.getUnsafe().getByte(p++);
+            if (inQuote) {
+                if (c == '"') {
+                    // quote is either closing or the first of two escaped quotes
+                    delayedOutQuote = !delayedOutQuote;
+                    continue;
+                }
+                if (!delayedOutQuote) {
+                    continue;
+                }
+                inQuote = delayedOutQuote = false;
+            }
+
+            if (c == columnDelimiter) {
+                fieldStart = true;
+            } else if (c == '"') {
+                inQuote = fieldStart;
+                fieldStart = false;
+            } else if (c == '\n') {
+                if (p > ptr) {
+                    return p;
+                }
+                fieldStart = true;
+            } else {
+                fieldStart = c == '\r';
+            }
+        }
+        return hi;
+    }
+
+    @Override
+    public void clear() {
+        // index memory is proportional to the size of the file, release it all
+        Misc.freeObjList(chunks);
+        chunks.clear();
+        Misc.freeObjList(slots);
+        slots.clear();
+        lineLexer = Misc.free(lineLexer);
+        partitionIndex = Misc.free(partitionIndex);
+        sortBuffer = Misc.free(sortBuffer);
+        tableName = null;
+        timestampAdapter = null;
+        lineCount = 0;
+        errorLineCount = 0;
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    public long getErrorLineCount() {
+        return errorLineCount;
+    }
+
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    public void load(long lo, long hi, int partitionBy, TextLexer.Listener listener) {
+        this.hi = hi;
+        final long chunkSize = Math.max(1, engine.getConfiguration().getSqlCopyChunkSize());
+        long chunkLo = lo;
+        while (chunkLo < hi) {
+            final long chunkHi = hi - chunkLo > chunkSize ? nextLine(chunkLo, chunkLo + chunkSize - 1, hi, columnDelimiter) : hi;
+            final Chunk chunk = new Chunk();
+            chunk.of(chunkLo, chunkHi);
+            chunks.add(chunk);
+            chunkLo = chunkHi;
+        }
+
+        final long timer = System.nanoTime();
+        indexChunks();
+        LOG.info()
+                .$("indexed [table=`").$(tableName)
+                .$("`, chunks=").$(chunks.size())
+                .$(", slots=").$(slots.size())
+                .$(", lines=").$(lineCount)
+                .$(", errors=").$(errorLineCount)
+                .$(", time=").$((System.nanoTime() - timer) / 1_000_000).$("ms")
+                .I$();
+        writePartitions(partitionBy, listener);
+    }
+
+    public void of(
+            CharSequence tableName,
+            byte columnDelimiter,
+            int columnCount,
+            TimestampAdapter timestampAdapter,
+            int timestampIndex,
+            boolean skipLinesWithExtraValues
+    ) {
+        this.tableName = tableName;
+        this.columnDelimiter = columnDelimiter;
+        this.columnCount = columnCount;
+        this.timestampAdapter = timestampAdapter;
+        this.timestampIndex = timestampIndex;
+        this.skipLinesWithExtraValues = skipLinesWithExtraValues;
+    }
+
+    @Override
+    public void run(int slot) {
+        final Slot s = slots.getQuick(slot);
+        for (int i = slot, n = chunks.size(), step = slots.size(); i < n; i += step) {
+            s.index(chunks.getQuick(i));
+        }
+    }
+
+    private void indexChunks() {
+        final MessageBus bus = engine.getMessageBus();
+        final RingQueue<TextImportTask> queue = bus.getTextImportQueue();
+        final Sequence pubSeq = bus.getTextImportPubSeq();
+        final Sequence subSeq = bus.getTextImportSubSeq();
+
+        // each slot lexes every slotCount-th chunk, slots are what is run concurrently
+        final int slotCount = Math.min(chunks.size(), queue.getCycle());
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new Slot());
+        }
+
+        errorCount.set(0);
+        doneLatch.reset();
+        int queuedCount = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            final long seq = pubSeq.next();
+            if (seq < 0) {
+                // queue is full, run the task on the query thread
+                run(slot);
+            } else {
+                queue.get(seq).of(this, slot, errorCount, doneLatch);
+                pubSeq.done(seq);
+                queuedCount++;
+            }
+        }
+
+        // help workers to drain the queue, this also avoids
+        // deadlock when there are no workers to pick up our tasks
+        while (doneLatch.getCount() > -queuedCount) {
+            long seq = subSeq.next();
+            if (seq > -1) {
+                queue.get(seq).run();
+                subSeq.done(seq);
+            }
+        }
+        doneLatch.await(queuedCount);
+
+        if (errorCount.get() > 0) {
+            throw CairoException.instance(0).put("text import failed, check server log for details");
+        }
+
+        for (int i = 0, n = chunks.size(); i < n; i++) {
+            final Chunk chunk = chunks.getQuick(i);
+            lineCount += chunk.lineCount;
+            errorLineCount += chunk.errorCount;
+        }
+    }
+
+    private void writeLine(long lineLo, TextLexer.Listener listener) {
+        lineLexer.parseLines(lineLo, hi, 0, columnCount, listener);
+    }
+
+    private void writePartitions(int partitionBy, TextLexer.Listener listener) {
+        lineLexer = new TextLexer(textConfiguration, typeManager);
+        lineLexer.of(columnDelimiter);
+        lineLexer.setTableName(tableName);
+        lineLexer.setSkipLinesWithExtraValues(skipLinesWithExtraValues);
+
+        // lines without valid timestamp are passed on for the writer to log and count them
+        for (int i = 0, n = chunks.size(); i < n; i++) {
+            final DirectLongList badLines = chunks.getQuick(i).badLines;
+            for (long j = 0, m = badLines.size(); j < m; j++) {
+                writeLine(badLines.get(j), listener);
+            }
+        }
+
+        final Timestamps.TimestampFloorMethod floorMethod;
+        final Timestamps.TimestampAddMethod addMethod;
+        if (partitionBy != PartitionBy.NONE) {
+            floorMethod = TableUtils.getPartitionFloor(partitionBy);
+            addMethod = TableUtils.getPartitionAdd(partitionBy);
+        } else {
+            floorMethod = null;
+            addMethod = null;
+        }
+
+        partitionIndex = new DirectLongList(INDEX_INITIAL_CAPACITY);
+        sortBuffer = new DirectLongList(INDEX_INITIAL_CAPACITY);
+        final int chunkCount = chunks.size();
+        while (true) {
+            long minTimestamp = Long.MAX_VALUE;
+            boolean found = false;
+            for (int i = 0; i < chunkCount; i++) {
+                final Chunk chunk = chunks.getQuick(i);
+                if (chunk.pos < chunk.size()) {
+                    minTimestamp = Math.min(minTimestamp, chunk.timestampAt(chunk.pos));
+                    found = true;
+                }
+            }
+
+            if (!found) {
+                break;
+            }
+
+            final long partitionLast = floorMethod != null
+                    ? addMethod.calculate(floorMethod.floor(minTimestamp), 1) - 1
+                    : Long.MAX_VALUE;
+
+            // chunks are sorted, lines of the partition are at the top of each of them
+            partitionIndex.clear();
+            int contributorCount = 0;
+            for (int i = 0; i < chunkCount; i++) {
+                final Chunk chunk = chunks.getQuick(i);
+                long pos = chunk.pos;
+                for (long n = chunk.size(); pos < n; pos++) {
+                    final long timestamp = chunk.timestampAt(pos);
+                    if (timestamp > partitionLast) {
+                        break;
+                    }
+                    partitionIndex.add(timestamp);
+                    partitionIndex.add(chunk.lineAt(pos));
+                }
+                if (pos > chunk.pos) {
+                    contributorCount++;
+                    chunk.pos = pos;
+                }
+            }
+
+            final long lineCount = partitionIndex.size() / 2;
+            if (contributorCount > 1) {
+                sort(partitionIndex, lineCount, sortBuffer);
+            }
+
+            for (long i = 0; i < lineCount; i++) {
+                writeLine(partitionIndex.get(i * 2 + 1), listener);
+            }
+
+            LOG.debug()
+                    .$("partition written [table=`").$(tableName)
+                    .$("`, ts=").$ts(minTimestamp)
+                    .$(", lines=").$(lineCount)
+                    .I$();
+        }
+    }
+
+    private static void sort(DirectLongList index, long count, DirectLongList sortBuffer) {
+        if (sortBuffer.getCapacity() < count * 2) {
+            sortBuffer.extend(count * 2);
+        }
+        // radix sort is stable, lines with the same timestamp keep their order in file
+        Vect.radixSortLongIndexAscInPlace(index.getAddress(), count, sortBuffer.getAddress());
+    }
+
+    private static class Chunk implements Closeable {
+        // (timestamp, line address) pairs
+        private final DirectLongList index = new DirectLongList(INDEX_INITIAL_CAPACITY);
+        private final DirectLongList badLines = new DirectLongList(16);
+        private long lo;
+        private long hi;
+        private long lineCount;
+        private long errorCount;
+        // position of the first pair that is yet to be written
+        private long pos;
+
+        @Override
+        public void close() {
+            Misc.free(index);
+            Misc.free(badLines);
+        }
+
+        long lineAt(long pos) {
+            return index.get(pos * 2 + 1);
+        }
+
+        void of(long lo, long hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        long size() {
+            return index.size() / 2;
+        }
+
+        long timestampAt(long pos) {
+            return index.get(pos * 2);
+        }
+    }
+
+    private class Slot implements TextLexer.Listener, Closeable {
+        private final TextLexer lexer = new TextLexer(textConfiguration, typeManager);
+        private final DirectLongList sortBuffer = new DirectLongList(INDEX_INITIAL_CAPACITY);
+        // timestamp adapter is shared by slots, each of them decodes text into its own sink
+        private final DirectCharSink utf8Sink = new DirectCharSink(textConfiguration.getUtf8SinkSize());
+        private Chunk chunk;
+
+        private Slot() {
+            lexer.of(columnDelimiter);
+            lexer.setTableName(tableName);
+            lexer.setSkipLinesWithExtraValues(skipLinesWithExtraValues);
+        }
+
+        @Override
+        public void close() {
+            Misc.free(lexer);
+            Misc.free(sortBuffer);
+            Misc.free(utf8Sink);
+        }
+
+        @Override
+        public void onFields(long line, ObjList<DirectByteCharSequence> values, int valuesLength) {
+            final long lineLo = lexer.getLineStart();
+            try {
+                final long timestamp = timestampAdapter.getTimestamp(values.getQuick(timestampIndex), utf8Sink);
+                if (timestamp >= Timestamps.O3_MIN_TS) {
+                    chunk.index.add(timestamp);
+                    chunk.index.add(lineLo);
+                    return;
+                }
+            } catch (Exception ignore) {
+                // reported when line is written
+            }
+            chunk.badLines.add(lineLo);
+        }
+
+        void index(Chunk chunk) {
+            this.chunk = chunk;
+            final long errorCount = lexer.getErrorCount();
+            lexer.parseLines(chunk.lo, chunk.hi, Integer.MAX_VALUE, columnCount, this);
+            chunk.lineCount = lexer.getLineCount();
+            chunk.errorCount = lexer.getErrorCount() - errorCount;
+            final long count = chunk.size();
+            if (count > 1) {
+                sort(chunk.index, count, sortBuffer);
+            }
+            this.chunk = null;
+        }
+    }
+}
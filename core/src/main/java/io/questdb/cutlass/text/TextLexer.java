@@ -63,6 +63,8 @@ public class TextLexer implements Closeable, Mutable {
     private long fieldLo;
     private long fieldHi;
     private boolean skipLinesWithExtraValues;
+    private boolean fixedFieldCount;
+    private long lineStart;
 
     public TextLexer(TextConfiguration textConfiguration, TypeManager typeManager) {
         this.metadataDetector = new TextMetadataDetector(typeManager, textConfiguration);
@@ -133,6 +135,28 @@ public class TextLexer implements Closeable, Mutable {
         parse(lo, hi);
     }
 
+    /**
+     * Parses lines of a buffer that starts on a line boundary independently of
+     * anything parsed before. Lines are expected to have "fieldCount" fields, as
+     * established by structure analysis. While the listener is called {@link #getLineStart()}
+     * returns address of the line being reported.
+     */
+    void parseLines(long lo, long hi, int lineCountLimit, int fieldCount, Listener textLexerListener) {
+        restart(false);
+        for (int i = 0; i < fieldCount; i++) {
+            addField();
+        }
+        this.fixedFieldCount = true;
+        this.lineStart = lo;
+        this.lastLineStart = 0;
+        parse(lo, hi, lineCountLimit, textLexerListener);
+        parseLast();
+    }
+
+    long getLineStart() {
+        return lineStart;
+    }
+
     public void parseLast() {
         if (useLineRollBuf) {
             if (inQuote && lastQuotePos < fieldHi) {
@@ -157,6 +181,7 @@ public class TextLexer implements Closeable, Mutable {
         this.lineRollBufCur = lineRollBufPtr;
         this.useLineRollBuf = false;
         this.rollBufferUnusable = false;
+        this.fixedFieldCount = false;
         this.header = header;
         fields.clear();
         csPool.clear();
@@ -281,7 +306,7 @@ public class TextLexer implements Closeable, Mutable {
         }
 
         if (eol) {
-            this.fieldLo = this.fieldHi;
+            this.lineStart = this.fieldLo = this.fieldHi;
             return;
         }
 
@@ -289,6 +314,7 @@ public class TextLexer implements Closeable, Mutable {
 
         if (ignoreEolOnce) {
             ignoreEolOnce();
+            this.lineStart = this.fieldHi;
             return;
         }
 
@@ -397,7 +423,7 @@ public class TextLexer implements Closeable, Mutable {
     }
 
     private void stashField(int fieldIndex) {
-        if (lineCount == 0 && fieldIndex >= fields.size()) {
+        if (lineCount == 0 && fieldIndex >= fields.size() && !fixedFieldCount) {
             addField();
         }
 
@@ -425,10 +451,10 @@ public class TextLexer implements Closeable, Mutable {
 
         if (header) {
             header = false;
-            return;
+        } else {
+            textLexerListener.onFields(lineCount++, fields, fieldMax + 1);
         }
-
-        textLexerListener.onFields(lineCount++, fields, fieldMax + 1);
+        this.lineStart = this.fieldHi;
     }
 
     private void uneol(long lo) {
@@ -30,6 +30,7 @@ import io.questdb.cairo.PartitionBy;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.cutlass.json.JsonException;
 import io.questdb.cutlass.json.JsonLexer;
+import io.questdb.cutlass.text.types.TimestampAdapter;
 import io.questdb.cutlass.text.types.TypeManager;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
@@ -57,6 +58,7 @@ public class TextLoader implements Closeable, Mutable {
     private final DirectCharSink utf8Sink;
     private final TypeManager typeManager;
     private final ObjList<ParserMethod> parseMethods = new ObjList<>();
+    private final ParallelTextImporter parallelImporter;
     private int state;
     private boolean forceHeaders = false;
     private byte columnDelimiter = -1;
@@ -74,6 +76,7 @@ public class TextLoader implements Closeable, Mutable {
         textMetadataParser = new TextMetadataParser(textConfiguration, typeManager);
         textAnalysisMaxLines = textConfiguration.getTextAnalysisMaxLines();
         textDelimiterScanner = new TextDelimiterScanner(textConfiguration);
+        parallelImporter = new ParallelTextImporter(engine, typeManager);
         parseMethods.extendAndSet(LOAD_JSON_METADATA, this::parseJsonMetadata);
         parseMethods.extendAndSet(ANALYZE_STRUCTURE, this::parseStructure);
         parseMethods.extendAndSet(LOAD_DATA, this::parseData);
@@ -89,6 +92,7 @@ public class TextLoader implements Closeable, Mutable {
         forceHeaders = false;
         columnDelimiter = -1;
         typeManager.clear();
+        parallelImporter.clear();
     }
 
     @Override
@@ -100,6 +104,7 @@ public class TextLoader implements Closeable, Mutable {
         Misc.free(path);
         Misc.free(textDelimiterScanner);
         Misc.free(utf8Sink);
+        Misc.free(parallelImporter);
     }
 
     public void closeWriter() {
@@ -140,11 +145,11 @@ public class TextLoader implements Closeable, Mutable {
     }
 
     public long getParsedLineCount() {
-        return textLexer.getLineCount();
+        return textLexer.getLineCount() + parallelImporter.getLineCount();
     }
 
     public long getErrorLineCount() {
-        return textLexer.getErrorCount();
+        return textLexer.getErrorCount() + parallelImporter.getErrorLineCount();
     }
 
     public int getPartitionBy() {
@@ -191,6 +196,35 @@ public class TextLoader implements Closeable, Mutable {
         parseMethods.getQuick(state).parse(lo, hi, cairoSecurityContext);
     }
 
+    /**
+     * Loads text that is entirely in memory, such as a memory mapped file. When destination
+     * table has designated timestamp lines are parsed in parallel and written in timestamp order,
+     * see {@link ParallelTextImporter}. Call {@link #wrapUp()} to commit.
+     */
+    public void parseAll(long lo, long hi, CairoSecurityContext cairoSecurityContext) throws TextException {
+        final byte delimiter = prepareTable(lo, hi, cairoSecurityContext);
+        final TimestampAdapter timestampAdapter = textWriter.getTimestampAdapter();
+        if (timestampAdapter != null) {
+            parallelImporter.of(
+                    textWriter.getTableName(),
+                    delimiter,
+                    textLexer.getColumnNames().size(),
+                    timestampAdapter,
+                    textWriter.getTimestampIndex(),
+                    textLexer.isSkipLinesWithExtraValues()
+            );
+            parallelImporter.load(
+                    textLexer.isHeaderDetected() ? ParallelTextImporter.nextLine(lo, lo, hi, delimiter) : lo,
+                    hi,
+                    textWriter.getWriterPartitionBy(),
+                    textWriter.getTextListener()
+            );
+        } else {
+            textLexer.parse(lo, hi, Integer.MAX_VALUE, textWriter.getTextListener());
+        }
+        state = LOAD_DATA;
+    }
+
     public void setState(int state) {
         LOG.debug().$("state change [old=").$(this.state).$(", new=").$(state).$(']').$();
         this.state = state;
@@ -229,11 +263,14 @@ public class TextLoader implements Closeable, Mutable {
     }
 
     private void parseStructure(long lo, long hi, CairoSecurityContext cairoSecurityContext) throws TextException {
-        if (columnDelimiter > 0) {
-            textLexer.of(columnDelimiter);
-        } else {
-            textLexer.of(textDelimiterScanner.scan(lo, hi));
-        }
+        prepareTable(lo, hi, cairoSecurityContext);
+        textLexer.parse(lo, hi, Integer.MAX_VALUE, textWriter.getTextListener());
+        state = LOAD_DATA;
+    }
+
+    private byte prepareTable(long lo, long hi, CairoSecurityContext cairoSecurityContext) throws TextException {
+        final byte delimiter = columnDelimiter > 0 ? columnDelimiter : textDelimiterScanner.scan(lo, hi);
+        textLexer.of(delimiter);
         textLexer.analyseStructure(
                 lo,
                 hi,
@@ -243,8 +280,7 @@ public class TextLoader implements Closeable, Mutable {
                 textMetadataParser.getColumnTypes()
         );
         textWriter.prepareTable(cairoSecurityContext, textLexer.getColumnNames(), textLexer.getColumnTypes());
-        textLexer.parse(lo, hi, Integer.MAX_VALUE, textWriter.getTextListener());
-        state = LOAD_DATA;
+        return delimiter;
     }
 
     @FunctionalInterface
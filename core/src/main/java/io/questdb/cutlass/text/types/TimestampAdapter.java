@@ -31,6 +31,7 @@ import io.questdb.std.NumericException;
 import io.questdb.std.datetime.DateFormat;
 import io.questdb.std.datetime.DateLocale;
 import io.questdb.std.str.DirectByteCharSequence;
+import io.questdb.std.str.DirectCharSink;
 
 public class TimestampAdapter extends AbstractTypeAdapter implements Mutable {
     protected DateLocale locale;
@@ -66,6 +67,14 @@ public class TimestampAdapter extends AbstractTypeAdapter implements Mutable {
         return format.parse(value, locale);
     }
 
+    /**
+     * Parses value the same way as {@link #getTimestamp(DirectByteCharSequence)} but uses
+     * the caller's sink to decode text, which lets threads share the adapter.
+     */
+    public long getTimestamp(DirectByteCharSequence value, DirectCharSink utf8Sink) throws Exception {
+        return getTimestamp(value);
+    }
+
     public TimestampAdapter of(DateFormat format, DateLocale locale) {
         this.format = format;
         this.locale = locale;
@@ -40,10 +40,20 @@ public class TimestampUtf8Adapter extends TimestampAdapter {
     }
 
     @Override
-    public void write(TableWriter.Row row, int column, DirectByteCharSequence value) throws Exception {
+    public long getTimestamp(DirectByteCharSequence value) throws Exception {
+        return getTimestamp(value, utf8Sink);
+    }
+
+    @Override
+    public long getTimestamp(DirectByteCharSequence value, DirectCharSink utf8Sink) throws Exception {
         utf8Sink.clear();
         TextUtil.utf8DecodeEscConsecutiveQuotes(value.getLo(), value.getHi(), utf8Sink);
-        row.putDate(column, format.parse(utf8Sink, locale));
+        return format.parse(utf8Sink, locale);
+    }
+
+    @Override
+    public void write(TableWriter.Row row, int column, DirectByteCharSequence value) throws Exception {
+        row.putDate(column, getTimestamp(value));
     }
 
     public TimestampUtf8Adapter of(DateFormat format, DateLocale locale) {
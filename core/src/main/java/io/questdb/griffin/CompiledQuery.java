@@ -42,6 +42,7 @@ public interface CompiledQuery {
     short COPY_REMOTE = 11;
     short RENAME_TABLE = 12;
     short BACKUP_TABLE = 13;
+    short COPY_OUT = 14;
 
     RecordCursorFactory getRecordCursorFactory();
 
@@ -50,4 +51,14 @@ public interface CompiledQuery {
     TextLoader getTextLoader();
 
     short getType();
+
+    /**
+     * @return output format of COPY_OUT, one of CopyModel.FORMAT_* values
+     */
+    int getCopyFormat();
+
+    /**
+     * @return true when COPY_OUT output starts with column names
+     */
+    boolean isCopyHeader();
 }
@@ -33,6 +33,8 @@ public class CompiledQueryImpl implements CompiledQuery {
     private InsertStatement insertStatement;
     private TextLoader textLoader;
     private short type;
+    private int copyFormat;
+    private boolean copyHeader;
 
     @Override
     public RecordCursorFactory getRecordCursorFactory() {
@@ -54,6 +56,16 @@ public class CompiledQueryImpl implements CompiledQuery {
         return type;
     }
 
+    @Override
+    public int getCopyFormat() {
+        return copyFormat;
+    }
+
+    @Override
+    public boolean isCopyHeader() {
+        return copyHeader;
+    }
+
     CompiledQuery of(RecordCursorFactory recordCursorFactory) {
         return of(SELECT, recordCursorFactory);
     }
@@ -76,6 +88,12 @@ public class CompiledQueryImpl implements CompiledQuery {
         return of(COPY_LOCAL);
     }
 
+    CompiledQuery ofCopyOut(RecordCursorFactory factory, int copyFormat, boolean copyHeader) {
+        this.copyFormat = copyFormat;
+        this.copyHeader = copyHeader;
+        return of(COPY_OUT, factory);
+    }
+
     CompiledQuery ofCopyRemote(TextLoader textLoader) {
         this.textLoader = textLoader;
         return of(COPY_REMOTE);
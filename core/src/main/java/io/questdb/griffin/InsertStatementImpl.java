@@ -24,10 +24,7 @@
 
 package io.questdb.griffin;
 
-import io.questdb.cairo.CairoEngine;
-import io.questdb.cairo.CairoException;
-import io.questdb.cairo.ColumnType;
-import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.*;
 import io.questdb.cairo.pool.WriterSource;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.model.IntervalUtils;
@@ -83,7 +80,7 @@ public class InsertStatementImpl implements InsertStatement {
     public InsertMethod createMethod(SqlExecutionContext executionContext, WriterSource writerSource) throws SqlException {
         initContext(executionContext);
         if (insertMethod.writer == null) {
-            final TableWriter writer = writerSource.getWriter(executionContext.getCairoSecurityContext(), tableName, "insert");
+            final TableWriterAPI writer = getWriter(executionContext, writerSource);
             if (writer.getStructureVersion() != getStructureVersion()) {
                 writer.close();
                 throw WriterOutOfDateException.INSTANCE;
@@ -108,12 +105,24 @@ public class InsertStatementImpl implements InsertStatement {
         insertMethod.close();
     }
 
-    private TableWriter.Row getRowWithTimestamp(TableWriter tableWriter) {
+    private TableWriterAPI getWriter(SqlExecutionContext executionContext, WriterSource writerSource) {
+        try {
+            return writerSource.getWriter(executionContext.getCairoSecurityContext(), tableName, "insert");
+        } catch (EntryUnavailableException e) {
+            if (engine.getConfiguration().isWalEnabled()) {
+                // do not wait for whoever holds the writer, rows will be applied from WAL
+                return engine.getWalWriter(executionContext.getCairoSecurityContext(), tableName);
+            }
+            throw e;
+        }
+    }
+
+    private TableWriter.Row getRowWithTimestamp(TableWriterAPI tableWriter) {
         long timestamp = timestampFunction.getTimestamp(null);
         return tableWriter.newRow(timestamp);
     }
 
-    private TableWriter.Row getRowWithStringTimestamp(TableWriter tableWriter) {
+    private TableWriter.Row getRowWithStringTimestamp(TableWriterAPI tableWriter) {
         CharSequence tsStr = timestampFunction.getStr(null);
         try {
             long timestamp = IntervalUtils.parseFloorPartialDate(tsStr);
@@ -123,7 +132,7 @@ public class InsertStatementImpl implements InsertStatement {
         }
     }
 
-    private TableWriter.Row getRowWithoutTimestamp(TableWriter tableWriter) {
+    private TableWriter.Row getRowWithoutTimestamp(TableWriterAPI tableWriter) {
         return tableWriter.newRow();
     }
 
@@ -137,11 +146,11 @@ public class InsertStatementImpl implements InsertStatement {
 
     @FunctionalInterface
     private interface RowFactory {
-        TableWriter.Row getRow(TableWriter tableWriter);
+        TableWriter.Row getRow(TableWriterAPI tableWriter);
     }
 
     private class InsertMethodImpl implements InsertMethod {
-        private TableWriter writer = null;
+        private TableWriterAPI writer = null;
 
         @Override
         public long execute() {
@@ -157,8 +166,8 @@ public class InsertStatementImpl implements InsertStatement {
         }
 
         @Override
-        public TableWriter popWriter() {
-            TableWriter w = writer;
+        public TableWriterAPI popWriter() {
+            TableWriterAPI w = writer;
             this.writer = null;
             return w;
         }
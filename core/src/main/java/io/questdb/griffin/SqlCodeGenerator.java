@@ -41,6 +41,8 @@ import io.questdb.griffin.engine.groupby.*;
 import io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory;
 import io.questdb.griffin.engine.groupby.vect.*;
 import io.questdb.griffin.engine.join.*;
+import io.questdb.griffin.engine.orderby.LimitedSizeSortedLightRecordCursorFactory;
+import io.questdb.griffin.engine.orderby.RadixSortLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
 import io.questdb.griffin.engine.orderby.SortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.SortedRecordCursorFactory;
@@ -82,6 +84,7 @@ public class SqlCodeGenerator implements Mutable {
     private final ListColumnFilter listColumnFilterB = new ListColumnFilter();
     private final CairoConfiguration configuration;
     private final RecordComparatorCompiler recordComparatorCompiler;
+    private final FilterCompiler filterCompiler;
     private final IntHashSet intHashSet = new IntHashSet();
     private final ArrayColumnTypes keyTypes = new ArrayColumnTypes();
     private final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
@@ -121,6 +124,7 @@ public class SqlCodeGenerator implements Mutable {
         this.configuration = configuration;
         this.functionParser = functionParser;
         this.recordComparatorCompiler = new RecordComparatorCompiler(asm);
+        this.filterCompiler = new FilterCompiler(asm);
     }
 
     @Override
@@ -138,6 +142,99 @@ public class SqlCodeGenerator implements Mutable {
         throw SqlException.$(expr.position, "boolean expression expected");
     }
 
+    private static void addColumnStatsPredicate(
+            ExpressionNode column,
+            int op,
+            ExpressionNode constant,
+            TableReaderMetadata readerMeta,
+            boolean statsEnabled,
+            ColumnStatsFilter statsFilter
+    ) {
+        final int columnIndex = readerMeta.getColumnIndexQuiet(column.token);
+        if (columnIndex == -1) {
+            return;
+        }
+        final int columnType = readerMeta.getColumnType(columnIndex);
+        final boolean bloom = op == ColumnStatsFilter.OP_EQ && BloomFilter.isSupported(columnType) && readerMeta.isColumnBloomFiltered(columnIndex);
+        if (bloom && ColumnType.isString(columnType)) {
+            final CharSequence token = constant.token;
+            if (constant.type == ExpressionNode.CONSTANT && Chars.isQuoted(token)) {
+                statsFilter.addBloom(columnIndex, BloomFilter.hash(token, 1, token.length() - 1));
+            }
+            return;
+        }
+        if (!bloom && !(statsEnabled && ColumnStats.isSupported(columnType))) {
+            return;
+        }
+
+        final CharSequence token;
+        final boolean negative;
+        if (constant.type == ExpressionNode.CONSTANT) {
+            token = constant.token;
+            negative = false;
+        } else if (constant.type == ExpressionNode.OPERATION && constant.paramCount == 1 && Chars.equals(constant.token, '-') && constant.rhs != null && constant.rhs.type == ExpressionNode.CONSTANT) {
+            token = constant.rhs.token;
+            negative = true;
+        } else {
+            return;
+        }
+
+        try {
+            if (ColumnStats.isFloatingPoint(columnType)) {
+                final double value = Numbers.parseDouble(token);
+                statsFilter.add(columnIndex, columnType, op, negative ? -value : value);
+            } else {
+                final long value = negative ? -Numbers.parseLong(token) : Numbers.parseLong(token);
+                if (bloom) {
+                    statsFilter.addBloom(columnIndex, BloomFilter.hash(value));
+                }
+                // LONG values can be compared as doubles, which is exact only up to 2^53
+                if (statsEnabled && ColumnStats.isSupported(columnType) && value <= ColumnStatsFilter.MAX_EXACT_DOUBLE_LONG && value >= -ColumnStatsFilter.MAX_EXACT_DOUBLE_LONG) {
+                    statsFilter.add(columnIndex, columnType, op, value);
+                }
+            }
+        } catch (NumericException ignore) {
+            // not a number, for example NULL or a string
+        }
+    }
+
+    /**
+     * Collects "column op constant" conjuncts of the filter, which can be checked against partition statistics
+     * and bloom filters.
+     */
+    private static void addColumnStatsPredicates(ExpressionNode node, TableReaderMetadata readerMeta, boolean statsEnabled, ColumnStatsFilter statsFilter) {
+        if (node == null || node.type != ExpressionNode.OPERATION || node.paramCount != 2) {
+            return;
+        }
+
+        if (isAndKeyword(node.token)) {
+            addColumnStatsPredicates(node.lhs, readerMeta, statsEnabled, statsFilter);
+            addColumnStatsPredicates(node.rhs, readerMeta, statsEnabled, statsFilter);
+            return;
+        }
+
+        final int op;
+        if (Chars.equals(node.token, '=')) {
+            op = ColumnStatsFilter.OP_EQ;
+        } else if (Chars.equals(node.token, '<')) {
+            op = ColumnStatsFilter.OP_LT;
+        } else if (Chars.equals(node.token, "<=")) {
+            op = ColumnStatsFilter.OP_LE;
+        } else if (Chars.equals(node.token, '>')) {
+            op = ColumnStatsFilter.OP_GT;
+        } else if (Chars.equals(node.token, ">=")) {
+            op = ColumnStatsFilter.OP_GE;
+        } else {
+            return;
+        }
+
+        if (node.lhs.type == LITERAL) {
+            addColumnStatsPredicate(node.lhs, op, node.rhs, readerMeta, statsEnabled, statsFilter);
+        } else if (node.rhs.type == LITERAL) {
+            addColumnStatsPredicate(node.rhs, ColumnStatsFilter.flip(op), node.lhs, readerMeta, statsEnabled, statsFilter);
+        }
+    }
+
     private static RecordCursorFactory createFullFatAsOfJoin(CairoConfiguration configuration,
                                                              RecordMetadata metadata,
                                                              RecordCursorFactory masterFactory,
@@ -168,6 +265,29 @@ public class SqlCodeGenerator implements Mutable {
         return new LtJoinRecordCursorFactory(configuration, metadata, masterFactory, slaveFactory, mapKeyTypes, mapValueTypes, slaveColumnTypes, masterKeySink, slaveKeySink, columnSplit, slaveValueSink, columnIndex);
     }
 
+    /**
+     * @return number of sorted rows, which constant LIMIT can read, or -1 when the limit is not constant or
+     * reads rows from the end of the sort order
+     */
+    private static long getOrderByLimit(QueryModel model) {
+        final ExpressionNode limitLo = model.getLimitLo();
+        final ExpressionNode limitHi = model.getLimitHi();
+        if (limitLo == null || limitLo.type != ExpressionNode.CONSTANT || (limitHi != null && limitHi.type != ExpressionNode.CONSTANT)) {
+            return -1;
+        }
+        try {
+            // negative values are unary minus operations, they are not constants
+            final long lo = Numbers.parseLong(limitLo.token);
+            if (limitHi == null) {
+                return lo;
+            }
+            final long hi = Numbers.parseLong(limitHi.token);
+            return hi >= lo ? hi : -1;
+        } catch (NumericException e) {
+            return -1;
+        }
+    }
+
     private static int getOrderByDirectionOrDefault(QueryModel model, int index) {
         IntList direction = model.getOrderByDirectionAdvice();
         if (index >= direction.size()) {
@@ -198,6 +318,48 @@ public class SqlCodeGenerator implements Mutable {
         return true;
     }
 
+    private static boolean isForwardFrameScan(RecordCursorFactory factory) {
+        if (!(factory instanceof DataFrameRecordCursorFactory)) {
+            return false;
+        }
+        final DataFrameRecordCursorFactory dataFrameFactory = (DataFrameRecordCursorFactory) factory;
+        final DataFrameCursorFactory dataFrameCursorFactory = dataFrameFactory.getDataFrameCursorFactory();
+        return dataFrameFactory.isFullFrameScan()
+                && (dataFrameCursorFactory instanceof FullFwdDataFrameCursorFactory || dataFrameCursorFactory instanceof IntervalFwdDataFrameCursorFactory);
+    }
+
+    private static boolean isParallelSampleBySupported(
+            RecordCursorFactory factory,
+            ObjList<GroupByFunction> groupByFunctions,
+            ColumnTypes keyTypes
+    ) {
+        if (!isForwardFrameScan(factory)) {
+            return false;
+        }
+
+        for (int i = 0, n = groupByFunctions.size(); i < n; i++) {
+            if (!groupByFunctions.getQuick(i).isReadThreadSafe()) {
+                return false;
+            }
+        }
+        return isThreadSafeKey(keyTypes);
+    }
+
+    private static boolean isThreadSafeKey(ColumnTypes keyTypes) {
+        // var-size columns are read via views owned by table columns, which cannot be shared between threads
+        for (int i = 0, n = keyTypes.getColumnCount(); i < n; i++) {
+            switch (ColumnType.tagOf(keyTypes.getColumnType(i))) {
+                case ColumnType.STRING:
+                case ColumnType.BINARY:
+                case ColumnType.LONG256:
+                    return false;
+                default:
+                    break;
+            }
+        }
+        return true;
+    }
+
     private VectorAggregateFunctionConstructor assembleFunctionReference(RecordMetadata metadata, ExpressionNode ast) {
         int columnIndex;
         if (ast.type == FUNCTION && ast.paramCount == 1 && SqlKeywords.isSumKeyword(ast.token) && ast.rhs.type == LITERAL) {
@@ -486,7 +648,8 @@ public class SqlCodeGenerator implements Mutable {
             RecordMetadata metadata,
             RecordCursorFactory master,
             RecordCursorFactory slave,
-            int joinType
+            int joinType,
+            SqlExecutionContext executionContext
     ) {
         /*
          * JoinContext provides the following information:
@@ -521,6 +684,27 @@ public class SqlCodeGenerator implements Mutable {
 
         if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
             if (joinType == JOIN_INNER) {
+                // symbol keys are joined as strings, so they are not thread safe either
+                if (
+                        configuration.isSqlParallelHashJoinEnabled()
+                                && executionContext.getWorkerCount() > 1
+                                && isForwardFrameScan(master)
+                                && isForwardFrameScan(slave)
+                                && isThreadSafeKey(keyTypes)
+                ) {
+                    return new ParallelHashJoinLightRecordCursorFactory(
+                            configuration,
+                            metadata,
+                            (DataFrameRecordCursorFactory) master,
+                            (DataFrameRecordCursorFactory) slave,
+                            keyTypes,
+                            valueTypes,
+                            masterKeySink,
+                            slaveKeySink,
+                            masterMetadata.getColumnCount(),
+                            executionContext.getWorkerCount()
+                    );
+                }
                 return new HashJoinLightRecordCursorFactory(
                         configuration,
                         metadata,
@@ -687,7 +871,7 @@ public class SqlCodeGenerator implements Mutable {
     @NotNull
     private RecordCursorFactory generateFilter0(RecordCursorFactory factory, QueryModel model, SqlExecutionContext executionContext, ExpressionNode filter) throws SqlException {
         model.setWhereClause(null);
-        final Function f = compileFilter(filter, factory.getMetadata(), executionContext);
+        Function f = compileFilter(filter, factory.getMetadata(), executionContext);
         if (f.isConstant()) {
             //noinspection TryFinallyCanBeTryWithResources
             try {
@@ -700,6 +884,29 @@ public class SqlCodeGenerator implements Mutable {
                 f.close();
             }
         }
+        if (configuration.isSqlJitFilterEnabled()) {
+            // interpreted filter has validated the expression, compiled one replaces it
+            // when all operations and types are supported by the compiler
+            final Function compiled = filterCompiler.compile(filter, factory.getMetadata());
+            if (compiled != null) {
+                f.close();
+                f = compiled;
+            }
+        }
+        if (
+                configuration.isSqlParallelFilterEnabled()
+                        && executionContext.getWorkerCount() > 1
+                        && f.isReadThreadSafe()
+                        && factory instanceof DataFrameRecordCursorFactory
+                        && ((DataFrameRecordCursorFactory) factory).isFullFrameScan()
+        ) {
+            return new ParallelFilteredRecordCursorFactory(
+                    configuration,
+                    (DataFrameRecordCursorFactory) factory,
+                    f,
+                    executionContext.getWorkerCount()
+            );
+        }
         return new FilteredRecordCursorFactory(factory, f);
     }
 
@@ -769,7 +976,17 @@ public class SqlCodeGenerator implements Mutable {
                                 validateBothTimestamps(slaveModel, masterMetadata, slaveMetadata);
                                 processJoinContext(index == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
                                 if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
-                                    if (listColumnFilterA.size() > 0 && listColumnFilterB.size() > 0) {
+                                    if (isSymbolAsOfJoinSupported(master, masterMetadata, slave, slaveMetadata)) {
+                                        master = new AsOfJoinSymbolRecordCursorFactory(
+                                                createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                master,
+                                                (DataFrameRecordCursorFactory) slave,
+                                                listColumnFilterB.getColumnIndexFactored(0),
+                                                listColumnFilterA.getColumnIndexFactored(0),
+                                                masterMetadata.getColumnCount(),
+                                                false
+                                        );
+                                    } else if (listColumnFilterA.size() > 0 && listColumnFilterB.size() > 0) {
                                         master = createAsOfJoin(
                                                 createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
                                                 master,
@@ -814,7 +1031,17 @@ public class SqlCodeGenerator implements Mutable {
                                 validateBothTimestamps(slaveModel, masterMetadata, slaveMetadata);
                                 processJoinContext(index == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
                                 if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
-                                    if (listColumnFilterA.size() > 0 && listColumnFilterB.size() > 0) {
+                                    if (isSymbolAsOfJoinSupported(master, masterMetadata, slave, slaveMetadata)) {
+                                        master = new AsOfJoinSymbolRecordCursorFactory(
+                                                createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                master,
+                                                (DataFrameRecordCursorFactory) slave,
+                                                listColumnFilterB.getColumnIndexFactored(0),
+                                                listColumnFilterA.getColumnIndexFactored(0),
+                                                masterMetadata.getColumnCount(),
+                                                true
+                                        );
+                                    } else if (listColumnFilterA.size() > 0 && listColumnFilterB.size() > 0) {
                                         master = createLtJoin(
                                                 createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
                                                 master,
@@ -888,7 +1115,8 @@ public class SqlCodeGenerator implements Mutable {
                                         createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
                                         master,
                                         slave,
-                                        joinType
+                                        joinType,
+                                        executionContext
                                 );
                                 masterAlias = null;
                                 break;
@@ -1231,6 +1459,33 @@ public class SqlCodeGenerator implements Mutable {
                 orderedMetadata = GenericRecordMetadata.copyOfSansTimestamp(metadata);
 
                 if (recordCursorFactory.recordCursorSupportsRandomAccess()) {
+                    final long limit = getOrderByLimit(model);
+                    if (limit > 0) {
+                        // only first rows of the sort order are going to be read
+                        return new LimitedSizeSortedLightRecordCursorFactory(
+                                orderedMetadata,
+                                recordCursorFactory,
+                                recordComparatorCompiler.compile(metadata, listColumnFilterA),
+                                limit
+                        );
+                    }
+                    if (configuration.isSqlRadixSortEnabled() && listColumnFilterA.size() == 1) {
+                        final int factoredIndex = listColumnFilterA.getQuick(0);
+                        final int keyIndex = (factoredIndex > 0 ? factoredIndex : -factoredIndex) - 1;
+                        final int keyType = metadata.getColumnType(keyIndex);
+                        if (
+                                RadixSortLightRecordCursorFactory.isSupported(keyType)
+                                        && (!ColumnType.isSymbol(keyType) || metadata.isSymbolTableStatic(keyIndex))
+                        ) {
+                            return new RadixSortLightRecordCursorFactory(
+                                    configuration,
+                                    orderedMetadata,
+                                    recordCursorFactory,
+                                    keyIndex,
+                                    factoredIndex < 0
+                            );
+                        }
+                    }
                     return new SortedLightRecordCursorFactory(
                             configuration,
                             orderedMetadata,
@@ -1463,6 +1718,29 @@ public class SqlCodeGenerator implements Mutable {
 
                 if (isFillNone) {
 
+                    if (
+                            configuration.isSqlParallelSampleByEnabled()
+                                    && executionContext.getWorkerCount() > 1
+                                    && timezoneName == null
+                                    && offset == null
+                                    && isParallelSampleBySupported(factory, groupByFunctions, keyTypes)
+                    ) {
+                        return new ParallelSampleByRecordCursorFactory(
+                                configuration,
+                                (DataFrameRecordCursorFactory) factory,
+                                groupByMetadata,
+                                groupByFunctions,
+                                recordFunctions,
+                                timestampSampler,
+                                listColumnFilterA,
+                                asm,
+                                keyTypes,
+                                valueTypes,
+                                timestampIndex,
+                                executionContext.getWorkerCount()
+                        );
+                    }
+
                     if (keyTypes.getColumnCount() == 0) {
                         // this sample by is not keyed
                         return new SampleByFillNoneNotKeyedRecordCursorFactory(
@@ -2105,12 +2383,19 @@ public class SqlCodeGenerator implements Mutable {
                     );
                 }
 
-                if (tempKeyIndexesInBase.size() == 1) {
+                final int keyCount = tempKeyIndexesInBase.size();
+                if (keyCount == 1 || (keyCount == 2 && ColumnType.isSymbol(arrayColumnTypes.getColumnType(0)) && ColumnType.isSymbol(arrayColumnTypes.getColumnType(1)))) {
+                    if (keyCount == 2) {
+                        // pair of symbols is stored in the map as single INT key
+                        arrayColumnTypes.clear();
+                        arrayColumnTypes.add(ColumnType.INT);
+                    }
+
                     for (int i = 0, n = tempVaf.size(); i < n; i++) {
                         tempVaf.getQuick(i).pushValueTypes(arrayColumnTypes);
                     }
 
-                    GroupByUtils.validateGroupByColumns(model, 1);
+                    GroupByUtils.validateGroupByColumns(model, keyCount);
 
                     return new GroupByRecordCursorFactory(
                             configuration,
@@ -2119,8 +2404,8 @@ public class SqlCodeGenerator implements Mutable {
                             arrayColumnTypes,
                             executionContext.getWorkerCount(),
                             tempVaf,
-                            tempKeyIndexesInBase.getQuick(0),
-                            tempKeyIndex.getQuick(0),
+                            tempKeyIndexesInBase,
+                            tempKeyIndex,
                             tempSymbolSkewIndexes
                     );
                 }
@@ -2349,7 +2634,7 @@ public class SqlCodeGenerator implements Mutable {
                 model.getTableId(),
                 model.getTableVersion())
         ) {
-            final RecordMetadata readerMeta = reader.getMetadata();
+            final TableReaderMetadata readerMeta = reader.getMetadata();
 
             // create metadata based on top-down columns that are required
 
@@ -2746,6 +3031,13 @@ public class SqlCodeGenerator implements Mutable {
                 }
 
                 model.setWhereClause(intrinsicModel.filter);
+                if (intrinsicModel.filter != null) {
+                    final ColumnStatsFilter statsFilter = new ColumnStatsFilter();
+                    addColumnStatsPredicates(intrinsicModel.filter, readerMeta, configuration.isPartitionStatsEnabled(), statsFilter);
+                    if (statsFilter.size() > 0) {
+                        dfcFactory = new ColumnStatsFilteredDataFrameCursorFactory(dfcFactory, statsFilter);
+                    }
+                }
                 return new DataFrameRecordCursorFactory(
                         myMeta,
                         dfcFactory,
@@ -2881,6 +3173,23 @@ public class SqlCodeGenerator implements Mutable {
         return ast.type == FUNCTION && ast.paramCount == 1 && Chars.equals(ast.token, name) && ast.rhs.type == LITERAL;
     }
 
+    private boolean isSymbolAsOfJoinSupported(
+            RecordCursorFactory master,
+            RecordMetadata masterMetadata,
+            RecordCursorFactory slave,
+            RecordMetadata slaveMetadata
+    ) {
+        // symbol keys are compared as ints, which requires master symbols to come from a single table,
+        // while slave has to be the whole table in timestamp order to be merged frame by frame
+        return listColumnFilterA.getColumnCount() == 1
+                && listColumnFilterB.getColumnCount() == 1
+                && ColumnType.isSymbol(masterMetadata.getColumnType(listColumnFilterB.getColumnIndexFactored(0)))
+                && ColumnType.isSymbol(slaveMetadata.getColumnType(listColumnFilterA.getColumnIndexFactored(0)))
+                && (master instanceof DataFrameRecordCursorFactory
+                || (master instanceof FilteredRecordCursorFactory && ((FilteredRecordCursorFactory) master).getBaseFactory() instanceof DataFrameRecordCursorFactory))
+                && isForwardFrameScan(slave);
+    }
+
     private void lookupColumnIndexes(
             ListColumnFilter filter,
             ObjList<ExpressionNode> columnNames,
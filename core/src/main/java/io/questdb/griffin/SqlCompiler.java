@@ -923,6 +923,13 @@ public class SqlCompiler implements Closeable {
                     } else {
                         throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
                     }
+                } else if (SqlKeywords.isCompressKeyword(tok)) {
+                    tok = expectToken(lexer, "'partition'");
+                    if (SqlKeywords.isPartitionKeyword(tok)) {
+                        alterTableDropOrAttachPartition(writer, PartitionAction.COMPRESS, executionContext);
+                    } else {
+                        throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
+                    }
                 } else if (SqlKeywords.isRenameKeyword(tok)) {
                     tok = expectToken(lexer, "'column'");
                     if (SqlKeywords.isColumnKeyword(tok)) {
@@ -1248,7 +1255,11 @@ public class SqlCompiler implements Closeable {
                 Function function = functionParser.parseFunction(expr, metadata, executionContext);
                 if (function != null && ColumnType.isBoolean(function.getType())) {
                     function.init(null, executionContext);
-                    writer.removePartition(function, pos);
+                    if (action == PartitionAction.COMPRESS) {
+                        writer.compressPartition(function, pos);
+                    } else {
+                        writer.removePartition(function, pos);
+                    }
                 } else {
                     throw SqlException.$(lexer.lastTokenPosition(), "boolean expression expected");
                 }
@@ -1299,6 +1310,20 @@ public class SqlCompiler implements Closeable {
                             throw SqlException.$(lexer.lastTokenPosition(), "attach partition '").put(unquoted).put("', failed with error ").put(statusCode);
                     }
                     break;
+                case PartitionAction.COMPRESS:
+                    final boolean compressed;
+                    try {
+                        compressed = writer.compressPartition(timestamp);
+                    } catch (CairoException e) {
+                        throw SqlException.$(lexer.lastTokenPosition(), "could not compress partition '").put(unquoted)
+                                .put("' [errno=").put(e.getErrno())
+                                .put(", error=").put(e.getFlyweightMessage())
+                                .put(']');
+                    }
+                    if (!compressed) {
+                        throw SqlException.$(lexer.lastTokenPosition(), "could not compress partition '").put(unquoted).put('\'');
+                    }
+                    break;
                 default:
                     throw SqlException.$(lexer.lastTokenPosition(), "unsupported partition action");
             }
@@ -1408,6 +1433,12 @@ public class SqlCompiler implements Closeable {
                 } else {
                     return lightlyValidateInsertModel(insertModel);
                 }
+            case ExecutionModel.COPY:
+                final CopyModel copyModel = (CopyModel) model;
+                if (copyModel.getQueryModel() != null) {
+                    copyModel.setQueryModel(optimiser.optimise(copyModel.getQueryModel(), executionContext));
+                }
+                return copyModel;
             default:
                 return model;
         }
@@ -1457,7 +1488,7 @@ public class SqlCompiler implements Closeable {
         }
     }
 
-    private void copyOrdered(TableWriter writer, RecordMetadata metadata, RecordCursor cursor, RecordToRowCopier copier, int cursorTimestampIndex) {
+    private void copyOrdered(TableWriterAPI writer, RecordMetadata metadata, RecordCursor cursor, RecordToRowCopier copier, int cursorTimestampIndex) {
         if (ColumnType.isSymbolOrString(metadata.getColumnType(cursorTimestampIndex))) {
             copyOrderedStrTimestamp(writer, cursor, copier, cursorTimestampIndex);
         } else {
@@ -1466,7 +1497,7 @@ public class SqlCompiler implements Closeable {
         writer.commit();
     }
 
-    private void copyOrdered0(TableWriter writer, RecordCursor cursor, RecordToRowCopier copier, int cursorTimestampIndex) {
+    private void copyOrdered0(TableWriterAPI writer, RecordCursor cursor, RecordToRowCopier copier, int cursorTimestampIndex) {
         final Record record = cursor.getRecord();
         while (cursor.hasNext()) {
             TableWriter.Row row = writer.newRow(record.getTimestamp(cursorTimestampIndex));
@@ -1476,7 +1507,7 @@ public class SqlCompiler implements Closeable {
     }
 
     private void copyOrderedBatched(
-            TableWriter writer,
+            TableWriterAPI writer,
             RecordMetadata metadata,
             RecordCursor cursor,
             RecordToRowCopier copier,
@@ -1493,7 +1524,7 @@ public class SqlCompiler implements Closeable {
     }
 
     private void copyOrderedBatched0(
-            TableWriter writer,
+            TableWriterAPI writer,
             RecordCursor cursor,
             RecordToRowCopier copier,
             int cursorTimestampIndex,
@@ -1515,7 +1546,7 @@ public class SqlCompiler implements Closeable {
     }
 
     private void copyOrderedBatchedStrTimestamp(
-            TableWriter writer,
+            TableWriterAPI writer,
             RecordCursor cursor,
             RecordToRowCopier copier,
             int cursorTimestampIndex,
@@ -1542,7 +1573,7 @@ public class SqlCompiler implements Closeable {
         }
     }
 
-    private void copyOrderedStrTimestamp(TableWriter writer, RecordCursor cursor, RecordToRowCopier copier, int cursorTimestampIndex) {
+    private void copyOrderedStrTimestamp(TableWriterAPI writer, RecordCursor cursor, RecordToRowCopier copier, int cursorTimestampIndex) {
         final Record record = cursor.getRecord();
         while (cursor.hasNext()) {
             final CharSequence str = record.getStr(cursorTimestampIndex);
@@ -1559,48 +1590,65 @@ public class SqlCompiler implements Closeable {
 
     private void copyTable(SqlExecutionContext executionContext, CopyModel model) throws SqlException {
         try {
-            int len = configuration.getSqlCopyBufferSize();
-            long buf = Unsafe.malloc(len, MemoryTag.NATIVE_DEFAULT);
+            final CharSequence name = GenericLexer.assertNoDots(GenericLexer.unquote(model.getFileName().token), model.getFileName().position);
+            path.of(configuration.getInputRoot()).concat(name).$();
+            long fd = ff.openRO(path);
+            if (fd == -1) {
+                throw SqlException.$(model.getFileName().position, "could not open file [errno=").put(Os.errno()).put(", path=").put(path).put(']');
+            }
             try {
-                final CharSequence name = GenericLexer.assertNoDots(GenericLexer.unquote(model.getFileName().token), model.getFileName().position);
-                path.of(configuration.getInputRoot()).concat(name).$();
-                long fd = ff.openRO(path);
-                if (fd == -1) {
-                    throw SqlException.$(model.getFileName().position, "could not open file [errno=").put(Os.errno()).put(", path=").put(path).put(']');
-                }
-                try {
-                    long fileLen = ff.length(fd);
-                    long n = ff.read(fd, buf, len, 0);
-                    if (n > 0) {
-                        textLoader.setForceHeaders(model.isHeader());
-                        textLoader.setSkipRowsWithExtraValues(false);
-                        textLoader.parse(buf, buf + n, executionContext.getCairoSecurityContext());
-                        textLoader.setState(TextLoader.LOAD_DATA);
-                        int read;
-                        while (n < fileLen) {
-                            read = (int) ff.read(fd, buf, len, n);
-                            if (read < 1) {
-                                throw SqlException.$(model.getFileName().position, "could not read file [errno=").put(ff.errno()).put(']');
-                            }
-                            textLoader.parse(buf, buf + read, executionContext.getCairoSecurityContext());
-                            n += read;
-                        }
-                        textLoader.wrapUp();
+                final long fileLen = ff.length(fd);
+                if (fileLen > 0) {
+                    textLoader.setForceHeaders(model.isHeader());
+                    textLoader.setSkipRowsWithExtraValues(false);
+                    if (configuration.isSqlParallelCopyEnabled()) {
+                        copyTableMapped(executionContext, fd, fileLen);
+                    } else {
+                        copyTableBuffered(executionContext, model, fd, fileLen);
                     }
-                } finally {
-                    ff.close(fd);
+                    textLoader.wrapUp();
                 }
             } finally {
-                textLoader.clear();
-                Unsafe.free(buf, len, MemoryTag.NATIVE_DEFAULT);
+                ff.close(fd);
             }
         } catch (TextException e) {
             // we do not expect JSON exception here
         } finally {
+            textLoader.clear();
             LOG.info().$("copied").$();
         }
     }
 
+    private void copyTableBuffered(SqlExecutionContext executionContext, CopyModel model, long fd, long fileLen) throws TextException, SqlException {
+        int len = configuration.getSqlCopyBufferSize();
+        long buf = Unsafe.malloc(len, MemoryTag.NATIVE_DEFAULT);
+        try {
+            long n = 0;
+            while (n < fileLen) {
+                long read = ff.read(fd, buf, len, n);
+                if (read < 1) {
+                    throw SqlException.$(model.getFileName().position, "could not read file [errno=").put(ff.errno()).put(']');
+                }
+                textLoader.parse(buf, buf + read, executionContext.getCairoSecurityContext());
+                if (n == 0) {
+                    textLoader.setState(TextLoader.LOAD_DATA);
+                }
+                n += read;
+            }
+        } finally {
+            Unsafe.free(buf, len, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    private void copyTableMapped(SqlExecutionContext executionContext, long fd, long fileLen) throws TextException {
+        final long address = TableUtils.mapRO(ff, fd, fileLen, MemoryTag.MMAP_DEFAULT);
+        try {
+            textLoader.parseAll(address, address + fileLen, executionContext.getCairoSecurityContext());
+        } finally {
+            ff.munmap(address, fileLen, MemoryTag.MMAP_DEFAULT);
+        }
+    }
+
     private TableWriter copyTableData(CharSequence tableName, RecordCursor cursor, RecordMetadata cursorMetadata) {
         TableWriter writer = new TableWriter(configuration, tableName, messageBus, false, DefaultLifecycleManager.INSTANCE);
         try {
@@ -1624,7 +1672,7 @@ public class SqlCompiler implements Closeable {
         }
     }
 
-    private void copyUnordered(RecordCursor cursor, TableWriter writer, RecordToRowCopier copier) {
+    private void copyUnordered(RecordCursor cursor, TableWriterAPI writer, RecordToRowCopier copier) {
         final Record record = cursor.getRecord();
         while (cursor.hasNext()) {
             TableWriter.Row row = writer.newRow();
@@ -1742,6 +1790,13 @@ public class SqlCompiler implements Closeable {
 
     @NotNull
     private CompiledQuery executeCopy(SqlExecutionContext executionContext, CopyModel executionModel) throws SqlException {
+        if (executionModel.getQueryModel() != null) {
+            return compiledQuery.ofCopyOut(
+                    generate(executionModel.getQueryModel(), executionContext),
+                    executionModel.getFormat(),
+                    executionModel.isHeader()
+            );
+        }
         setupTextLoaderFromModel(executionModel);
         if (Chars.equalsLowerCaseAscii(executionModel.getFileName().token, "stdin")) {
             return compiledQuery.ofCopyRemote(textLoader);
@@ -1878,7 +1933,7 @@ public class SqlCompiler implements Closeable {
         final ExpressionNode name = model.getTableName();
         tableExistsOrFail(name.position, name.token, executionContext);
 
-        try (TableWriter writer = engine.getWriter(executionContext.getCairoSecurityContext(), name.token, "insertAsSelect");
+        try (TableWriterAPI writer = getInsertAsSelectWriter(executionContext, name.token);
              RecordCursorFactory factory = generate(model.getQueryModel(), executionContext)) {
 
             final RecordMetadata cursorMetadata = factory.getMetadata();
@@ -2009,6 +2064,17 @@ public class SqlCompiler implements Closeable {
         return compiledQuery.ofInsertAsSelect();
     }
 
+    private TableWriterAPI getInsertAsSelectWriter(SqlExecutionContext executionContext, CharSequence tableName) {
+        try {
+            return engine.getWriter(executionContext.getCairoSecurityContext(), tableName, "insertAsSelect");
+        } catch (EntryUnavailableException e) {
+            if (configuration.isWalEnabled()) {
+                return engine.getWalWriter(executionContext.getCairoSecurityContext(), tableName);
+            }
+            throw e;
+        }
+    }
+
     private ExecutionModel lightlyValidateInsertModel(InsertModel model) throws SqlException {
         ExpressionNode tableName = model.getTableName();
         if (tableName.type != ExpressionNode.LITERAL) {
@@ -2069,7 +2135,14 @@ public class SqlCompiler implements Closeable {
         // todo: configure the following
         //   - what happens when data row errors out, max errors may be?
         //   - we should be able to skip X rows from top, dodgy headers etc.
-        textLoader.configureDestination(model.getTableName().token, false, false, Atomicity.SKIP_ROW, PartitionBy.NONE, null);
+        textLoader.configureDestination(
+                model.getTableName().token,
+                false,
+                false,
+                Atomicity.SKIP_ROW,
+                model.getPartitionBy(),
+                model.getTimestampColumnName()
+        );
     }
 
     private CompiledQuery sqlShow(SqlExecutionContext executionContext) throws SqlException {
@@ -2329,6 +2402,16 @@ public class SqlCompiler implements Closeable {
             }
         }
 
+        for (int i = 0, n = model.getColumnCount(); i < n; i++) {
+            if (model.isBloomFiltered(i)) {
+                final int castIndex = typeCast.keyIndex(i);
+                final int type = castIndex < 0 ? typeCast.valueAt(castIndex) : metadata.getColumnType(i);
+                if (!BloomFilter.isSupported(type)) {
+                    throw SqlException.$(model.getBloomFilterPosition(i), "bloom filter is supported only for INT, LONG and STRING columns");
+                }
+            }
+        }
+
         // validate type of timestamp column
         // no need to worry that column will not resolve
         ExpressionNode timestamp = model.getTimestamp();
@@ -2358,6 +2441,7 @@ public class SqlCompiler implements Closeable {
     public final static class PartitionAction {
         public static final int DROP = 1;
         public static final int ATTACH = 2;
+        public static final int COMPRESS = 3;
     }
 
     private static class TableStructureAdapter implements TableStructure {
@@ -2400,6 +2484,11 @@ public class SqlCompiler implements Closeable {
             return model.isSequential(columnIndex);
         }
 
+        @Override
+        public boolean isBloomFiltered(int columnIndex) {
+            return model.isBloomFiltered(columnIndex);
+        }
+
         @Override
         public int getPartitionBy() {
             return model.getPartitionBy();
@@ -28,6 +28,7 @@ import io.questdb.MessageBus;
 import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.CairoSecurityContext;
 import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.QueryAdmissionController;
 import io.questdb.cairo.RecordSink;
 import io.questdb.cairo.sql.BindVariableService;
 import io.questdb.cairo.sql.VirtualRecord;
@@ -49,6 +50,10 @@ public interface SqlExecutionContext extends Closeable {
         return getCairoEngine().getMessageBus();
     }
 
+    default @NotNull QueryAdmissionController getQueryAdmissionController() {
+        return getCairoEngine().getQueryAdmissionController();
+    }
+
     boolean isTimestampRequired();
 
     void popTimestampRequiredFlag();
@@ -369,13 +369,34 @@ public final class SqlParser {
     }
 
     private ExecutionModel parseCopy(GenericLexer lexer) throws SqlException {
-        if (configuration.getInputRoot() == null) {
-            throw SqlException.$(lexer.lastTokenPosition(), "COPY is disabled ['cairo.sql.copy.root' is not set?]");
+        CharSequence tok = tok(lexer, "table name or '('");
+        if (Chars.equals(tok, '(')) {
+            final QueryModel queryModel = parseAsSubQueryAndExpectClosingBrace(lexer, null);
+            expectTok(lexer, "to");
+            return parseCopyTo(lexer, queryModel);
         }
+        lexer.unparse();
+
         ExpressionNode tableName = expectExpr(lexer);
-        CharSequence tok = tok(lexer, "'from' or 'to'");
+        tok = tok(lexer, "'from' or 'to'");
+
+        if (isToKeyword(tok)) {
+            // copy entire table, same as "select * from table"
+            final QueryModel queryModel = queryModelPool.next();
+            queryModel.setModelPosition(tableName.position);
+            queryModel.addBottomUpColumn(SqlUtil.nextColumn(queryColumnPool, expressionNodePool, "*", "*"));
+            queryModel.setSelectModelType(QueryModel.SELECT_MODEL_CHOOSE);
+            final QueryModel nestedModel = queryModelPool.next();
+            nestedModel.setModelPosition(tableName.position);
+            nestedModel.setTableName(literal(GenericLexer.unquote(tableName.token), tableName.position));
+            queryModel.setNestedModel(nestedModel);
+            return parseCopyTo(lexer, queryModel);
+        }
 
         if (isFromKeyword(tok)) {
+            if (configuration.getInputRoot() == null) {
+                throw SqlException.$(lexer.lastTokenPosition(), "COPY is disabled ['cairo.sql.copy.root' is not set?]");
+            }
             final ExpressionNode fileName = expectExpr(lexer);
             if (fileName.token.length() < 3 && Chars.startsWith(fileName.token, '\'')) {
                 throw SqlException.$(fileName.position, "file name expected");
@@ -387,18 +408,98 @@ public final class SqlParser {
             tok = optTok(lexer);
             if (tok != null && isWithKeyword(tok)) {
                 tok = tok(lexer, "copy option");
+                int partitionByPosition = -1;
                 while (tok != null) {
                     if (isHeaderKeyword(tok)) {
                         model.setHeader(isTrueKeyword(tok(lexer, "'true' or 'false'")));
                         tok = optTok(lexer);
+                    } else if (isTimestampKeyword(tok)) {
+                        model.setTimestampColumnName(GenericLexer.immutableOf(GenericLexer.unquote(tok(lexer, "timestamp column name"))));
+                        tok = optTok(lexer);
+                    } else if (isPartitionKeyword(tok)) {
+                        partitionByPosition = lexer.lastTokenPosition();
+                        expectTok(lexer, "by");
+                        final int partitionBy = PartitionBy.fromString(tok(lexer, "'NONE', 'DAY', 'MONTH' or 'YEAR'"));
+                        if (partitionBy == -1) {
+                            throw SqlException.$(lexer.lastTokenPosition(), "'NONE', 'DAY', 'MONTH' or 'YEAR' expected");
+                        }
+                        model.setPartitionBy(partitionBy);
+                        tok = optTok(lexer);
                     } else {
                         throw SqlException.$(lexer.lastTokenPosition(), "unexpected option");
                     }
                 }
+                if (model.getPartitionBy() != PartitionBy.NONE && model.getTimestampColumnName() == null) {
+                    throw SqlException.$(partitionByPosition, "timestamp column is required to partition table");
+                }
             }
             return model;
         }
-        throw SqlException.$(lexer.lastTokenPosition(), "'from' expected");
+        throw SqlException.$(lexer.lastTokenPosition(), "'from' or 'to' expected");
+    }
+
+    private ExecutionModel parseCopyTo(GenericLexer lexer, QueryModel queryModel) throws SqlException {
+        CharSequence tok = tok(lexer, "'stdout'");
+        if (!isStdoutKeyword(tok)) {
+            throw SqlException.$(lexer.lastTokenPosition(), "'stdout' expected");
+        }
+
+        final CopyModel model = copyModelPool.next();
+        model.setQueryModel(queryModel);
+
+        tok = optTok(lexer);
+        if (tok != null && isWithKeyword(tok)) {
+            // both "with (format csv, header true)" and "with format csv header true" are accepted
+            tok = tok(lexer, "copy option");
+            final boolean braced = Chars.equals(tok, '(');
+            if (braced) {
+                tok = tok(lexer, "copy option");
+            }
+            while (true) {
+                if (isFormatKeyword(tok)) {
+                    tok = tok(lexer, "'text', 'csv' or 'binary'");
+                    if (isTextKeyword(tok)) {
+                        model.setFormat(CopyModel.FORMAT_TEXT);
+                    } else if (isCsvKeyword(tok)) {
+                        model.setFormat(CopyModel.FORMAT_CSV);
+                    } else if (isBinaryKeyword(tok)) {
+                        model.setFormat(CopyModel.FORMAT_BINARY);
+                    } else {
+                        throw SqlException.$(lexer.lastTokenPosition(), "'text', 'csv' or 'binary' expected");
+                    }
+                } else if (isHeaderKeyword(tok)) {
+                    model.setHeader(isTrueKeyword(tok(lexer, "'true' or 'false'")));
+                } else {
+                    throw SqlException.$(lexer.lastTokenPosition(), "unexpected option");
+                }
+
+                tok = optTok(lexer);
+                if (braced) {
+                    if (tok == null) {
+                        throw SqlException.$(lexer.lastTokenPosition(), "')' expected");
+                    }
+                    if (Chars.equals(tok, ')')) {
+                        tok = optTok(lexer);
+                        break;
+                    }
+                    expectTok(tok, lexer.lastTokenPosition(), ',');
+                    tok = tok(lexer, "copy option");
+                } else if (tok == null || Chars.equals(tok, ';')) {
+                    break;
+                } else if (Chars.equals(tok, ',')) {
+                    tok = tok(lexer, "copy option");
+                }
+            }
+
+            if (model.isHeader() && model.getFormat() == CopyModel.FORMAT_BINARY) {
+                throw SqlException.$(lexer.lastTokenPosition(), "header is not supported in binary format");
+            }
+        }
+
+        if (tok != null && !Chars.equals(tok, ';')) {
+            throw errUnexpected(lexer, tok);
+        }
+        return model;
     }
 
     private ExecutionModel parseCreateStatement(GenericLexer lexer, SqlExecutionContext executionContext) throws SqlException {
@@ -435,9 +536,11 @@ public final class SqlParser {
         }
 
         while ((tok = optTok(lexer)) != null && Chars.equals(tok, ',')) {
-            tok = tok(lexer, "'index' or 'cast'");
+            tok = tok(lexer, "'index', 'bloom' or 'cast'");
             if (isIndexKeyword(tok)) {
                 parseCreateTableIndexDef(lexer, model);
+            } else if (isBloomKeyword(tok)) {
+                parseCreateTableBloomDef(lexer, model);
             } else if (isCastKeyword(tok)) {
                 parseCreateTableCastDef(lexer, model);
             } else {
@@ -514,6 +617,19 @@ public final class SqlParser {
         expectTok(lexer, ')');
     }
 
+    private void parseCreateTableBloomDef(GenericLexer lexer, CreateTableModel model) throws SqlException {
+        expectTok(lexer, '(');
+        final ExpressionNode columnName = expectLiteral(lexer);
+        final int columnIndex = getCreateTableColumnIndex(model, columnName.token, columnName.position);
+        final int columnType = model.getColumnType(columnIndex);
+        // type of "create table as select" column is validated by compiler
+        if (columnType != -1 && !BloomFilter.isSupported(columnType)) {
+            throw SqlException.$(columnName.position, "bloom filter is supported only for INT, LONG and STRING columns");
+        }
+        model.setBloomFilter(columnIndex, columnName.position);
+        expectTok(lexer, ')');
+    }
+
     private void parseCreateTableCastDef(GenericLexer lexer, CreateTableModel model) throws SqlException {
         if (model.getQueryModel() == null) {
             throw SqlException.$(lexer.lastTokenPosition(), "cast is only supported in 'create table as ...' context");
@@ -29,6 +29,7 @@ import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.cairo.sql.SymbolTableSource;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlException;
@@ -90,10 +91,11 @@ public class InSymbolFunctionFactory implements FunctionFactory {
     private static class Func extends BooleanFunction implements UnaryFunction {
         private final SymbolFunction arg;
         private final CharSequenceHashSet set;
-        private final IntHashSet intSet = new IntHashSet();
+        private final BitSet keys = new BitSet();
         private final TestFunc intTest = this::testAsInt;
         private final TestFunc strTest = this::testAsString;
         private TestFunc testFunc;
+        private boolean containsNull;
 
         public Func(SymbolFunction arg, CharSequenceHashSet set) {
             this.arg = arg;
@@ -115,9 +117,16 @@ public class InSymbolFunctionFactory implements FunctionFactory {
             arg.init(symbolTableSource, executionContext);
             final StaticSymbolTable symbolTable = arg.getStaticSymbolTable();
             if (symbolTable != null) {
-                intSet.clear();
+                // resolve values to keys once, rows are then tested against key bit set
+                keys.clear();
+                containsNull = false;
                 for (int i = 0, n = set.size(); i < n; i++) {
-                    intSet.add(symbolTable.keyOf(set.get(i)));
+                    final int key = symbolTable.keyOf(set.get(i));
+                    if (key == SymbolTable.VALUE_IS_NULL) {
+                        containsNull = true;
+                    } else if (key > -1) {
+                        keys.set(key);
+                    }
                 }
                 testFunc = intTest;
             } else {
@@ -130,7 +139,8 @@ public class InSymbolFunctionFactory implements FunctionFactory {
         }
 
         private boolean testAsInt(Record rec) {
-            return intSet.contains(arg.getInt(rec));
+            final int key = arg.getInt(rec);
+            return key == SymbolTable.VALUE_IS_NULL ? containsNull : keys.get(key);
         }
     }
 }
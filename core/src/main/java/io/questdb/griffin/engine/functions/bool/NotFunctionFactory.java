@@ -52,6 +52,11 @@ public class NotFunctionFactory implements FunctionFactory {
             this.arg = arg;
         }
 
+        @Override
+        public boolean isReadThreadSafe() {
+            return arg.isReadThreadSafe();
+        }
+
         @Override
         public Function getArg() {
             return arg;
@@ -86,6 +86,11 @@ public class OrFunctionFactory implements FunctionFactory {
             return left.getBool(rec) || right.getBool(rec);
         }
 
+        @Override
+        public boolean isReadThreadSafe() {
+            return left.isReadThreadSafe() && right.isReadThreadSafe();
+        }
+
         @Override
         public Function getLeft() {
             return left;
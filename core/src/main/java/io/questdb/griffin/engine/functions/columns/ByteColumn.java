@@ -33,6 +33,11 @@ import static io.questdb.griffin.engine.functions.columns.ColumnUtils.STATIC_COL
 
 public class ByteColumn extends ByteFunction implements ScalarFunction {
     private static final ObjList<ByteColumn> COLUMNS = new ObjList<>(STATIC_COLUMN_COUNT);
+    @Override
+    public boolean isReadThreadSafe() {
+        return true;
+    }
+
     static {
         COLUMNS.setPos(STATIC_COLUMN_COUNT);
 
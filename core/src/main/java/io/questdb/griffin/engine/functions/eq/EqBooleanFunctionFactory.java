@@ -64,6 +64,11 @@ public class EqBooleanFunctionFactory implements FunctionFactory {
             return negated != (left.getBool(rec) == right.getBool(rec));
         }
 
+        @Override
+        public boolean isReadThreadSafe() {
+            return left.isReadThreadSafe() && right.isReadThreadSafe();
+        }
+
         @Override
         public Function getLeft() {
             return left;
@@ -64,6 +64,11 @@ public class EqByteFunctionFactory implements FunctionFactory {
             return negated != (left.getByte(rec) == right.getByte(rec));
         }
 
+        @Override
+        public boolean isReadThreadSafe() {
+            return left.isReadThreadSafe() && right.isReadThreadSafe();
+        }
+
         @Override
         public Function getLeft() {
             return left;
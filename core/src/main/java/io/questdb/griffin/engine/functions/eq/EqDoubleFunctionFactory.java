@@ -111,6 +111,11 @@ public class EqDoubleFunctionFactory implements FunctionFactory {
             return negated != (l != l && r != r || Math.abs(l - r) < 0.0000000001);
         }
 
+        @Override
+        public boolean isReadThreadSafe() {
+            return left.isReadThreadSafe() && right.isReadThreadSafe();
+        }
+
         @Override
         public Function getLeft() {
             return left;
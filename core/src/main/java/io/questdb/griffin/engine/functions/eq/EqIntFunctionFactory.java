@@ -64,6 +64,11 @@ public class EqIntFunctionFactory implements FunctionFactory {
             return negated != (left.getInt(rec) == right.getInt(rec));
         }
 
+        @Override
+        public boolean isReadThreadSafe() {
+            return left.isReadThreadSafe() && right.isReadThreadSafe();
+        }
+
         @Override
         public Function getLeft() {
             return left;
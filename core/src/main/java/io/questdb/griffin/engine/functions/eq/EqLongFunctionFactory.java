@@ -64,6 +64,11 @@ public class EqLongFunctionFactory implements FunctionFactory {
             return negated != (left.getLong(rec) == right.getLong(rec));
         }
 
+        @Override
+        public boolean isReadThreadSafe() {
+            return left.isReadThreadSafe() && right.isReadThreadSafe();
+        }
+
         @Override
         public Function getLeft() {
             return left;
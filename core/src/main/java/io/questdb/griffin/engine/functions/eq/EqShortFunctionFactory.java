@@ -64,6 +64,11 @@ public class EqShortFunctionFactory implements FunctionFactory {
             return negated != (left.getShort(rec) == right.getShort(rec));
         }
 
+        @Override
+        public boolean isReadThreadSafe() {
+            return left.isReadThreadSafe() && right.isReadThreadSafe();
+        }
+
         @Override
         public Function getLeft() {
             return left;
@@ -65,6 +65,11 @@ public class EqTimestampFunctionFactory implements FunctionFactory {
             return negated != (left.getTimestamp(rec) == right.getTimestamp(rec));
         }
 
+        @Override
+        public boolean isReadThreadSafe() {
+            return left.isReadThreadSafe() && right.isReadThreadSafe();
+        }
+
         @Override
         public Function getLeft() {
             return left;
@@ -76,4 +76,9 @@ public class MaxCharGroupByFunction extends CharFunction implements GroupByFunct
     public Function getArg() {
         return arg;
     }
+
+    @Override
+    public boolean isReadThreadSafe() {
+        return arg.isReadThreadSafe();
+    }
 }
@@ -81,4 +81,9 @@ public class MaxDoubleGroupByFunction extends DoubleFunction implements GroupByF
     public Function getArg() {
         return arg;
     }
+
+    @Override
+    public boolean isReadThreadSafe() {
+        return arg.isReadThreadSafe();
+    }
 }
@@ -81,4 +81,9 @@ public class MaxFloatGroupByFunction extends FloatFunction implements GroupByFun
     public Function getArg() {
         return arg;
     }
+
+    @Override
+    public boolean isReadThreadSafe() {
+        return arg.isReadThreadSafe();
+    }
 }
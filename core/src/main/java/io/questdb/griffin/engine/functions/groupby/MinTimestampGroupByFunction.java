@@ -77,4 +77,9 @@ public class MinTimestampGroupByFunction extends TimestampFunction implements Gr
     public long getTimestamp(Record rec) {
         return rec.getTimestamp(valueIndex);
     }
+
+    @Override
+    public boolean isReadThreadSafe() {
+        return arg.isReadThreadSafe();
+    }
 }
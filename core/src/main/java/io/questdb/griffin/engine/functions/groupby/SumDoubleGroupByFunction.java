@@ -101,4 +101,9 @@ public class SumDoubleGroupByFunction extends DoubleFunction implements GroupByF
     public boolean isConstant() {
         return false;
     }
+
+    @Override
+    public boolean isReadThreadSafe() {
+        return arg.isReadThreadSafe();
+    }
 }
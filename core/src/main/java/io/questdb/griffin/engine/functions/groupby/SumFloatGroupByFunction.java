@@ -90,4 +90,9 @@ public class SumFloatGroupByFunction extends FloatFunction implements GroupByFun
     public boolean isConstant() {
         return false;
     }
+
+    @Override
+    public boolean isReadThreadSafe() {
+        return arg.isReadThreadSafe();
+    }
 }
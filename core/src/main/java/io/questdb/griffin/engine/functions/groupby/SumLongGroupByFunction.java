@@ -97,4 +97,9 @@ public class SumLongGroupByFunction extends LongFunction implements GroupByFunct
     public boolean isConstant() {
         return false;
     }
+
+    @Override
+    public boolean isReadThreadSafe() {
+        return arg.isReadThreadSafe();
+    }
 }
@@ -66,6 +66,11 @@ public class LtDoubleVVFunctionFactory implements FunctionFactory {
                     : left.getDouble(rec) < right.getDouble(rec);
         }
 
+        @Override
+        public boolean isReadThreadSafe() {
+            return left.isReadThreadSafe() && right.isReadThreadSafe();
+        }
+
         @Override
         public Function getLeft() {
             return left;
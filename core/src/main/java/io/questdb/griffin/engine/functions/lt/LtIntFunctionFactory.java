@@ -78,6 +78,11 @@ public class LtIntFunctionFactory implements FunctionFactory {
             return false;
         }
 
+        @Override
+        public boolean isReadThreadSafe() {
+            return left.isReadThreadSafe() && right.isReadThreadSafe();
+        }
+
         @Override
         public Function getLeft() {
             return left;
@@ -73,6 +73,11 @@ public class LtTimestampFunctionFactory implements FunctionFactory {
             return false;
         }
 
+        @Override
+        public boolean isReadThreadSafe() {
+            return left.isReadThreadSafe() && right.isReadThreadSafe();
+        }
+
         @Override
         public Function getLeft() {
             return left;
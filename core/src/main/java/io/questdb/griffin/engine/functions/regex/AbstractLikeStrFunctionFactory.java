@@ -33,6 +33,7 @@ import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.BooleanFunction;
+import io.questdb.griffin.engine.functions.SymbolFunction;
 import io.questdb.griffin.engine.functions.UnaryFunction;
 import io.questdb.griffin.engine.functions.bind.IndexedParameterLinkFunction;
 import io.questdb.griffin.engine.functions.constants.BooleanConstant;
@@ -80,6 +81,9 @@ public abstract class AbstractLikeStrFunctionFactory implements FunctionFactory
             if (likeString != null && likeString.length() > 0) {
                 String p = escapeSpecialChars(likeString, null);
                 assert p != null;
+                if (value instanceof SymbolFunction) {
+                    return new SymbolMatchFunction((SymbolFunction) value, Pattern.compile(p, Pattern.DOTALL).matcher(""), false, false);
+                }
                 return new ConstLikeStrFunction(
                         value,
                         Pattern.compile(p, Pattern.DOTALL).matcher("")
@@ -90,6 +94,9 @@ public abstract class AbstractLikeStrFunctionFactory implements FunctionFactory
 
         if (pattern instanceof IndexedParameterLinkFunction) {
             // bind variable
+            if (value instanceof SymbolFunction) {
+                return new BindLikeSymbolFunction((SymbolFunction) value, pattern);
+            }
             return new BindLikeStrFunction(value, pattern);
         }
 
@@ -160,8 +167,31 @@ public abstract class AbstractLikeStrFunctionFactory implements FunctionFactory
             }
         }
     }
-}
-
 
+    private static class BindLikeSymbolFunction extends SymbolMatchFunction {
+        private final Function pattern;
+        private String lastPattern = null;
 
+        public BindLikeSymbolFunction(SymbolFunction value, Function pattern) {
+            super(value, null, false, false);
+            this.pattern = pattern;
+        }
 
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            pattern.init(symbolTableSource, executionContext);
+            final CharSequence patternValue = pattern.getStr(null);
+            if (patternValue != null && patternValue.length() > 0) {
+                final String p = escapeSpecialChars(patternValue, lastPattern);
+                if (p != null) {
+                    of(Pattern.compile(p, Pattern.DOTALL).matcher(""));
+                    lastPattern = p;
+                }
+            } else {
+                lastPattern = null;
+                of(null);
+            }
+            super.init(symbolTableSource, executionContext);
+        }
+    }
+}
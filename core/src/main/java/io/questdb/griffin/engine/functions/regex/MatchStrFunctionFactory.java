@@ -32,6 +32,7 @@ import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.BooleanFunction;
+import io.questdb.griffin.engine.functions.SymbolFunction;
 import io.questdb.griffin.engine.functions.UnaryFunction;
 import io.questdb.std.Chars;
 import io.questdb.std.IntList;
@@ -60,8 +61,14 @@ public class MatchStrFunctionFactory implements FunctionFactory {
         final Function pattern = args.getQuick(1);
         final int patternPosition = argPositions.getQuick(1);
         if (pattern.isConstant()) {
+            if (value instanceof SymbolFunction) {
+                return new SymbolMatchFunction((SymbolFunction) value, createMatcher(pattern, patternPosition), true, false);
+            }
             return new MatchConstPatternFunction(value, createMatcher(pattern, patternPosition));
         } else if (pattern.isRuntimeConstant()) {
+            if (value instanceof SymbolFunction) {
+                return new MatchRuntimeConstPatternSymbolFunction((SymbolFunction) value, pattern, patternPosition);
+            }
             return new MatchRuntimeConstPatternFunction(value, pattern, patternPosition);
         }
         throw SqlException.$(patternPosition, "not implemented: dynamic patter would be very slow to execute");
@@ -141,4 +148,32 @@ public class MatchStrFunctionFactory implements FunctionFactory {
             this.matcher = createMatcher(pattern, patternPosition);
         }
     }
+
+    private static class MatchRuntimeConstPatternSymbolFunction extends SymbolMatchFunction {
+        private final Function pattern;
+        private final int patternPosition;
+
+        public MatchRuntimeConstPatternSymbolFunction(SymbolFunction value, Function pattern, int patternPosition) {
+            super(value, null, true, false);
+            this.pattern = pattern;
+            this.patternPosition = patternPosition;
+        }
+
+        @Override
+        public boolean isConstant() {
+            return false;
+        }
+
+        @Override
+        public boolean isRuntimeConstant() {
+            return false;
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            pattern.init(symbolTableSource, executionContext);
+            of(createMatcher(pattern, patternPosition));
+            super.init(symbolTableSource, executionContext);
+        }
+    }
 }
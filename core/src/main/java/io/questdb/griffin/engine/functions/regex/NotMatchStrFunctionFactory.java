@@ -31,6 +31,7 @@ import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.BooleanFunction;
+import io.questdb.griffin.engine.functions.SymbolFunction;
 import io.questdb.griffin.engine.functions.UnaryFunction;
 import io.questdb.std.Chars;
 import io.questdb.std.IntList;
@@ -63,6 +64,9 @@ public class NotMatchStrFunctionFactory implements FunctionFactory {
 
         try {
             Matcher matcher = Pattern.compile(Chars.toString(regex)).matcher("");
+            if (value instanceof SymbolFunction) {
+                return new SymbolMatchFunction((SymbolFunction) value, matcher, true, true);
+            }
             return new MatchFunction(value, matcher);
         } catch (PatternSyntaxException e) {
             throw SqlException.$(argPositions.getQuick(1) + e.getIndex() + 1, e.getMessage());
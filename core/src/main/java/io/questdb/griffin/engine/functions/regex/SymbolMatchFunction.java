@@ -0,0 +1,108 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.griffin.engine.functions.regex;
+
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.BooleanFunction;
+import io.questdb.griffin.engine.functions.SymbolFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.std.BitSet;
+
+import java.util.regex.Matcher;
+
+/**
+ * Matches symbol values against a pattern. The pattern is evaluated once per cursor against every value in
+ * the symbol dictionary, and keys of matching values are collected in a bit set. Rows are then tested by
+ * their symbol key. A symbol function without a static symbol table falls back to matching row values.
+ */
+class SymbolMatchFunction extends BooleanFunction implements UnaryFunction {
+    private final SymbolFunction arg;
+    private final boolean find;
+    private final boolean negated;
+    private final BitSet keys = new BitSet();
+    private Matcher matcher;
+    private int keyCount = 0;
+
+    /**
+     * @param matcher pattern matcher, null matcher matches nothing
+     * @param find    true to look for the pattern anywhere in value, false to match value as a whole
+     * @param negated true to select values that do not match, null values included
+     */
+    SymbolMatchFunction(SymbolFunction arg, Matcher matcher, boolean find, boolean negated) {
+        this.arg = arg;
+        this.matcher = matcher;
+        this.find = find;
+        this.negated = negated;
+    }
+
+    @Override
+    public Function getArg() {
+        return arg;
+    }
+
+    @Override
+    public boolean getBool(Record rec) {
+        final int key = arg.getInt(rec);
+        if (key > -1 && key < keyCount) {
+            return keys.get(key);
+        }
+        return matches(arg.getSymbol(rec));
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        arg.init(symbolTableSource, executionContext);
+        keys.clear();
+        keyCount = 0;
+        final StaticSymbolTable symbolTable = arg.getStaticSymbolTable();
+        if (symbolTable != null) {
+            final int size = symbolTable.size();
+            for (int key = 0; key < size; key++) {
+                if (matches(symbolTable.valueOf(key))) {
+                    keys.set(key);
+                }
+            }
+            keyCount = size;
+        }
+    }
+
+    void of(Matcher matcher) {
+        this.matcher = matcher;
+    }
+
+    private boolean matches(CharSequence value) {
+        if (matcher == null) {
+            return false;
+        }
+        if (value == null) {
+            return negated;
+        }
+        return (find ? matcher.reset(value).find() : matcher.reset(value).matches()) != negated;
+    }
+}
@@ -0,0 +1,341 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.QueryAdmissionController;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderSelectedColumnRecord;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
+import io.questdb.tasks.SampleByTask;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits data frames into time ranges of roughly "frameMaxRows" rows and publishes them in batches
+ * onto the sample by queue. Range boundaries are always sample boundaries, so each sample is
+ * aggregated by exactly one task and task maps can be streamed in range order without merging.
+ */
+class ParallelSampleByRecordCursor implements NoRandomAccessRecordCursor {
+    private final IntList columnIndexes;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final ObjList<Function> recordFunctions;
+    private final RecordSink keySink;
+    private final TimestampSampler timestampSampler;
+    private final int timestampIndex;
+    private final long frameMaxRows;
+    private final int batchSize;
+    private final ObjList<Map> taskMaps = new ObjList<>();
+    private final ObjList<TableReaderSelectedColumnRecord> taskRecords = new ObjList<>();
+    private final ObjList<LongList> taskFrames = new ObjList<>();
+    private final TableReaderSelectedColumnRecord splitRecord;
+    private final VirtualRecord record;
+    private final SymbolTableSource baseSymbolTableSource = this::getBaseSymbolTable;
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+    private final AtomicInteger errorCount = new AtomicInteger();
+    private RingQueue<SampleByTask> queue;
+    private Sequence pubSeq;
+    private Sequence subSeq;
+    private SqlExecutionInterruptor interruptor;
+    private QueryAdmissionController admissionController;
+    private DataFrameCursor dataFrameCursor;
+    private RecordCursor mapCursor;
+    private int taskCount;
+    private int taskIndex;
+    private long lastSample;
+    // remainder of the data frame that has not been dispatched yet
+    private int dataFramePartitionIndex;
+    private long dataFrameRowLo;
+    private long dataFrameRowHi;
+
+    public ParallelSampleByRecordCursor(
+            CairoConfiguration configuration,
+            IntList columnIndexes,
+            ObjList<GroupByFunction> groupByFunctions,
+            ObjList<Function> recordFunctions,
+            RecordSink keySink,
+            ColumnTypes keyTypes,
+            ColumnTypes valueTypes,
+            TimestampSampler timestampSampler,
+            int timestampIndex,
+            int batchSize
+    ) {
+        this.columnIndexes = columnIndexes;
+        this.groupByFunctions = groupByFunctions;
+        this.recordFunctions = recordFunctions;
+        this.keySink = keySink;
+        this.timestampSampler = timestampSampler;
+        this.timestampIndex = timestampIndex;
+        this.frameMaxRows = configuration.getSqlPageFrameMaxRows();
+        this.batchSize = batchSize;
+        this.splitRecord = new TableReaderSelectedColumnRecord(columnIndexes);
+        this.record = new VirtualRecordNoRowid(recordFunctions);
+        for (int i = 0; i < batchSize; i++) {
+            taskMaps.add(MapFactory.createMap(configuration, keyTypes, valueTypes));
+            taskRecords.add(new TableReaderSelectedColumnRecord(columnIndexes));
+            taskFrames.add(new LongList());
+        }
+    }
+
+    @Override
+    public void close() {
+        dataFrameCursor = Misc.free(dataFrameCursor);
+        interruptor = null;
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return (SymbolTable) recordFunctions.getQuick(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (true) {
+            if (mapCursor != null && mapCursor.hasNext()) {
+                return true;
+            }
+
+            if (taskIndex < taskCount) {
+                final Map map = taskMaps.getQuick(taskIndex++);
+                record.of(map.getRecord());
+                mapCursor = map.getCursor();
+                continue;
+            }
+
+            if (!dispatchBatch()) {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        GroupByUtils.toTop(recordFunctions);
+        dataFrameCursor.toTop();
+        resetState();
+    }
+
+    void freeMaps() {
+        Misc.freeObjList(taskMaps);
+    }
+
+    /**
+     * @return false when there are no rows to sample, in which case cursor must not be used
+     */
+    boolean of(DataFrameCursor dataFrameCursor, SqlExecutionContext executionContext) throws SqlException {
+        this.dataFrameCursor = dataFrameCursor;
+        final TableReader reader = dataFrameCursor.getTableReader();
+        splitRecord.of(reader);
+        for (int i = 0; i < batchSize; i++) {
+            taskRecords.getQuick(i).of(reader);
+        }
+        final MessageBus bus = executionContext.getMessageBus();
+        this.queue = bus.getSampleByQueue();
+        this.pubSeq = bus.getSampleByPubSeq();
+        this.subSeq = bus.getSampleBySubSeq();
+        this.interruptor = executionContext.getSqlExecutionInterruptor();
+        this.admissionController = executionContext.getQueryAdmissionController();
+        resetState();
+
+        if (!nextFrame()) {
+            return false;
+        }
+        // samples are aligned to the first observation, same as the single threaded cursors
+        timestampSampler.setStart(getTimestamp(dataFramePartitionIndex, dataFrameRowLo));
+        Function.init(recordFunctions, baseSymbolTableSource, executionContext);
+        return true;
+    }
+
+    private boolean dispatchBatch() {
+        taskCount = 0;
+        taskIndex = 0;
+        mapCursor = null;
+        doneLatch.reset();
+
+        int queuedCount = 0;
+        final int taskLimit = admissionController.acquire();
+        try {
+            while (taskCount < batchSize) {
+                final int slot = taskCount;
+                final LongList frames = taskFrames.getQuick(slot);
+                if (!nextTask(frames)) {
+                    break;
+                }
+                taskCount++;
+
+                final long seq = admissionController.next(pubSeq, taskLimit, queuedCount, doneLatch);
+                if (seq < 0) {
+                    // queue is full or query is over its task limit, aggregate on the query thread
+                    SampleByTask.aggregate(
+                            groupByFunctions,
+                            keySink,
+                            timestampSampler,
+                            timestampIndex,
+                            taskRecords.getQuick(slot),
+                            taskMaps.getQuick(slot),
+                            frames
+                    );
+                } else {
+                    queue.get(seq).of(
+                            groupByFunctions,
+                            keySink,
+                            timestampSampler,
+                            timestampIndex,
+                            taskRecords.getQuick(slot),
+                            taskMaps.getQuick(slot),
+                            frames,
+                            errorCount,
+                            doneLatch
+                    );
+                    pubSeq.done(seq);
+                    queuedCount++;
+                }
+            }
+
+            // help workers to drain the queue, this also avoids
+            // deadlock when there are no workers to pick up our tasks
+            while (doneLatch.getCount() > -queuedCount) {
+                long seq = subSeq.next();
+                if (seq > -1) {
+                    queue.get(seq).run();
+                    subSeq.done(seq);
+                }
+            }
+            doneLatch.await(queuedCount);
+        } finally {
+            admissionController.release(taskLimit);
+        }
+
+        if (errorCount.get() > 0) {
+            throw CairoException.instance(0).put("sample by aggregation failed, check server log for details");
+        }
+        interruptor.checkInterrupted();
+        return taskCount > 0;
+    }
+
+    private SymbolTable getBaseSymbolTable(int columnIndex) {
+        return dataFrameCursor.getSymbolTable(columnIndexes.getQuick(columnIndex));
+    }
+
+    private long getTimestamp(int partitionIndex, long row) {
+        splitRecord.jumpTo(partitionIndex, row);
+        return splitRecord.getTimestamp(timestampIndex);
+    }
+
+    private boolean nextFrame() {
+        while (dataFrameRowLo >= dataFrameRowHi) {
+            DataFrame dataFrame = dataFrameCursor.next();
+            if (dataFrame == null) {
+                return false;
+            }
+            dataFramePartitionIndex = dataFrame.getPartitionIndex();
+            dataFrameRowLo = dataFrame.getRowLo();
+            dataFrameRowHi = dataFrame.getRowHi();
+        }
+        return true;
+    }
+
+    /**
+     * Collects frames of at least "frameMaxRows" rows, unless data runs out, and extends
+     * the last frame to the end of its sample.
+     */
+    private boolean nextTask(LongList frames) {
+        frames.clear();
+        long rowCount = 0;
+        while (nextFrame()) {
+            final int partitionIndex = dataFramePartitionIndex;
+            final long rowLo = dataFrameRowLo;
+            if (rowCount >= frameMaxRows && timestampSampler.round(getTimestamp(partitionIndex, rowLo)) != lastSample) {
+                break;
+            }
+
+            long rowHi = Math.min(dataFrameRowHi, rowLo + Math.max(1, frameMaxRows - rowCount));
+            if (rowHi < dataFrameRowHi) {
+                // do not let sample straddle two tasks
+                final long sample = timestampSampler.round(getTimestamp(partitionIndex, rowHi - 1));
+                rowHi = searchTimestamp(partitionIndex, rowHi, dataFrameRowHi, timestampSampler.nextTimestamp(sample));
+            }
+
+            frames.add(partitionIndex);
+            frames.add(rowLo);
+            frames.add(rowHi);
+            rowCount += rowHi - rowLo;
+            dataFrameRowLo = rowHi;
+            lastSample = timestampSampler.round(getTimestamp(partitionIndex, rowHi - 1));
+        }
+        return rowCount > 0;
+    }
+
+    private void resetState() {
+        taskCount = 0;
+        taskIndex = 0;
+        mapCursor = null;
+        lastSample = Long.MIN_VALUE;
+        dataFrameRowLo = 0;
+        dataFrameRowHi = 0;
+        errorCount.set(0);
+    }
+
+    /**
+     * @return first row in [rowLo, rowHi) with timestamp not less than the given one, or rowHi
+     */
+    private long searchTimestamp(int partitionIndex, long rowLo, long rowHi, long timestamp) {
+        long lo = rowLo;
+        long hi = rowHi;
+        while (lo < hi) {
+            final long mid = (lo + hi) >>> 1;
+            if (getTimestamp(partitionIndex, mid) < timestamp) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.EmptyTableNoSizeRecordCursor;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.columns.TimestampColumn;
+import io.questdb.griffin.engine.table.DataFrameRecordCursorFactory;
+import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import io.questdb.std.str.CharSink;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * SAMPLE BY without FILL, time zone and offset, that aggregates time ranges of table data frames on
+ * shared worker threads. Group-by functions must be read thread safe because the same instances
+ * compute values of all ranges.
+ */
+public class ParallelSampleByRecordCursorFactory implements RecordCursorFactory {
+    private final DataFrameRecordCursorFactory base;
+    private final RecordMetadata metadata;
+    private final ObjList<Function> recordFunctions;
+    private final ParallelSampleByRecordCursor cursor;
+
+    public ParallelSampleByRecordCursorFactory(
+            CairoConfiguration configuration,
+            DataFrameRecordCursorFactory base,
+            RecordMetadata groupByMetadata,
+            @NotNull ObjList<GroupByFunction> groupByFunctions,
+            @NotNull ObjList<Function> recordFunctions,
+            @NotNull TimestampSampler timestampSampler,
+            @Transient @NotNull ListColumnFilter listColumnFilter,
+            @Transient @NotNull BytecodeAssembler asm,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            int timestampIndex,
+            int workerCount
+    ) {
+        assert base.isFullFrameScan();
+        this.base = base;
+        this.metadata = groupByMetadata;
+        this.recordFunctions = recordFunctions;
+        // sample timestamp is the last map key, it replaces timestamp column of the result
+        final int sampleColumnIndex = valueTypes.getColumnCount() + keyTypes.getColumnCount();
+        for (int i = 0, n = recordFunctions.size(); i < n; i++) {
+            if (recordFunctions.getQuick(i) == null) {
+                recordFunctions.setQuick(i, TimestampColumn.newInstance(sampleColumnIndex));
+            }
+        }
+        final RecordSink keySink = RecordSinkFactory.getInstance(asm, base.getMetadata(), listColumnFilter, false);
+        keyTypes.add(ColumnType.TIMESTAMP);
+        this.cursor = new ParallelSampleByRecordCursor(
+                configuration,
+                base.getColumnIndexes(),
+                groupByFunctions,
+                recordFunctions,
+                keySink,
+                keyTypes,
+                valueTypes,
+                timestampSampler,
+                timestampIndex,
+                Math.min(workerCount, configuration.getSampleByQueueCapacity())
+        );
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjList(recordFunctions);
+        Misc.free(base);
+        cursor.freeMaps();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final DataFrameCursor dataFrameCursor = base.getDataFrameCursorFactory().getCursor(executionContext);
+        try {
+            if (cursor.of(dataFrameCursor, executionContext)) {
+                return cursor;
+            }
+        } catch (Throwable e) {
+            cursor.close();
+            throw e;
+        }
+        cursor.close();
+        return EmptyTableNoSizeRecordCursor.INSTANCE;
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        sink.put("{\"name\":\"ParallelSampleByRecordCursorFactory\", \"cursorFactory\":");
+        base.getDataFrameCursorFactory().toSink(sink);
+        sink.put('}');
+    }
+}
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.*;
+
+import java.io.Closeable;
+
+/**
+ * Folds pair of symbol keys into single INT key, which is the only key type Rosti supports. Key pair
+ * is encoded as k0 * (symbolCount1 + 1) + k1, where NULL is represented by symbol count of the column.
+ * When encoded value does not fit INT, it is mapped to dense INT via hash map. This map is not thread-safe,
+ * and in this case aggregation must not be dispatched to worker threads.
+ * <p>
+ * Keys are encoded in chunks into per-worker buffers, which keeps memory footprint independent of page frame
+ * size. Each chunk is encoded once and consumed by all aggregate functions while it is hot in CPU cache.
+ * <p>
+ * Maps are never let to resize themselves. Native resize does not preserve initial values of the map, which
+ * leaves garbage in value slots of keys created by one aggregate function and found by the next. Instead, map
+ * is rebuilt with enough capacity for the chunk before aggregation starts.
+ */
+class CompositeSymbolKey implements Closeable {
+    static final long CHUNK_SIZE = 64 * 1024;
+    private final long[] pKeys;
+    private final ArrayColumnTypes columnTypes = new ArrayColumnTypes();
+    private final LongIntHashMap valueToKey = new LongIntHashMap();
+    private final LongList keyToValue = new LongList();
+    private int nullKey0;
+    private int nullKey1;
+    private int radix;
+    private boolean dense;
+
+    CompositeSymbolKey(int workerCount, @Transient ColumnTypes columnTypes) {
+        this.pKeys = new long[workerCount];
+        for (int i = 0, n = columnTypes.getColumnCount(); i < n; i++) {
+            this.columnTypes.add(columnTypes.getColumnType(i));
+        }
+    }
+
+    @Override
+    public void close() {
+        for (int i = 0, n = pKeys.length; i < n; i++) {
+            if (pKeys[i] != 0) {
+                Unsafe.free(pKeys[i], CHUNK_SIZE * Integer.BYTES, MemoryTag.NATIVE_DEFAULT);
+                pKeys[i] = 0;
+            }
+        }
+        valueToKey.clear();
+        keyToValue.clear();
+    }
+
+    void aggregate(
+            ObjList<VectorAggregateFunction> vafList,
+            long[] pRosti,
+            long keyAddress0,
+            long keyAddress1,
+            LongList valueAddresses,
+            IntList columnSizeShrs,
+            long rowLo,
+            long rowCount,
+            int workerId
+    ) {
+        final long pKeys = encode(workerId, keyAddress0, keyAddress1, rowLo, rowCount);
+        // every row can be a new key
+        final long pRostiW = reserve(vafList, pRosti, workerId, rowCount);
+        for (int i = 0, n = vafList.size(); i < n; i++) {
+            final long valueAddress = valueAddresses.getQuick(i);
+            final int columnSizeShr = columnSizeShrs.getQuick(i);
+            vafList.getQuick(i).aggregate(
+                    pRostiW,
+                    pKeys,
+                    valueAddress == 0 ? 0 : valueAddress + (rowLo << columnSizeShr),
+                    rowCount << columnSizeShr,
+                    columnSizeShr,
+                    workerId
+            );
+        }
+    }
+
+    int decode(int key, int position) {
+        final long value = dense ? key : keyToValue.getQuick(key);
+        if (position == 0) {
+            final int k = (int) (value / radix);
+            return k == nullKey0 ? SymbolTable.VALUE_IS_NULL : k;
+        }
+        final int k = (int) (value % radix);
+        return k == nullKey1 ? SymbolTable.VALUE_IS_NULL : k;
+    }
+
+    boolean isThreadSafe() {
+        return dense;
+    }
+
+    /**
+     * Makes sure map at given index can take keyCount new keys without resizing.
+     *
+     * @return address of the map, which is different from the original when map had to be rebuilt
+     */
+    long reserve(ObjList<VectorAggregateFunction> vafList, long[] pRosti, int index, long keyCount) {
+        final long pOld = pRosti[index];
+        if (Rosti.getGrowthLeft(pOld) >= keyCount) {
+            return pOld;
+        }
+
+        final long pNew = Rosti.alloc(columnTypes, (Rosti.getSize(pOld) + keyCount) * 2);
+        Unsafe.getUnsafe().putInt(Rosti.getInitialValueSlot(pNew, 0), Numbers.INT_NaN);
+        for (int i = 0, n = vafList.size(); i < n; i++) {
+            vafList.getQuick(i).initRosti(pNew);
+        }
+        for (int i = 0, n = vafList.size(); i < n; i++) {
+            vafList.getQuick(i).merge(pNew, pOld);
+        }
+        Rosti.free(pOld);
+        return pRosti[index] = pNew;
+    }
+
+    void of(int symbolCount0, int symbolCount1) {
+        this.nullKey0 = symbolCount0;
+        this.nullKey1 = symbolCount1;
+        this.radix = symbolCount1 + 1;
+        this.dense = (long) (symbolCount0 + 1) * radix <= Integer.MAX_VALUE;
+        valueToKey.clear();
+        keyToValue.clear();
+    }
+
+    private long encode(int workerId, long keyAddress0, long keyAddress1, long rowLo, long rowCount) {
+        long pKeys = this.pKeys[workerId];
+        if (pKeys == 0) {
+            pKeys = this.pKeys[workerId] = Unsafe.malloc(CHUNK_SIZE * Integer.BYTES, MemoryTag.NATIVE_DEFAULT);
+        }
+
+        // column top is all NULLs
+        for (long i = 0; i < rowCount; i++) {
+            final int k0 = keyAddress0 == 0 ? SymbolTable.VALUE_IS_NULL : Unsafe.getUnsafe().getInt(keyAddress0 + ((rowLo + i) << 2));
+            final int k1 = keyAddress1 == 0 ? SymbolTable.VALUE_IS_NULL : Unsafe.getUnsafe().getInt(keyAddress1 + ((rowLo + i) << 2));
+            final long value = (long) (k0 == SymbolTable.VALUE_IS_NULL ? nullKey0 : k0) * radix + (k1 == SymbolTable.VALUE_IS_NULL ? nullKey1 : k1);
+            final int key;
+            if (dense) {
+                key = (int) value;
+            } else {
+                final int index = valueToKey.keyIndex(value);
+                if (index > -1) {
+                    key = keyToValue.size();
+                    valueToKey.putAt(index, value, key);
+                    keyToValue.add(value);
+                } else {
+                    key = valueToKey.valueAt(index);
+                }
+            }
+            Unsafe.getUnsafe().putInt(pKeys + (i << 2), key);
+        }
+        return pKeys;
+    }
+}
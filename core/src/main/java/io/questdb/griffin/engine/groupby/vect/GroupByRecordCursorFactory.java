@@ -28,6 +28,7 @@ import io.questdb.MessageBus;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.QueryAdmissionController;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
@@ -54,6 +55,11 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
 
     private final long[] pRosti;
     private final int keyColumnIndex;
+    // second key column, when pair of symbols is folded into single Rosti key
+    private final int keyColumnIndex1;
+    private final CompositeSymbolKey compositeKey;
+    private final LongList valueAddresses = new LongList();
+    private final IntList columnSizeShrs = new IntList();
     private final RostiRecordCursor cursor;
 
     public GroupByRecordCursorFactory(
@@ -63,15 +69,16 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
             @Transient ColumnTypes columnTypes,
             int workerCount,
             @Transient ObjList<VectorAggregateFunction> vafList,
-            int keyColumnIndexInBase,
-            int keyColumnIndexInThisCursor,
+            @Transient IntList keyColumnIndexesInBase,
+            @Transient IntList keyColumnIndexesInThisCursor,
             @Transient IntList symbolTableSkewIndex
     ) {
 
         this.entryPool = new ObjectPool<>(VectorAggregateEntry::new, configuration.getGroupByPoolCapacity());
         this.activeEntries = new ObjList<>(configuration.getGroupByPoolCapacity());
         // columnTypes and functions must align in the following way:
-        // columnTypes[0] is the type of key, for now single key is supported
+        // columnTypes[0] is the type of key, for now single key is supported, two symbol keys
+        // are folded into single INT key
         // functions.size = columnTypes.size - 1, functions do not have instance for key, only for values
         // functions[0].type == columnTypes[1]
         // ...
@@ -114,38 +121,36 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
         final long pRosti = this.pRosti[0];
         final long columnOffsets = Rosti.getValueOffsets(pRosti);
 
-        // skew logic assumes single key, for multiple keys skew would be different
-
+        // keys can be in the middle, aggregates are laid out in between them in order
+        // all keys share offset 0, composite key is decoded by the record
+        final int keyCount = keyColumnIndexesInThisCursor.size();
         final IntList columnSkewIndex = new IntList();
-        // key is in the middle, shift aggregates before the key one position left
-        addOffsets(columnSkewIndex, vafList, 0, keyColumnIndexInThisCursor, columnOffsets);
-
-        // this is offset of the key column
-        columnSkewIndex.add(0);
-
-        // add remaining aggregate columns as is
-        addOffsets(columnSkewIndex, vafList, keyColumnIndexInThisCursor, vafCount, columnOffsets);
+        final IntList keyPositions = new IntList();
+        for (int i = 0, j = 0, n = vafCount + keyCount; i < n; i++) {
+            final int keyPosition = keyColumnIndexesInThisCursor.indexOf(i, 0, keyCount);
+            if (keyPosition > -1) {
+                columnSkewIndex.add(0);
+            } else {
+                columnSkewIndex.add(Unsafe.getUnsafe().getInt(columnOffsets + vafList.getQuick(j++).getValueOffset() * 4L));
+            }
+            keyPositions.add(keyPosition);
+        }
 
         this.vafList.addAll(vafList);
-        this.keyColumnIndex = keyColumnIndexInBase;
+        this.keyColumnIndex = keyColumnIndexesInBase.getQuick(0);
+        if (keyCount > 1) {
+            this.keyColumnIndex1 = keyColumnIndexesInBase.getQuick(1);
+            this.compositeKey = new CompositeSymbolKey(workerCount, columnTypes);
+        } else {
+            this.keyColumnIndex1 = -1;
+            this.compositeKey = null;
+        }
         if (symbolTableSkewIndex.size() > 0) {
             final IntList symbolSkew = new IntList(symbolTableSkewIndex.size());
             symbolSkew.addAll(symbolTableSkewIndex);
-            this.cursor = new RostiRecordCursor(pRosti, columnSkewIndex, symbolSkew);
+            this.cursor = new RostiRecordCursor(columnSkewIndex, symbolSkew, compositeKey, keyPositions);
         } else {
-            this.cursor = new RostiRecordCursor(pRosti, columnSkewIndex, null);
-        }
-    }
-
-    private static void addOffsets(
-            IntList columnSkewIndex,
-            @Transient ObjList<VectorAggregateFunction> vafList,
-            int start,
-            int end,
-            long columnOffsets
-    ) {
-        for (int i = start; i < end; i++) {
-            columnSkewIndex.add(Unsafe.getUnsafe().getInt(columnOffsets + vafList.getQuick(i).getValueOffset() * 4L));
+            this.cursor = new RostiRecordCursor(columnSkewIndex, null, null, null);
         }
     }
 
@@ -155,6 +160,7 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
         for (int i = 0, n = pRosti.length; i < n; i++) {
             Rosti.free(pRosti[i]);
         }
+        Misc.free(compositeKey);
     }
 
     @Override
@@ -170,6 +176,13 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
         final PageFrameCursor cursor = base.getPageFrameCursor(executionContext);
         final int vafCount = vafList.size();
 
+        if (compositeKey != null) {
+            compositeKey.of(
+                    cursor.getSymbolMapReader(keyColumnIndex).size(),
+                    cursor.getSymbolMapReader(keyColumnIndex1).size()
+            );
+        }
+
         // clear state of aggregate functions
         for (int i = 0; i < vafCount; i++) {
             vafList.getQuick(i).clear();
@@ -196,65 +209,114 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
             workerId = 0;
         }
 
-        PageFrame frame;
-        while ((frame = cursor.next()) != null) {
-            final long keyAddress = frame.getPageAddress(keyColumnIndex);
-            for (int i = 0; i < vafCount; i++) {
-                final VectorAggregateFunction vaf = vafList.getQuick(i);
-                // when column index = -1 we assume that vector function does not have value
-                // argument, and it can only derive count via memory size
-                final int columnIndex = vaf.getColumnIndex();
-                // for functions like `count()`, that do not have arguments we are required to provide
-                // count of rows in table in a form of "pageSize >> shr". Since `vaf` doesn't provide column
-                // this code used column 0. Assumption here that column 0 is fixed size.
-                // This assumption only holds because our aggressive algorithm for "top down columns", e.g.
-                // the algorithm that forces page frame to provide only columns required by the select. At the time
-                // of writing this code there is no way to return variable length column out of non-keyed aggregation
-                // query. This might change if we introduce something like `first(string)`. When this happens we will
-                // need to rethink our way of computing size for the count. This would be either type checking column
-                // 0 and working out size differently or finding any fixed-size column and using that.
-                final long valueAddress = columnIndex > -1 ? frame.getPageAddress(columnIndex) : 0;
-                final int pageColIndex = columnIndex > -1 ? columnIndex : 0;
-                final int columnSizeShr = frame.getColumnShiftBits(pageColIndex);
-                final long valueAddressSize = frame.getPageSize(pageColIndex);
-
-                long seq = pubSeq.next();
-                if (seq < 0) {
-                    if (keyAddress == 0) {
-                        vaf.aggregate(valueAddress, valueAddressSize, columnSizeShr, workerId);
-                    } else {
-                        vaf.aggregate(pRosti[workerId], keyAddress, valueAddress, valueAddressSize, columnSizeShr, workerId);
+        final QueryAdmissionController admissionController = executionContext.getQueryAdmissionController();
+        final int taskLimit = admissionController.acquire();
+        try {
+            PageFrame frame;
+            if (compositeKey != null) {
+                // composite key tasks are chunks of page frame rather than columns, each task encodes
+                // keys once and runs all aggregate functions on them
+                while ((frame = cursor.next()) != null) {
+                    final long keyAddress0 = frame.getPageAddress(keyColumnIndex);
+                    final long keyAddress1 = frame.getPageAddress(keyColumnIndex1);
+                    valueAddresses.clear();
+                    columnSizeShrs.clear();
+                    for (int i = 0; i < vafCount; i++) {
+                        // count() has no value column, it derives row count from column 0 as explained below
+                        final int columnIndex = vafList.getQuick(i).getColumnIndex();
+                        valueAddresses.add(columnIndex > -1 ? frame.getPageAddress(columnIndex) : 0);
+                        columnSizeShrs.add(frame.getColumnShiftBits(columnIndex > -1 ? columnIndex : 0));
                     }
-                    ownCount++;
-                } else {
-                    if (keyAddress != 0 || valueAddress != 0) {
-                        final VectorAggregateEntry entry = entryPool.next();
-                        if (keyAddress == 0) {
-                            entry.of(queuedCount++, vaf, null, 0, valueAddress, valueAddressSize, columnSizeShr, doneLatch);
+
+                    final long rowCount = frame.getPartitionHi() - frame.getPartitionLo();
+                    for (long lo = 0; lo < rowCount; lo += CompositeSymbolKey.CHUNK_SIZE) {
+                        final long n = Math.min(CompositeSymbolKey.CHUNK_SIZE, rowCount - lo);
+                        // keys that have to be mapped via hash map are not thread-safe, aggregate them here
+                        long seq = compositeKey.isThreadSafe() ? admissionController.next(pubSeq, taskLimit, queuedCount, doneLatch) : -1;
+                        if (seq < 0) {
+                            compositeKey.aggregate(vafList, pRosti, keyAddress0, keyAddress1, valueAddresses, columnSizeShrs, lo, n, workerId);
+                            ownCount++;
                         } else {
-                            entry.of(queuedCount++, vaf, pRosti, keyAddress, valueAddress, valueAddressSize, columnSizeShr, doneLatch);
+                            final VectorAggregateEntry entry = entryPool.next();
+                            entry.of(queuedCount++, vafList, pRosti, compositeKey, keyAddress0, keyAddress1, valueAddresses, columnSizeShrs, lo, n, doneLatch);
+                            activeEntries.add(entry);
+                            queue.get(seq).entry = entry;
+                            pubSeq.done(seq);
                         }
-                        activeEntries.add(entry);
-                        queue.get(seq).entry = entry;
-                        pubSeq.done(seq);
+                        total++;
+                    }
+                }
+            } else {
+                while ((frame = cursor.next()) != null) {
+                    final long keyAddress = frame.getPageAddress(keyColumnIndex);
+                    for (int i = 0; i < vafCount; i++) {
+                        final VectorAggregateFunction vaf = vafList.getQuick(i);
+                        // when column index = -1 we assume that vector function does not have value
+                        // argument, and it can only derive count via memory size
+                        final int columnIndex = vaf.getColumnIndex();
+                        // for functions like `count()`, that do not have arguments we are required to provide
+                        // count of rows in table in a form of "pageSize >> shr". Since `vaf` doesn't provide column
+                        // this code used column 0. Assumption here that column 0 is fixed size.
+                        // This assumption only holds because our aggressive algorithm for "top down columns", e.g.
+                        // the algorithm that forces page frame to provide only columns required by the select. At the time
+                        // of writing this code there is no way to return variable length column out of non-keyed aggregation
+                        // query. This might change if we introduce something like `first(string)`. When this happens we will
+                        // need to rethink our way of computing size for the count. This would be either type checking column
+                        // 0 and working out size differently or finding any fixed-size column and using that.
+                        final long valueAddress = columnIndex > -1 ? frame.getPageAddress(columnIndex) : 0;
+                        final int pageColIndex = columnIndex > -1 ? columnIndex : 0;
+                        final int columnSizeShr = frame.getColumnShiftBits(pageColIndex);
+                        final long valueAddressSize = frame.getPageSize(pageColIndex);
+
+                        long seq = admissionController.next(pubSeq, taskLimit, queuedCount, doneLatch);
+                        if (seq < 0) {
+                            if (keyAddress == 0) {
+                                vaf.aggregate(valueAddress, valueAddressSize, columnSizeShr, workerId);
+                            } else {
+                                vaf.aggregate(pRosti[workerId], keyAddress, valueAddress, valueAddressSize, columnSizeShr, workerId);
+                            }
+                            ownCount++;
+                        } else {
+                            if (keyAddress != 0 || valueAddress != 0) {
+                                final VectorAggregateEntry entry = entryPool.next();
+                                if (keyAddress == 0) {
+                                    entry.of(queuedCount++, vaf, null, 0, valueAddress, valueAddressSize, columnSizeShr, doneLatch);
+                                } else {
+                                    entry.of(queuedCount++, vaf, pRosti, keyAddress, valueAddress, valueAddressSize, columnSizeShr, doneLatch);
+                                }
+                                activeEntries.add(entry);
+                                queue.get(seq).entry = entry;
+                                pubSeq.done(seq);
+                            }
+                        }
+                        total++;
                     }
                 }
-                total++;
             }
-        }
 
-        // all done? great start consuming the queue we just published
-        // how do we get to the end? If we consume our own queue there is chance we will be consuming
-        // aggregation tasks not related to this execution (we work in concurrent environment)
-        // To deal with that we need to have our own checklist.
+            // all done? great start consuming the queue we just published
+            // how do we get to the end? If we consume our own queue there is chance we will be consuming
+            // aggregation tasks not related to this execution (we work in concurrent environment)
+            // To deal with that we need to have our own checklist.
 
-        // start at the back to reduce chance of clashing
-        reclaimed = GroupByNotKeyedVectorRecordCursorFactory.getRunWhatsLeft(queuedCount, reclaimed, workerId, activeEntries, doneLatch, LOG);
+            // start at the back to reduce chance of clashing
+            reclaimed = GroupByNotKeyedVectorRecordCursorFactory.getRunWhatsLeft(queuedCount, reclaimed, workerId, activeEntries, doneLatch, LOG);
+        } finally {
+            admissionController.release(taskLimit);
+        }
         long pRosti0 = pRosti[0];
 
         if (pRosti.length > 1) {
             LOG.debug().$("merging").$();
 
+            if (compositeKey != null) {
+                long keyCount = 0;
+                for (int i = 1, n = pRosti.length; i < n; i++) {
+                    keyCount += Rosti.getSize(pRosti[i]);
+                }
+                pRosti0 = compositeKey.reserve(vafList, pRosti, 0, keyCount);
+            }
+
             for (int j = 0; j < vafCount; j++) {
                 final VectorAggregateFunction vaf = vafList.getQuick(j);
                 for (int i = 1, n = pRosti.length; i < n; i++) {
@@ -270,7 +332,7 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
 
         LOG.info().$("done [total=").$(total).$(", ownCount=").$(ownCount).$(", reclaimed=").$(reclaimed).$(", queuedCount=").$(queuedCount).$(']').$();
 
-        return this.cursor.of(cursor);
+        return this.cursor.of(cursor, pRosti0);
     }
 
     @Override
@@ -285,9 +347,10 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
 
     private static class RostiRecordCursor implements RecordCursor {
         private final RostiRecord record;
-        private final long pRosti;
         private final IntList symbolTableSkewIndex;
         private final IntList columnSkewIndex;
+        private final CompositeSymbolKey compositeKey;
+        private final IntList keyPositions;
         private RostiRecord recordB;
         private long ctrlStart;
         private long ctrl;
@@ -296,16 +359,24 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
         private long size;
         private long count;
         private PageFrameCursor parent;
-
-        public RostiRecordCursor(long pRosti, IntList columnSkewIndex, IntList symbolTableSkewIndex) {
-            this.pRosti = pRosti;
+        private long pRosti;
+
+        public RostiRecordCursor(
+                IntList columnSkewIndex,
+                IntList symbolTableSkewIndex,
+                CompositeSymbolKey compositeKey,
+                IntList keyPositions
+        ) {
             this.record = new RostiRecord();
             this.symbolTableSkewIndex = symbolTableSkewIndex;
             this.columnSkewIndex = columnSkewIndex;
+            this.compositeKey = compositeKey;
+            this.keyPositions = keyPositions;
         }
 
-        public RostiRecordCursor of(PageFrameCursor parent) {
+        public RostiRecordCursor of(PageFrameCursor parent, long pRosti) {
             this.parent = parent;
+            this.pRosti = pRosti;
             this.toTop();
             return this;
         }
@@ -422,7 +493,14 @@ public class GroupByRecordCursorFactory implements RecordCursorFactory {
 
             @Override
             public int getInt(int col) {
-                return Unsafe.getUnsafe().getInt(getValueOffset(col));
+                final int value = Unsafe.getUnsafe().getInt(getValueOffset(col));
+                if (compositeKey != null) {
+                    final int keyPosition = keyPositions.getQuick(col);
+                    if (keyPosition > -1) {
+                        return compositeKey.decode(value, keyPosition);
+                    }
+                }
+                return value;
             }
 
             @Override
@@ -25,8 +25,7 @@
 package io.questdb.griffin.engine.groupby.vect;
 
 import io.questdb.mp.CountDownLatchSPI;
-import io.questdb.std.AbstractLockable;
-import io.questdb.std.Mutable;
+import io.questdb.std.*;
 
 public class VectorAggregateEntry extends AbstractLockable implements Mutable {
     private long[] pRosti;
@@ -36,17 +35,28 @@ public class VectorAggregateEntry extends AbstractLockable implements Mutable {
     private int columnSizeShr;
     private VectorAggregateFunction func;
     private CountDownLatchSPI doneLatch;
+    // composite key chunk, aggregated by all functions at once
+    private final LongList valueAddresses = new LongList();
+    private final IntList columnSizeShrs = new IntList();
+    private CompositeSymbolKey compositeKey;
+    private ObjList<VectorAggregateFunction> funcs;
+    private long keyAddress1;
+    private long rowLo;
 
     @Override
     public void clear() {
         this.valueAddress = 0;
         this.valueCount = 0;
         func = null;
+        funcs = null;
+        compositeKey = null;
     }
 
     public boolean run(int workerId) {
         if (tryLock()) {
-            if (pRosti != null) {
+            if (compositeKey != null) {
+                compositeKey.aggregate(funcs, pRosti, keyAddress, keyAddress1, valueAddresses, columnSizeShrs, rowLo, valueCount, workerId);
+            } else if (pRosti != null) {
                 func.aggregate(pRosti[workerId], keyAddress, valueAddress, valueCount, columnSizeShr, workerId);
             } else {
                 func.aggregate(valueAddress, valueCount, columnSizeShr, workerId);
@@ -75,5 +85,34 @@ public class VectorAggregateEntry extends AbstractLockable implements Mutable {
         this.func = vaf;
         this.columnSizeShr = columnSizeShr;
         this.doneLatch = doneLatch;
+        this.compositeKey = null;
+    }
+
+    void of(
+            int sequence,
+            ObjList<VectorAggregateFunction> vafList,
+            long[] pRosti,
+            CompositeSymbolKey compositeKey,
+            long keyPageAddress0,
+            long keyPageAddress1,
+            LongList valuePageAddresses,
+            IntList columnSizeShrs,
+            long rowLo,
+            long rowCount,
+            CountDownLatchSPI doneLatch
+    ) {
+        of(sequence);
+        this.pRosti = pRosti;
+        this.funcs = vafList;
+        this.compositeKey = compositeKey;
+        this.keyAddress = keyPageAddress0;
+        this.keyAddress1 = keyPageAddress1;
+        this.valueAddresses.clear();
+        this.valueAddresses.add(valuePageAddresses);
+        this.columnSizeShrs.clear();
+        this.columnSizeShrs.addAll(columnSizeShrs);
+        this.rowLo = rowLo;
+        this.valueCount = rowCount;
+        this.doneLatch = doneLatch;
     }
 }
@@ -38,6 +38,7 @@ import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.Misc;
 import io.questdb.std.Numbers;
 import io.questdb.std.Transient;
+import io.questdb.std.str.CharSink;
 
 public class AsOfJoinLightRecordCursorFactory extends AbstractRecordCursorFactory {
     private final Map joinKeyMap;
@@ -96,6 +97,11 @@ public class AsOfJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
         return false;
     }
 
+    @Override
+    public void toSink(CharSink sink) {
+        sink.put("{\"name\":\"AsOfJoinLightRecordCursorFactory\"}");
+    }
+
     private class AsOfLightJoinRecordCursor implements NoRandomAccessRecordCursor {
         private final OuterJoinRecord record;
         private final Map joinKeyMap;
@@ -0,0 +1,318 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.BinarySearch;
+import io.questdb.cairo.NullColumn;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderSelectedColumnRecord;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.api.MemoryR;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.DataFrameRecordCursorFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.CharSink;
+
+/**
+ * ASOF and LT join on a single symbol column, where slave is a forward scan of the whole table.
+ * Slave data frames are merged with master one frame at a time: the slave timestamp column is
+ * binary searched for the last row not after master timestamp, and slave symbol keys of the rows
+ * passed over are read straight from the column to update last row id per symbol key. This avoids
+ * the map lookup per slave row that {@link AsOfJoinLightRecordCursorFactory} and
+ * {@link LtJoinLightRecordCursorFactory} do.
+ */
+public class AsOfJoinSymbolRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory masterFactory;
+    private final DataFrameRecordCursorFactory slaveFactory;
+    private final AsOfJoinSymbolRecordCursor cursor;
+
+    public AsOfJoinSymbolRecordCursorFactory(
+            RecordMetadata metadata,
+            RecordCursorFactory masterFactory,
+            DataFrameRecordCursorFactory slaveFactory,
+            int masterSymbolIndex,
+            int slaveSymbolIndex,
+            int columnSplit,
+            boolean strict // true for LT join, where slave timestamp must be strictly less than master
+    ) {
+        super(metadata);
+        assert slaveFactory.isFullFrameScan();
+        this.masterFactory = masterFactory;
+        this.slaveFactory = slaveFactory;
+        final IntList slaveColumnIndexes = slaveFactory.getColumnIndexes();
+        this.cursor = new AsOfJoinSymbolRecordCursor(
+                columnSplit,
+                NullRecordFactory.getInstance(slaveFactory.getMetadata()),
+                slaveColumnIndexes,
+                masterFactory.getMetadata().getTimestampIndex(),
+                masterSymbolIndex,
+                slaveColumnIndexes.getQuick(slaveFactory.getMetadata().getTimestampIndex()),
+                slaveColumnIndexes.getQuick(slaveSymbolIndex),
+                strict
+        );
+    }
+
+    @Override
+    public void close() {
+        ((JoinRecordMetadata) getMetadata()).close();
+        masterFactory.close();
+        slaveFactory.close();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final RecordCursor masterCursor = masterFactory.getCursor(executionContext);
+        try {
+            cursor.of(masterCursor, slaveFactory.getDataFrameCursorFactory().getCursor(executionContext));
+        } catch (Throwable e) {
+            masterCursor.close();
+            throw e;
+        }
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        sink.put("{\"name\":\"AsOfJoinSymbolRecordCursorFactory\"}");
+    }
+
+    private static class AsOfJoinSymbolRecordCursor implements NoRandomAccessRecordCursor {
+        private static final int KEY_UNKNOWN = Integer.MIN_VALUE;
+        private final OuterJoinRecord record;
+        private final TableReaderSelectedColumnRecord slaveRecord;
+        private final IntList slaveColumnIndexes;
+        private final int columnSplit;
+        private final int masterTimestampIndex;
+        private final int masterSymbolIndex;
+        private final int slaveTimestampIndex;
+        private final int slaveSymbolIndex;
+        private final boolean strict;
+        // last slave row id per slave symbol key, see indexOf()
+        private final LongList lastRowIds = new LongList();
+        // slave symbol key per master symbol key, see indexOf()
+        private final IntList slaveKeys = new IntList();
+        private RecordCursor masterCursor;
+        private DataFrameCursor slaveCursor;
+        private Record masterRecord;
+        private StaticSymbolTable slaveSymbolTable;
+        private TableReader slaveReader;
+        private int framePartitionIndex;
+        private long frameRowHi;
+        private long frameTimestampAddress;
+        private long frameSymbolAddress;
+        private long frameSymbolTop;
+        private long slaveRow;
+        private boolean slaveExhausted;
+
+        public AsOfJoinSymbolRecordCursor(
+                int columnSplit,
+                Record nullRecord,
+                IntList slaveColumnIndexes,
+                int masterTimestampIndex,
+                int masterSymbolIndex,
+                int slaveTimestampIndex,
+                int slaveSymbolIndex,
+                boolean strict
+        ) {
+            this.record = new OuterJoinRecord(columnSplit, nullRecord);
+            this.slaveRecord = new TableReaderSelectedColumnRecord(slaveColumnIndexes);
+            this.slaveColumnIndexes = slaveColumnIndexes;
+            this.columnSplit = columnSplit;
+            this.masterTimestampIndex = masterTimestampIndex;
+            this.masterSymbolIndex = masterSymbolIndex;
+            this.slaveTimestampIndex = slaveTimestampIndex;
+            this.slaveSymbolIndex = slaveSymbolIndex;
+            this.strict = strict;
+        }
+
+        @Override
+        public void close() {
+            masterCursor = Misc.free(masterCursor);
+            slaveCursor = Misc.free(slaveCursor);
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            if (columnIndex < columnSplit) {
+                return masterCursor.getSymbolTable(columnIndex);
+            }
+            return slaveCursor.getSymbolTable(slaveColumnIndexes.getQuick(columnIndex - columnSplit));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (masterCursor.hasNext()) {
+                final long masterTimestamp = masterRecord.getTimestamp(masterTimestampIndex);
+                if (!strict) {
+                    advanceSlave(masterTimestamp);
+                } else if (masterTimestamp != Long.MIN_VALUE) {
+                    advanceSlave(masterTimestamp - 1);
+                }
+
+                final int slaveKey = slaveKeyOf(masterRecord.getInt(masterSymbolIndex));
+                final long rowId = slaveKey == SymbolTable.VALUE_NOT_FOUND ? -1 : lastRowIds.getQuick(indexOf(slaveKey));
+                if (rowId != -1) {
+                    slaveRecord.jumpTo(Rows.toPartitionIndex(rowId), Rows.toLocalRowID(rowId));
+                    record.hasSlave(true);
+                } else {
+                    record.hasSlave(false);
+                }
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public long size() {
+            return masterCursor.size();
+        }
+
+        @Override
+        public void toTop() {
+            masterCursor.toTop();
+            slaveCursor.toTop();
+            resetSlave();
+        }
+
+        // symbol keys start from 0, and null symbol takes the first slot
+        private static int indexOf(int symbolKey) {
+            return symbolKey == SymbolTable.VALUE_IS_NULL ? 0 : symbolKey + 1;
+        }
+
+        private void advanceSlave(long timestampHi) {
+            while (!slaveExhausted) {
+                if (slaveRow < frameRowHi) {
+                    if (Unsafe.getUnsafe().getLong(frameTimestampAddress + slaveRow * Long.BYTES) > timestampHi) {
+                        return;
+                    }
+                    final long last = frameRowHi - 1;
+                    if (Unsafe.getUnsafe().getLong(frameTimestampAddress + last * Long.BYTES) <= timestampHi) {
+                        consumeSlaveRows(frameRowHi);
+                    } else {
+                        consumeSlaveRows(
+                                Vect.boundedBinarySearch64Bit(
+                                        frameTimestampAddress,
+                                        timestampHi,
+                                        slaveRow,
+                                        last,
+                                        BinarySearch.SCAN_DOWN
+                                ) + 1
+                        );
+                        return;
+                    }
+                }
+                nextSlaveFrame();
+            }
+        }
+
+        private void consumeSlaveRows(long rowHi) {
+            final int partitionIndex = framePartitionIndex;
+            final long symbolTop = frameSymbolTop;
+            long row = slaveRow;
+            if (row < symbolTop) {
+                // rows above column top have null symbol
+                final long hi = Math.min(symbolTop, rowHi);
+                lastRowIds.setQuick(0, Rows.toRowID(partitionIndex, hi - 1));
+                row = hi;
+            }
+            final long symbolAddress = frameSymbolAddress - symbolTop * Integer.BYTES;
+            for (; row < rowHi; row++) {
+                final int key = Unsafe.getUnsafe().getInt(symbolAddress + row * Integer.BYTES);
+                lastRowIds.setQuick(indexOf(key), Rows.toRowID(partitionIndex, row));
+            }
+            slaveRow = rowHi;
+        }
+
+        private void nextSlaveFrame() {
+            final DataFrame frame = slaveCursor.next();
+            if (frame == null) {
+                slaveExhausted = true;
+                return;
+            }
+            framePartitionIndex = frame.getPartitionIndex();
+            slaveRow = frame.getRowLo();
+            frameRowHi = frame.getRowHi();
+
+            final int columnBase = slaveReader.getColumnBase(framePartitionIndex);
+            frameTimestampAddress = slaveReader.getColumn(TableReader.getPrimaryColumnIndex(columnBase, slaveTimestampIndex)).getPageAddress(0);
+            final MemoryR symbolColumn = slaveReader.getColumn(TableReader.getPrimaryColumnIndex(columnBase, slaveSymbolIndex));
+            if (symbolColumn instanceof NullColumn) {
+                frameSymbolTop = frameRowHi;
+                frameSymbolAddress = 0;
+            } else {
+                frameSymbolTop = slaveReader.getColumnTop(columnBase, slaveSymbolIndex);
+                frameSymbolAddress = symbolColumn.getPageAddress(0);
+            }
+        }
+
+        private void resetSlave() {
+            lastRowIds.setAll(slaveSymbolTable.size() + 1, -1);
+            slaveExhausted = false;
+            slaveRow = 0;
+            frameRowHi = 0;
+        }
+
+        private int slaveKeyOf(int masterKey) {
+            final int index = indexOf(masterKey);
+            int slaveKey = index < slaveKeys.size() ? slaveKeys.getQuick(index) : KEY_UNKNOWN;
+            if (slaveKey == KEY_UNKNOWN) {
+                slaveKey = slaveSymbolTable.keyOf(masterRecord.getSym(masterSymbolIndex));
+                if (index >= slaveKeys.size()) {
+                    final int size = slaveKeys.size();
+                    slaveKeys.extendAndSet(index, slaveKey);
+                    for (int i = size; i < index; i++) {
+                        slaveKeys.setQuick(i, KEY_UNKNOWN);
+                    }
+                } else {
+                    slaveKeys.setQuick(index, slaveKey);
+                }
+            }
+            return slaveKey;
+        }
+
+        void of(RecordCursor masterCursor, DataFrameCursor slaveCursor) {
+            this.masterCursor = masterCursor;
+            this.slaveCursor = slaveCursor;
+            this.masterRecord = masterCursor.getRecord();
+            this.slaveReader = slaveCursor.getTableReader();
+            this.slaveSymbolTable = slaveCursor.getSymbolTable(slaveSymbolIndex);
+            this.slaveRecord.of(slaveReader);
+            this.slaveKeys.clear();
+            record.of(masterRecord, slaveRecord);
+            resetSlave();
+        }
+    }
+}
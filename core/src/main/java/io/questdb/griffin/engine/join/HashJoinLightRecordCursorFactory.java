@@ -38,6 +38,7 @@ import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.SqlExecutionInterruptor;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
+import io.questdb.std.str.CharSink;
 
 public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactory {
     private final Map joinKeyMap;
@@ -97,6 +98,11 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
         return false;
     }
 
+    @Override
+    public void toSink(CharSink sink) {
+        sink.put("{\"name\":\"HashJoinLightRecordCursorFactory\"}");
+    }
+
     private void buildMapOfSlaveRecords(RecordCursor slaveCursor, SqlExecutionInterruptor interruptor) {
         slaveChain.clear();
         joinKeyMap.clear();
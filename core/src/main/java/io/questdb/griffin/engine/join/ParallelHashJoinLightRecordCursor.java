@@ -0,0 +1,492 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.griffin.engine.join;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.QueryAdmissionController;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.TableReaderSelectedColumnRecord;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
+import io.questdb.tasks.HashJoinTask;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Inner hash join of two table scans, built and probed on shared worker threads.
+ * <p>
+ * Slave rows are split into contiguous slices and each slice is partitioned by key hash. Then every
+ * partition is built into its own map, reading the row ids of all slices in slice order, so chains keep
+ * slave row order. Master frames are probed in batches: workers find chain heads of matching rows
+ * and the query thread walks the chains in master row order. Output order is the same as that of
+ * {@link HashJoinLightRecordCursorFactory}.
+ */
+class ParallelHashJoinLightRecordCursor implements NoRandomAccessRecordCursor, HashJoinTask.Handler {
+    private static final int TASK_PARTITION = 0;
+    private static final int TASK_BUILD = 1;
+    private static final int TASK_PROBE = 2;
+    private static final int KEY_MAP_PAGE_SIZE = 4096;
+    private static final int KEY_MAP_KEY_CAPACITY = 16;
+    private final int columnSplit;
+    private final IntList masterColumnIndexes;
+    private final IntList slaveColumnIndexes;
+    private final RecordSink masterKeySink;
+    private final RecordSink slaveKeySink;
+    private final long frameMaxRows;
+    private final int slotCount;
+    private final int partitionCount;
+    private final int partitionShift;
+    private final ObjList<FastMap> partitionMaps = new ObjList<>();
+    private final ObjList<LongChain> partitionChains = new ObjList<>();
+    // slave records of build tasks, partition tasks use them too as there are more partitions than slots
+    private final ObjList<TableReaderSelectedColumnRecord> buildRecords = new ObjList<>();
+    // per slot maps that are only used to write and hash keys, they never store any
+    private final ObjList<FastMap> keyMaps = new ObjList<>();
+    private final ObjList<TableReaderSelectedColumnRecord> probeRecords = new ObjList<>();
+    private final ObjList<LongList> slotFrames = new ObjList<>();
+    // slave row ids of slot "s" and partition "p" are at s * partitionCount + p
+    private final ObjList<MemoryARW> partitionRowIds = new ObjList<>();
+    // (master row id, partition, chain head) triples of matches found by slots
+    private final ObjList<LongList> slotMatches = new ObjList<>();
+    private final LongList noMatches = new LongList();
+    private final TableReaderSelectedColumnRecord masterRecord;
+    private final TableReaderSelectedColumnRecord slaveRecord;
+    private final JoinRecord record;
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+    private final AtomicInteger errorCount = new AtomicInteger();
+    private RingQueue<HashJoinTask> queue;
+    private Sequence pubSeq;
+    private Sequence subSeq;
+    private QueryAdmissionController admissionController;
+    private SqlExecutionInterruptor interruptor;
+    private DataFrameCursor masterDataFrameCursor;
+    private DataFrameCursor slaveDataFrameCursor;
+    private LongChain.TreeCursor chainCursor;
+    private LongList matches;
+    private int matchIndex;
+    private int batchSlotCount;
+    private int slotIndex;
+    // remainder of the master data frame that has not been dispatched yet
+    private int dataFramePartitionIndex;
+    private long dataFrameRowLo;
+    private long dataFrameRowHi;
+
+    public ParallelHashJoinLightRecordCursor(
+            CairoConfiguration configuration,
+            int columnSplit,
+            IntList masterColumnIndexes,
+            IntList slaveColumnIndexes,
+            ColumnTypes keyTypes,
+            ColumnTypes valueTypes,
+            RecordSink masterKeySink,
+            RecordSink slaveKeySink,
+            int slotCount
+    ) {
+        this.columnSplit = columnSplit;
+        this.masterColumnIndexes = masterColumnIndexes;
+        this.slaveColumnIndexes = slaveColumnIndexes;
+        this.masterKeySink = masterKeySink;
+        this.slaveKeySink = slaveKeySink;
+        this.frameMaxRows = configuration.getSqlPageFrameMaxRows();
+        this.slotCount = slotCount;
+        this.partitionCount = Numbers.ceilPow2(Math.max(2, slotCount));
+        this.partitionShift = 32 - Numbers.msb(partitionCount);
+        this.masterRecord = new TableReaderSelectedColumnRecord(masterColumnIndexes);
+        this.slaveRecord = new TableReaderSelectedColumnRecord(slaveColumnIndexes);
+        this.record = new JoinRecord(columnSplit);
+        this.record.of(masterRecord, slaveRecord);
+
+        // partitions share the memory a single join key map would be given
+        final int partitionMapPageSize = Math.max(KEY_MAP_PAGE_SIZE, configuration.getSqlMapPageSize() / partitionCount);
+        final int partitionMapKeyCapacity = Math.max(KEY_MAP_KEY_CAPACITY, configuration.getSqlMapKeyCapacity() / partitionCount);
+        // row ids of a slice take half the bytes of chain entries and there are at most twice as many partitions
+        // as slots, so row ids of a partition outgrow the limit no sooner than its chain would
+        final long rowIdPageSize = Math.max(KEY_MAP_PAGE_SIZE, configuration.getSqlHashJoinLightValuePageSize() / partitionCount);
+        try {
+            for (int p = 0; p < partitionCount; p++) {
+                partitionMaps.add(new FastMap(
+                        partitionMapPageSize,
+                        keyTypes,
+                        valueTypes,
+                        partitionMapKeyCapacity,
+                        configuration.getSqlFastMapLoadFactor(),
+                        configuration.getSqlMapMaxResizes()
+                ));
+                partitionChains.add(new LongChain(configuration.getSqlHashJoinLightValuePageSize(), configuration.getSqlHashJoinLightValueMaxPages()));
+                buildRecords.add(new TableReaderSelectedColumnRecord(slaveColumnIndexes));
+            }
+            for (int s = 0; s < slotCount; s++) {
+                keyMaps.add(new FastMap(
+                        KEY_MAP_PAGE_SIZE,
+                        keyTypes,
+                        valueTypes,
+                        KEY_MAP_KEY_CAPACITY,
+                        configuration.getSqlFastMapLoadFactor(),
+                        configuration.getSqlMapMaxResizes()
+                ));
+                probeRecords.add(new TableReaderSelectedColumnRecord(masterColumnIndexes));
+                slotFrames.add(new LongList());
+                slotMatches.add(new LongList());
+                for (int p = 0; p < partitionCount; p++) {
+                    partitionRowIds.add(Vm.getARWInstance(rowIdPageSize, configuration.getSqlHashJoinLightValueMaxPages(), MemoryTag.NATIVE_DEFAULT));
+                }
+            }
+        } catch (Throwable th) {
+            freeMaps();
+            throw th;
+        }
+    }
+
+    @Override
+    public void close() {
+        masterDataFrameCursor = Misc.free(masterDataFrameCursor);
+        slaveDataFrameCursor = Misc.free(slaveDataFrameCursor);
+        interruptor = null;
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        if (columnIndex < columnSplit) {
+            return masterDataFrameCursor.getSymbolTable(masterColumnIndexes.getQuick(columnIndex));
+        }
+        return slaveDataFrameCursor.getSymbolTable(slaveColumnIndexes.getQuick(columnIndex - columnSplit));
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (chainCursor != null && chainCursor.hasNext()) {
+            jumpTo(slaveRecord, chainCursor.next());
+            return true;
+        }
+
+        while (true) {
+            if (matchIndex < matches.size()) {
+                jumpTo(masterRecord, matches.getQuick(matchIndex));
+                chainCursor = partitionChains.getQuick((int) matches.getQuick(matchIndex + 1)).getCursor(matches.getQuick(matchIndex + 2));
+                matchIndex += 3;
+                // chains are never empty
+                chainCursor.hasNext();
+                jumpTo(slaveRecord, chainCursor.next());
+                return true;
+            }
+
+            if (slotIndex < batchSlotCount) {
+                matches = slotMatches.getQuick(slotIndex++);
+                matchIndex = 0;
+                continue;
+            }
+
+            if (!dispatchProbeBatch()) {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public void run(int type, int slot) {
+        switch (type) {
+            case TASK_PARTITION:
+                partition(slot);
+                break;
+            case TASK_BUILD:
+                build(slot);
+                break;
+            default:
+                probe(slot);
+                break;
+        }
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        masterDataFrameCursor.toTop();
+        resetProbeState();
+    }
+
+    void freeMaps() {
+        Misc.freeObjList(partitionMaps);
+        Misc.freeObjList(partitionChains);
+        Misc.freeObjList(keyMaps);
+        Misc.freeObjList(partitionRowIds);
+    }
+
+    void of(DataFrameCursor masterDataFrameCursor, DataFrameCursor slaveDataFrameCursor, SqlExecutionContext executionContext) {
+        this.masterDataFrameCursor = masterDataFrameCursor;
+        this.slaveDataFrameCursor = slaveDataFrameCursor;
+        masterRecord.of(masterDataFrameCursor.getTableReader());
+        slaveRecord.of(slaveDataFrameCursor.getTableReader());
+        for (int s = 0; s < slotCount; s++) {
+            probeRecords.getQuick(s).of(masterDataFrameCursor.getTableReader());
+        }
+        for (int p = 0; p < partitionCount; p++) {
+            buildRecords.getQuick(p).of(slaveDataFrameCursor.getTableReader());
+        }
+        final MessageBus bus = executionContext.getMessageBus();
+        this.queue = bus.getHashJoinQueue();
+        this.pubSeq = bus.getHashJoinPubSeq();
+        this.subSeq = bus.getHashJoinSubSeq();
+        this.interruptor = executionContext.getSqlExecutionInterruptor();
+        this.admissionController = executionContext.getQueryAdmissionController();
+        errorCount.set(0);
+
+        buildSlaveMaps();
+        resetProbeState();
+    }
+
+    private static void jumpTo(TableReaderSelectedColumnRecord record, long rowId) {
+        record.jumpTo(Rows.toPartitionIndex(rowId), Rows.toLocalRowID(rowId));
+    }
+
+    private void build(int partition) {
+        final FastMap map = partitionMaps.getQuick(partition);
+        final LongChain chain = partitionChains.getQuick(partition);
+        final TableReaderSelectedColumnRecord record = buildRecords.getQuick(partition);
+        map.clear();
+        chain.clear();
+        for (int s = 0; s < slotCount; s++) {
+            final MemoryARW rowIds = partitionRowIds.getQuick(s * partitionCount + partition);
+            for (long p = 0, hi = rowIds.getAppendOffset(); p < hi; p += Long.BYTES) {
+                final long rowId = rowIds.getLong(p);
+                jumpTo(record, rowId);
+                final MapKey key = map.withKey();
+                key.put(record, slaveKeySink);
+                final MapValue value = key.createValue();
+                if (value.isNew()) {
+                    final long offset = chain.put(rowId, -1);
+                    value.putLong(0, offset);
+                    value.putLong(1, offset);
+                } else {
+                    value.putLong(1, chain.put(rowId, value.getLong(1)));
+                }
+            }
+        }
+    }
+
+    private void buildSlaveMaps() {
+        // split slave rows into slices of about the same size, one slice per slot
+        long rowCount = 0;
+        DataFrame dataFrame;
+        while ((dataFrame = slaveDataFrameCursor.next()) != null) {
+            rowCount += dataFrame.getRowHi() - dataFrame.getRowLo();
+        }
+        slaveDataFrameCursor.toTop();
+
+        final long sliceRows = Math.max(1, (rowCount + slotCount - 1) / slotCount);
+        int slot = 0;
+        long slotRows = 0;
+        LongList frames = slotFrames.getQuick(0);
+        for (int s = 0; s < slotCount; s++) {
+            slotFrames.getQuick(s).clear();
+        }
+        while ((dataFrame = slaveDataFrameCursor.next()) != null) {
+            long rowLo = dataFrame.getRowLo();
+            final long rowHi = dataFrame.getRowHi();
+            while (rowLo < rowHi) {
+                if (slotRows == sliceRows && slot < slotCount - 1) {
+                    frames = slotFrames.getQuick(++slot);
+                    slotRows = 0;
+                }
+                final long hi = Math.min(rowHi, rowLo + sliceRows - slotRows);
+                frames.add(dataFrame.getPartitionIndex());
+                frames.add(rowLo);
+                frames.add(hi);
+                slotRows += hi - rowLo;
+                rowLo = hi;
+            }
+        }
+
+        dispatch(TASK_PARTITION, slotCount);
+        dispatch(TASK_BUILD, partitionCount);
+    }
+
+    /**
+     * Runs "count" tasks of the given type, one per slot, helping workers on the query thread.
+     */
+    private void dispatch(int type, int count) {
+        doneLatch.reset();
+        int queuedCount = 0;
+        final int taskLimit = admissionController.acquire();
+        try {
+            for (int slot = 0; slot < count; slot++) {
+                final long seq = admissionController.next(pubSeq, taskLimit, queuedCount, doneLatch);
+                if (seq < 0) {
+                    // queue is full or query is over its task limit, run the task on the query thread
+                    run(type, slot);
+                } else {
+                    queue.get(seq).of(this, type, slot, errorCount, doneLatch);
+                    pubSeq.done(seq);
+                    queuedCount++;
+                }
+            }
+
+            // help workers to drain the queue, this also avoids
+            // deadlock when there are no workers to pick up our tasks
+            while (doneLatch.getCount() > -queuedCount) {
+                long seq = subSeq.next();
+                if (seq > -1) {
+                    queue.get(seq).run();
+                    subSeq.done(seq);
+                }
+            }
+            doneLatch.await(queuedCount);
+        } finally {
+            admissionController.release(taskLimit);
+        }
+
+        if (errorCount.get() > 0) {
+            throw CairoException.instance(0).put("hash join failed, check server log for details");
+        }
+        interruptor.checkInterrupted();
+    }
+
+    private boolean dispatchProbeBatch() {
+        batchSlotCount = 0;
+        while (batchSlotCount < slotCount && nextProbeTask(slotFrames.getQuick(batchSlotCount))) {
+            batchSlotCount++;
+        }
+        slotIndex = 0;
+        matches = noMatches;
+        matchIndex = 0;
+        chainCursor = null;
+        if (batchSlotCount == 0) {
+            return false;
+        }
+        dispatch(TASK_PROBE, batchSlotCount);
+        return true;
+    }
+
+    private boolean nextFrame() {
+        while (dataFrameRowLo >= dataFrameRowHi) {
+            DataFrame dataFrame = masterDataFrameCursor.next();
+            if (dataFrame == null) {
+                return false;
+            }
+            dataFramePartitionIndex = dataFrame.getPartitionIndex();
+            dataFrameRowLo = dataFrame.getRowLo();
+            dataFrameRowHi = dataFrame.getRowHi();
+        }
+        return true;
+    }
+
+    /**
+     * Collects master frames of up to "frameMaxRows" rows.
+     */
+    private boolean nextProbeTask(LongList frames) {
+        frames.clear();
+        long rowCount = 0;
+        while (rowCount < frameMaxRows && nextFrame()) {
+            final long rowHi = Math.min(dataFrameRowHi, dataFrameRowLo + frameMaxRows - rowCount);
+            frames.add(dataFramePartitionIndex);
+            frames.add(dataFrameRowLo);
+            frames.add(rowHi);
+            rowCount += rowHi - dataFrameRowLo;
+            dataFrameRowLo = rowHi;
+        }
+        return rowCount > 0;
+    }
+
+    private void partition(int slot) {
+        final FastMap keyMap = keyMaps.getQuick(slot);
+        final TableReaderSelectedColumnRecord record = buildRecords.getQuick(slot);
+        final LongList frames = slotFrames.getQuick(slot);
+        final int base = slot * partitionCount;
+        for (int p = 0; p < partitionCount; p++) {
+            partitionRowIds.getQuick(base + p).jumpTo(0);
+        }
+        for (int i = 0, n = frames.size(); i < n; i += 3) {
+            final int partitionIndex = (int) frames.getQuick(i);
+            final long rowHi = frames.getQuick(i + 2);
+            record.jumpTo(partitionIndex, 0);
+            for (long r = frames.getQuick(i + 1); r < rowHi; r++) {
+                record.setRecordIndex(r);
+                final FastMap.Key key = keyMap.withKey();
+                key.put(record, slaveKeySink);
+                partitionRowIds.getQuick(base + partitionOf(key.hash())).putLong(Rows.toRowID(partitionIndex, r));
+            }
+        }
+    }
+
+    private int partitionOf(int hash) {
+        // map slots use low bits of the hash, partitions use a multiplicative hash of all bits
+        return (hash * 0x9E3779B9) >>> partitionShift;
+    }
+
+    private void probe(int slot) {
+        final FastMap keyMap = keyMaps.getQuick(slot);
+        final TableReaderSelectedColumnRecord record = probeRecords.getQuick(slot);
+        final LongList frames = slotFrames.getQuick(slot);
+        final LongList matches = slotMatches.getQuick(slot);
+        matches.clear();
+        for (int i = 0, n = frames.size(); i < n; i += 3) {
+            final int partitionIndex = (int) frames.getQuick(i);
+            final long rowHi = frames.getQuick(i + 2);
+            record.jumpTo(partitionIndex, 0);
+            for (long r = frames.getQuick(i + 1); r < rowHi; r++) {
+                record.setRecordIndex(r);
+                final FastMap.Key key = keyMap.withKey();
+                key.put(record, masterKeySink);
+                final int partition = partitionOf(key.hash());
+                final MapValue value = key.findValue(partitionMaps.getQuick(partition));
+                if (value != null) {
+                    matches.add(Rows.toRowID(partitionIndex, r));
+                    matches.add(partition);
+                    matches.add(value.getLong(0));
+                }
+            }
+        }
+    }
+
+    private void resetProbeState() {
+        batchSlotCount = 0;
+        slotIndex = 0;
+        matches = noMatches;
+        matchIndex = 0;
+        chainCursor = null;
+        dataFrameRowLo = 0;
+        dataFrameRowHi = 0;
+    }
+}
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.DataFrameRecordCursorFactory;
+import io.questdb.std.Transient;
+import io.questdb.std.str.CharSink;
+
+/**
+ * Inner hash join of two table scans on fixed-width keys, built and probed on shared worker threads.
+ * Key sinks must be thread safe, which is why keys of var-size types and symbols, which are joined
+ * as strings, stay with {@link HashJoinLightRecordCursorFactory}.
+ */
+public class ParallelHashJoinLightRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final DataFrameRecordCursorFactory masterFactory;
+    private final DataFrameRecordCursorFactory slaveFactory;
+    private final ParallelHashJoinLightRecordCursor cursor;
+
+    public ParallelHashJoinLightRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordMetadata metadata,
+            DataFrameRecordCursorFactory masterFactory,
+            DataFrameRecordCursorFactory slaveFactory,
+            @Transient ColumnTypes joinColumnTypes,
+            @Transient ColumnTypes valueTypes, // this expected to be just LONG, we store chain references in map
+            RecordSink masterKeySink,
+            RecordSink slaveKeySink,
+            int columnSplit,
+            int workerCount
+    ) {
+        super(metadata);
+        assert masterFactory.isFullFrameScan() && slaveFactory.isFullFrameScan();
+        this.masterFactory = masterFactory;
+        this.slaveFactory = slaveFactory;
+        this.cursor = new ParallelHashJoinLightRecordCursor(
+                configuration,
+                columnSplit,
+                masterFactory.getColumnIndexes(),
+                slaveFactory.getColumnIndexes(),
+                joinColumnTypes,
+                valueTypes,
+                masterKeySink,
+                slaveKeySink,
+                Math.min(workerCount, configuration.getHashJoinQueueCapacity())
+        );
+    }
+
+    @Override
+    public void close() {
+        cursor.freeMaps();
+        ((JoinRecordMetadata) getMetadata()).close();
+        masterFactory.close();
+        slaveFactory.close();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final DataFrameCursor masterDataFrameCursor = masterFactory.getDataFrameCursorFactory().getCursor(executionContext);
+        final DataFrameCursor slaveDataFrameCursor;
+        try {
+            slaveDataFrameCursor = slaveFactory.getDataFrameCursorFactory().getCursor(executionContext);
+        } catch (Throwable e) {
+            masterDataFrameCursor.close();
+            throw e;
+        }
+        try {
+            cursor.of(masterDataFrameCursor, slaveDataFrameCursor, executionContext);
+            return cursor;
+        } catch (Throwable e) {
+            cursor.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        sink.put("{\"name\":\"ParallelHashJoinLightRecordCursorFactory\"}");
+    }
+}
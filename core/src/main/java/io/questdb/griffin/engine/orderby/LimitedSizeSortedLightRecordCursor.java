@@ -0,0 +1,202 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.sql.DelegatingRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.std.DirectLongList;
+
+/**
+ * Keeps first N rows of the sort order in a bounded binary heap of row ids instead of sorting the whole base
+ * cursor. Root of the heap is the last of kept rows in sort order, base row is compared to it and either replaces
+ * it or is discarded. Memory use is limited by N and comparison count per row by log(N).
+ * <p>
+ * Rows that compare equal are ordered the way {@link LongTreeChain} orders them, most recent first, this way
+ * result is the same as that of sort followed by limit.
+ */
+class LimitedSizeSortedLightRecordCursor implements DelegatingRecordCursor {
+    // heap entry is row id followed by sequence number of the row in base cursor
+    private static final int ENTRY_SIZE = 2;
+    private final DirectLongList heap;
+    private final RecordComparator comparator;
+    private final long limit;
+    private RecordCursor base;
+    private Record baseRecord;
+    private Record placeHolderRecord;
+    private long size;
+    private long index;
+
+    public LimitedSizeSortedLightRecordCursor(DirectLongList heap, RecordComparator comparator, long limit) {
+        this.heap = heap;
+        this.comparator = comparator;
+        this.limit = limit;
+    }
+
+    @Override
+    public void close() {
+        heap.clear();
+        base.close();
+    }
+
+    @Override
+    public Record getRecord() {
+        return baseRecord;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return base.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (index < size) {
+            base.recordAt(baseRecord, rowIdAt(index++));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Record getRecordB() {
+        return base.getRecordB();
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        base.recordAt(record, atRowId);
+    }
+
+    @Override
+    public void toTop() {
+        index = 0;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void of(RecordCursor base, SqlExecutionContext executionContext) {
+        this.base = base;
+        this.baseRecord = base.getRecord();
+        // Comparator takes left values with "B" getters and right values with "A" getters. This lets
+        // heap entries be compared using placeholder record alone while base record keeps its position.
+        this.placeHolderRecord = base.getRecordB();
+        final SqlExecutionInterruptor interruptor = executionContext.getSqlExecutionInterruptor();
+
+        heap.clear();
+        size = 0;
+        long seq = 0;
+        while (base.hasNext()) {
+            interruptor.checkInterrupted();
+            if (size < limit) {
+                heap.add(baseRecord.getRowId());
+                heap.add(seq);
+                siftUp(size++);
+            } else {
+                comparator.setLeft(baseRecord);
+                base.recordAt(placeHolderRecord, rowIdAt(0));
+                // ties go to the most recent row
+                if (comparator.compare(placeHolderRecord) <= 0) {
+                    heap.set(0, baseRecord.getRowId());
+                    heap.set(1, seq);
+                    siftDown(0, size);
+                }
+            }
+            seq++;
+        }
+
+        // heap sort, last row in sort order is moved to the end of the heap first
+        for (long n = size - 1; n > 0; n--) {
+            swap(0, n);
+            siftDown(0, n);
+        }
+        index = 0;
+    }
+
+    /**
+     * @return true when entry i comes after entry j in sort order
+     */
+    private boolean isAfter(long i, long j) {
+        base.recordAt(placeHolderRecord, rowIdAt(i));
+        comparator.setLeft(placeHolderRecord);
+        base.recordAt(placeHolderRecord, rowIdAt(j));
+        final int cmp = comparator.compare(placeHolderRecord);
+        return cmp > 0 || (cmp == 0 && seqAt(i) < seqAt(j));
+    }
+
+    private long rowIdAt(long i) {
+        return heap.get(i * ENTRY_SIZE);
+    }
+
+    private long seqAt(long i) {
+        return heap.get(i * ENTRY_SIZE + 1);
+    }
+
+    private void siftDown(long i, long n) {
+        while (true) {
+            final long left = 2 * i + 1;
+            if (left >= n) {
+                break;
+            }
+            long last = left;
+            final long right = left + 1;
+            if (right < n && isAfter(right, left)) {
+                last = right;
+            }
+            if (!isAfter(last, i)) {
+                break;
+            }
+            swap(i, last);
+            i = last;
+        }
+    }
+
+    private void siftUp(long i) {
+        while (i > 0) {
+            final long parent = (i - 1) / 2;
+            if (!isAfter(i, parent)) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void swap(long i, long j) {
+        final long rowId = rowIdAt(i);
+        final long seq = seqAt(i);
+        heap.set(i * ENTRY_SIZE, rowIdAt(j));
+        heap.set(i * ENTRY_SIZE + 1, seqAt(j));
+        heap.set(j * ENTRY_SIZE, rowId);
+        heap.set(j * ENTRY_SIZE + 1, seq);
+    }
+}
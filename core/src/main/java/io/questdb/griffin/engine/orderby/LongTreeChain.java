@@ -24,6 +24,7 @@
 
 package io.questdb.griffin.engine.orderby;
 
+import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.vm.Vm;
@@ -42,6 +43,11 @@ public class LongTreeChain extends AbstractRedBlackTree {
         this.valueChain = Vm.getARWInstance(valuePageSize, valueMaxPages, MemoryTag.NATIVE_TREE_CHAIN);
     }
 
+    public LongTreeChain(CairoConfiguration configuration, long keyPageSize, int keyMaxPages, long valuePageSize, int valueMaxPages) {
+        super(keyPageSize, keyMaxPages);
+        this.valueChain = Vm.getSpillARWInstance(configuration, valuePageSize, valueMaxPages, MemoryTag.NATIVE_TREE_CHAIN);
+    }
+
     @Override
     public void clear() {
         super.clear();
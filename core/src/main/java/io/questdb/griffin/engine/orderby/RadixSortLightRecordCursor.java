@@ -0,0 +1,374 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.QueryAdmissionController;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.cairo.sql.DelegatingRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionInterruptor;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
+import io.questdb.tasks.RadixSortTask;
+
+/**
+ * Sorts row ids of the base cursor by a single fixed-width key. Key of each row is mapped to
+ * an unsigned long, which sorts the same way {@link RecordComparator} would compare column values,
+ * and (key, rowId) pairs are radix sorted off-heap. Large inputs are split into chunks, which are
+ * sorted by worker threads and then merged.
+ * <p>
+ * Rows with equal keys are returned most recent first, the same way {@link LongTreeChain} returns them.
+ */
+class RadixSortLightRecordCursor implements DelegatingRecordCursor {
+    private final MemoryARW pairs;
+    private final MemoryARW cpy;
+    private final IntList symbolKeys = new IntList();
+    private final IntList symbolRanks = new IntList();
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+    private final int columnIndex;
+    private final int columnType;
+    private final boolean descending;
+    private final int chunkMinSize;
+    private RecordCursor base;
+    private Record baseRecord;
+    private long sortedAddress;
+    private long count;
+    private long index;
+
+    public RadixSortLightRecordCursor(
+            MemoryARW pairs,
+            MemoryARW cpy,
+            int columnIndex,
+            int columnType,
+            boolean descending,
+            int chunkMinSize
+    ) {
+        this.pairs = pairs;
+        this.cpy = cpy;
+        this.columnIndex = columnIndex;
+        this.columnType = columnType;
+        this.descending = descending;
+        this.chunkMinSize = chunkMinSize;
+    }
+
+    @Override
+    public void close() {
+        pairs.jumpTo(0);
+        base.close();
+    }
+
+    @Override
+    public Record getRecord() {
+        return baseRecord;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return base.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (index < count) {
+            base.recordAt(baseRecord, Unsafe.getUnsafe().getLong(sortedAddress + index++ * 16 + 8));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Record getRecordB() {
+        return base.getRecordB();
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        base.recordAt(record, atRowId);
+    }
+
+    @Override
+    public void toTop() {
+        index = 0;
+    }
+
+    @Override
+    public long size() {
+        return base.size();
+    }
+
+    @Override
+    public void of(RecordCursor base, SqlExecutionContext executionContext) {
+        this.base = base;
+        this.baseRecord = base.getRecord();
+        final SqlExecutionInterruptor interruptor = executionContext.getSqlExecutionInterruptor();
+
+        pairs.jumpTo(0);
+        int maxSymbolKey = -1;
+        while (base.hasNext()) {
+            interruptor.checkInterrupted();
+            final long key;
+            if (ColumnType.isSymbol(columnType)) {
+                // symbol keys are replaced with their ranks once all of them are known
+                final int symbolKey = baseRecord.getInt(columnIndex);
+                maxSymbolKey = Math.max(maxSymbolKey, symbolKey);
+                key = symbolKey;
+            } else {
+                key = sortKey(baseRecord);
+            }
+            pairs.putLong(key);
+            pairs.putLong(baseRecord.getRowId());
+        }
+        count = pairs.getAppendOffset() / 16;
+        index = 0;
+        if (count == 0) {
+            return;
+        }
+
+        final long address = pairs.addressOf(0);
+        if (ColumnType.isSymbol(columnType)) {
+            rankSymbols(base.getSymbolTable(columnIndex), maxSymbolKey);
+            for (long i = 0; i < count; i++) {
+                final int symbolKey = (int) Unsafe.getUnsafe().getLong(address + i * 16);
+                final int rank = symbolKey == SymbolTable.VALUE_IS_NULL ? symbolKey : symbolRanks.getQuick(symbolKey);
+                Unsafe.getUnsafe().putLong(address + i * 16, direction(sortKey(rank)));
+            }
+        }
+
+        // stable sort keeps rows with equal keys in their original order, reverse
+        // the pairs to return most recent rows first
+        for (long lo = 0, hi = count - 1; lo < hi; lo++, hi--) {
+            final long loAddr = address + lo * 16;
+            final long hiAddr = address + hi * 16;
+            final long key = Unsafe.getUnsafe().getLong(loAddr);
+            final long rowId = Unsafe.getUnsafe().getLong(loAddr + 8);
+            Unsafe.getUnsafe().putLong(loAddr, Unsafe.getUnsafe().getLong(hiAddr));
+            Unsafe.getUnsafe().putLong(loAddr + 8, Unsafe.getUnsafe().getLong(hiAddr + 8));
+            Unsafe.getUnsafe().putLong(hiAddr, key);
+            Unsafe.getUnsafe().putLong(hiAddr + 8, rowId);
+        }
+
+        cpy.jumpTo(count * 16);
+        sortedAddress = sort(executionContext, address, cpy.addressOf(0));
+    }
+
+    private static long sortKey(long value) {
+        return value ^ Long.MIN_VALUE;
+    }
+
+    private static long sortKey(double value) {
+        // NaN comes first, see Numbers.compare()
+        if (value != value) {
+            return 0;
+        }
+        final long bits = Double.doubleToRawLongBits(value);
+        if (value == 0) {
+            // Numbers.compare() puts -0.0 after 0.0
+            return bits == 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+        return bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+    }
+
+    private static void merge(long src, long lo, long mid, long hi, long dst) {
+        long l = lo;
+        long r = mid;
+        long d = lo;
+        while (l < mid && r < hi) {
+            final long lAddr = src + l * 16;
+            final long rAddr = src + r * 16;
+            final long dAddr = dst + d * 16;
+            // take left pair on tie, merge is stable
+            if (Long.compareUnsigned(Unsafe.getUnsafe().getLong(lAddr), Unsafe.getUnsafe().getLong(rAddr)) <= 0) {
+                Unsafe.getUnsafe().putLong(dAddr, Unsafe.getUnsafe().getLong(lAddr));
+                Unsafe.getUnsafe().putLong(dAddr + 8, Unsafe.getUnsafe().getLong(lAddr + 8));
+                l++;
+            } else {
+                Unsafe.getUnsafe().putLong(dAddr, Unsafe.getUnsafe().getLong(rAddr));
+                Unsafe.getUnsafe().putLong(dAddr + 8, Unsafe.getUnsafe().getLong(rAddr + 8));
+                r++;
+            }
+            d++;
+        }
+        if (l < mid) {
+            Vect.memcpy(dst + d * 16, src + l * 16, (mid - l) * 16);
+        }
+        if (r < hi) {
+            Vect.memcpy(dst + d * 16, src + r * 16, (hi - r) * 16);
+        }
+    }
+
+    private long direction(long key) {
+        return descending ? ~key : key;
+    }
+
+    private void rankSymbols(SymbolTable symbolTable, int maxSymbolKey) {
+        symbolKeys.clear();
+        for (int i = 0; i <= maxSymbolKey; i++) {
+            symbolKeys.add(i);
+        }
+        // heap sort symbol keys by symbol value
+        for (int i = maxSymbolKey / 2; i >= 0; i--) {
+            siftDown(symbolTable, i, maxSymbolKey + 1);
+        }
+        for (int n = maxSymbolKey; n > 0; n--) {
+            swap(0, n);
+            siftDown(symbolTable, 0, n);
+        }
+        symbolRanks.setAll(maxSymbolKey + 1, 0);
+        for (int i = 0; i <= maxSymbolKey; i++) {
+            symbolRanks.setQuick(symbolKeys.getQuick(i), i);
+        }
+    }
+
+    private void siftDown(SymbolTable symbolTable, int i, int n) {
+        while (true) {
+            final int left = 2 * i + 1;
+            if (left >= n) {
+                break;
+            }
+            int max = left;
+            if (left + 1 < n && Chars.compare(symbolTable.valueOf(symbolKeys.getQuick(left + 1)), symbolTable.valueBOf(symbolKeys.getQuick(left))) > 0) {
+                max = left + 1;
+            }
+            if (Chars.compare(symbolTable.valueOf(symbolKeys.getQuick(max)), symbolTable.valueBOf(symbolKeys.getQuick(i))) <= 0) {
+                break;
+            }
+            swap(i, max);
+            i = max;
+        }
+    }
+
+    private void swap(int i, int j) {
+        final int key = symbolKeys.getQuick(i);
+        symbolKeys.setQuick(i, symbolKeys.getQuick(j));
+        symbolKeys.setQuick(j, key);
+    }
+
+    /**
+     * Sorts pairs in chunks and merges the chunks.
+     *
+     * @return address of sorted pairs, either of the two buffers
+     */
+    private long sort(SqlExecutionContext executionContext, long address, long cpyAddress) {
+        final long chunkCount = Math.max(1, Math.min(executionContext.getWorkerCount(), count / chunkMinSize));
+        final long chunkSize = (count + chunkCount - 1) / chunkCount;
+        if (chunkCount == 1) {
+            Vect.radixSortLongIndexAscInPlace(address, count, cpyAddress);
+            return address;
+        }
+
+        final MessageBus bus = executionContext.getMessageBus();
+        final RingQueue<RadixSortTask> queue = bus.getRadixSortQueue();
+        final Sequence pubSeq = bus.getRadixSortPubSeq();
+        final Sequence subSeq = bus.getRadixSortSubSeq();
+
+        doneLatch.reset();
+        int queuedCount = 0;
+        final QueryAdmissionController admissionController = executionContext.getQueryAdmissionController();
+        final int taskLimit = admissionController.acquire();
+        try {
+            for (long lo = 0; lo < count; lo += chunkSize) {
+                final long n = Math.min(chunkSize, count - lo);
+                final long seq = admissionController.next(pubSeq, taskLimit, queuedCount, doneLatch);
+                if (seq < 0) {
+                    Vect.radixSortLongIndexAscInPlace(address + lo * 16, n, cpyAddress + lo * 16);
+                } else {
+                    queue.get(seq).of(address + lo * 16, n, cpyAddress + lo * 16, doneLatch);
+                    pubSeq.done(seq);
+                    queuedCount++;
+                }
+            }
+
+            // process our own queue
+            // this should fix deadlock with 1 worker configuration
+            while (doneLatch.getCount() > -queuedCount) {
+                long seq = subSeq.next();
+                if (seq > -1) {
+                    queue.get(seq).run();
+                    subSeq.done(seq);
+                }
+            }
+            doneLatch.await(queuedCount);
+        } finally {
+            admissionController.release(taskLimit);
+        }
+
+        long src = address;
+        long dst = cpyAddress;
+        for (long width = chunkSize; width < count; width *= 2) {
+            for (long lo = 0; lo < count; lo += 2 * width) {
+                final long mid = Math.min(lo + width, count);
+                merge(src, lo, mid, Math.min(lo + 2 * width, count), dst);
+            }
+            final long tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        return src;
+    }
+
+    private long sortKey(Record record) {
+        final long key;
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                key = record.getBool(columnIndex) ? 1 : 0;
+                break;
+            case ColumnType.BYTE:
+                key = sortKey(record.getByte(columnIndex));
+                break;
+            case ColumnType.SHORT:
+                key = sortKey(record.getShort(columnIndex));
+                break;
+            case ColumnType.CHAR:
+                key = record.getChar(columnIndex);
+                break;
+            case ColumnType.INT:
+                key = sortKey(record.getInt(columnIndex));
+                break;
+            case ColumnType.DATE:
+                key = sortKey(record.getDate(columnIndex));
+                break;
+            case ColumnType.TIMESTAMP:
+                key = sortKey(record.getTimestamp(columnIndex));
+                break;
+            case ColumnType.FLOAT:
+                key = sortKey((double) record.getFloat(columnIndex));
+                break;
+            case ColumnType.DOUBLE:
+                key = sortKey(record.getDouble(columnIndex));
+                break;
+            default:
+                key = sortKey(record.getLong(columnIndex));
+                break;
+        }
+        return direction(key);
+    }
+}
@@ -24,6 +24,7 @@
 
 package io.questdb.griffin.engine.orderby;
 
+import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.RecordChain;
 import io.questdb.cairo.RecordSink;
@@ -57,6 +58,7 @@ public class RecordTreeChain implements Closeable, Mutable {
     private long root = -1;
 
     public RecordTreeChain(
+            CairoConfiguration configuration,
             ColumnTypes columnTypes,
             RecordSink recordSink,
             RecordComparator comparator,
@@ -67,7 +69,7 @@ public class RecordTreeChain implements Closeable, Mutable {
     ) {
         this.comparator = comparator;
         this.mem = new MemoryPages(keyPageSize, keyMaxPages);
-        this.recordChain = new RecordChain(columnTypes, recordSink, valuePageSize, valueMaxPages);
+        this.recordChain = new RecordChain(configuration, columnTypes, recordSink, valuePageSize, valueMaxPages);
         this.recordChainRecord = this.recordChain.getRecordB();
     }
 
@@ -46,6 +46,7 @@ public class SortedLightRecordCursorFactory extends AbstractRecordCursorFactory
     ) {
         super(metadata);
         this.chain = new LongTreeChain(
+                configuration,
                 configuration.getSqlSortKeyPageSize(),
                 configuration.getSqlSortKeyMaxPages(),
                 configuration
@@ -50,6 +50,7 @@ public class SortedRecordCursorFactory extends AbstractRecordCursorFactory {
     ) {
         super(metadata);
         this.chain = new RecordTreeChain(
+                configuration,
                 columnTypes,
                 recordSink,
                 comparator,
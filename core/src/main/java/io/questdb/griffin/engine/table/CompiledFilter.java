@@ -0,0 +1,107 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.BooleanFunction;
+import io.questdb.std.IntList;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+
+/**
+ * Base class of filters generated by {@link FilterCompiler}. Generated subclass implements
+ * getBool() as a single method, which reads columns straight from the record and calls
+ * static comparison methods below. Those replicate semantics of the interpreted functions
+ * the filter replaces, including null handling.
+ */
+public abstract class CompiledFilter extends BooleanFunction {
+    private final IntList symbolColumnIndexes = new IntList();
+    private final ObjList<String> symbolValues = new ObjList<>();
+    // accessed by generated code
+    protected int[] symbolKeys;
+
+    public static long dateToTimestamp(long value) {
+        return value == Numbers.LONG_NaN ? value : value * 1000L;
+    }
+
+    public static boolean eqDouble(double l, double r) {
+        return l != l && r != r || Math.abs(l - r) < 0.0000000001;
+    }
+
+    public static boolean eqInt(int l, int r) {
+        return l == r;
+    }
+
+    public static boolean eqLong(long l, long r) {
+        return l == r;
+    }
+
+    public static boolean geDouble(double l, double r) {
+        return l >= r;
+    }
+
+    public static boolean geInt(int l, int r) {
+        return l != Numbers.INT_NaN && r != Numbers.INT_NaN && l >= r;
+    }
+
+    public static boolean geTimestamp(long l, long r) {
+        return l != Numbers.LONG_NaN && r != Numbers.LONG_NaN && l >= r;
+    }
+
+    public static boolean ltDouble(double l, double r) {
+        return l < r;
+    }
+
+    public static boolean ltInt(int l, int r) {
+        return l != Numbers.INT_NaN && r != Numbers.INT_NaN && l < r;
+    }
+
+    public static boolean ltTimestamp(long l, long r) {
+        return l != Numbers.LONG_NaN && r != Numbers.LONG_NaN && l < r;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+        for (int i = 0, n = symbolColumnIndexes.size(); i < n; i++) {
+            final SymbolTable symbolTable = symbolTableSource.getSymbolTable(symbolColumnIndexes.getQuick(i));
+            assert symbolTable instanceof StaticSymbolTable;
+            symbolKeys[i] = ((StaticSymbolTable) symbolTable).keyOf(symbolValues.getQuick(i));
+        }
+    }
+
+    @Override
+    public boolean isReadThreadSafe() {
+        return true;
+    }
+
+    void of(IntList symbolColumnIndexes, ObjList<String> symbolValues) {
+        this.symbolColumnIndexes.addAll(symbolColumnIndexes);
+        this.symbolValues.addAll(symbolValues);
+        this.symbolKeys = new int[symbolColumnIndexes.size()];
+    }
+}
@@ -39,6 +39,7 @@ import org.jetbrains.annotations.Nullable;
 
 public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorFactory {
     private final DataFrameRecordCursor cursor;
+    private final RowCursorFactory rowCursorFactory;
     private final boolean followsOrderByAdvice;
     private final Function filter;
     private final boolean framingSupported;
@@ -60,6 +61,7 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
         super(metadata, dataFrameCursorFactory);
 
         this.cursor = new DataFrameRecordCursor(rowCursorFactory, rowCursorFactory.isEntity(), filter, columnIndexes);
+        this.rowCursorFactory = rowCursorFactory;
         this.followsOrderByAdvice = followsOrderByAdvice;
         this.filter = filter;
         this.framingSupported = framingSupported;
@@ -78,6 +80,22 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
         return followsOrderByAdvice;
     }
 
+    public IntList getColumnIndexes() {
+        return columnIndexes;
+    }
+
+    public DataFrameCursorFactory getDataFrameCursorFactory() {
+        return dataFrameCursorFactory;
+    }
+
+    /**
+     * @return true when cursor returns every row of every data frame in ascending row order,
+     * which allows data frames to be filtered independently of each other
+     */
+    public boolean isFullFrameScan() {
+        return filter == null && rowCursorFactory instanceof DataFrameRowCursorFactory;
+    }
+
     @Override
     public PageFrameCursor getPageFrameCursor(SqlExecutionContext executionContext) throws SqlException {
         DataFrameCursor dataFrameCursor = dataFrameCursorFactory.getCursor(executionContext);
@@ -0,0 +1,743 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.SqlKeywords;
+import io.questdb.griffin.model.ExpressionNode;
+import io.questdb.std.*;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Compiles WHERE clause into a single class, which evaluates the whole expression
+ * in one getBool() call. Columns are read via Record getters with constant column
+ * indexes, operands are converted in-line and comparisons are delegated to static
+ * methods of {@link CompiledFilter}, which JVM inlines. This removes virtual dispatch
+ * on every node of the function tree.
+ * <p>
+ * Supported expressions are comparisons (=, !=, <>, <, <=, >, >=) between fixed-width
+ * numeric, date and timestamp columns and constants, equality of static symbol columns
+ * and string constants, boolean columns and AND, OR, NOT of the above. Operand coercion
+ * mirrors the function resolution of the interpreter for each pair of types. Compiler
+ * returns null for everything else and the caller is expected to use the interpreted
+ * filter instead.
+ */
+public class FilterCompiler {
+    // operand kinds
+    private static final int UNSUPPORTED = -1;
+    private static final int BYTE = 0;
+    private static final int SHORT = 1;
+    private static final int INT = 2;
+    private static final int LONG = 3;
+    private static final int FLOAT = 4;
+    private static final int DOUBLE = 5;
+    private static final int DATE = 6;
+    private static final int TIMESTAMP = 7;
+    private static final int SYMBOL = 8;
+    private static final int INT_CONST = 9;
+    private static final int LONG_CONST = 10;
+    private static final int DOUBLE_CONST = 11;
+    private static final int STR_CONST = 12;
+
+    // domains in which operands are compared
+    private static final int D_INT = 0;
+    private static final int D_LONG = 1;
+    private static final int D_TIMESTAMP = 2;
+    private static final int D_DOUBLE = 3;
+    private static final int D_SYMBOL = 4;
+
+    // instructions of intermediate stack program, each followed by an argument
+    private static final int GET_BOOL = 0;
+    private static final int GET_BYTE = 1;
+    private static final int GET_SHORT = 2;
+    private static final int GET_INT = 3;
+    private static final int GET_LONG = 4;
+    private static final int GET_FLOAT = 5;
+    private static final int GET_DOUBLE = 6;
+    private static final int GET_DATE = 7;
+    private static final int GET_TIMESTAMP = 8;
+    private static final int INT_TO_LONG = 9;
+    private static final int INT_TO_DOUBLE = 10;
+    private static final int LONG_TO_DOUBLE = 11;
+    private static final int DATE_TO_TIMESTAMP = 12;
+    private static final int EQ_INT = 13;
+    private static final int EQ_LONG = 14;
+    private static final int EQ_DOUBLE = 15;
+    private static final int LT_INT = 16;
+    private static final int GE_INT = 17;
+    private static final int LT_TIMESTAMP = 18;
+    private static final int GE_TIMESTAMP = 19;
+    private static final int LT_DOUBLE = 20;
+    private static final int GE_DOUBLE = 21;
+    private static final int METHOD_COUNT = 22;
+    private static final int I2L = 22;
+    private static final int I2D = 23;
+    private static final int F2D = 24;
+    private static final int ICONST = 25;
+    private static final int ICONST_W = 26;
+    private static final int LCONST = 27;
+    private static final int DCONST = 28;
+    private static final int SYMBOL_KEY = 29;
+    private static final int AND = 30;
+    private static final int OR = 31;
+    private static final int NOT = 32;
+
+    private final BytecodeAssembler asm;
+    private final IntList program = new IntList();
+    private final LongList constants = new LongList();
+    private final IntList methodIndexes = new IntList(METHOD_COUNT);
+    private final IntList symbolColumnIndexes = new IntList();
+    private final ObjList<String> symbolValues = new ObjList<>();
+    private RecordMetadata metadata;
+    // set by operandKind()
+    private int columnIndex;
+    private long longValue;
+    private double doubleValue;
+    private String strValue;
+
+    public FilterCompiler(BytecodeAssembler asm) {
+        this.asm = asm;
+    }
+
+    /**
+     * Generates byte code for filter expression.
+     *
+     * @param filter   WHERE clause
+     * @param metadata metadata of the record filter is applied to
+     * @return compiled filter or null when expression contains unsupported operations or types
+     */
+    @Nullable
+    public Function compile(ExpressionNode filter, RecordMetadata metadata) {
+        this.metadata = metadata;
+        program.clear();
+        constants.clear();
+        symbolColumnIndexes.clear();
+        symbolValues.clear();
+
+        if (!predicate(filter)) {
+            return null;
+        }
+
+        asm.init(CompiledFilter.class);
+        asm.setupPool();
+        final int thisClassIndex = asm.poolClass(asm.poolUtf8("io/questdb/griffin/engine/table/compiledFilter"));
+        final int superclassIndex = asm.poolClass(CompiledFilter.class);
+        final int superConstructorIndex = asm.poolMethod(superclassIndex, "<init>", "()V");
+        final int getBoolNameIndex = asm.poolUtf8("getBool");
+        final int getBoolDescIndex = asm.poolUtf8("(Lio/questdb/cairo/sql/Record;)Z");
+        final int symbolKeysIndex = symbolValues.size() > 0
+                ? asm.poolField(thisClassIndex, asm.poolNameAndType(asm.poolUtf8("symbolKeys"), asm.poolUtf8("[I")))
+                : -1;
+        poolProgramArtifacts(superclassIndex);
+        asm.finishPool();
+
+        asm.defineClass(thisClassIndex, superclassIndex);
+        asm.interfaceCount(0);
+        asm.fieldCount(0);
+        asm.methodCount(2);
+        asm.defineDefaultConstructor(superConstructorIndex);
+        instrumentGetBoolMethod(getBoolNameIndex, getBoolDescIndex, symbolKeysIndex);
+        // class attribute count
+        asm.putShort(0);
+
+        final CompiledFilter compiledFilter = asm.newInstance();
+        compiledFilter.of(symbolColumnIndexes, symbolValues);
+        return compiledFilter;
+    }
+
+    private static boolean isIntLike(int kind) {
+        return kind == BYTE || kind == SHORT || kind == INT || kind == INT_CONST;
+    }
+
+    private static boolean isLongLike(int kind) {
+        return kind == LONG || kind == LONG_CONST;
+    }
+
+    private static boolean isDoubleLike(int kind) {
+        return kind == FLOAT || kind == DOUBLE || kind == DOUBLE_CONST;
+    }
+
+    private static boolean isNumeric(int kind) {
+        return isIntLike(kind) || isLongLike(kind) || isDoubleLike(kind);
+    }
+
+    // operands, which are accepted alongside DATE or TIMESTAMP and converted to timestamp
+    private static boolean isTimestampCompatible(int kind) {
+        return kind == INT || kind == INT_CONST || isLongLike(kind);
+    }
+
+    private static int eqDomain(int a, int b) {
+        if ((a == SYMBOL && b == STR_CONST) || (a == STR_CONST && b == SYMBOL)) {
+            return D_SYMBOL;
+        }
+        if (isIntLike(a) && isIntLike(b)) {
+            return D_INT;
+        }
+        if (isNumeric(a) && isNumeric(b)) {
+            return isDoubleLike(a) || isDoubleLike(b) ? D_DOUBLE : D_LONG;
+        }
+        if (a == TIMESTAMP) {
+            return eqTimestampDomain(b);
+        }
+        if (b == TIMESTAMP) {
+            return eqTimestampDomain(a);
+        }
+        if ((a == DATE && isTimestampCompatible(b)) || (b == DATE && isTimestampCompatible(a))) {
+            return D_LONG;
+        }
+        return UNSUPPORTED;
+    }
+
+    private static int eqTimestampDomain(int other) {
+        switch (other) {
+            case TIMESTAMP:
+            case DATE:
+            case INT:
+            case INT_CONST:
+                return D_TIMESTAMP;
+            case BYTE:
+            case SHORT:
+            case LONG:
+            case LONG_CONST:
+                return D_LONG;
+            default:
+                return UNSUPPORTED;
+        }
+    }
+
+    private static int ltDomain(int a, int b) {
+        if (isIntLike(a) && isIntLike(b)) {
+            return D_INT;
+        }
+        if (isNumeric(a) && isNumeric(b)) {
+            return D_DOUBLE;
+        }
+        if (a == TIMESTAMP) {
+            return b == TIMESTAMP || b == DATE || isTimestampCompatible(b) ? D_TIMESTAMP : UNSUPPORTED;
+        }
+        if (b == TIMESTAMP) {
+            return a == DATE || isTimestampCompatible(a) ? D_TIMESTAMP : UNSUPPORTED;
+        }
+        if ((a == DATE && isTimestampCompatible(b)) || (b == DATE && isTimestampCompatible(a))) {
+            return D_TIMESTAMP;
+        }
+        return UNSUPPORTED;
+    }
+
+    private void add(int instruction, int arg) {
+        program.add(instruction);
+        program.add(arg);
+    }
+
+    private boolean comparison(ExpressionNode node) {
+        final CharSequence token = node.token;
+        final boolean eq;
+        final boolean negated;
+        final boolean swapped;
+        if (Chars.equals(token, '=')) {
+            eq = true;
+            negated = false;
+            swapped = false;
+        } else if (Chars.equals(token, "!=") || Chars.equals(token, "<>")) {
+            eq = true;
+            negated = true;
+            swapped = false;
+        } else if (Chars.equals(token, '<')) {
+            eq = false;
+            negated = false;
+            swapped = false;
+        } else if (Chars.equals(token, ">=")) {
+            eq = false;
+            negated = true;
+            swapped = false;
+        } else if (Chars.equals(token, '>')) {
+            eq = false;
+            negated = false;
+            swapped = true;
+        } else if (Chars.equals(token, "<=")) {
+            eq = false;
+            negated = true;
+            swapped = true;
+        } else {
+            return false;
+        }
+
+        final ExpressionNode left = swapped ? node.rhs : node.lhs;
+        final ExpressionNode right = swapped ? node.lhs : node.rhs;
+        final int leftKind = operandKind(left);
+        if (leftKind == UNSUPPORTED) {
+            return false;
+        }
+        final int rightKind = operandKind(right);
+        if (rightKind == UNSUPPORTED) {
+            return false;
+        }
+
+        final int domain = eq ? eqDomain(leftKind, rightKind) : ltDomain(leftKind, rightKind);
+        switch (domain) {
+            case D_SYMBOL:
+                // symbol key is looked up once, when filter is initialised
+                final ExpressionNode symbolNode = leftKind == SYMBOL ? left : right;
+                operandKind(leftKind == SYMBOL ? right : left);
+                final String value = strValue;
+                operandKind(symbolNode);
+                add(GET_INT, columnIndex);
+                add(SYMBOL_KEY, symbolValues.size());
+                symbolColumnIndexes.add(columnIndex);
+                symbolValues.add(value);
+                add(EQ_INT, 0);
+                break;
+            case D_INT:
+                loadOperand(left, domain);
+                loadOperand(right, domain);
+                add(eq ? EQ_INT : negated ? GE_INT : LT_INT, 0);
+                break;
+            case D_LONG:
+                loadOperand(left, domain);
+                loadOperand(right, domain);
+                add(EQ_LONG, 0);
+                break;
+            case D_TIMESTAMP:
+                loadOperand(left, domain);
+                loadOperand(right, domain);
+                add(eq ? EQ_LONG : negated ? GE_TIMESTAMP : LT_TIMESTAMP, 0);
+                break;
+            case D_DOUBLE:
+                loadOperand(left, domain);
+                loadOperand(right, domain);
+                add(eq ? EQ_DOUBLE : negated ? GE_DOUBLE : LT_DOUBLE, 0);
+                break;
+            default:
+                return false;
+        }
+
+        if (eq && negated) {
+            add(NOT, 0);
+        }
+        return true;
+    }
+
+    private int constantKind(CharSequence token, boolean negative) {
+        final int len = token.length();
+        if (Chars.isQuoted(token)) {
+            // '' is a char constant, which is not supported
+            if (negative || len < 3) {
+                return UNSUPPORTED;
+            }
+            strValue = Chars.toString(token, 1, len - 1);
+            return STR_CONST;
+        }
+
+        try {
+            final int value = Numbers.parseInt(token);
+            if (value == Numbers.INT_NaN) {
+                return UNSUPPORTED;
+            }
+            longValue = negative ? -value : value;
+            return INT_CONST;
+        } catch (NumericException ignore) {
+        }
+
+        try {
+            final long value = Numbers.parseLong(token);
+            if (value == Numbers.LONG_NaN) {
+                return UNSUPPORTED;
+            }
+            longValue = negative ? -value : value;
+            return LONG_CONST;
+        } catch (NumericException ignore) {
+        }
+
+        try {
+            final double value = Numbers.parseDouble(token);
+            if (Double.isNaN(value)) {
+                return UNSUPPORTED;
+            }
+            doubleValue = negative ? -value : value;
+            return DOUBLE_CONST;
+        } catch (NumericException ignore) {
+        }
+
+        return UNSUPPORTED;
+    }
+
+    private void instrumentGetBoolMethod(int nameIndex, int descIndex, int symbolKeysIndex) {
+        asm.startMethod(nameIndex, descIndex, maxStack(), 2);
+        for (int i = 0, n = program.size(); i < n; i += 2) {
+            final int instruction = program.getQuick(i);
+            final int arg = program.getQuick(i + 1);
+            switch (instruction) {
+                case GET_BOOL:
+                case GET_BYTE:
+                case GET_SHORT:
+                case GET_INT:
+                case GET_LONG:
+                case GET_FLOAT:
+                case GET_DOUBLE:
+                case GET_DATE:
+                case GET_TIMESTAMP:
+                    asm.aload(1);
+                    asm.iconst(arg);
+                    asm.invokeInterface(methodIndexes.getQuick(instruction), 1);
+                    break;
+                case I2L:
+                    asm.i2l();
+                    break;
+                case I2D:
+                    asm.i2d();
+                    break;
+                case F2D:
+                    asm.f2d();
+                    break;
+                case ICONST:
+                    asm.iconst(arg);
+                    break;
+                case ICONST_W:
+                    asm.ldc_w(arg);
+                    break;
+                case LCONST:
+                case DCONST:
+                    asm.ldc2_w(arg);
+                    break;
+                case SYMBOL_KEY:
+                    asm.aload(0);
+                    asm.getfield(symbolKeysIndex);
+                    asm.iconst(arg);
+                    asm.iaload();
+                    break;
+                case AND:
+                    asm.iand();
+                    break;
+                case OR:
+                    asm.ior();
+                    break;
+                case NOT:
+                    asm.iconst(1);
+                    asm.ixor();
+                    break;
+                default:
+                    // conversions and comparisons
+                    asm.invokeStatic(methodIndexes.getQuick(instruction));
+                    break;
+            }
+        }
+        asm.ireturn();
+        asm.endMethodCode();
+        // exceptions
+        asm.putShort(0);
+        // attributes, there are no branches and no need for stack map table
+        asm.putShort(0);
+        asm.endMethod();
+    }
+
+    private void loadOperand(ExpressionNode node, int domain) {
+        final int kind = operandKind(node);
+        switch (kind) {
+            case BYTE:
+            case SHORT:
+                add(kind == BYTE ? GET_BYTE : GET_SHORT, columnIndex);
+                if (domain == D_LONG) {
+                    add(I2L, 0);
+                } else if (domain == D_DOUBLE) {
+                    add(I2D, 0);
+                }
+                break;
+            case INT:
+                add(GET_INT, columnIndex);
+                if (domain == D_LONG || domain == D_TIMESTAMP) {
+                    add(INT_TO_LONG, 0);
+                } else if (domain == D_DOUBLE) {
+                    add(INT_TO_DOUBLE, 0);
+                }
+                break;
+            case LONG:
+                add(GET_LONG, columnIndex);
+                if (domain == D_DOUBLE) {
+                    add(LONG_TO_DOUBLE, 0);
+                }
+                break;
+            case FLOAT:
+                add(GET_FLOAT, columnIndex);
+                add(F2D, 0);
+                break;
+            case DOUBLE:
+                add(GET_DOUBLE, columnIndex);
+                break;
+            case DATE:
+                add(GET_DATE, columnIndex);
+                if (domain == D_TIMESTAMP) {
+                    add(DATE_TO_TIMESTAMP, 0);
+                }
+                break;
+            case TIMESTAMP:
+                add(GET_TIMESTAMP, columnIndex);
+                break;
+            case INT_CONST:
+            case LONG_CONST:
+                if (domain == D_INT) {
+                    final int value = (int) longValue;
+                    add(value >= Short.MIN_VALUE && value <= Short.MAX_VALUE ? ICONST : ICONST_W, value);
+                } else if (domain == D_DOUBLE) {
+                    add(DCONST, constants.size());
+                    constants.add(Double.doubleToRawLongBits(longValue));
+                } else {
+                    add(LCONST, constants.size());
+                    constants.add(longValue);
+                }
+                break;
+            default:
+                // DOUBLE_CONST
+                add(DCONST, constants.size());
+                constants.add(Double.doubleToRawLongBits(doubleValue));
+                break;
+        }
+    }
+
+    private int maxStack() {
+        int depth = 0;
+        int max = 0;
+        for (int i = 0, n = program.size(); i < n; i += 2) {
+            switch (program.getQuick(i)) {
+                case GET_BOOL:
+                case GET_BYTE:
+                case GET_SHORT:
+                case GET_INT:
+                case GET_FLOAT:
+                case SYMBOL_KEY:
+                    // record (or this) and column index are on the stack before the call
+                    max = Math.max(max, depth + 2);
+                    depth++;
+                    break;
+                case GET_LONG:
+                case GET_DOUBLE:
+                case GET_DATE:
+                case GET_TIMESTAMP:
+                case LCONST:
+                case DCONST:
+                    depth += 2;
+                    break;
+                case I2L:
+                case I2D:
+                case F2D:
+                case INT_TO_LONG:
+                case INT_TO_DOUBLE:
+                case ICONST:
+                case ICONST_W:
+                    depth++;
+                    break;
+                case EQ_INT:
+                case LT_INT:
+                case GE_INT:
+                case AND:
+                case OR:
+                    depth--;
+                    break;
+                case EQ_LONG:
+                case EQ_DOUBLE:
+                case LT_TIMESTAMP:
+                case GE_TIMESTAMP:
+                case LT_DOUBLE:
+                case GE_DOUBLE:
+                    depth -= 3;
+                    break;
+                case NOT:
+                    max = Math.max(max, depth + 1);
+                    break;
+                default:
+                    // LONG_TO_DOUBLE, DATE_TO_TIMESTAMP
+                    break;
+            }
+            max = Math.max(max, depth);
+        }
+        return max;
+    }
+
+    /**
+     * Classifies operand of comparison. For columns this also sets columnIndex and
+     * for constants one of longValue, doubleValue or strValue.
+     */
+    private int operandKind(ExpressionNode node) {
+        switch (node.type) {
+            case ExpressionNode.LITERAL:
+                columnIndex = metadata.getColumnIndexQuiet(node.token);
+                if (columnIndex < 0) {
+                    return UNSUPPORTED;
+                }
+                switch (ColumnType.tagOf(metadata.getColumnType(columnIndex))) {
+                    case ColumnType.BYTE:
+                        return BYTE;
+                    case ColumnType.SHORT:
+                        return SHORT;
+                    case ColumnType.INT:
+                        return INT;
+                    case ColumnType.LONG:
+                        return LONG;
+                    case ColumnType.FLOAT:
+                        return FLOAT;
+                    case ColumnType.DOUBLE:
+                        return DOUBLE;
+                    case ColumnType.DATE:
+                        return DATE;
+                    case ColumnType.TIMESTAMP:
+                        return TIMESTAMP;
+                    case ColumnType.SYMBOL:
+                        return metadata.isSymbolTableStatic(columnIndex) ? SYMBOL : UNSUPPORTED;
+                    default:
+                        return UNSUPPORTED;
+                }
+            case ExpressionNode.CONSTANT:
+                return constantKind(node.token, false);
+            case ExpressionNode.OPERATION:
+                // unary minus of numeric constant
+                if (node.paramCount == 1 && Chars.equals(node.token, '-') && node.rhs != null && node.rhs.type == ExpressionNode.CONSTANT) {
+                    return constantKind(node.rhs.token, true);
+                }
+                return UNSUPPORTED;
+            default:
+                return UNSUPPORTED;
+        }
+    }
+
+    private void poolProgramArtifacts(int compiledFilterClassIndex) {
+        methodIndexes.setAll(METHOD_COUNT, -1);
+        final int recordClassIndex = asm.poolClass(Record.class);
+        final int numbersClassIndex = asm.poolClass(Numbers.class);
+        for (int i = 0, n = program.size(); i < n; i += 2) {
+            final int instruction = program.getQuick(i);
+            final int arg = program.getQuick(i + 1);
+            switch (instruction) {
+                case ICONST_W:
+                    program.setQuick(i + 1, asm.poolIntConst(arg));
+                    break;
+                case LCONST:
+                    program.setQuick(i + 1, asm.poolLongConst(constants.getQuick(arg)));
+                    break;
+                case DCONST:
+                    program.setQuick(i + 1, asm.poolDoubleConst(Double.longBitsToDouble(constants.getQuick(arg))));
+                    break;
+                default:
+                    if (instruction < METHOD_COUNT && methodIndexes.getQuick(instruction) == -1) {
+                        methodIndexes.setQuick(instruction, poolMethod(instruction, recordClassIndex, numbersClassIndex, compiledFilterClassIndex));
+                    }
+                    break;
+            }
+        }
+    }
+
+    private int poolMethod(int instruction, int recordClassIndex, int numbersClassIndex, int compiledFilterClassIndex) {
+        switch (instruction) {
+            case GET_BOOL:
+                return asm.poolInterfaceMethod(recordClassIndex, "getBool", "(I)Z");
+            case GET_BYTE:
+                return asm.poolInterfaceMethod(recordClassIndex, "getByte", "(I)B");
+            case GET_SHORT:
+                return asm.poolInterfaceMethod(recordClassIndex, "getShort", "(I)S");
+            case GET_INT:
+                return asm.poolInterfaceMethod(recordClassIndex, "getInt", "(I)I");
+            case GET_LONG:
+                return asm.poolInterfaceMethod(recordClassIndex, "getLong", "(I)J");
+            case GET_FLOAT:
+                return asm.poolInterfaceMethod(recordClassIndex, "getFloat", "(I)F");
+            case GET_DOUBLE:
+                return asm.poolInterfaceMethod(recordClassIndex, "getDouble", "(I)D");
+            case GET_DATE:
+                return asm.poolInterfaceMethod(recordClassIndex, "getDate", "(I)J");
+            case GET_TIMESTAMP:
+                return asm.poolInterfaceMethod(recordClassIndex, "getTimestamp", "(I)J");
+            case INT_TO_LONG:
+                return asm.poolMethod(numbersClassIndex, "intToLong", "(I)J");
+            case INT_TO_DOUBLE:
+                return asm.poolMethod(numbersClassIndex, "intToDouble", "(I)D");
+            case LONG_TO_DOUBLE:
+                return asm.poolMethod(numbersClassIndex, "longToDouble", "(J)D");
+            case DATE_TO_TIMESTAMP:
+                return asm.poolMethod(compiledFilterClassIndex, "dateToTimestamp", "(J)J");
+            case EQ_INT:
+                return asm.poolMethod(compiledFilterClassIndex, "eqInt", "(II)Z");
+            case EQ_LONG:
+                return asm.poolMethod(compiledFilterClassIndex, "eqLong", "(JJ)Z");
+            case EQ_DOUBLE:
+                return asm.poolMethod(compiledFilterClassIndex, "eqDouble", "(DD)Z");
+            case LT_INT:
+                return asm.poolMethod(compiledFilterClassIndex, "ltInt", "(II)Z");
+            case GE_INT:
+                return asm.poolMethod(compiledFilterClassIndex, "geInt", "(II)Z");
+            case LT_TIMESTAMP:
+                return asm.poolMethod(compiledFilterClassIndex, "ltTimestamp", "(JJ)Z");
+            case GE_TIMESTAMP:
+                return asm.poolMethod(compiledFilterClassIndex, "geTimestamp", "(JJ)Z");
+            case LT_DOUBLE:
+                return asm.poolMethod(compiledFilterClassIndex, "ltDouble", "(DD)Z");
+            default:
+                // GE_DOUBLE
+                return asm.poolMethod(compiledFilterClassIndex, "geDouble", "(DD)Z");
+        }
+    }
+
+    private boolean predicate(ExpressionNode node) {
+        switch (node.paramCount) {
+            case 0:
+                // boolean column
+                if (node.type == ExpressionNode.LITERAL) {
+                    final int index = metadata.getColumnIndexQuiet(node.token);
+                    if (index > -1 && ColumnType.isBoolean(metadata.getColumnType(index))) {
+                        add(GET_BOOL, index);
+                        return true;
+                    }
+                }
+                return false;
+            case 1:
+                if (SqlKeywords.isNotKeyword(node.token) && node.rhs != null && predicate(node.rhs)) {
+                    add(NOT, 0);
+                    return true;
+                }
+                return false;
+            case 2:
+                if (node.type != ExpressionNode.OPERATION) {
+                    return false;
+                }
+                if (SqlKeywords.isAndKeyword(node.token)) {
+                    if (predicate(node.lhs) && predicate(node.rhs)) {
+                        add(AND, 0);
+                        return true;
+                    }
+                    return false;
+                }
+                if (SqlKeywords.isOrKeyword(node.token)) {
+                    if (predicate(node.lhs) && predicate(node.rhs)) {
+                        add(OR, 0);
+                        return true;
+                    }
+                    return false;
+                }
+                return comparison(node);
+            default:
+                return false;
+        }
+    }
+}
@@ -50,6 +50,10 @@ public class FilteredRecordCursorFactory implements RecordCursorFactory {
         filter.close();
     }
 
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
         RecordCursor cursor = base.getCursor(executionContext);
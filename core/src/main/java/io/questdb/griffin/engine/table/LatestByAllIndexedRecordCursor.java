@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.table;
 import io.questdb.MessageBus;
 import io.questdb.cairo.BitmapIndexReader;
 import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.QueryAdmissionController;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.sql.DataFrame;
 import io.questdb.cairo.vm.api.MemoryR;
@@ -132,107 +133,113 @@ class LatestByAllIndexedRecordCursor extends AbstractRecordListCursor {
         final TableReader reader = this.dataFrameCursor.getTableReader();
 
         long foundRowCount = 0;
-        while ((frame = this.dataFrameCursor.next()) != null && foundRowCount < keyCount) {
-            doneLatch.reset();
-            final BitmapIndexReader indexReader = frame.getBitmapIndexReader(frameColumnIndex, BitmapIndexReader.DIR_BACKWARD);
-
-            final long rowLo = frame.getRowLo();
-            final long rowHi = frame.getRowHi() - 1;
-
-            final long keyBaseAddress = indexReader.getKeyBaseAddress();
-            final long keysMemorySize = indexReader.getKeyMemorySize();
-            final long valueBaseAddress = indexReader.getValueBaseAddress();
-            final long valuesMemorySize = indexReader.getValueMemorySize();
-            final int valueBlockCapacity = indexReader.getValueBlockCapacity();
-            final long unIndexedNullCount = indexReader.getUnIndexedNullCount();
-            final int partitionIndex = frame.getPartitionIndex();
-
-            long hashColumnAddress = 0;
-
-            //hashColumnIndex can be -1 for latest by part only (no prefixes to match)
-            if (hashColumnIndex > -1) {
-                final int columnBase = reader.getColumnBase(partitionIndex);
-                final int primaryColumnIndex = TableReader.getPrimaryColumnIndex(columnBase, hashColumnIndex);
-                final MemoryR column = reader.getColumn(primaryColumnIndex);
-                hashColumnAddress = column.getPageAddress(0);
-            }
-
-            // -1 must be dead case here
-            final int hashesColumnSize = ColumnType.isGeoHash(hashColumnType) ? getPow2SizeOfGeoHashType(hashColumnType) : -1;
-
-            int queuedCount = 0;
-            for (long i = 0; i < taskCount; ++i) {
-                final long argsAddress = argumentsAddress + i * LatestByArguments.MEMORY_SIZE;
-                final long found = LatestByArguments.getRowsSize(argsAddress);
-                final long keyHi = LatestByArguments.getKeyHi(argsAddress);
-                final long keyLo = LatestByArguments.getKeyLo(argsAddress);
-
-                // Skip range if all keys found
-                if (found >= keyHi - keyLo) {
-                    continue;
+        final QueryAdmissionController admissionController = executionContext.getQueryAdmissionController();
+        final int taskLimit = admissionController.acquire();
+        try {
+            while ((frame = this.dataFrameCursor.next()) != null && foundRowCount < keyCount) {
+                doneLatch.reset();
+                final BitmapIndexReader indexReader = frame.getBitmapIndexReader(frameColumnIndex, BitmapIndexReader.DIR_BACKWARD);
+
+                final long rowLo = frame.getRowLo();
+                final long rowHi = frame.getRowHi() - 1;
+
+                final long keyBaseAddress = indexReader.getKeyBaseAddress();
+                final long keysMemorySize = indexReader.getKeyMemorySize();
+                final long valueBaseAddress = indexReader.getValueBaseAddress();
+                final long valuesMemorySize = indexReader.getValueMemorySize();
+                final int valueBlockCapacity = indexReader.getValueBlockCapacity();
+                final long unIndexedNullCount = indexReader.getUnIndexedNullCount();
+                final int partitionIndex = frame.getPartitionIndex();
+
+                long hashColumnAddress = 0;
+
+                //hashColumnIndex can be -1 for latest by part only (no prefixes to match)
+                if (hashColumnIndex > -1) {
+                    final int columnBase = reader.getColumnBase(partitionIndex);
+                    final int primaryColumnIndex = TableReader.getPrimaryColumnIndex(columnBase, hashColumnIndex);
+                    final MemoryR column = reader.getColumn(primaryColumnIndex);
+                    hashColumnAddress = column.getPageAddress(0);
                 }
-                // Update hash column address with current frame value
-                LatestByArguments.setHashesAddress(argsAddress, hashColumnAddress);
-
-                final long seq = pubSeq.next();
-
-                if (seq < 0) {
-                    GeoHashNative.latestByAndFilterPrefix(
-                            keyBaseAddress,
-                            keysMemorySize,
-                            valueBaseAddress,
-                            valuesMemorySize,
-                            argsAddress,
-                            unIndexedNullCount,
-                            rowHi,
-                            rowLo,
-                            partitionIndex,
-                            valueBlockCapacity,
-                            hashColumnAddress,
-                            hashesColumnSize,
-                            prefixesAddress,
-                            prefixesCount
-                    );
-                } else {
-                    queue.get(seq).of(
-                            keyBaseAddress,
-                            keysMemorySize,
-                            valueBaseAddress,
-                            valuesMemorySize,
-                            argsAddress,
-                            unIndexedNullCount,
-                            rowHi,
-                            rowLo,
-                            partitionIndex,
-                            valueBlockCapacity,
-                            hashColumnAddress,
-                            hashesColumnSize,
-                            prefixesAddress,
-                            prefixesCount,
-                            doneLatch
-                    );
-                    pubSeq.done(seq);
-                    queuedCount++;
+
+                // -1 must be dead case here
+                final int hashesColumnSize = ColumnType.isGeoHash(hashColumnType) ? getPow2SizeOfGeoHashType(hashColumnType) : -1;
+
+                int queuedCount = 0;
+                for (long i = 0; i < taskCount; ++i) {
+                    final long argsAddress = argumentsAddress + i * LatestByArguments.MEMORY_SIZE;
+                    final long found = LatestByArguments.getRowsSize(argsAddress);
+                    final long keyHi = LatestByArguments.getKeyHi(argsAddress);
+                    final long keyLo = LatestByArguments.getKeyLo(argsAddress);
+
+                    // Skip range if all keys found
+                    if (found >= keyHi - keyLo) {
+                        continue;
+                    }
+                    // Update hash column address with current frame value
+                    LatestByArguments.setHashesAddress(argsAddress, hashColumnAddress);
+
+                    final long seq = admissionController.next(pubSeq, taskLimit, queuedCount, doneLatch);
+
+                    if (seq < 0) {
+                        GeoHashNative.latestByAndFilterPrefix(
+                                keyBaseAddress,
+                                keysMemorySize,
+                                valueBaseAddress,
+                                valuesMemorySize,
+                                argsAddress,
+                                unIndexedNullCount,
+                                rowHi,
+                                rowLo,
+                                partitionIndex,
+                                valueBlockCapacity,
+                                hashColumnAddress,
+                                hashesColumnSize,
+                                prefixesAddress,
+                                prefixesCount
+                        );
+                    } else {
+                        queue.get(seq).of(
+                                keyBaseAddress,
+                                keysMemorySize,
+                                valueBaseAddress,
+                                valuesMemorySize,
+                                argsAddress,
+                                unIndexedNullCount,
+                                rowHi,
+                                rowLo,
+                                partitionIndex,
+                                valueBlockCapacity,
+                                hashColumnAddress,
+                                hashesColumnSize,
+                                prefixesAddress,
+                                prefixesCount,
+                                doneLatch
+                        );
+                        pubSeq.done(seq);
+                        queuedCount++;
+                    }
                 }
-            }
 
-            // process our own queue
-            // this should fix deadlock with 1 worker configuration
-            while (doneLatch.getCount() > -queuedCount) {
-                long seq = subSeq.next();
-                if (seq > -1) {
-                    queue.get(seq).run();
-                    subSeq.done(seq);
+                // process our own queue
+                // this should fix deadlock with 1 worker configuration
+                while (doneLatch.getCount() > -queuedCount) {
+                    long seq = subSeq.next();
+                    if (seq > -1) {
+                        queue.get(seq).run();
+                        subSeq.done(seq);
+                    }
                 }
-            }
 
-            doneLatch.await(queuedCount);
+                doneLatch.await(queuedCount);
 
-            foundRowCount = 0; // Reset found counter
-            for (int i = 0; i < taskCount; i++) {
-                final long address = argumentsAddress + i * LatestByArguments.MEMORY_SIZE;
-                foundRowCount += LatestByArguments.getRowsSize(address);
+                foundRowCount = 0; // Reset found counter
+                for (int i = 0; i < taskCount; i++) {
+                    final long address = argumentsAddress + i * LatestByArguments.MEMORY_SIZE;
+                    foundRowCount += LatestByArguments.getRowsSize(address);
+                }
             }
+        } finally {
+            admissionController.release(taskLimit);
         }
         final long rowCount = GeoHashNative.slideFoundBlocks(argumentsAddress, taskCount);
         LatestByArguments.releaseMemoryArray(argumentsAddress, taskCount);
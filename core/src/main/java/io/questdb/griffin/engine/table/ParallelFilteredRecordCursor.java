@@ -0,0 +1,235 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.QueryAdmissionController;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderSelectedColumnRecord;
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
+import io.questdb.tasks.PageFrameFilterTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits data frames into page frames of at most "frameMaxRows" rows and publishes them
+ * in batches onto the page frame filter queue. Rows that pass the filter are collected
+ * into per-frame row lists and returned in frame order, which keeps the row order of the
+ * underlying data frame cursor intact.
+ */
+class ParallelFilteredRecordCursor extends AbstractDataFrameRecordCursor {
+    private final Function filter;
+    private final long frameMaxRows;
+    private final int batchSize;
+    private final ObjList<TableReaderSelectedColumnRecord> frameRecords = new ObjList<>();
+    private final ObjList<DirectLongList> frameRows = new ObjList<>();
+    private final IntList framePartitions = new IntList();
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+    private final AtomicInteger errorCount = new AtomicInteger();
+    private RingQueue<PageFrameFilterTask> queue;
+    private Sequence pubSeq;
+    private Sequence subSeq;
+    private QueryAdmissionController admissionController;
+    private int frameCount;
+    private int frameIndex;
+    private DirectLongList rows;
+    private long rowIndex;
+    private long rowCount;
+    // remainder of the data frame that has not been dispatched yet
+    private int dataFramePartitionIndex;
+    private long dataFrameRowLo;
+    private long dataFrameRowHi;
+
+    public ParallelFilteredRecordCursor(
+            @NotNull IntList columnIndexes,
+            Function filter,
+            long frameMaxRows,
+            int batchSize
+    ) {
+        super(columnIndexes);
+        this.filter = filter;
+        this.frameMaxRows = frameMaxRows;
+        this.batchSize = batchSize;
+        for (int i = 0; i < batchSize; i++) {
+            frameRecords.add(new TableReaderSelectedColumnRecord(columnIndexes));
+            frameRows.add(new DirectLongList(64));
+        }
+        framePartitions.setAll(batchSize, -1);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (true) {
+            if (rowIndex < rowCount) {
+                recordA.setRecordIndex(rows.get(rowIndex++));
+                return true;
+            }
+
+            if (frameIndex < frameCount) {
+                rows = frameRows.getQuick(frameIndex);
+                rowIndex = 0;
+                rowCount = rows.size();
+                recordA.jumpTo(framePartitions.getQuick(frameIndex), 0);
+                frameIndex++;
+                continue;
+            }
+
+            if (!dispatchBatch()) {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        filter.toTop();
+        dataFrameCursor.toTop();
+        resetState();
+    }
+
+    void freeFrameMemory() {
+        Misc.freeObjList(frameRows);
+    }
+
+    @Override
+    void of(DataFrameCursor dataFrameCursor, SqlExecutionContext executionContext) {
+        if (this.dataFrameCursor != dataFrameCursor) {
+            close();
+            this.dataFrameCursor = dataFrameCursor;
+        }
+        final TableReader reader = dataFrameCursor.getTableReader();
+        this.recordA.of(reader);
+        this.recordB.of(reader);
+        for (int i = 0; i < batchSize; i++) {
+            frameRecords.getQuick(i).of(reader);
+        }
+        final MessageBus bus = executionContext.getMessageBus();
+        this.queue = bus.getPageFrameFilterQueue();
+        this.pubSeq = bus.getPageFrameFilterPubSeq();
+        this.subSeq = bus.getPageFrameFilterSubSeq();
+        this.admissionController = executionContext.getQueryAdmissionController();
+        resetState();
+    }
+
+    private boolean dispatchBatch() {
+        frameCount = 0;
+        frameIndex = 0;
+        doneLatch.reset();
+
+        int queuedCount = 0;
+        final int taskLimit = admissionController.acquire();
+        try {
+            while (frameCount < batchSize && nextFrame()) {
+                final int slot = frameCount++;
+                final long rowLo = dataFrameRowLo;
+                final long rowHi = Math.min(rowLo + frameMaxRows, dataFrameRowHi);
+                dataFrameRowLo = rowHi;
+                framePartitions.setQuick(slot, dataFramePartitionIndex);
+
+                final long seq = admissionController.next(pubSeq, taskLimit, queuedCount, doneLatch);
+                if (seq < 0) {
+                    // queue is full or query is over its task limit, filter frame on the query thread
+                    PageFrameFilterTask.filter(
+                            filter,
+                            frameRecords.getQuick(slot),
+                            frameRows.getQuick(slot),
+                            dataFramePartitionIndex,
+                            rowLo,
+                            rowHi
+                    );
+                } else {
+                    queue.get(seq).of(
+                            filter,
+                            frameRecords.getQuick(slot),
+                            frameRows.getQuick(slot),
+                            dataFramePartitionIndex,
+                            rowLo,
+                            rowHi,
+                            errorCount,
+                            doneLatch
+                    );
+                    pubSeq.done(seq);
+                    queuedCount++;
+                }
+            }
+
+            // help workers to drain the queue, this also avoids
+            // deadlock when there are no workers to pick up our tasks
+            while (doneLatch.getCount() > -queuedCount) {
+                long seq = subSeq.next();
+                if (seq > -1) {
+                    queue.get(seq).run();
+                    subSeq.done(seq);
+                }
+            }
+            doneLatch.await(queuedCount);
+        } finally {
+            admissionController.release(taskLimit);
+        }
+
+        if (errorCount.get() > 0) {
+            throw CairoException.instance(0).put("page frame filter failed, check server log for details");
+        }
+        return frameCount > 0;
+    }
+
+    private boolean nextFrame() {
+        while (dataFrameRowLo >= dataFrameRowHi) {
+            DataFrame dataFrame = dataFrameCursor.next();
+            if (dataFrame == null) {
+                return false;
+            }
+            dataFramePartitionIndex = dataFrame.getPartitionIndex();
+            dataFrameRowLo = dataFrame.getRowLo();
+            dataFrameRowHi = dataFrame.getRowHi();
+        }
+        return true;
+    }
+
+    private void resetState() {
+        frameCount = 0;
+        frameIndex = 0;
+        rowIndex = 0;
+        rowCount = 0;
+        dataFrameRowLo = 0;
+        dataFrameRowHi = 0;
+        errorCount.set(0);
+    }
+}
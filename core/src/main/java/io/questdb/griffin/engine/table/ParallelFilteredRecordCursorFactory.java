@@ -0,0 +1,98 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Misc;
+import io.questdb.std.str.CharSink;
+
+/**
+ * Filters full scans of table data frames on shared worker threads. Filter function
+ * must be read thread safe because the same instance is evaluated by all workers.
+ */
+public class ParallelFilteredRecordCursorFactory extends AbstractDataFrameRecordCursorFactory {
+    private final DataFrameRecordCursorFactory base;
+    private final ParallelFilteredRecordCursor cursor;
+    private final Function filter;
+
+    public ParallelFilteredRecordCursorFactory(
+            CairoConfiguration configuration,
+            DataFrameRecordCursorFactory base,
+            Function filter,
+            int workerCount
+    ) {
+        super(base.getMetadata(), base.getDataFrameCursorFactory());
+        assert base.isFullFrameScan();
+        assert filter.isReadThreadSafe();
+        this.base = base;
+        this.filter = filter;
+        this.cursor = new ParallelFilteredRecordCursor(
+                base.getColumnIndexes(),
+                filter,
+                configuration.getSqlPageFrameMaxRows(),
+                Math.min(workerCount, configuration.getPageFrameFilterQueueCapacity())
+        );
+    }
+
+    @Override
+    public void close() {
+        Misc.free(base);
+        Misc.free(filter);
+        cursor.freeFrameMemory();
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return base.followedOrderByAdvice();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        sink.put("{\"name\":\"ParallelFilteredRecordCursorFactory\", \"cursorFactory\":");
+        dataFrameCursorFactory.toSink(sink);
+        sink.put('}');
+    }
+
+    @Override
+    protected RecordCursor getCursorInstance(
+            DataFrameCursor dataFrameCursor,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        cursor.of(dataFrameCursor, executionContext);
+        filter.init(cursor, executionContext);
+        return cursor;
+    }
+}
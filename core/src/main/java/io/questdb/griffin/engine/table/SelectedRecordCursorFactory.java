@@ -31,6 +31,7 @@ import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.IntList;
+import io.questdb.std.str.CharSink;
 
 public class SelectedRecordCursorFactory extends AbstractRecordCursorFactory {
 
@@ -63,4 +64,11 @@ public class SelectedRecordCursorFactory extends AbstractRecordCursorFactory {
     public boolean recordCursorSupportsRandomAccess() {
         return base.recordCursorSupportsRandomAccess();
     }
+
+    @Override
+    public void toSink(CharSink sink) {
+        sink.put("{\"name\":\"SelectedRecordCursorFactory\", \"base\":");
+        base.toSink(sink);
+        sink.put('}');
+    }
 }
@@ -29,6 +29,7 @@ import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Misc;
 
 public class UnionAllRecordCursorFactory implements RecordCursorFactory {
     private final RecordMetadata metadata;
@@ -47,6 +48,12 @@ public class UnionAllRecordCursorFactory implements RecordCursorFactory {
         this.cursor = new UnionAllRecordCursor();
     }
 
+    @Override
+    public void close() {
+        Misc.free(masterFactory);
+        Misc.free(slaveFactory);
+    }
+
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
         cursor.of(
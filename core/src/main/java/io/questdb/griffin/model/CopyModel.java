@@ -24,6 +24,7 @@
 
 package io.questdb.griffin.model;
 
+import io.questdb.cairo.PartitionBy;
 import io.questdb.std.Mutable;
 import io.questdb.std.ObjectFactory;
 import io.questdb.std.Sinkable;
@@ -31,12 +32,36 @@ import io.questdb.std.str.CharSink;
 
 public class CopyModel implements ExecutionModel, Mutable, Sinkable {
     public static final ObjectFactory<CopyModel> FACTORY = CopyModel::new;
+    public static final int FORMAT_TEXT = 0;
+    public static final int FORMAT_CSV = 1;
+    public static final int FORMAT_BINARY = 2;
     private ExpressionNode tableName;
     private ExpressionNode fileName;
     private boolean header;
+    // query which result is copied to STDOUT
+    private QueryModel queryModel;
+    private int format;
+    // designated timestamp and partitioning of the table that file is copied into
+    private CharSequence timestampColumnName;
+    private int partitionBy = PartitionBy.NONE;
 
     @Override
     public void clear() {
+        tableName = null;
+        fileName = null;
+        header = false;
+        queryModel = null;
+        format = FORMAT_TEXT;
+        timestampColumnName = null;
+        partitionBy = PartitionBy.NONE;
+    }
+
+    public int getFormat() {
+        return format;
+    }
+
+    public void setFormat(int format) {
+        this.format = format;
     }
 
     public ExpressionNode getFileName() {
@@ -52,6 +77,22 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         return ExecutionModel.COPY;
     }
 
+    public int getPartitionBy() {
+        return partitionBy;
+    }
+
+    public void setPartitionBy(int partitionBy) {
+        this.partitionBy = partitionBy;
+    }
+
+    public QueryModel getQueryModel() {
+        return queryModel;
+    }
+
+    public void setQueryModel(QueryModel queryModel) {
+        this.queryModel = queryModel;
+    }
+
     public ExpressionNode getTableName() {
         return tableName;
     }
@@ -60,6 +101,14 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         this.tableName = tableName;
     }
 
+    public CharSequence getTimestampColumnName() {
+        return timestampColumnName;
+    }
+
+    public void setTimestampColumnName(CharSequence timestampColumnName) {
+        this.timestampColumnName = timestampColumnName;
+    }
+
     public boolean isHeader() {
         return header;
     }
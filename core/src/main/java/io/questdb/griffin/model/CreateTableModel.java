@@ -39,6 +39,8 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
     private final LongList columnHashes = new LongList();
     private final ObjList<CharSequence> columnNames = new ObjList<>();
     private final LowerCaseCharSequenceIntHashMap columnNameIndexMap = new LowerCaseCharSequenceIntHashMap();
+    // column index -> position of column name in bloom filter definition
+    private final IntIntHashMap bloomFilterPositions = new IntIntHashMap();
     private ExpressionNode name;
     private QueryModel queryModel;
     private ExpressionNode timestamp;
@@ -95,6 +97,7 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         columnNames.clear();
         columnHashes.clear();
         columnNameIndexMap.clear();
+        bloomFilterPositions.clear();
         ignoreIfExists = false;
     }
 
@@ -127,6 +130,19 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return (getLowAt(index * 2 + 1) & COLUMN_FLAG_INDEXED) != 0;
     }
 
+    @Override
+    public boolean isBloomFiltered(int columnIndex) {
+        return bloomFilterPositions.keyIndex(columnIndex) < 0;
+    }
+
+    public int getBloomFilterPosition(int columnIndex) {
+        return bloomFilterPositions.get(columnIndex);
+    }
+
+    public void setBloomFilter(int columnIndex, int position) {
+        bloomFilterPositions.put(columnIndex, position);
+    }
+
     @Override
     public boolean isSequential(int columnIndex) {
         // todo: expose this flag on CREATE TABLE statement
@@ -237,6 +253,11 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
                     sink.put(getIndexBlockCapacity(i));
                     sink.put(')');
                 }
+                if (isBloomFiltered(i)) {
+                    sink.put(", bloom(");
+                    sink.put(getColumnName(i));
+                    sink.put(')');
+                }
             }
             final ObjList<CharSequence> castColumns = getColumnCastModels().keys();
             for (int i = 0, n = castColumns.size(); i < n; i++) {
@@ -292,6 +313,13 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
                 }
             }
             sink.put(')');
+            for (int i = 0; i < count; i++) {
+                if (isBloomFiltered(i)) {
+                    sink.put(", bloom(");
+                    sink.put(getColumnName(i));
+                    sink.put(')');
+                }
+            }
         }
 
         if (getTimestamp() != null) {
@@ -25,5 +25,16 @@
 package io.questdb.mp;
 
 public interface Job {
+    // ingestion, e.g. O3 and indexer jobs
+    int PRIORITY_HIGH = 0;
+    // queries, the default
+    int PRIORITY_NORMAL = 1;
+    // housekeeping, e.g. purge and pool maintenance jobs
+    int PRIORITY_LOW = 2;
+
+    default int getPriority() {
+        return PRIORITY_NORMAL;
+    }
+
     boolean run(int workerId);
 }
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.mp;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lets idle worker threads park until a task is published to one of the queues
+ * they consume. Publishers signal this strategy from {@link Sequence#done(long)} when it is
+ * set as the wait strategy of the consumer sequence; each signal unparks at most one
+ * parked thread.
+ * <p>
+ * Parking is always bounded by a timeout. A signal that arrives between the worker
+ * giving up on its jobs and registering itself as parked is lost, and so are signals
+ * when there are more parked threads than the strategy has slots for. In both cases
+ * the worker wakes up when the timeout elapses, which is how workers behave without
+ * this strategy.
+ * <p>
+ * Strategy can forward signals to another strategy when none of its own threads is parked.
+ * This lets a queue wake up workers of a general purpose pool when there is no pool
+ * dedicated to the queue, or when all the dedicated workers are busy.
+ */
+public class ParkingWaitStrategy extends AbstractWaitStrategy {
+    private final AtomicReferenceArray<Thread> parked;
+    private final AtomicInteger parkedCount = new AtomicInteger();
+    private final long timeoutNanos;
+    private final ParkingWaitStrategy fallback;
+
+    public ParkingWaitStrategy(int capacity, long timeoutNanos) {
+        this(capacity, timeoutNanos, null);
+    }
+
+    public ParkingWaitStrategy(int capacity, long timeoutNanos, @Nullable ParkingWaitStrategy fallback) {
+        this.parked = new AtomicReferenceArray<>(capacity);
+        this.timeoutNanos = timeoutNanos;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public boolean acceptSignal() {
+        return true;
+    }
+
+    @Override
+    public void await() {
+        if (alerted) {
+            throw AlertedException.INSTANCE;
+        }
+        park(timeoutNanos);
+    }
+
+    public int getParkedCount() {
+        return parkedCount.get();
+    }
+
+    public void park(long nanos) {
+        final Thread thread = Thread.currentThread();
+        for (int i = 0, n = parked.length(); i < n; i++) {
+            if (parked.compareAndSet(i, null, thread)) {
+                parkedCount.incrementAndGet();
+                LockSupport.parkNanos(this, nanos);
+                parkedCount.decrementAndGet();
+                // signal() clears the slot it unparks, otherwise the slot is still ours
+                parked.compareAndSet(i, thread, null);
+                return;
+            }
+        }
+        // no free slots, sleep through the timeout
+        LockSupport.parkNanos(this, nanos);
+    }
+
+    @Override
+    public void signal() {
+        if (parkedCount.get() > 0) {
+            for (int i = 0, n = parked.length(); i < n; i++) {
+                final Thread thread = parked.get(i);
+                if (thread != null && parked.compareAndSet(i, thread, null)) {
+                    LockSupport.unpark(thread);
+                    return;
+                }
+            }
+        }
+        if (fallback != null) {
+            fallback.signal();
+        }
+    }
+}
@@ -33,6 +33,9 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.LockSupport;
 
 public class Worker extends Thread {
+    // how often, in worker passes, a job of the given priority runs while the worker is busy;
+    // indexed by job priority relative to the highest priority job the worker has
+    private static final int[] PRIORITY_PASS_MASKS = {0, 1, 7};
     private final static long RUNNING_OFFSET = Unsafe.getFieldOffset(Worker.class, "running");
     private final static AtomicInteger COUNTER = new AtomicInteger();
     private final ObjHashSet<? extends Job> jobs;
@@ -45,6 +48,9 @@ public class Worker extends Thread {
     private volatile int running = 0;
     private final long yieldThreshold;
     private final long sleepThreshold;
+    private final long sleepTimeoutNanos;
+    private final ParkingWaitStrategy waitStrategy;
+    private int[] jobPassMasks;
 
     public Worker(
             final ObjHashSet<? extends Job> jobs,
@@ -56,7 +62,9 @@ public class Worker extends Thread {
             final int workerId,
             String poolName,
             long yieldThreshold,
-            long sleepThreshold
+            long sleepThreshold,
+            long sleepTimeoutNanos,
+            ParkingWaitStrategy waitStrategy
     ) {
         this.log = log;
         this.jobs = jobs;
@@ -68,6 +76,8 @@ public class Worker extends Thread {
         this.workerId = workerId;
         this.yieldThreshold = yieldThreshold;
         this.sleepThreshold = sleepThreshold;
+        this.sleepTimeoutNanos = sleepTimeoutNanos;
+        this.waitStrategy = waitStrategy;
     }
 
     public int getWorkerId() {
@@ -101,10 +111,17 @@ public class Worker extends Thread {
                 setupJobs();
                 int n = jobs.size();
                 long uselessCounter = 0;
+                int pass = 0;
                 while (running == 1) {
 
                     boolean useful = false;
+                    pass++;
                     for (int i = 0; i < n; i++) {
+                        // when the last pass was useless all jobs run, so that
+                        // lower priority jobs are not delayed on an idle worker
+                        if (uselessCounter == 0 && (pass & jobPassMasks[i]) != 0) {
+                            continue;
+                        }
                         Unsafe.getUnsafe().loadFence();
                         try {
                             try {
@@ -134,7 +151,11 @@ public class Worker extends Thread {
                     }
 
                     if (uselessCounter > sleepThreshold) {
-                        LockSupport.parkNanos(1000000);
+                        if (waitStrategy != null) {
+                            waitStrategy.park(sleepTimeoutNanos);
+                        } else {
+                            LockSupport.parkNanos(sleepTimeoutNanos);
+                        }
                     }
                 }
             }
@@ -163,6 +184,16 @@ public class Worker extends Thread {
     }
 
     private void setupJobs() {
+        final int n = jobs.size();
+        int highestPriority = Job.PRIORITY_LOW;
+        for (int i = 0; i < n; i++) {
+            highestPriority = Math.min(highestPriority, jobs.get(i).getPriority());
+        }
+        jobPassMasks = new int[n];
+        for (int i = 0; i < n; i++) {
+            jobPassMasks[i] = PRIORITY_PASS_MASKS[jobs.get(i).getPriority() - highestPriority];
+        }
+
         if (running == 1) {
             for (int i = 0; i < jobs.size(); i++) {
                 Unsafe.getUnsafe().loadFence();
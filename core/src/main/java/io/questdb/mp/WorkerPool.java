@@ -32,6 +32,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 public class WorkerPool {
     private final AtomicBoolean running = new AtomicBoolean(false);
@@ -47,6 +48,9 @@ public class WorkerPool {
     private final String poolName;
     private final long yieldThreshold;
     private final long sleepThreshold;
+    private final long sleepTimeoutNanos;
+    private final boolean eventDriven;
+    private ParkingWaitStrategy waitStrategy;
 
     public WorkerPool(WorkerPoolConfiguration configuration) {
         this.workerCount = configuration.getWorkerCount();
@@ -57,6 +61,8 @@ public class WorkerPool {
         this.poolName = configuration.getPoolName();
         this.yieldThreshold = configuration.getYieldThreshold();
         this.sleepThreshold = configuration.getSleepThreshold();
+        this.sleepTimeoutNanos = configuration.getSleepTimeout() * 1_000_000L;
+        this.eventDriven = configuration.isEventDriven();
 
         assert workerAffinity.length == workerCount;
 
@@ -101,6 +107,19 @@ public class WorkerPool {
         }
     }
 
+    /**
+     * Sets wait strategy idle workers park on when the pool is event-driven. Publishers
+     * wake parked workers up by signalling the strategy, which typically is the wait
+     * strategy of the consumer sequences of the queues the pool's jobs consume.
+     * Has no effect on pools that are not event-driven.
+     *
+     * @param waitStrategy strategy shared by workers and publishers
+     */
+    public void assignWaitStrategy(ParkingWaitStrategy waitStrategy) {
+        assert !running.get();
+        this.waitStrategy = waitStrategy;
+    }
+
     public int getWorkerCount() {
         return workerCount;
     }
@@ -109,7 +128,9 @@ public class WorkerPool {
         if (running.compareAndSet(true, false)) {
             started.await();
             for (int i = 0; i < workerCount; i++) {
-                workers.getQuick(i).halt();
+                final Worker worker = workers.getQuick(i);
+                worker.halt();
+                LockSupport.unpark(worker);
             }
             halted.await();
 
@@ -141,7 +162,9 @@ public class WorkerPool {
                         i,
                         poolName,
                         yieldThreshold,
-                        sleepThreshold
+                        sleepThreshold,
+                        sleepTimeoutNanos,
+                        eventDriven ? waitStrategy : null
                 );
                 worker.setDaemon(daemons);
                 workers.add(worker);
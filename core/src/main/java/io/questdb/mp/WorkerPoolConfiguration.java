@@ -46,4 +46,19 @@ public interface WorkerPoolConfiguration {
     default long getSleepThreshold() {
         return 10000;
     }
+
+    /**
+     * @return time in milliseconds an idle worker parks for before polling its jobs again
+     */
+    default long getSleepTimeout() {
+        return 1;
+    }
+
+    /**
+     * @return true when idle workers should be woken up by task publishers rather than
+     * only by their sleep timeout
+     */
+    default boolean isEventDriven() {
+        return false;
+    }
 }
@@ -59,6 +59,8 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
     protected final SCSequence disconnectSubSeq;
     protected final QueueConsumer<IOEvent<C>> disconnectContextRef = this::disconnectContext;
     protected final long idleConnectionTimeout;
+    private final long heartbeatInterval;
+    private long heartbeatTimestamp;
     protected final LongMatrix<C> pending = new LongMatrix<>(4);
     private final int sndBufSize;
     private final int rcvBufSize;
@@ -95,6 +97,8 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
         this.ioContextFactory = ioContextFactory;
         this.initialBias = configuration.getInitialBias();
         this.idleConnectionTimeout = configuration.getIdleConnectionTimeout() > 0 ? configuration.getIdleConnectionTimeout() : Long.MIN_VALUE;
+        this.heartbeatInterval = configuration.getHeartbeatInterval();
+        this.heartbeatTimestamp = clock.getTicks();
         this.queuedConnectionTimeoutMs = configuration.getQueuedConnectionTimeout() > 0 ? configuration.getQueuedConnectionTimeout() : 0;
         this.sndBufSize = configuration.getSndBufSize();
         this.rcvBufSize = configuration.getRcvBufSize();
@@ -294,6 +298,22 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
         }
     }
 
+    /**
+     * Sends heartbeat to connections waiting for I/O, once per heartbeat interval.
+     *
+     * @return true when heartbeat was sent
+     */
+    protected boolean processHeartbeats(long timestamp) {
+        if (heartbeatInterval > 0 && timestamp - heartbeatTimestamp >= heartbeatInterval) {
+            heartbeatTimestamp = timestamp;
+            for (int i = 0, n = pending.size(); i < n; i++) {
+                pending.get(i).heartbeat();
+            }
+            return true;
+        }
+        return false;
+    }
+
     protected void publishOperation(int operation, C context) {
         long cursor = ioEventPubSeq.nextBully();
         IOEvent<C> evt = ioEventQueue.get(cursor);
@@ -35,4 +35,11 @@ public interface IOContext extends Closeable {
     boolean invalid();
 
     IODispatcher<?> getDispatcher();
+
+    /**
+     * Called by dispatcher thread at heartbeat interval while connection waits for I/O. No worker processes
+     * the context meanwhile, so it must not perform I/O or use resources that belong to worker threads.
+     */
+    default void heartbeat() {
+    }
 }
@@ -46,6 +46,14 @@ public interface IODispatcherConfiguration {
 
     int getEventCapacity();
 
+    /**
+     * @return interval in milliseconds at which connections waiting for I/O receive {@link IOContext#heartbeat()},
+     * 0 or less disables heartbeat
+     */
+    default long getHeartbeatInterval() {
+        return 0;
+    }
+
     int getIOQueueCapacity();
 
     long getIdleConnectionTimeout();
@@ -162,6 +162,7 @@ public class IODispatcherLinux<C extends IOContext> extends AbstractIODispatcher
             processIdleConnections(deadline);
             useful = true;
         }
+        useful = processHeartbeats(timestamp) | useful;
 
         return processRegistrations(timestamp) || useful;
     }
@@ -197,6 +197,7 @@ public class IODispatcherOsx<C extends IOContext> extends AbstractIODispatcher<C
             processIdleConnections(deadline);
             useful = true;
         }
+        useful = processHeartbeats(timestamp) | useful;
 
         return processRegistrations(timestamp) || useful;
     }
@@ -191,7 +191,7 @@ public class IODispatcherWindows<C extends IOContext> extends AbstractIODispatch
         
         readFdSet.setCount(readFdCount);
         writeFdSet.setCount(writeFdCount);
-        return useful;
+        return processHeartbeats(timestamp) | useful;
     }
 
     private static class FDSet {
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.std;
+
+import java.util.Arrays;
+
+/**
+ * Growable set of non-negative ints backed by array of bit words. Bits past the last one set read as clear.
+ */
+public class BitSet implements Mutable {
+    private static final int WORD_BITS_MSB = 6;
+    private long[] words;
+
+    public BitSet() {
+        this(64);
+    }
+
+    public BitSet(int nBits) {
+        this.words = new long[wordIndex(Math.max(nBits, 1) - 1) + 1];
+    }
+
+    public int capacity() {
+        return words.length << WORD_BITS_MSB;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(words, 0);
+    }
+
+    public boolean get(int bitIndex) {
+        final int wordIndex = wordIndex(bitIndex);
+        return wordIndex < words.length && (words[wordIndex] & 1L << bitIndex) != 0;
+    }
+
+    public void set(int bitIndex) {
+        final int wordIndex = wordIndex(bitIndex);
+        if (wordIndex >= words.length) {
+            words = Arrays.copyOf(words, Math.max(words.length * 2, wordIndex + 1));
+        }
+        words[wordIndex] |= 1L << bitIndex;
+    }
+
+    private static int wordIndex(int bitIndex) {
+        return bitIndex >>> WORD_BITS_MSB;
+    }
+}
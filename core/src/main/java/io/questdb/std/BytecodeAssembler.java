@@ -245,6 +245,14 @@ public class BytecodeAssembler {
         putByte(0x60);
     }
 
+    public void iaload() {
+        putByte(0x2e);
+    }
+
+    public void iand() {
+        putByte(0x7e);
+    }
+
     public void iconst(int v) {
         if (v == -1) {
             putByte(iconst_m1);
@@ -326,6 +334,10 @@ public class BytecodeAssembler {
         putShort(index);
     }
 
+    public void ior() {
+        putByte(0x80);
+    }
+
     public void irem() {
         putByte(0x70);
     }
@@ -342,6 +354,10 @@ public class BytecodeAssembler {
         putByte(0x64);
     }
 
+    public void ixor() {
+        putByte(0x82);
+    }
+
     public void l2d() {
         putShort(0x8A);
     }
@@ -372,6 +388,11 @@ public class BytecodeAssembler {
         putShort(index);
     }
 
+    public void ldc_w(int index) {
+        putByte(0x13);
+        putShort(index);
+    }
+
     public void lload(int value) {
         optimisedIO(lload_0, lload_1, lload_2, lload_3, lload, value);
     }
@@ -437,10 +458,24 @@ public class BytecodeAssembler {
         return classCache.valueAt(index);
     }
 
+    public int poolDoubleConst(double value) {
+        putByte(0x06);
+        putLong(Double.doubleToRawLongBits(value));
+        int index = poolCount;
+        poolCount += 2;
+        return index;
+    }
+
     public int poolField(int classIndex, int nameAndTypeIndex) {
         return poolRef(0x09, classIndex, nameAndTypeIndex);
     }
 
+    public int poolIntConst(int value) {
+        putByte(0x03);
+        putInt(value);
+        return poolCount++;
+    }
+
     public int poolInterfaceMethod(Class<?> clazz, String name, String sig) {
         return poolInterfaceMethod(poolClass(clazz), poolNameAndType(poolUtf8(name), poolUtf8(sig)));
     }
@@ -496,7 +496,7 @@ public final class Numbers {
         }
 
         // Cannot use doubleToRawLongBits because of possibility of NaNs.
-        long thisBits = Double.doubleToLongBits(1);
+        long thisBits = Double.doubleToLongBits(a);
         long anotherBits = Double.doubleToLongBits(b);
 
         // Values are equal
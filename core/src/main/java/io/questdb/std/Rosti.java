@@ -187,6 +187,10 @@ public final class Rosti {
         return Unsafe.getUnsafe().getLong(pRosti + 5 * Long.BYTES);
     }
 
+    public static long getGrowthLeft(long pRosti) {
+        return Unsafe.getUnsafe().getLong(pRosti + 6 * Long.BYTES);
+    }
+
     public static long getValueOffsets(long pRosti) {
         return Unsafe.getUnsafe().getLong(pRosti + 7 * Long.BYTES);
     }
@@ -0,0 +1,64 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.tasks;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.CountDownLatchSPI;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HashJoinTask {
+    private static final Log LOG = LogFactory.getLog(HashJoinTask.class);
+    private Handler handler;
+    private int type;
+    private int slot;
+    private AtomicInteger errorCount;
+    private CountDownLatchSPI doneLatch;
+
+    public void of(Handler handler, int type, int slot, AtomicInteger errorCount, CountDownLatchSPI doneLatch) {
+        this.handler = handler;
+        this.type = type;
+        this.slot = slot;
+        this.errorCount = errorCount;
+        this.doneLatch = doneLatch;
+    }
+
+    public boolean run() {
+        try {
+            handler.run(type, slot);
+        } catch (Throwable th) {
+            LOG.error().$("hash join task failed [type=").$(type).$(", ex=").$(th).I$();
+            errorCount.incrementAndGet();
+        } finally {
+            doneLatch.countDown();
+        }
+        return true;
+    }
+
+    @FunctionalInterface
+    public interface Handler {
+        void run(int type, int slot);
+    }
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.tasks;
+
+import io.questdb.cairo.TableReaderSelectedColumnRecord;
+import io.questdb.cairo.sql.Function;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.CountDownLatchSPI;
+import io.questdb.std.DirectLongList;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PageFrameFilterTask {
+    private static final Log LOG = LogFactory.getLog(PageFrameFilterTask.class);
+    private Function filter;
+    private TableReaderSelectedColumnRecord record;
+    private DirectLongList rows;
+    private int partitionIndex;
+    private long rowLo;
+    private long rowHi;
+    private AtomicInteger errorCount;
+    private CountDownLatchSPI doneLatch;
+
+    public void of(
+            Function filter,
+            TableReaderSelectedColumnRecord record,
+            DirectLongList rows,
+            int partitionIndex,
+            long rowLo,
+            long rowHi,
+            AtomicInteger errorCount,
+            CountDownLatchSPI doneLatch
+    ) {
+        this.filter = filter;
+        this.record = record;
+        this.rows = rows;
+        this.partitionIndex = partitionIndex;
+        this.rowLo = rowLo;
+        this.rowHi = rowHi;
+        this.errorCount = errorCount;
+        this.doneLatch = doneLatch;
+    }
+
+    public boolean run() {
+        try {
+            filter(filter, record, rows, partitionIndex, rowLo, rowHi);
+        } catch (Throwable th) {
+            LOG.error().$("page frame filter failed [ex=").$(th).I$();
+            errorCount.incrementAndGet();
+        } finally {
+            doneLatch.countDown();
+        }
+        return true;
+    }
+
+    public static void filter(
+            Function filter,
+            TableReaderSelectedColumnRecord record,
+            DirectLongList rows,
+            int partitionIndex,
+            long rowLo,
+            long rowHi
+    ) {
+        rows.clear();
+        record.jumpTo(partitionIndex, rowLo);
+        for (long r = rowLo; r < rowHi; r++) {
+            record.setRecordIndex(r);
+            if (filter.getBool(record)) {
+                rows.add(r);
+            }
+        }
+    }
+}
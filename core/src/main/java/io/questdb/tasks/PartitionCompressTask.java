@@ -0,0 +1,109 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.tasks;
+
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.StringSink;
+
+public class PartitionCompressTask {
+    private final ObjList<CharSequence> columnNames = new ObjList<>();
+    private final IntList columnTypes = new IntList();
+    private final LongList columnRowCounts = new LongList();
+    private final StringSink tablePath = new StringSink();
+    private int partitionBy;
+    private long partitionTimestamp;
+    private long partitionNameTxn;
+    private int commitMode;
+    private SOUnboundedCountDownLatch doneLatch;
+
+    public void addColumn(CharSequence columnName, int columnType, long rowCount) {
+        columnNames.add(columnName);
+        columnTypes.add(columnType);
+        columnRowCounts.add(rowCount);
+    }
+
+    public int getColumnCount() {
+        return columnNames.size();
+    }
+
+    public CharSequence getColumnName(int index) {
+        return columnNames.getQuick(index);
+    }
+
+    public long getColumnRowCount(int index) {
+        return columnRowCounts.getQuick(index);
+    }
+
+    public int getColumnType(int index) {
+        return columnTypes.getQuick(index);
+    }
+
+    public int getCommitMode() {
+        return commitMode;
+    }
+
+    public SOUnboundedCountDownLatch getDoneLatch() {
+        return doneLatch;
+    }
+
+    public int getPartitionBy() {
+        return partitionBy;
+    }
+
+    public long getPartitionNameTxn() {
+        return partitionNameTxn;
+    }
+
+    public long getPartitionTimestamp() {
+        return partitionTimestamp;
+    }
+
+    public CharSequence getTablePath() {
+        return tablePath;
+    }
+
+    public void of(
+            CharSequence tablePath,
+            int partitionBy,
+            long partitionTimestamp,
+            long partitionNameTxn,
+            int commitMode,
+            SOUnboundedCountDownLatch doneLatch
+    ) {
+        this.tablePath.clear();
+        this.tablePath.put(tablePath);
+        this.partitionBy = partitionBy;
+        this.partitionTimestamp = partitionTimestamp;
+        this.partitionNameTxn = partitionNameTxn;
+        this.commitMode = commitMode;
+        this.doneLatch = doneLatch;
+        columnNames.clear();
+        columnTypes.clear();
+        columnRowCounts.clear();
+    }
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.tasks;
+
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.TableReaderSelectedColumnRecord;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.CountDownLatchSPI;
+import io.questdb.std.LongList;
+import io.questdb.std.ObjList;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SampleByTask {
+    private static final Log LOG = LogFactory.getLog(SampleByTask.class);
+    private ObjList<GroupByFunction> groupByFunctions;
+    private RecordSink keySink;
+    private TimestampSampler timestampSampler;
+    private int timestampIndex;
+    private TableReaderSelectedColumnRecord record;
+    private Map map;
+    private LongList frames;
+    private AtomicInteger errorCount;
+    private CountDownLatchSPI doneLatch;
+
+    /**
+     * Aggregates rows of the given frames into the map. Map is keyed by base record keys followed
+     * by the sample timestamp. Frames are (partitionIndex, rowLo, rowHi) triples in timestamp order,
+     * so map cursor returns samples in timestamp order and keys in order of their first appearance.
+     */
+    public static void aggregate(
+            ObjList<GroupByFunction> groupByFunctions,
+            RecordSink keySink,
+            TimestampSampler timestampSampler,
+            int timestampIndex,
+            TableReaderSelectedColumnRecord record,
+            Map map,
+            LongList frames
+    ) {
+        map.clear();
+        final int n = groupByFunctions.size();
+        long sample = Long.MIN_VALUE;
+        long nextSample = Long.MIN_VALUE;
+        for (int i = 0, m = frames.size(); i < m; i += 3) {
+            final long rowLo = frames.getQuick(i + 1);
+            final long rowHi = frames.getQuick(i + 2);
+            record.jumpTo((int) frames.getQuick(i), rowLo);
+            for (long r = rowLo; r < rowHi; r++) {
+                record.setRecordIndex(r);
+                final long timestamp = record.getTimestamp(timestampIndex);
+                if (timestamp >= nextSample) {
+                    sample = timestampSampler.round(timestamp);
+                    nextSample = timestampSampler.nextTimestamp(sample);
+                }
+                final MapKey key = map.withKey();
+                keySink.copy(record, key);
+                key.putTimestamp(sample);
+                final MapValue value = key.createValue();
+                if (value.isNew()) {
+                    for (int j = 0; j < n; j++) {
+                        groupByFunctions.getQuick(j).computeFirst(value, record);
+                    }
+                } else {
+                    for (int j = 0; j < n; j++) {
+                        groupByFunctions.getQuick(j).computeNext(value, record);
+                    }
+                }
+            }
+        }
+    }
+
+    public void of(
+            ObjList<GroupByFunction> groupByFunctions,
+            RecordSink keySink,
+            TimestampSampler timestampSampler,
+            int timestampIndex,
+            TableReaderSelectedColumnRecord record,
+            Map map,
+            LongList frames,
+            AtomicInteger errorCount,
+            CountDownLatchSPI doneLatch
+    ) {
+        this.groupByFunctions = groupByFunctions;
+        this.keySink = keySink;
+        this.timestampSampler = timestampSampler;
+        this.timestampIndex = timestampIndex;
+        this.record = record;
+        this.map = map;
+        this.frames = frames;
+        this.errorCount = errorCount;
+        this.doneLatch = doneLatch;
+    }
+
+    public boolean run() {
+        try {
+            aggregate(groupByFunctions, keySink, timestampSampler, timestampIndex, record, map, frames);
+        } catch (Throwable th) {
+            LOG.error().$("sample by aggregation failed [ex=").$(th).I$();
+            errorCount.incrementAndGet();
+        } finally {
+            doneLatch.countDown();
+        }
+        return true;
+    }
+}
@@ -135,6 +135,9 @@ public class PropServerConfigurationTest {
 
         Assert.assertEquals(CommitMode.NOSYNC, configuration.getCairoConfiguration().getCommitMode());
         Assert.assertEquals(2097152, configuration.getCairoConfiguration().getSqlCopyBufferSize());
+        Assert.assertEquals(64 * 1024 * 1024, configuration.getCairoConfiguration().getSqlCopyChunkSize());
+        Assert.assertEquals(32, configuration.getCairoConfiguration().getSqlCopyQueueCapacity());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelCopyEnabled());
         Assert.assertEquals(32, configuration.getCairoConfiguration().getCopyPoolCapacity());
         Assert.assertEquals(5, configuration.getCairoConfiguration().getCreateAsSelectRetryCount());
         Assert.assertEquals("fast", configuration.getCairoConfiguration().getDefaultMapType());
@@ -151,6 +154,9 @@ public class PropServerConfigurationTest {
 
         Assert.assertEquals(100000, configuration.getCairoConfiguration().getParallelIndexThreshold());
         Assert.assertEquals(5, configuration.getCairoConfiguration().getReaderPoolMaxSegments());
+        Assert.assertEquals(100, configuration.getCairoConfiguration().getReaderPoolRefreshInterval());
+        Assert.assertEquals(1, configuration.getWorkerPoolConfiguration().getSleepTimeout());
+        Assert.assertFalse(configuration.getWorkerPoolConfiguration().isEventDriven());
         Assert.assertEquals(1_000_000, configuration.getCairoConfiguration().getSpinLockTimeoutUs());
         Assert.assertEquals(1024, configuration.getCairoConfiguration().getSqlCharacterStoreCapacity());
         Assert.assertEquals(64, configuration.getCairoConfiguration().getSqlCharacterStoreSequencePoolCapacity());
@@ -178,6 +184,29 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlSortValueMaxPages());
         Assert.assertEquals(10000, configuration.getCairoConfiguration().getWorkStealTimeoutNanos());
         Assert.assertTrue(configuration.getCairoConfiguration().isParallelIndexingEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelFilterEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlJitFilterEnabled());
+        Assert.assertEquals(1_000_000, configuration.getCairoConfiguration().getSqlPageFrameMaxRows());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getSqlParallelQueryLimit());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getSqlParallelQueryTaskLimit());
+        Assert.assertEquals(0, configuration.getQueryWorkerPoolConfiguration().getWorkerCount());
+        Assert.assertFalse(configuration.getQueryWorkerPoolConfiguration().haltOnError());
+        Assert.assertEquals("query", configuration.getQueryWorkerPoolConfiguration().getPoolName());
+        Assert.assertEquals(64, configuration.getCairoConfiguration().getPageFrameFilterQueueCapacity());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelSampleByEnabled());
+        Assert.assertEquals(64, configuration.getCairoConfiguration().getSampleByQueueCapacity());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlRadixSortEnabled());
+        Assert.assertEquals(64, configuration.getCairoConfiguration().getRadixSortQueueCapacity());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelHashJoinEnabled());
+        Assert.assertEquals(64, configuration.getCairoConfiguration().getHashJoinQueueCapacity());
+        Assert.assertNull(configuration.getCairoConfiguration().getSqlSpillRoot());
+        Assert.assertEquals(16L * 1024 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSpillMaxSize());
+        Assert.assertFalse(configuration.getCairoConfiguration().isWalEnabled());
+        Assert.assertEquals(1024 * 1024, configuration.getCairoConfiguration().getWalBufferSize());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getO3CommitLagMaxPartitions());
+        Assert.assertFalse(configuration.getCairoConfiguration().isPartitionCompressionEnabled());
+        Assert.assertEquals(64, configuration.getCairoConfiguration().getPartitionCompressionQueueCapacity());
+        Assert.assertFalse(configuration.getCairoConfiguration().isPartitionStatsEnabled());
         Assert.assertEquals(16 * 1024, configuration.getCairoConfiguration().getSqlJoinMetadataPageSize());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlJoinMetadataMaxResizes());
         Assert.assertEquals(64, configuration.getCairoConfiguration().getAnalyticColumnPoolCapacity());
@@ -270,6 +299,11 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(16777216, configuration.getCairoConfiguration().getDataIndexValueAppendPageSize());
         Assert.assertEquals(Files.PAGE_SIZE, configuration.getCairoConfiguration().getMiscAppendPageSize());
         Assert.assertEquals(2.0, configuration.getHttpServerConfiguration().getWaitProcessorConfiguration().getExponentialWaitMultiplier(), 0.00001);
+
+        Assert.assertEquals(0, configuration.getPGWireConfiguration().getInsertGroupCommitInterval());
+        Assert.assertEquals(1000, configuration.getPGWireConfiguration().getInsertGroupCommitRowCount());
+        Assert.assertEquals(300_000, configuration.getPGWireConfiguration().getNamedPortalIdleTimeout());
+        Assert.assertEquals(10_000, configuration.getPGWireConfiguration().getDispatcherConfiguration().getHeartbeatInterval());
     }
 
     @Test
@@ -482,6 +516,9 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(2_000, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getConnectionCheckFrequency());
             Assert.assertEquals(4, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getFloatScale());
             Assert.assertEquals(4194304, configuration.getCairoConfiguration().getSqlCopyBufferSize());
+            Assert.assertEquals(32 * 1024 * 1024, configuration.getCairoConfiguration().getSqlCopyChunkSize());
+            Assert.assertEquals(16, configuration.getCairoConfiguration().getSqlCopyQueueCapacity());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelCopyEnabled());
             Assert.assertEquals(64, configuration.getCairoConfiguration().getCopyPoolCapacity());
             Assert.assertSame(FilesFacadeImpl.INSTANCE, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getFilesFacade());
             Assert.assertEquals("Keep-Alive: timeout=10, max=50000" + Misc.EOL, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getKeepAliveHeader());
@@ -502,6 +539,9 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(509, configuration.getCairoConfiguration().getMkDirMode());
             Assert.assertEquals(1000000, configuration.getCairoConfiguration().getParallelIndexThreshold());
             Assert.assertEquals(10, configuration.getCairoConfiguration().getReaderPoolMaxSegments());
+            Assert.assertEquals(250, configuration.getCairoConfiguration().getReaderPoolRefreshInterval());
+            Assert.assertEquals(20, configuration.getWorkerPoolConfiguration().getSleepTimeout());
+            Assert.assertTrue(configuration.getWorkerPoolConfiguration().isEventDriven());
             Assert.assertEquals(5_000_000, configuration.getCairoConfiguration().getSpinLockTimeoutUs());
             Assert.assertEquals(2048, configuration.getCairoConfiguration().getSqlCharacterStoreCapacity());
             Assert.assertEquals(128, configuration.getCairoConfiguration().getSqlCharacterStoreSequencePoolCapacity());
@@ -529,6 +569,31 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(1028, configuration.getCairoConfiguration().getSqlSortValueMaxPages());
             Assert.assertEquals(1000000, configuration.getCairoConfiguration().getWorkStealTimeoutNanos());
             Assert.assertFalse(configuration.getCairoConfiguration().isParallelIndexingEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelFilterEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlJitFilterEnabled());
+            Assert.assertEquals(100_000, configuration.getCairoConfiguration().getSqlPageFrameMaxRows());
+            Assert.assertEquals(4, configuration.getCairoConfiguration().getSqlParallelQueryLimit());
+            Assert.assertEquals(16, configuration.getCairoConfiguration().getSqlParallelQueryTaskLimit());
+            Assert.assertEquals(2, configuration.getQueryWorkerPoolConfiguration().getWorkerCount());
+            Assert.assertArrayEquals(new int[]{7, 8}, configuration.getQueryWorkerPoolConfiguration().getWorkerAffinity());
+            Assert.assertTrue(configuration.getQueryWorkerPoolConfiguration().haltOnError());
+            Assert.assertEquals(20, configuration.getQueryWorkerPoolConfiguration().getSleepTimeout());
+            Assert.assertTrue(configuration.getQueryWorkerPoolConfiguration().isEventDriven());
+            Assert.assertEquals(32, configuration.getCairoConfiguration().getPageFrameFilterQueueCapacity());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelSampleByEnabled());
+            Assert.assertEquals(16, configuration.getCairoConfiguration().getSampleByQueueCapacity());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlRadixSortEnabled());
+            Assert.assertEquals(16, configuration.getCairoConfiguration().getRadixSortQueueCapacity());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelHashJoinEnabled());
+            Assert.assertEquals(16, configuration.getCairoConfiguration().getHashJoinQueueCapacity());
+            Assert.assertEquals("/tmp/spill", configuration.getCairoConfiguration().getSqlSpillRoot());
+            Assert.assertEquals(2L * 1024 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSpillMaxSize());
+            Assert.assertTrue(configuration.getCairoConfiguration().isWalEnabled());
+            Assert.assertEquals(64 * 1024, configuration.getCairoConfiguration().getWalBufferSize());
+            Assert.assertEquals(8, configuration.getCairoConfiguration().getO3CommitLagMaxPartitions());
+            Assert.assertTrue(configuration.getCairoConfiguration().isPartitionCompressionEnabled());
+            Assert.assertEquals(16, configuration.getCairoConfiguration().getPartitionCompressionQueueCapacity());
+            Assert.assertTrue(configuration.getCairoConfiguration().isPartitionStatsEnabled());
             Assert.assertEquals(8 * 1024, configuration.getCairoConfiguration().getSqlJoinMetadataPageSize());
             Assert.assertEquals(10_000, configuration.getCairoConfiguration().getSqlJoinMetadataMaxResizes());
             Assert.assertEquals(16, configuration.getCairoConfiguration().getBindVariablePoolSize());
@@ -607,6 +672,10 @@ public class PropServerConfigurationTest {
 
             // Pg wire
             Assert.assertEquals(9, configuration.getPGWireConfiguration().getBinParamCountCapacity());
+            Assert.assertEquals(5_000, configuration.getPGWireConfiguration().getInsertGroupCommitInterval());
+            Assert.assertEquals(500, configuration.getPGWireConfiguration().getInsertGroupCommitRowCount());
+            Assert.assertEquals(60_000, configuration.getPGWireConfiguration().getNamedPortalIdleTimeout());
+            Assert.assertEquals(2_000, configuration.getPGWireConfiguration().getDispatcherConfiguration().getHeartbeatInterval());
         }
     }
 
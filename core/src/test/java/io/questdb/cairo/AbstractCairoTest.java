@@ -63,6 +63,11 @@ public class AbstractCairoTest {
     protected static FilesFacade ff;
     protected static long configOverrideCommitLag = -1;
     protected static int configOverrideMaxUncommittedRows = -1;
+    protected static boolean configOverrideWalEnabled = false;
+    protected static int configOverrideWalBufferSize = -1;
+    protected static boolean configOverridePartitionCompressionEnabled = false;
+    protected static boolean configOverridePartitionStatsEnabled = false;
+    protected static long configOverrideSqlCopyChunkSize = -1;
     protected static Metrics metrics = Metrics.enabled();
     protected static int capacity = -1;
     protected static int sampleByIndexSearchPageSize;
@@ -120,6 +125,12 @@ public class AbstractCairoTest {
                 return super.getMaxUncommittedRows();
             }
 
+            @Override
+            public long getSqlCopyChunkSize() {
+                if (configOverrideSqlCopyChunkSize > 0) return configOverrideSqlCopyChunkSize;
+                return super.getSqlCopyChunkSize();
+            }
+
             public int getSampleByIndexSearchPageSize() {
                 return sampleByIndexSearchPageSize > 0 ? sampleByIndexSearchPageSize : super.getSampleByIndexSearchPageSize();
             }
@@ -129,6 +140,26 @@ public class AbstractCairoTest {
                 return binaryEncodingMaxLength > 0 ? binaryEncodingMaxLength : super.getBinaryEncodingMaxLength();
             }
 
+            @Override
+            public boolean isWalEnabled() {
+                return configOverrideWalEnabled || super.isWalEnabled();
+            }
+
+            @Override
+            public int getWalBufferSize() {
+                return configOverrideWalBufferSize > 0 ? configOverrideWalBufferSize : super.getWalBufferSize();
+            }
+
+            @Override
+            public boolean isPartitionCompressionEnabled() {
+                return configOverridePartitionCompressionEnabled || super.isPartitionCompressionEnabled();
+            }
+
+            @Override
+            public boolean isPartitionStatsEnabled() {
+                return configOverridePartitionStatsEnabled || super.isPartitionStatsEnabled();
+            }
+
             @Override
             public CharSequence getDefaultMapType() {
                 if (defaultMapType == null) {
@@ -164,6 +195,11 @@ public class AbstractCairoTest {
         TestUtils.removeTestPath(root);
         configOverrideMaxUncommittedRows = -1;
         configOverrideCommitLag = -1;
+        configOverrideWalEnabled = false;
+        configOverrideWalBufferSize = -1;
+        configOverridePartitionCompressionEnabled = false;
+        configOverridePartitionStatsEnabled = false;
+        configOverrideSqlCopyChunkSize = -1;
         currentMicros = -1;
         sampleByIndexSearchPageSize = -1;
         defaultMapType = null;
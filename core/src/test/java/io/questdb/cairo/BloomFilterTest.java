@@ -0,0 +1,183 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.cairo;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BloomFilterTest extends AbstractGriffinTest {
+
+    @Test
+    public void testCreateTableAsSelectUnsupportedType() throws Exception {
+        assertMemoryLeak(() -> {
+            try {
+                compiler.compile("create table x as (select x * 0.5 d from long_sequence(10)), bloom(d)", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(67, e.getPosition());
+                TestUtils.assertContains(e.getFlyweightMessage(), "bloom filter is supported only for INT, LONG and STRING columns");
+            }
+        });
+    }
+
+    @Test
+    public void testFilterResults() throws Exception {
+        assertMemoryLeak(() -> {
+            createWithBloom();
+            assertFilter("l = 9");
+            assertFilter("l = 1000");
+            assertFilter("9 = l");
+            assertFilter("l = -1");
+            assertFilter("i = 3");
+            assertFilter("i = 5000000000");
+            assertFilter("s = 'abc'");
+            assertFilter("s = 'zzz'");
+            assertFilter("s = null");
+            assertFilter("l = 3 and s = 'def'");
+            assertFilter("l = 3 or l = 20");
+        });
+    }
+
+    @Test
+    public void testFilterSkipsPartitions() throws Exception {
+        assertMemoryLeak(() -> {
+            createWithBloom();
+            // value in the file is not in the bloom filter, this is how we know partition is skipped
+            overwriteFirstValue("x", "1970-01-01", "l", 1000);
+            TestUtils.assertSql(compiler, sqlExecutionContext, "select l from x where l = 1000", sink, "l\n");
+            TestUtils.assertSql(compiler, sqlExecutionContext, "select l from x where l > 999", sink, "l\n" +
+                    "1000\n");
+        });
+    }
+
+    @Test
+    public void testFlagSurvivesColumnRename() throws Exception {
+        assertMemoryLeak(() -> {
+            createWithBloom();
+            compiler.compile("alter table x rename column l to k", sqlExecutionContext);
+            assertBloomFile("x", "1970-01-01", "k", true);
+            try (TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "x")) {
+                final TableReaderMetadata metadata = reader.getMetadata();
+                Assert.assertTrue(metadata.isColumnBloomFiltered(metadata.getColumnIndex("k")));
+                Assert.assertTrue(metadata.isColumnBloomFiltered(metadata.getColumnIndex("s")));
+                Assert.assertFalse(metadata.isColumnBloomFiltered(metadata.getColumnIndex("d")));
+            }
+        });
+    }
+
+    @Test
+    public void testO3RemovesBloomFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            createWithBloom();
+            assertBloomFile("x", "1970-01-01", "l", true);
+            for (String table : new String[]{"x", "y"}) {
+                compiler.compile("insert into " + table + " select 1000, 2, 3.0, 'xyz', cast(3600000000 as timestamp) from long_sequence(1)", sqlExecutionContext);
+            }
+            assertBloomFile("x", "1970-01-01", "l", false);
+            assertFilter("l = 1000");
+            assertFilter("s = 'xyz'");
+            // partition that was not touched keeps bloom filter
+            assertBloomFile("x", "1970-01-02", "l", true);
+        });
+    }
+
+    @Test
+    public void testSealedPartitionsHaveBloomFilters() throws Exception {
+        assertMemoryLeak(() -> {
+            createWithBloom();
+            assertBloomFile("x", "1970-01-01", "l", true);
+            assertBloomFile("x", "1970-01-01", "i", true);
+            assertBloomFile("x", "1970-01-01", "s", true);
+            assertBloomFile("x", "1970-01-01", "d", false);
+            // active partition
+            assertBloomFile("x", "1970-01-04", "l", false);
+            assertBloomFile("y", "1970-01-01", "l", false);
+
+            try (TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "x")) {
+                final int l = reader.getMetadata().getColumnIndex("l");
+                final int s = reader.getMetadata().getColumnIndex("s");
+                for (int i = 1; i < 9; i++) {
+                    Assert.assertTrue(reader.bloomFilterMayContain(0, l, BloomFilter.hash(i)));
+                }
+                Assert.assertTrue(reader.bloomFilterMayContain(0, s, BloomFilter.hash("abc")));
+                Assert.assertFalse(reader.bloomFilterMayContain(0, l, BloomFilter.hash(1000)));
+                Assert.assertFalse(reader.bloomFilterMayContain(0, s, BloomFilter.hash("zzz")));
+                // no filter in active partition
+                Assert.assertTrue(reader.bloomFilterMayContain(3, l, BloomFilter.hash(1000)));
+            }
+        });
+    }
+
+    private static void assertBloomFile(String tableName, String partition, String columnName, boolean exists) {
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(tableName).concat(partition);
+            Assert.assertEquals(exists, configuration.getFilesFacade().exists(TableUtils.bfFile(path, columnName)));
+        }
+    }
+
+    private static void overwriteFirstValue(String tableName, String partition, String columnName, long value) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(tableName).concat(partition);
+            final long fd = TableUtils.openRW(ff, TableUtils.dFile(path, columnName), LOG);
+            final long buf = Unsafe.malloc(Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+            try {
+                Unsafe.getUnsafe().putLong(buf, value);
+                Assert.assertEquals(Long.BYTES, ff.write(fd, buf, Long.BYTES, 0));
+            } finally {
+                Unsafe.free(buf, Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+                ff.close(fd);
+            }
+        }
+    }
+
+    private void assertFilter(String filter) throws Exception {
+        TestUtils.assertSqlCursors(
+                compiler,
+                sqlExecutionContext,
+                "y where " + filter,
+                "x where " + filter,
+                LOG
+        );
+    }
+
+    private void createWithBloom() throws Exception {
+        final String select = "select" +
+                " x l," +
+                " cast(x as int) i," +
+                " x * 0.5 d," +
+                " rnd_str('abc', 'def', null) s," +
+                " timestamp_sequence(0, 10800000000) ts" +
+                " from long_sequence(30)";
+        compiler.compile("create table y as (" + select + ") timestamp(ts) partition by DAY", sqlExecutionContext);
+        compiler.compile("create table x as (y), bloom(l), bloom(i), bloom(s) timestamp(ts) partition by DAY", sqlExecutionContext);
+    }
+}
@@ -0,0 +1,446 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.cairo;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.NativeLPSZ;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static io.questdb.griffin.CompiledQuery.ALTER;
+
+public class ColumnCodecTest extends AbstractGriffinTest {
+
+    @Test
+    public void testCodecDate() throws Exception {
+        final Rnd rnd = new Rnd();
+        assertCodec(ColumnType.DATE, 1_000, (addr, i) -> Unsafe.getUnsafe().putLong(addr, i % 10 == 0 ? Numbers.LONG_NaN : 1_600_000_000_000L + i * 1000 + rnd.nextInt(10)));
+    }
+
+    @Test
+    public void testCodecDouble() throws Exception {
+        final Rnd rnd = new Rnd();
+        assertCodec(ColumnType.DOUBLE, 1_000, (addr, i) -> {
+            final double value;
+            switch ((int) (i % 5)) {
+                case 0:
+                    value = Double.NaN;
+                    break;
+                case 1:
+                    value = 42.5;
+                    break;
+                case 2:
+                    value = rnd.nextDouble();
+                    break;
+                case 3:
+                    value = -i * 0.25;
+                    break;
+                default:
+                    value = Double.POSITIVE_INFINITY;
+                    break;
+            }
+            Unsafe.getUnsafe().putDouble(addr, value);
+        });
+    }
+
+    @Test
+    public void testCodecEmpty() throws Exception {
+        assertCodec(ColumnType.DOUBLE, 0, (addr, i) -> {
+        });
+    }
+
+    @Test
+    public void testCodecInt() throws Exception {
+        final Rnd rnd = new Rnd();
+        assertCodec(ColumnType.INT, 1_000, (addr, i) -> {
+            final int value;
+            if (i < 300) {
+                value = 7;
+            } else if (i < 600) {
+                value = rnd.nextInt();
+            } else if (i % 3 == 0) {
+                value = Numbers.INT_NaN;
+            } else {
+                value = Integer.MAX_VALUE - rnd.nextInt(100);
+            }
+            Unsafe.getUnsafe().putInt(addr, value);
+        });
+    }
+
+    @Test
+    public void testCodecLong() throws Exception {
+        final Rnd rnd = new Rnd();
+        assertCodec(ColumnType.LONG, 1_001, (addr, i) -> Unsafe.getUnsafe().putLong(addr, i % 7 == 0 ? Numbers.LONG_NaN : i < 500 ? rnd.nextLong() : Long.MAX_VALUE - rnd.nextInt(1000)));
+    }
+
+    @Test
+    public void testCodecTimestamp() throws Exception {
+        final Rnd rnd = new Rnd();
+        assertCodec(ColumnType.TIMESTAMP, 10_000, (addr, i) -> {
+            final long value;
+            if (i < 5_000) {
+                value = 1_600_000_000_000_000L + i * 1_000_000L;
+            } else if (i % 100 == 0) {
+                value = Numbers.LONG_NaN;
+            } else {
+                value = 1_600_000_000_000_000L + i * 1_000_000L + rnd.nextLong(10_000_000_000L);
+            }
+            Unsafe.getUnsafe().putLong(addr, value);
+        });
+    }
+
+    @Test
+    public void testCodecTimestampRegularInterval() throws Exception {
+        final long size = assertCodec(ColumnType.TIMESTAMP, 100_000, (addr, i) -> Unsafe.getUnsafe().putLong(addr, i * 10_000L));
+        // a bit per value and a header
+        Assert.assertTrue(size < 100_000 / 8 + 64);
+    }
+
+    @Test
+    public void testCompressActivePartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createCompressed();
+            try {
+                compiler.compile("alter table y compress partition list '1970-01-03'", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(38, e.getPosition());
+                TestUtils.assertContains(e.getFlyweightMessage(), "could not compress partition '1970-01-03'");
+            }
+            assertColumnFile("y", "1970-01-03", "l", true, false);
+        });
+    }
+
+    @Test
+    public void testCompressPartitionExpectPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createCompressed();
+            try {
+                compiler.compile("alter table y compress column l", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(23, e.getPosition());
+                TestUtils.assertContains(e.getFlyweightMessage(), "'partition' expected");
+            }
+        });
+    }
+
+    @Test
+    public void testCompressPartitionFailure() throws Exception {
+        assertMemoryLeak(failingCompressionFacade(), () -> {
+            createCompressed();
+            try {
+                compiler.compile("alter table y compress partition list '1970-01-01'", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(38, e.getPosition());
+                TestUtils.assertContains(e.getFlyweightMessage(), "could not compress partition '1970-01-01' [errno=");
+                TestUtils.assertContains(e.getFlyweightMessage(), "could not open read-write");
+            }
+            // column that failed is left as is
+            assertColumnFile("y", "1970-01-01", "l", true, false);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "x", "y", LOG);
+        });
+    }
+
+    @Test
+    public void testCompressPartitionWhereFailure() throws Exception {
+        assertMemoryLeak(failingCompressionFacade(), () -> {
+            createCompressed();
+            try {
+                compiler.compile("alter table y compress partition where ts >= '1970-01-01'", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(23, e.getPosition());
+                TestUtils.assertContains(e.getFlyweightMessage(), "could not compress partition '1970-01-01' [errno=");
+            }
+            assertColumnFile("y", "1970-01-01", "l", true, false);
+            // statement stops at the first partition that fails
+            assertColumnFile("y", "1970-01-02", "l", true, false);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "x", "y", LOG);
+        });
+    }
+
+    @Test
+    public void testCompressPartitionList() throws Exception {
+        assertMemoryLeak(() -> {
+            createCompressed();
+            Assert.assertEquals(ALTER, compiler.compile("alter table y compress partition list '1970-01-01'", sqlExecutionContext).getType());
+            assertColumnFile("y", "1970-01-01", "l", false, true);
+            assertColumnFile("y", "1970-01-01", "r", true, false);
+            assertColumnFile("y", "1970-01-02", "l", true, false);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "x", "y", LOG);
+
+            // compressing partition again is a no-op
+            compiler.compile("alter table y compress partition list '1970-01-01'", sqlExecutionContext);
+            assertColumnFile("y", "1970-01-01", "l", false, true);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "x", "y", LOG);
+        });
+    }
+
+    @Test
+    public void testCompressPartitionWhere() throws Exception {
+        assertMemoryLeak(() -> {
+            createCompressed();
+            Assert.assertEquals(ALTER, compiler.compile("alter table y compress partition where ts >= '1970-01-01'", sqlExecutionContext).getType());
+            assertColumnFile("y", "1970-01-01", "l", false, true);
+            assertColumnFile("y", "1970-01-02", "l", false, true);
+            // active partition is skipped
+            assertColumnFile("y", "1970-01-03", "l", true, false);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "x", "y", LOG);
+        });
+    }
+
+    @Test
+    public void testDropColumnOfCompressedPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createCompressed();
+            compiler.compile("alter table x drop column l", sqlExecutionContext);
+            compiler.compile("alter table y drop column l", sqlExecutionContext);
+            assertColumnFile("x", "1970-01-01", "l", false, false);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "y", "x", LOG);
+        });
+    }
+
+    @Test
+    public void testDropFirstPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createCompressed();
+            compiler.compile("alter table x drop partition list '1970-01-01'", sqlExecutionContext);
+            compiler.compile("alter table y drop partition list '1970-01-01'", sqlExecutionContext);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "y", "x", LOG);
+            assertSql("select min(ts) from x", "min\n1970-01-02T00:00:00.000000Z\n");
+            try (TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "x")) {
+                Assert.assertEquals(reader.getMinTimestamp(), 86_400_000_000L);
+            }
+        });
+    }
+
+    @Test
+    public void testO3IntoCompressedPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createCompressed();
+            final String o3 = "select 1, 2L, 3.0, cast(4 as timestamp), 'x', 5L, cast(43200000001 as timestamp) from long_sequence(1)";
+            compiler.compile("insert into x " + o3, sqlExecutionContext);
+            compiler.compile("insert into y " + o3, sqlExecutionContext);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "y", "x", LOG);
+            // partition touched by O3 is not compressed again
+            try (Path path = new Path()) {
+                path.of(configuration.getRoot()).concat("x").$();
+                final int plen = path.length();
+                final long[] count = {0};
+                configuration.getFilesFacade().iterateDir(path.$(), (name, type) -> {
+                    if (type == Files.DT_DIR && Chars.startsWith(new NativeLPSZ().of(name), "1970-01-01")) {
+                        count[0]++;
+                        path.trimTo(plen).concat(new NativeLPSZ().of(name));
+                        Assert.assertFalse(configuration.getFilesFacade().exists(TableUtils.dzFile(path, "l")));
+                    }
+                });
+                Assert.assertTrue(count[0] > 0);
+            }
+        });
+    }
+
+    @Test
+    public void testReadersShareDecodedColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            createCompressed();
+            // writer compresses queued partitions when it is closed
+            engine.releaseAllWriters();
+            assertColumnFile("x", "1970-01-01", "l", false, true);
+
+            final DecodedColumnCache cache = configuration.getDecodedColumnCache();
+            final int size = cache.size();
+            try (
+                    TableReader reader1 = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "x");
+                    TableReader reader2 = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "x")
+            ) {
+                Assert.assertNotSame(reader1, reader2);
+                reader1.openPartition(0);
+                final int decodedCount = cache.size() - size;
+                Assert.assertTrue(decodedCount > 0);
+                reader2.openPartition(0);
+                Assert.assertEquals(decodedCount, cache.size() - size);
+
+                final int columnIndex = reader1.getMetadata().getColumnIndex("l");
+                Assert.assertEquals(
+                        reader1.getColumn(TableReader.getPrimaryColumnIndex(reader1.getColumnBase(0), columnIndex)).getPageAddress(0),
+                        reader2.getColumn(TableReader.getPrimaryColumnIndex(reader2.getColumnBase(0), columnIndex)).getPageAddress(0)
+                );
+            }
+            engine.releaseAllReaders();
+            Assert.assertEquals(size, cache.size());
+        });
+    }
+
+    @Test
+    public void testRenameColumnOfCompressedPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createCompressed();
+            compiler.compile("alter table x rename column d to d2", sqlExecutionContext);
+            compiler.compile("alter table y rename column d to d2", sqlExecutionContext);
+            assertColumnFile("x", "1970-01-01", "d", false, false);
+            assertColumnFile("x", "1970-01-01", "d2", false, true);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "y", "x", LOG);
+        });
+    }
+
+    @Test
+    public void testSealedPartitionsAreCompressed() throws Exception {
+        assertMemoryLeak(() -> {
+            createCompressed();
+            // commit queues sealed partitions, they are compressed by the job
+            assertColumnFile("x", "1970-01-01", "l", true, false);
+            final PartitionCompressJob job = new PartitionCompressJob(engine.getMessageBus());
+            //noinspection StatementWithEmptyBody
+            while (job.run(0)) {
+            }
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "y", "x", LOG);
+            TestUtils.assertSqlCursors(
+                    compiler,
+                    sqlExecutionContext,
+                    "select sum(i), sum(l), sum(d), max(t), sum(r), count() from y",
+                    "select sum(i), sum(l), sum(d), max(t), sum(r), count() from x",
+                    LOG
+            );
+
+            for (String partition : new String[]{"1970-01-01", "1970-01-02"}) {
+                assertColumnFile("x", partition, "i", false, true);
+                assertColumnFile("x", partition, "l", false, true);
+                assertColumnFile("x", partition, "d", false, true);
+                assertColumnFile("x", partition, "t", false, true);
+                assertColumnFile("x", partition, "ts", false, true);
+                assertColumnFile("x", partition, "s", true, false);
+                // random values do not compress
+                assertColumnFile("x", partition, "r", true, false);
+            }
+            // active partition is left as is
+            assertColumnFile("x", "1970-01-03", "l", true, false);
+            assertColumnFile("y", "1970-01-01", "l", true, false);
+        });
+    }
+
+    private static FilesFacade failingCompressionFacade() {
+        return new FilesFacadeImpl() {
+            @Override
+            public long openRW(LPSZ name) {
+                if (Chars.endsWith(name, Files.SEPARATOR + "l.dz")) {
+                    return -1;
+                }
+                return super.openRW(name);
+            }
+        };
+    }
+
+    private static void assertColumnFile(String tableName, String partition, String columnName, boolean raw, boolean compressed) {
+        try (Path path = new Path()) {
+            final FilesFacade ff = configuration.getFilesFacade();
+            path.of(configuration.getRoot()).concat(tableName).concat(partition);
+            final int plen = path.length();
+            Assert.assertEquals(raw, ff.exists(TableUtils.dFile(path, columnName)));
+            Assert.assertEquals(compressed, ff.exists(TableUtils.dzFile(path.trimTo(plen), columnName)));
+        }
+    }
+
+    private long assertCodec(int columnType, long count, ValueGenerator generator) throws Exception {
+        final long[] compressedSize = {0};
+        assertMemoryLeak(() -> {
+            final int shift = ColumnType.pow2SizeOf(columnType);
+            final long size = count << shift;
+            final long allocSize = Math.max(size, 8);
+            final long bufSize = 32;
+            final long srcAddr = Unsafe.malloc(allocSize, MemoryTag.NATIVE_DEFAULT);
+            final long dstAddr = Unsafe.malloc(allocSize, MemoryTag.NATIVE_DEFAULT);
+            final long bufAddr = Unsafe.malloc(bufSize, MemoryTag.NATIVE_DEFAULT);
+            final FilesFacade ff = configuration.getFilesFacade();
+            try (Path path = new Path().of(configuration.getRoot()).concat("codec").put(TableUtils.FILE_SUFFIX_DZ).$()) {
+                for (long i = 0; i < count; i++) {
+                    generator.put(srcAddr + (i << shift), i);
+                }
+
+                final long fd = TableUtils.openRW(ff, path, LOG);
+                try {
+                    compressedSize[0] = ColumnCodec.encode(ff, fd, columnType, srcAddr, count, bufAddr, bufSize);
+                    Assert.assertEquals(compressedSize[0], ff.length(fd));
+                } finally {
+                    ff.close(fd);
+                }
+
+                final long readFd = TableUtils.openRO(ff, path, LOG);
+                final long mapAddr = TableUtils.mapRO(ff, readFd, compressedSize[0], MemoryTag.MMAP_DEFAULT);
+                try {
+                    Assert.assertEquals(size, ColumnCodec.getDecodedSize(mapAddr));
+                    ColumnCodec.decode(mapAddr, compressedSize[0], dstAddr);
+                } finally {
+                    ff.munmap(mapAddr, compressedSize[0], MemoryTag.MMAP_DEFAULT);
+                    ff.close(readFd);
+                }
+
+                for (long i = 0; i < size; i++) {
+                    Assert.assertEquals("offset " + i, Unsafe.getUnsafe().getByte(srcAddr + i), Unsafe.getUnsafe().getByte(dstAddr + i));
+                }
+
+                // truncated file is detected
+                if (count > 0) {
+                    try {
+                        ColumnCodec.decode(srcAddr, ColumnCodec.HEADER_SIZE, dstAddr);
+                        Assert.fail();
+                    } catch (CairoException ignored) {
+                    }
+                }
+            } finally {
+                Unsafe.free(srcAddr, allocSize, MemoryTag.NATIVE_DEFAULT);
+                Unsafe.free(dstAddr, allocSize, MemoryTag.NATIVE_DEFAULT);
+                Unsafe.free(bufAddr, bufSize, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+        return compressedSize[0];
+    }
+
+    private void createCompressed() throws Exception {
+        final String select = "select" +
+                " rnd_int(0, 1000, 0) i," +
+                " x l," +
+                " cast(rnd_int(0, 4, 0) as double) d," +
+                " cast(x * 1000 + rnd_int(0, 9, 0) as timestamp) t," +
+                " rnd_str(3, 5, 1) s," +
+                " rnd_long() r," +
+                " timestamp_sequence(0, 100000000) ts" +
+                " from long_sequence(2500)";
+        compiler.compile("create table y as (" + select + ") timestamp(ts) partition by DAY", sqlExecutionContext);
+        engine.releaseAllWriters();
+        configOverridePartitionCompressionEnabled = true;
+        compiler.compile("create table x as (y) timestamp(ts) partition by DAY", sqlExecutionContext);
+    }
+
+    @FunctionalInterface
+    private interface ValueGenerator {
+        void put(long addr, long index);
+    }
+}
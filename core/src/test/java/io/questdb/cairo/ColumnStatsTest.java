@@ -0,0 +1,213 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.cairo;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ColumnStatsTest extends AbstractGriffinTest {
+
+    @Test
+    public void testColumnTop() throws Exception {
+        assertMemoryLeak(() -> {
+            createWithStats();
+            for (String table : new String[]{"x", "y"}) {
+                compiler.compile("alter table " + table + " add column c long", sqlExecutionContext);
+                compiler.compile("insert into " + table + " select 1, 2, 3.0, 4, 'a', cast(331200000000 as timestamp), 5 from long_sequence(1)", sqlExecutionContext);
+                compiler.compile("insert into " + table + " select 1, 2, 3.0, 4, 'a', cast(432000000000 as timestamp), 6 from long_sequence(1)", sqlExecutionContext);
+            }
+
+            try (TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "x")) {
+                final ColumnStats stats = new ColumnStats();
+                final int c = reader.getMetadata().getColumnIndex("c");
+                // column did not exist when partitions were sealed
+                Assert.assertFalse(reader.readColumnStats(0, c, stats));
+                // column top is NULL
+                Assert.assertTrue(reader.readColumnStats(3, c, stats));
+                Assert.assertEquals(7, stats.getRowCount());
+                Assert.assertEquals(6, stats.getNullCount());
+                Assert.assertEquals(Numbers.LONG_NaN, stats.getMin());
+                Assert.assertEquals(5, stats.getMax());
+            }
+            assertFilter("c < 5");
+            assertFilter("c = 5");
+            assertFilter("c > 4");
+        });
+    }
+
+    @Test
+    public void testFilterResults() throws Exception {
+        assertMemoryLeak(() -> {
+            createWithStats();
+            assertFilter("l > 10");
+            assertFilter("l = 9");
+            assertFilter("10 > l");
+            assertFilter("l >= 30");
+            assertFilter("l > -5");
+            assertFilter("i <= 3");
+            assertFilter("i < 100");
+            assertFilter("d >= 14.5");
+            assertFilter("d = 4.0");
+            assertFilter("d > -1.5");
+            assertFilter("d = NaN");
+            assertFilter("NaN = d");
+            assertFilter("d != NaN");
+            assertFilter("d < NaN");
+            assertFilter("d = 4.5 and d != NaN");
+            assertFilter("n < 5");
+            assertFilter("n > 20");
+            assertFilter("n = null");
+            assertFilter("l > 5 and d < 3");
+            assertFilter("l > 20 or d < 3");
+            assertFilter("l > 20 and s = 'abc'");
+        });
+    }
+
+    @Test
+    public void testFilterSkipsPartitions() throws Exception {
+        assertMemoryLeak(() -> {
+            createWithStats();
+            // value in the file is not reflected in statistics, this is how we know partition is skipped
+            overwriteFirstValue("x", "1970-01-01", "l", 1000);
+            TestUtils.assertSql(compiler, sqlExecutionContext, "select l from x where l > 100", sink, "l\n");
+            TestUtils.assertSql(compiler, sqlExecutionContext, "select l from x where l > 7 limit 4", sink, "l\n" +
+                    "1000\n" +
+                    "8\n" +
+                    "9\n" +
+                    "10\n");
+        });
+    }
+
+    @Test
+    public void testO3RemovesStats() throws Exception {
+        assertMemoryLeak(() -> {
+            createWithStats();
+            assertColumnStatsFile("x", "1970-01-01", "l", true);
+            for (String table : new String[]{"x", "y"}) {
+                compiler.compile("insert into " + table + " select 1000, 2, 3.0, 4, 'a', cast(3600000000 as timestamp) from long_sequence(1)", sqlExecutionContext);
+            }
+            assertColumnStatsFile("x", "1970-01-01", "l", false);
+            assertFilter("l > 100");
+            // partition that was not touched keeps statistics
+            assertColumnStatsFile("x", "1970-01-02", "l", true);
+        });
+    }
+
+    @Test
+    public void testStatsOfSealedPartitions() throws Exception {
+        assertMemoryLeak(() -> {
+            createWithStats();
+            try (TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "x")) {
+                final TableReaderMetadata metadata = reader.getMetadata();
+                final ColumnStats stats = new ColumnStats();
+                Assert.assertEquals(4, reader.getPartitionCount());
+
+                Assert.assertTrue(reader.readColumnStats(1, metadata.getColumnIndex("l"), stats));
+                Assert.assertEquals(8, stats.getRowCount());
+                Assert.assertEquals(0, stats.getNullCount());
+                Assert.assertEquals(9, stats.getMin());
+                Assert.assertEquals(16, stats.getMax());
+
+                Assert.assertTrue(reader.readColumnStats(1, metadata.getColumnIndex("i"), stats));
+                Assert.assertEquals(9, stats.getMin());
+                Assert.assertEquals(16, stats.getMax());
+
+                Assert.assertTrue(reader.readColumnStats(1, metadata.getColumnIndex("d"), stats));
+                Assert.assertEquals(2, stats.getNullCount());
+                Assert.assertEquals(4.5, stats.getMinDouble(), 0.0);
+                Assert.assertEquals(8.0, stats.getMaxDouble(), 0.0);
+
+                // NaN is excluded from min and max of DOUBLE column
+                Assert.assertTrue(reader.readColumnStats(2, metadata.getColumnIndex("d"), stats));
+                Assert.assertEquals(8, stats.getNullCount());
+                Assert.assertTrue(Double.isNaN(stats.getMinDouble()));
+                Assert.assertTrue(Double.isNaN(stats.getMaxDouble()));
+
+                // NULL is included in min of integer column
+                Assert.assertTrue(reader.readColumnStats(1, metadata.getColumnIndex("n"), stats));
+                Assert.assertEquals(3, stats.getNullCount());
+                Assert.assertEquals(Numbers.LONG_NaN, stats.getMin());
+                Assert.assertEquals(16, stats.getMax());
+
+                // no statistics for strings and for the active partition
+                Assert.assertFalse(reader.readColumnStats(1, metadata.getColumnIndex("s"), stats));
+                Assert.assertFalse(reader.readColumnStats(3, metadata.getColumnIndex("l"), stats));
+            }
+            assertColumnStatsFile("y", "1970-01-01", "l", false);
+        });
+    }
+
+    private static void assertColumnStatsFile(String tableName, String partition, String columnName, boolean exists) {
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(tableName).concat(partition);
+            Assert.assertEquals(exists, configuration.getFilesFacade().exists(TableUtils.stFile(path, columnName)));
+        }
+    }
+
+    private static void overwriteFirstValue(String tableName, String partition, String columnName, long value) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(tableName).concat(partition);
+            final long fd = TableUtils.openRW(ff, TableUtils.dFile(path, columnName), LOG);
+            final long buf = Unsafe.malloc(Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+            try {
+                Unsafe.getUnsafe().putLong(buf, value);
+                Assert.assertEquals(Long.BYTES, ff.write(fd, buf, Long.BYTES, 0));
+            } finally {
+                Unsafe.free(buf, Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+                ff.close(fd);
+            }
+        }
+    }
+
+    private void assertFilter(String filter) throws Exception {
+        TestUtils.assertSqlCursors(
+                compiler,
+                sqlExecutionContext,
+                "y where " + filter,
+                "x where " + filter,
+                LOG
+        );
+    }
+
+    private void createWithStats() throws Exception {
+        final String select = "select" +
+                " x l," +
+                " cast(x as int) i," +
+                // third partition has only NaN values, the others have some
+                " case when x % 5 = 0 or (x > 16 and x <= 24) then NaN else x * 0.5 end d," +
+                " case when x % 3 = 0 then null else x end n," +
+                " rnd_str('abc', 'def', null) s," +
+                " timestamp_sequence(0, 10800000000) ts" +
+                " from long_sequence(30)";
+        compiler.compile("create table y as (" + select + ") timestamp(ts) partition by DAY", sqlExecutionContext);
+        engine.releaseAllWriters();
+        configOverridePartitionStatsEnabled = true;
+        compiler.compile("create table x as (y) timestamp(ts) partition by DAY", sqlExecutionContext);
+    }
+}
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.cairo;
+
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.SPSequence;
+import io.questdb.mp.WorkerPool;
+import io.questdb.mp.WorkerPoolConfiguration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class QueryAdmissionControllerTest extends AbstractCairoTest {
+
+    @Test
+    public void testNoLimits() {
+        final QueryAdmissionController controller = new QueryAdmissionController(new DefaultCairoConfiguration(root));
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(Integer.MAX_VALUE, controller.acquire());
+        }
+        Assert.assertEquals(100, controller.getActiveQueryCount());
+        for (int i = 0; i < 100; i++) {
+            controller.release(Integer.MAX_VALUE);
+        }
+        Assert.assertEquals(0, controller.getActiveQueryCount());
+    }
+
+    @Test
+    public void testQueryJobsAssignedToFirstPoolOnly() {
+        try (CairoEngine engine = new CairoEngine(newConfiguration(0, 0))) {
+            Assert.assertTrue(engine.assignQueryJobs(newWorkerPool(3)));
+            // http server assigns query jobs to its own pool, it must not take them away from the query pool
+            Assert.assertFalse(engine.assignQueryJobs(newWorkerPool(5)));
+
+            final QueryAdmissionController controller = engine.getQueryAdmissionController();
+            final int taskLimit = controller.acquire();
+            Assert.assertEquals(3, taskLimit);
+            controller.release(taskLimit);
+        }
+    }
+
+    @Test
+    public void testQueryLimit() {
+        final QueryAdmissionController controller = new QueryAdmissionController(newConfiguration(2, 5));
+        Assert.assertEquals(5, controller.acquire());
+        Assert.assertEquals(5, controller.acquire());
+        // third query is over the limit and runs its tasks on own thread
+        Assert.assertEquals(0, controller.acquire());
+        Assert.assertEquals(2, controller.getActiveQueryCount());
+
+        // releasing query that was not admitted does not free the slot
+        controller.release(0);
+        Assert.assertEquals(2, controller.getActiveQueryCount());
+        Assert.assertEquals(0, controller.acquire());
+
+        controller.release(5);
+        Assert.assertEquals(1, controller.getActiveQueryCount());
+        Assert.assertEquals(5, controller.acquire());
+        controller.release(5);
+        controller.release(5);
+        Assert.assertEquals(0, controller.getActiveQueryCount());
+    }
+
+    @Test
+    public void testTaskLimit() {
+        final QueryAdmissionController controller = new QueryAdmissionController(newConfiguration(0, 3));
+        final SPSequence pubSeq = new SPSequence(16);
+        final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+
+        final int taskLimit = controller.acquire();
+        Assert.assertEquals(3, taskLimit);
+        int queuedCount = 0;
+        for (int i = 0; i < 3; i++) {
+            final long cursor = controller.next(pubSeq, taskLimit, queuedCount, doneLatch);
+            Assert.assertTrue(cursor > -1);
+            pubSeq.done(cursor);
+            queuedCount++;
+        }
+        // query has 3 tasks in flight, 4th one has to run on query thread
+        Assert.assertEquals(-1, controller.next(pubSeq, taskLimit, queuedCount, doneLatch));
+
+        // one of the tasks is done, slot is available again
+        doneLatch.countDown();
+        final long cursor = controller.next(pubSeq, taskLimit, queuedCount, doneLatch);
+        Assert.assertTrue(cursor > -1);
+        pubSeq.done(cursor);
+        queuedCount++;
+        Assert.assertEquals(-1, controller.next(pubSeq, taskLimit, queuedCount, doneLatch));
+
+        controller.release(taskLimit);
+        Assert.assertEquals(0, controller.getActiveQueryCount());
+    }
+
+    @Test
+    public void testTaskLimitConfiguredIgnoresWorkerCount() {
+        final QueryAdmissionController controller = new QueryAdmissionController(newConfiguration(0, 3));
+        controller.setWorkerCount(8);
+        final int taskLimit = controller.acquire();
+        Assert.assertEquals(3, taskLimit);
+        controller.release(taskLimit);
+        Assert.assertEquals(0, controller.getActiveQueryCount());
+    }
+
+    @Test
+    public void testTaskLimitDerivedFromWorkerCount() {
+        final QueryAdmissionController controller = new QueryAdmissionController(newConfiguration(0, 0));
+        Assert.assertEquals(Integer.MAX_VALUE, controller.acquire());
+
+        controller.setWorkerCount(4);
+        Assert.assertEquals(4, controller.acquire());
+        // pool without workers still lets queries publish tasks, query thread picks them up
+        controller.setWorkerCount(0);
+        Assert.assertEquals(1, controller.acquire());
+
+        controller.release(Integer.MAX_VALUE);
+        controller.release(4);
+        controller.release(1);
+        Assert.assertEquals(0, controller.getActiveQueryCount());
+    }
+
+    private static CairoConfiguration newConfiguration(int queryLimit, int taskLimit) {
+        return new DefaultCairoConfiguration(root) {
+            @Override
+            public int getSqlParallelQueryLimit() {
+                return queryLimit;
+            }
+
+            @Override
+            public int getSqlParallelQueryTaskLimit() {
+                return taskLimit;
+            }
+        };
+    }
+
+    private static WorkerPool newWorkerPool(int workerCount) {
+        return new WorkerPool(new WorkerPoolConfiguration() {
+            @Override
+            public int[] getWorkerAffinity() {
+                final int[] affinity = new int[workerCount];
+                Arrays.fill(affinity, -1);
+                return affinity;
+            }
+
+            @Override
+            public int getWorkerCount() {
+                return workerCount;
+            }
+
+            @Override
+            public boolean haltOnError() {
+                return false;
+            }
+        });
+    }
+}
@@ -2130,6 +2130,78 @@ public class TableReaderTest extends AbstractCairoTest {
         testReload(PartitionBy.NONE, 10, 60L * 60000, DONT_CARE);
     }
 
+    @Test
+    public void testReloadReusesMappingsOfAppendedPartitions() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final AtomicInteger openCount = new AtomicInteger();
+            final FilesFacade ff = new FilesFacadeImpl() {
+                @Override
+                public long openRO(LPSZ name) {
+                    if (Chars.endsWith(name, ".d") || Chars.endsWith(name, ".i")) {
+                        openCount.incrementAndGet();
+                    }
+                    return super.openRO(name);
+                }
+            };
+            final CairoConfiguration readerConfiguration = new DefaultCairoConfiguration(root) {
+                @Override
+                public FilesFacade getFilesFacade() {
+                    return ff;
+                }
+            };
+
+            try (TableModel model = new TableModel(configuration, "w", PartitionBy.DAY).col("l", ColumnType.LONG).col("s", ColumnType.STRING).timestamp()) {
+                CairoTestUtils.create(model);
+            }
+
+            final long ts = TimestampFormatUtils.parseTimestamp("2021-03-01T00:00:00.000Z");
+            final long day = Timestamps.DAY_MICROS;
+            final long[] next = {0};
+
+            try (
+                    TableWriter writer = new TableWriter(configuration, "w");
+                    TableReader reader = new TableReader(readerConfiguration, "w")
+            ) {
+                appendRows(writer, next, ts, 10);
+                appendRows(writer, next, ts + day, 10);
+                writer.commit();
+                Assert.assertTrue(reader.reload());
+                assertRows(reader, next[0]);
+
+                // append to the last partition and O3 append past the end of the older one,
+                // both partitions keep their files and reader only extends the mappings
+                appendRows(writer, next, ts + day + 10_000, 10);
+                appendRows(writer, next, ts + 10_000, 10);
+                writer.commit();
+                openCount.set(0);
+                Assert.assertTrue(reader.reload());
+                assertRows(reader, next[0]);
+                Assert.assertEquals(0, openCount.get());
+
+                // new partition is opened once and then extended
+                appendRows(writer, next, ts + 2 * day, 10);
+                writer.commit();
+                Assert.assertTrue(reader.reload());
+                assertRows(reader, next[0]);
+
+                appendRows(writer, next, ts + 2 * day + 10_000, 10);
+                writer.commit();
+                openCount.set(0);
+                Assert.assertTrue(reader.reload());
+                assertRows(reader, next[0]);
+                Assert.assertEquals(0, openCount.get());
+
+                // O3 merge rewrites partition under a new name, which has to be mapped afresh
+                appendRows(writer, next, ts + 500, 10);
+                writer.commit();
+                openCount.set(0);
+                Assert.assertTrue(reader.reload());
+                assertRows(reader, next[0]);
+                Assert.assertTrue(openCount.get() > 0);
+            }
+        });
+    }
+
     @Test
     public void testReloadWithTrailingNullString() throws NumericException {
         final String tableName = "reload_test";
@@ -3284,6 +3356,30 @@ public class TableReaderTest extends AbstractCairoTest {
         return "0" + s;
     }
 
+    private static void appendRows(TableWriter writer, long[] next, long ts, int count) {
+        for (int i = 0; i < count; i++) {
+            TableWriter.Row row = writer.newRow(ts + i * 1000L);
+            row.putLong(0, next[0]);
+            row.putStr(1, Long.toString(next[0]));
+            row.append();
+            next[0]++;
+        }
+    }
+
+    private static void assertRows(TableReader reader, long expectedCount) {
+        final RecordCursor cursor = reader.getCursor();
+        final Record record = cursor.getRecord();
+        long count = 0;
+        long sum = 0;
+        while (cursor.hasNext()) {
+            TestUtils.assertEquals(Long.toString(record.getLong(0)), record.getStr(1));
+            sum += record.getLong(0);
+            count++;
+        }
+        Assert.assertEquals(expectedCount, count);
+        Assert.assertEquals(expectedCount * (expectedCount - 1) / 2, sum);
+    }
+
     private void appendTwoSymbols(TableWriter writer, Rnd rnd) {
         for (int i = 0; i < 1000; i++) {
             TableWriter.Row row = writer.newRow();
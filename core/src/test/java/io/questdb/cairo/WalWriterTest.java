@@ -0,0 +1,557 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WalWriterTest extends AbstractGriffinTest {
+    private static final String ALL_TYPES_DDL = "(" +
+            "bo boolean," +
+            " b byte," +
+            " sh short," +
+            " c char," +
+            " i int," +
+            " l long," +
+            " dt date," +
+            " t timestamp," +
+            " f float," +
+            " d double," +
+            " s string," +
+            " sy symbol," +
+            " bin binary," +
+            " l256 long256," +
+            " g geohash(5c)," +
+            " g8 geohash(8b)," +
+            " ts timestamp" +
+            ") timestamp(ts) partition by DAY";
+
+    @Before
+    public void setUp3() {
+        configOverrideWalEnabled = true;
+    }
+
+    @Test
+    public void testAllColumnTypes() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x " + ALL_TYPES_DDL, sqlExecutionContext);
+            compiler.compile("create table y " + ALL_TYPES_DDL, sqlExecutionContext);
+
+            final long binAddress = Unsafe.malloc(64, MemoryTag.NATIVE_DEFAULT);
+            try {
+                new Rnd().nextChars(binAddress, 32);
+                try (WalWriter walWriter = engine.getWalWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                    writeAllTypes(walWriter, binAddress);
+                }
+                try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "y", "test")) {
+                    writeAllTypes(writer, binAddress);
+                }
+            } finally {
+                Unsafe.free(binAddress, 64, MemoryTag.NATIVE_DEFAULT);
+            }
+
+            assertSql("select count() from x", "count\n0\n");
+            Assert.assertTrue(engine.getApplyWalJob().run(0));
+            assertSql("select count() from x", "count\n100\n");
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "y", "x", LOG);
+            assertWalApplied("x");
+        });
+    }
+
+    @Test
+    public void testColumnsChangedBeforeApply() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (a int, b string, c long, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (WalWriter walWriter = engine.getWalWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                for (int i = 0; i < 3; i++) {
+                    final TableWriter.Row row = walWriter.newRow(i * Timestamps.HOUR_MICROS);
+                    row.putInt(0, i);
+                    row.putStr(1, "abc");
+                    row.putLong(2, i * 10);
+                    row.append();
+                }
+                walWriter.commit();
+            }
+
+            compiler.compile("alter table x drop column b", sqlExecutionContext);
+            compiler.compile("alter table x drop column c", sqlExecutionContext);
+            compiler.compile("alter table x add column c int", sqlExecutionContext);
+            compiler.compile("alter table x add column b string", sqlExecutionContext);
+
+            Assert.assertTrue(engine.getApplyWalJob().run(0));
+            assertSql(
+                    "x",
+                    "a\tts\tc\tb\n" +
+                            "0\t1970-01-01T00:00:00.000000Z\tNaN\tabc\n" +
+                            "1\t1970-01-01T01:00:00.000000Z\tNaN\tabc\n" +
+                            "2\t1970-01-01T02:00:00.000000Z\tNaN\tabc\n"
+            );
+        });
+    }
+
+    @Test
+    public void testConcurrentWriters() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (thread int, i long, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+
+            final int threadCount = 4;
+            final int rowCount = 1000;
+            final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+            final AtomicInteger errors = new AtomicInteger();
+            final Thread[] threads = new Thread[threadCount];
+
+            // table writer is held all along, WAL writers must not block on it
+            try (TableWriter ignore = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "test")) {
+                for (int t = 0; t < threadCount; t++) {
+                    final int thread = t;
+                    threads[t] = new Thread(() -> {
+                        try (WalWriter walWriter = engine.getWalWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                            barrier.await();
+                            for (int i = 0; i < rowCount; i++) {
+                                final TableWriter.Row row = walWriter.newRow((rowCount - i) * Timestamps.MINUTE_MICROS);
+                                row.putInt(0, thread);
+                                row.putLong(1, i);
+                                row.append();
+                                if (i % 100 == 99) {
+                                    walWriter.commit();
+                                }
+                            }
+                        } catch (Throwable e) {
+                            e.printStackTrace();
+                            errors.incrementAndGet();
+                        }
+                    });
+                    threads[t].start();
+                }
+                for (int t = 0; t < threadCount; t++) {
+                    threads[t].join();
+                }
+                Assert.assertEquals(0, errors.get());
+                Assert.assertFalse(engine.getApplyWalJob().run(0));
+            }
+
+            Assert.assertTrue(engine.getApplyWalJob().run(0));
+            assertSql(
+                    "select thread, count(), sum(i), min(ts), max(ts) from x order by thread",
+                    "thread\tcount\tsum\tmin\tmax\n" +
+                            "0\t1000\t499500\t1970-01-01T00:01:00.000000Z\t1970-01-01T16:40:00.000000Z\n" +
+                            "1\t1000\t499500\t1970-01-01T00:01:00.000000Z\t1970-01-01T16:40:00.000000Z\n" +
+                            "2\t1000\t499500\t1970-01-01T00:01:00.000000Z\t1970-01-01T16:40:00.000000Z\n" +
+                            "3\t1000\t499500\t1970-01-01T00:01:00.000000Z\t1970-01-01T16:40:00.000000Z\n"
+            );
+            assertWalApplied("x");
+        });
+    }
+
+    @Test
+    public void testFailedSegmentDoesNotBlockSubsequentSegments() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (i int, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (WalWriter walWriter = engine.getWalWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                final TableWriter.Row row = walWriter.newRow(0);
+                row.putInt(0, 1);
+                row.append();
+                walWriter.commit();
+            }
+
+            // segment that table writer rejects, such as one written by faulty or older version of WAL writer
+            final FilesFacade ff = configuration.getFilesFacade();
+            final long failedSegmentId = engine.getApplyWalJob().nextSegmentId();
+            try (
+                    Path path = new Path();
+                    MemoryCARW mem = Vm.getCARWInstance(1024, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT)
+            ) {
+                mem.putInt(1);
+                mem.putInt(ColumnType.INT);
+                mem.putStr("i");
+                mem.putLong(1);
+                mem.putInt(0);
+                mem.putByte((byte) 99);
+                mem.putStr("unknown");
+                mem.putInt(WalWriter.END_OF_ROW);
+
+                WalWriter.segmentFileName(path.of(root).concat("x").concat(WalWriter.WAL_DIR_NAME).slash(), failedSegmentId).$();
+                final long fd = ff.openRW(path);
+                Assert.assertTrue(fd > -1);
+                try {
+                    Assert.assertEquals(mem.getAppendOffset(), ff.write(fd, mem.getAddress(), mem.getAppendOffset(), 0));
+                } finally {
+                    ff.close(fd);
+                }
+            }
+
+            try (WalWriter walWriter = engine.getWalWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                final TableWriter.Row row = walWriter.newRow(2);
+                row.putInt(0, 3);
+                row.append();
+                walWriter.commit();
+            }
+
+            final long failedSegmentCount = engine.getApplyWalJob().getFailedSegmentCount();
+            Assert.assertTrue(engine.getApplyWalJob().run(0));
+            assertSql(
+                    "x",
+                    "i\tts\n" +
+                            "1\t1970-01-01T00:00:00.000000Z\n" +
+                            "3\t1970-01-01T00:00:00.000002Z\n"
+            );
+            Assert.assertEquals(failedSegmentCount + 1, engine.getApplyWalJob().getFailedSegmentCount());
+            try (Path path = new Path()) {
+                path.of(root).concat("x").concat(WalWriter.WAL_DIR_NAME).slash();
+                WalWriter.segmentFileName(path, failedSegmentId).put(ApplyWalJob.FAILED_SEGMENT_FILE_EXT).$();
+                Assert.assertTrue(ff.exists(path));
+            }
+            // failed segment is not retried
+            Assert.assertFalse(engine.getApplyWalJob().run(0));
+        });
+    }
+
+    @Test
+    public void testInsertAsSelectFallsBackToWal() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (i long, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (TableWriter ignore = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "test")) {
+                compiler.compile("insert into x select x, cast(x * 3600000000L as timestamp) from long_sequence(3)", sqlExecutionContext);
+            }
+            assertSql("select count() from x", "count\n0\n");
+
+            Assert.assertTrue(engine.getApplyWalJob().run(0));
+            assertSql(
+                    "x",
+                    "i\tts\n" +
+                            "1\t1970-01-01T01:00:00.000000Z\n" +
+                            "2\t1970-01-01T02:00:00.000000Z\n" +
+                            "3\t1970-01-01T03:00:00.000000Z\n"
+            );
+        });
+    }
+
+    @Test
+    public void testInsertFailsWhenWalDisabled() throws Exception {
+        configOverrideWalEnabled = false;
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (i int, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (TableWriter ignore = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "test")) {
+                try {
+                    executeInsert("insert into x values (1, 0)");
+                    Assert.fail();
+                } catch (EntryUnavailableException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "table busy");
+                }
+            }
+            Assert.assertFalse(engine.getApplyWalJob().run(0));
+            assertSql("select count() from x", "count\n0\n");
+        });
+    }
+
+    @Test
+    public void testInsertFallsBackToWal() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (i int, s symbol, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            executeInsert("insert into x values (1, 'a', '2022-01-02T00:00:00.000000Z')");
+            try (TableWriter ignore = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "test")) {
+                executeInsert("insert into x values (2, 'b', '2022-01-01T00:00:00.000000Z')");
+                executeInsert("insert into x values (3, 'a', '2022-01-03T00:00:00.000000Z')");
+                // busy writer is retried later
+                Assert.assertFalse(engine.getApplyWalJob().run(0));
+            }
+            assertSql("select count() from x", "count\n1\n");
+
+            Assert.assertTrue(engine.getApplyWalJob().run(0));
+            assertSql(
+                    "x",
+                    "i\ts\tts\n" +
+                            "2\tb\t2022-01-01T00:00:00.000000Z\n" +
+                            "1\ta\t2022-01-02T00:00:00.000000Z\n" +
+                            "3\ta\t2022-01-03T00:00:00.000000Z\n"
+            );
+            assertWalApplied("x");
+            Assert.assertFalse(engine.getApplyWalJob().run(0));
+        });
+    }
+
+    @Test
+    public void testInsertOfRejectedRowFailsOnWrite() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (i int, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (TableWriter ignore = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "test")) {
+                try {
+                    executeInsert("insert into x values (1, '1969-12-31T23:59:59.000000Z')");
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "timestamp before 1970-01-01 is not allowed");
+                }
+                executeInsert("insert into x values (2, '2022-01-01T00:00:00.000000Z')");
+            }
+
+            Assert.assertTrue(engine.getApplyWalJob().run(0));
+            assertSql("x", "i\tts\n2\t2022-01-01T00:00:00.000000Z\n");
+            assertWalApplied("x");
+        });
+    }
+
+    @Test
+    public void testInvalidValuesRejectedOnWrite() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (t timestamp, l256 long256, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (WalWriter walWriter = engine.getWalWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                try {
+                    walWriter.newRow(-1);
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "timestamp before 1970-01-01 is not allowed");
+                }
+
+                final TableWriter.Row row = walWriter.newRow(0);
+                try {
+                    row.putTimestamp(0, "not a timestamp");
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "Invalid timestamp");
+                }
+                try {
+                    row.putLong256(1, "0xzz");
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "invalid long256");
+                }
+                row.putTimestamp(0, "2022-01-01");
+                row.putLong256(1, "0x5a1b");
+                row.append();
+                walWriter.commit();
+            }
+
+            final long failedSegmentCount = engine.getApplyWalJob().getFailedSegmentCount();
+            Assert.assertTrue(engine.getApplyWalJob().run(0));
+            assertSql(
+                    "x",
+                    "t\tl256\tts\n" +
+                            "2022-01-01T00:00:00.000000Z\t0x5a1b\t1970-01-01T00:00:00.000000Z\n"
+            );
+            Assert.assertEquals(failedSegmentCount, engine.getApplyWalJob().getFailedSegmentCount());
+        });
+    }
+
+    @Test
+    public void testLargeTransactionIsWrittenOutBeforeCommit() throws Exception {
+        configOverrideWalBufferSize = 1024;
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (i long, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (WalWriter walWriter = engine.getWalWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                writeRows(walWriter, 10_000);
+                // rows past the buffer size are in the segment file, which is not visible to apply job yet
+                Assert.assertEquals(1, countWalFiles("x"));
+                Assert.assertFalse(engine.getApplyWalJob().run(0));
+                walWriter.rollback();
+                Assert.assertEquals(0, countWalFiles("x"));
+
+                writeRows(walWriter, 10_000);
+                // row that was started after rows have been written out can still be cancelled
+                final TableWriter.Row row = walWriter.newRow(0);
+                row.putLong(0, -1);
+                row.cancel();
+                walWriter.commit();
+                Assert.assertEquals(1, countWalFiles("x"));
+
+                writeRows(walWriter, 5_000);
+                // uncommitted rows are discarded on close together with their segment file
+            }
+
+            Assert.assertTrue(engine.getApplyWalJob().run(0));
+            assertSql("select count(), sum(i) from x", "count\tsum\n10000\t50005000\n");
+            assertWalApplied("x");
+        });
+    }
+
+    @Test
+    public void testNonPartitionedTableHasNoWal() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (i int, ts timestamp) timestamp(ts)", sqlExecutionContext);
+            try (TableWriter ignore = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "test")) {
+                try {
+                    executeInsert("insert into x values (1, 0)");
+                    Assert.fail();
+                } catch (EntryUnavailableException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "WAL requires partitioned table");
+                }
+            }
+            Assert.assertFalse(engine.getApplyWalJob().run(0));
+            assertSql("select count() from x", "count\n0\n");
+        });
+    }
+
+    @Test
+    public void testRecoveryAfterRestart() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (i int, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (WalWriter walWriter = engine.getWalWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                for (int i = 0; i < 3; i++) {
+                    final TableWriter.Row row = walWriter.newRow(i);
+                    row.putInt(0, i);
+                    row.append();
+                    walWriter.commit();
+                }
+            }
+
+            // new engine does not know about segments written by the old one until it scans the tables
+            engine.releaseAllWriters();
+            try (CairoEngine engine2 = new CairoEngine(configuration)) {
+                Assert.assertTrue(engine2.getApplyWalJob().run(0));
+            }
+            assertSql("select count(), sum(i) from x", "count\tsum\n3\t3\n");
+            assertWalApplied("x");
+        });
+    }
+
+    @Test
+    public void testRollbackAndCancel() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (i int, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (WalWriter walWriter = engine.getWalWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                TableWriter.Row row = walWriter.newRow(0);
+                row.putInt(0, 1);
+                row.append();
+                walWriter.rollback();
+
+                row = walWriter.newRow(1);
+                row.putInt(0, 2);
+                row.cancel();
+
+                row = walWriter.newRow(2);
+                row.putInt(0, 3);
+                row.append();
+                walWriter.commit();
+
+                // nothing to commit
+                walWriter.commit();
+
+                row = walWriter.newRow(3);
+                row.putInt(0, 4);
+                row.append();
+                // uncommitted rows are discarded on close
+            }
+
+            Assert.assertTrue(engine.getApplyWalJob().run(0));
+            assertSql("x", "i\tts\n3\t1970-01-01T00:00:00.000002Z\n");
+        });
+    }
+
+    @Test
+    public void testSymbolIndexNotSupported() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (s symbol, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (WalWriter walWriter = engine.getWalWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                final TableWriter.Row row = walWriter.newRow(0);
+                try {
+                    row.putSymIndex(0, 0);
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "symbol index cannot be written to WAL");
+                }
+            }
+        });
+    }
+
+    private static void writeAllTypes(TableWriterAPI writer, long binAddress) {
+        final Rnd rnd = new Rnd();
+        for (int i = 0; i < 100; i++) {
+            // out of order timestamps are merged when applied
+            final TableWriter.Row row = writer.newRow(rnd.nextLong(3 * Timestamps.DAY_MICROS));
+            row.putBool(0, rnd.nextBoolean());
+            row.putByte(1, rnd.nextByte());
+            row.putShort(2, rnd.nextShort());
+            row.putChar(3, rnd.nextChar());
+            row.putInt(4, rnd.nextInt());
+            row.putLong(5, rnd.nextLong());
+            row.putDate(6, rnd.nextLong());
+            row.putFloat(8, rnd.nextFloat());
+            row.putDouble(9, rnd.nextDouble());
+            row.putBin(12, binAddress, rnd.nextInt(32));
+            switch (i % 3) {
+                case 0:
+                    row.putTimestamp(7, rnd.nextLong());
+                    row.putStr(10, rnd.nextChars(5));
+                    row.putSym(11, rnd.nextChars(2));
+                    row.putLong256(13, rnd.nextLong(), rnd.nextLong(), rnd.nextLong(), rnd.nextLong());
+                    row.putGeoHash(14, rnd.nextGeoHash(25));
+                    row.putGeoHash(15, rnd.nextGeoHash(8));
+                    break;
+                case 1:
+                    row.putTimestamp(7, "2022-03-04T05:06:07.000001Z");
+                    row.putStr(10, rnd.nextChar());
+                    row.putSym(11, rnd.nextChar());
+                    row.putLong256(13, "0x5a1b");
+                    row.putGeoStr(14, "sp052");
+                    row.putGeoHashDeg(15, 51.5, -0.12);
+                    break;
+                default:
+                    row.putStr(10, "abcdef", 1, 3);
+                    row.putLong256(13, "[5a1b7f]", 1, 7);
+                    row.putGeoHashDeg(14, -33.9, 151.2);
+                    break;
+            }
+            row.append();
+        }
+        writer.commit();
+    }
+
+    private static void assertWalApplied(String tableName) {
+        Assert.assertEquals(0, countWalFiles(tableName));
+    }
+
+    private static int countWalFiles(String tableName) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        try (Path path = new Path()) {
+            path.of(root).concat(tableName).concat(WalWriter.WAL_DIR_NAME).$();
+            final AtomicInteger fileCount = new AtomicInteger();
+            ff.iterateDir(path, (name, type) -> {
+                if (type != Files.DT_DIR) {
+                    fileCount.incrementAndGet();
+                }
+            });
+            return fileCount.get();
+        }
+    }
+
+    private static void writeRows(WalWriter walWriter, int count) {
+        for (int i = 0; i < count; i++) {
+            final TableWriter.Row row = walWriter.newRow(i * Timestamps.SECOND_MICROS);
+            row.putLong(0, i + 1);
+            row.append();
+        }
+    }
+}
@@ -30,6 +30,7 @@ import io.questdb.cairo.pool.ex.PoolClosedException;
 import io.questdb.mp.SOCountDownLatch;
 import io.questdb.std.*;
 import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
 import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
@@ -804,6 +805,45 @@ public class ReaderPoolTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testRefreshInactive() throws Exception {
+        assertWithPool(pool -> {
+            final TableReader reader = pool.get("u");
+            Assert.assertEquals(0, reader.size());
+            reader.close();
+
+            Assert.assertFalse(pool.refreshInactive());
+
+            final long txn;
+            try (TableWriter w = new TableWriter(configuration, "u")) {
+                TableWriter.Row r = w.newRow();
+                r.putDate(0, 1000);
+                r.append();
+                w.commit();
+                txn = w.getTxn();
+            }
+
+            Assert.assertTrue(pool.refreshInactive());
+            Assert.assertFalse(pool.refreshInactive());
+
+            // reader caught up while resting in the pool and does not hold on to the transaction
+            Assert.assertEquals(1, reader.size());
+            try (
+                    Path path = new Path();
+                    TxnScoreboard scoreboard = new TxnScoreboard(configuration.getFilesFacade(), path.of(root).concat("u"), configuration.getTxnScoreboardEntryCount())
+            ) {
+                Assert.assertEquals(0, scoreboard.getActiveReaderCount(txn));
+
+                try (TableReader r = pool.get("u")) {
+                    Assert.assertSame(reader, r);
+                    Assert.assertEquals(1, r.size());
+                    Assert.assertEquals(1, scoreboard.getActiveReaderCount(txn));
+                }
+                Assert.assertEquals(0, scoreboard.getActiveReaderCount(txn));
+            }
+        });
+    }
+
     @Test
     public void testSerialOpenClose() throws Exception {
         assertWithPool(pool -> {
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.cairo.vm;
+
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.FilesFacadeImpl;
+import io.questdb.std.MemoryTag;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+public class MemoryCARWSpillImplTest {
+    private static final Log LOG = LogFactory.getLog(MemoryCARWSpillImplTest.class);
+    @ClassRule
+    public static TemporaryFolder temp = new TemporaryFolder();
+
+    private static final FilesFacade FF = FilesFacadeImpl.INSTANCE;
+
+    @Test
+    public void testClearRemovesSpillFile() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final String spillRoot = temp.newFolder().getAbsolutePath() + File.separator + "spill";
+            try (MemoryCARWSpillImpl mem = new MemoryCARWSpillImpl(FF, spillRoot, 509, 1024, 2, 1024 * 1024, MemoryTag.NATIVE_DEFAULT)) {
+                for (int i = 0; i < 1000; i++) {
+                    mem.putLong(i);
+                }
+                Assert.assertTrue(mem.isSpilled());
+                Assert.assertEquals(1, countFiles(spillRoot));
+
+                mem.clear();
+                Assert.assertFalse(mem.isSpilled());
+                Assert.assertEquals(0, countFiles(spillRoot));
+
+                // memory is usable again after clear and starts in native memory
+                mem.putLong(42);
+                Assert.assertFalse(mem.isSpilled());
+                Assert.assertEquals(42, mem.getLong(0));
+            }
+        });
+    }
+
+    @Test
+    public void testInMemoryWithinBudget() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final String spillRoot = temp.newFolder().getAbsolutePath();
+            try (MemoryCARWSpillImpl mem = new MemoryCARWSpillImpl(FF, spillRoot, 509, 1024, 4, 1024 * 1024, MemoryTag.NATIVE_DEFAULT)) {
+                for (int i = 0; i < 256; i++) {
+                    mem.putLong(i);
+                }
+                Assert.assertFalse(mem.isSpilled());
+                for (int i = 0; i < 256; i++) {
+                    Assert.assertEquals(i, mem.getLong(i * 8L));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testRemoveStaleSpillFiles() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final File spillRoot = temp.newFolder();
+            // files left behind by an earlier process and a file that is not a spill file
+            Assert.assertTrue(new File(spillRoot, "spill-1-1.d").createNewFile());
+            Assert.assertTrue(new File(spillRoot, "spill-1-2.d").createNewFile());
+            Assert.assertTrue(new File(spillRoot, "readme.txt").createNewFile());
+            try (MemoryCARWSpillImpl mem = new MemoryCARWSpillImpl(FF, spillRoot.getAbsolutePath(), 509, 1024, 2, 1024 * 1024, MemoryTag.NATIVE_DEFAULT)) {
+                for (int i = 0; i < 1000; i++) {
+                    mem.putLong(i);
+                }
+                Assert.assertTrue(mem.isSpilled());
+                Assert.assertEquals(4, countFiles(spillRoot.getAbsolutePath()));
+
+                MemoryCARWSpillImpl.removeStaleSpillFiles(FF, spillRoot.getAbsolutePath());
+                Assert.assertFalse(new File(spillRoot, "spill-1-1.d").exists());
+                Assert.assertFalse(new File(spillRoot, "spill-1-2.d").exists());
+                Assert.assertTrue(new File(spillRoot, "readme.txt").exists());
+                // spill file of the current process is still in use
+                Assert.assertEquals(2, countFiles(spillRoot.getAbsolutePath()));
+                for (int i = 0; i < 1000; i++) {
+                    Assert.assertEquals(i, mem.getLong(i * 8L));
+                }
+            }
+            Assert.assertEquals(1, countFiles(spillRoot.getAbsolutePath()));
+        });
+    }
+
+    @Test
+    public void testSpillLimit() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final String spillRoot = temp.newFolder().getAbsolutePath();
+            try (MemoryCARWSpillImpl mem = new MemoryCARWSpillImpl(FF, spillRoot, 509, 1024, 2, 8 * 1024, MemoryTag.NATIVE_DEFAULT)) {
+                try {
+                    for (int i = 0; i < 2048; i++) {
+                        mem.putLong(i);
+                    }
+                    Assert.fail();
+                } catch (LimitOverflowException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "Maximum number of pages (8) breached");
+                }
+                Assert.assertTrue(mem.isSpilled());
+            }
+            Assert.assertEquals(0, countFiles(spillRoot));
+        });
+    }
+
+    @Test
+    public void testSpillPreservesContent() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final String spillRoot = temp.newFolder().getAbsolutePath();
+            final int n = 100_000;
+            try (MemoryCARWSpillImpl mem = new MemoryCARWSpillImpl(FF, spillRoot, 509, 4096, 4, 64 * 1024 * 1024, MemoryTag.NATIVE_DEFAULT)) {
+                for (int i = 0; i < n; i++) {
+                    mem.putLong(i);
+                    mem.putStr("s" + i);
+                }
+                Assert.assertTrue(mem.isSpilled());
+
+                long offset = 0;
+                for (int i = 0; i < n; i++) {
+                    Assert.assertEquals(i, mem.getLong(offset));
+                    offset += 8;
+                    TestUtils.assertEquals("s" + i, mem.getStr(offset));
+                    offset += Vm.getStorageLength(mem.getStrLen(offset));
+                }
+                Assert.assertEquals(offset, mem.getAppendOffset());
+
+                // random access writes land in the spill file
+                mem.putLong(8L * 1000, -1);
+                Assert.assertEquals(-1, mem.getLong(8L * 1000));
+            }
+            Assert.assertEquals(0, countFiles(spillRoot));
+        });
+    }
+
+    private static int countFiles(String dir) {
+        final String[] files = new File(dir).list();
+        return files == null ? 0 : files.length;
+    }
+}
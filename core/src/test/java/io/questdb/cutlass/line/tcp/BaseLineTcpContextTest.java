@@ -51,7 +51,6 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
     protected final AtomicInteger netMsgBufferSize = new AtomicInteger();
     protected final LineTcpMeasurementScheduler.NetworkIOJob NO_NETWORK_IO_JOB = new LineTcpMeasurementScheduler.NetworkIOJob() {
         private final CharSequenceObjHashMap<LineTcpMeasurementScheduler.TableUpdateDetails> localTableUpdateDetailsByTableName = new CharSequenceObjHashMap<>();
-        private final ObjList<SymbolCache> unusedSymbolCaches = new ObjList<>();
 
         @Override
         public void addTableUpdateDetails(LineTcpMeasurementScheduler.TableUpdateDetails tableUpdateDetails) {
@@ -67,11 +66,6 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
             return localTableUpdateDetailsByTableName.get(tableName);
         }
 
-        @Override
-        public ObjList<SymbolCache> getUnusedSymbolCaches() {
-            return unusedSymbolCaches;
-        }
-
         @Override
         public int getWorkerId() {
             return 0;
@@ -91,11 +85,15 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
     protected WorkerPool workerPool;
     protected int nWriterThreads;
     protected long microSecondTicks;
+    protected NanosecondClock nanosecondClock;
+    // tests that inspect the scheduler alone leave the events in the queue unprocessed
+    protected boolean startWriterThreads = true;
 
     @Before
     public void before() {
         nWriterThreads = 2;
         microSecondTicks = -1;
+        nanosecondClock = NanosecondClockImpl.INSTANCE;
         recvBuffer = null;
         disconnected = true;
         netMsgBufferSize.set(512);
@@ -136,6 +134,8 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
 
     protected void closeContext() {
         if (null != scheduler) {
+            // writer jobs free their resources on halt, the queue is drained by then
+            workerPool.start(LOG);
             workerPool.halt();
             Assert.assertFalse(context.invalid());
             Assert.assertEquals(FD, context.getFd());
@@ -182,6 +182,11 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
                 };
             }
 
+            @Override
+            public NanosecondClock getNanosecondClock() {
+                return nanosecondClock;
+            }
+
             @Override
             public String getAuthDbPath() {
                 if (withAuth) {
@@ -312,7 +317,9 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
         });
         Assert.assertFalse(context.invalid());
         Assert.assertEquals(FD, context.getFd());
-        workerPool.start(LOG);
+        if (startWriterThreads) {
+            workerPool.start(LOG);
+        }
     }
 
     protected void waitForIOCompletion() {
@@ -25,6 +25,7 @@
 package io.questdb.cutlass.line.tcp;
 
 import io.questdb.cairo.CairoException;
+import io.questdb.std.NanosecondClockImpl;
 import io.questdb.std.Unsafe;
 import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
@@ -54,6 +55,7 @@ public class LineTcpAuthConnectionContextTest extends BaseLineTcpContextTest {
     public void before() {
         nWriterThreads = 2;
         microSecondTicks = -1;
+        nanosecondClock = NanosecondClockImpl.INSTANCE;
         recvBuffer = null;
         disconnected = true;
         netMsgBufferSize.set(1024);
@@ -43,7 +43,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
 
-    private int[] rebalanceLoadByThread;
+    private long[] rebalanceLoadByThread;
     private int rebalanceNLoadCheckCycles = 0;
     private int rebalanceNRebalances = 0;
 
@@ -946,6 +946,58 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
         });
     }
 
+    @Test
+    public void testReshuffleDoesNotMoveTableCostingLoadDifference() throws Exception {
+        final String[] tables = {"a", "b", "c"};
+        // writer time is set by the test, each call to assertLoadCheck() is one load check cycle
+        startWriterThreads = false;
+        runInContext(() -> {
+            createTables(tables, new int[]{1, 1, 1});
+            assertLoadCheck(tables, new long[]{2000, 2000, 0}, new int[]{1, 0, 0});
+            // b and c cost 1000 each, moving either of them would leave thread 1 more loaded than thread 0 is now
+            assertLoadCheck(tables, new long[]{2000, 1000, 2000}, new int[]{1, 0, 0});
+            Assert.assertEquals(1, scheduler.getReshuffleCount());
+            // a costs 750 now, the difference is big enough to move one of the tables
+            assertLoadCheck(tables, new long[]{0, 1000, 1000}, new int[]{1, 1, 0});
+            Assert.assertEquals(2, scheduler.getReshuffleCount());
+        });
+    }
+
+    @Test
+    public void testReshuffleKeepsMovedTableForCooldownCycles() throws Exception {
+        final String[] tables = {"a", "b", "d"};
+        startWriterThreads = false;
+        runInContext(() -> {
+            createTables(tables, new int[]{1, 1, 1});
+            assertLoadCheck(tables, new long[]{2000, 2200, 0}, new int[]{1, 0, 0});
+            assertLoadCheck(tables, new long[]{1000, 1100, 100}, new int[]{1, 0, 1});
+            // d costs 3000 and cannot be moved, a is the table to move but it has just been moved
+            assertLoadCheck(tables, new long[]{1000, 1100, 5950}, new int[]{1, 0, 1});
+            assertLoadCheck(tables, new long[]{1000, 1100, 3000}, new int[]{1, 0, 1});
+            Assert.assertEquals(2, scheduler.getReshuffleCount());
+            assertLoadCheck(tables, new long[]{1000, 1100, 3000}, new int[]{0, 0, 1});
+            Assert.assertEquals(3, scheduler.getReshuffleCount());
+        });
+    }
+
+    @Test
+    public void testReshuffleMovesTablesByCost() throws Exception {
+        final String[] tables = {"cheap", "mid", "dear"};
+        final int[] eventCounts = {320, 64, 16};
+        final long[] eventNanos = {10, 50, 400};
+        startWriterThreads = false;
+        runInContext(() -> {
+            createTables(tables, new int[]{1, 1, 1});
+            for (int i = 0; i < tables.length; i++) {
+                final long sampleCount = eventCounts[i] / LineTcpMeasurementScheduler.WRITER_TIMING_SAMPLE_SIZE;
+                NO_NETWORK_IO_JOB.getTableUpdateDetails(tables[i]).addWriterEvents(eventCounts[i], sampleCount * eventNanos[i]);
+            }
+            // dear has the fewest events but costs as much as the other two tables together
+            assertLoadCheck(tables, new long[tables.length], new int[]{0, 0, 1});
+            Assert.assertEquals(1, scheduler.getReshuffleCount());
+        });
+    }
+
     @Test
     public void testSingleMeasurement() throws Exception {
         String table = "singleMeasurement";
@@ -1074,14 +1126,17 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
     @Test
     public void testThreadsWithUnbalancedLoad() throws Exception {
         nWriterThreads = 3;
+        // every measurement costs the writer threads a single tick, table costs follow their measurement counts
+        final ThreadLocal<long[]> ticks = ThreadLocal.withInitial(() -> new long[1]);
+        nanosecondClock = () -> ++ticks.get()[0];
         int nTables = 12;
         int nIterations = 20_000;
         double[] loadFactors = {10, 10, 10, 20, 20, 20, 20, 20, 20, 30, 30, 60};
         testThreading(nTables, nIterations, loadFactors);
 
-        int maxLoad = Integer.MIN_VALUE;
-        int minLoad = Integer.MAX_VALUE;
-        for (int load : rebalanceLoadByThread) {
+        long maxLoad = Long.MIN_VALUE;
+        long minLoad = Long.MAX_VALUE;
+        for (long load : rebalanceLoadByThread) {
             if (maxLoad < load) {
                 maxLoad = load;
             }
@@ -1133,6 +1188,16 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
         }
     }
 
+    private void assertLoadCheck(String[] tables, long[] writerNanos, int[] expectedWriterThreadIds) {
+        for (int i = 0; i < tables.length; i++) {
+            NO_NETWORK_IO_JOB.getTableUpdateDetails(tables[i]).addWriterNanos(writerNanos[i]);
+        }
+        scheduler.reshuffleTablesAcrossWriterThreads();
+        for (int i = 0; i < tables.length; i++) {
+            Assert.assertEquals(tables[i], expectedWriterThreadIds[i], NO_NETWORK_IO_JOB.getTableUpdateDetails(tables[i]).getWriterThreadId());
+        }
+    }
+
     private void assertTableCount(CharSequence tableName, int nExpectedRows, long maxExpectedTimestampNanos) {
         try (TableReader reader = new TableReader(configuration, tableName)) {
             Assert.assertEquals(maxExpectedTimestampNanos / 1000, reader.getMaxTimestamp());
@@ -1150,6 +1215,24 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
         }
     }
 
+    private void createTables(String[] tables, int[] eventCounts) {
+        sink.clear();
+        for (int i = 0; i < tables.length; i++) {
+            long timestamp = 1465839830100400200L;
+            for (int n = 0; n < eventCounts[i]; n++) {
+                sink.put(tables[i]).put(" value=").put(n).put(' ').put(timestamp).put('\n');
+                timestamp += 1000;
+            }
+        }
+        recvBuffer = sink.toString();
+        do {
+            handleContextIO();
+        } while (recvBuffer.length() > 0);
+        for (int i = 0; i < tables.length; i++) {
+            Assert.assertEquals(0, NO_NETWORK_IO_JOB.getTableUpdateDetails(tables[i]).getWriterThreadId());
+        }
+    }
+
     @NotNull
     private String makeMessages(String table) {
         return table + ",location=us-midwest temperature=82 1465839830100400200\n" +
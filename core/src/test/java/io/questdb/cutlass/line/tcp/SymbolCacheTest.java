@@ -143,6 +143,83 @@ public class SymbolCacheTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        assertMemoryLeak(() -> {
+            final int symbolCount = 1000;
+            final int threadCount = 4;
+            compiler.compile("create table x as (select rnd_symbol('a') a, cast('sym' || x as symbol) b, timestamp_sequence(0, 1000) ts" +
+                    " from long_sequence(" + symbolCount + ")) timestamp(ts) partition by DAY", sqlExecutionContext);
+
+            try (
+                    SymbolCache symbolCache = new SymbolCache(new DefaultLineTcpReceiverConfiguration());
+                    Path path = new Path()
+            ) {
+                path.of(configuration.getRoot()).concat("x");
+                symbolCache.of(configuration, path, "b", 1);
+
+                final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+                final SOCountDownLatch haltLatch = new SOCountDownLatch(threadCount);
+                final AtomicBoolean cacheInError = new AtomicBoolean(false);
+                for (int t = 0; t < threadCount; t++) {
+                    new Thread(() -> {
+                        try {
+                            barrier.await();
+                            for (int i = 0; i < symbolCount; i++) {
+                                final int key = symbolCache.getSymbolKey("sym" + (i + 1));
+                                // lookup is allowed to miss when another thread reads the dictionary
+                                if (key != SymbolTable.VALUE_NOT_FOUND && key != i) {
+                                    cacheInError.set(true);
+                                }
+                            }
+                        } catch (Throwable e) {
+                            cacheInError.set(true);
+                            e.printStackTrace();
+                        } finally {
+                            haltLatch.countDown();
+                        }
+                    }).start();
+                }
+                haltLatch.await();
+                Assert.assertFalse(cacheInError.get());
+
+                // every value is cached by now, all threads share single copy
+                for (int i = 0; i < symbolCount; i++) {
+                    Assert.assertEquals(i, symbolCache.getSymbolKey("sym" + (i + 1)));
+                }
+                Assert.assertEquals(symbolCount, symbolCache.getCacheValueCount());
+            }
+        });
+    }
+
+    @Test
+    public void testPut() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x(a symbol, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+
+            try (
+                    SymbolCache symbolCache = new SymbolCache(new DefaultLineTcpReceiverConfiguration());
+                    Path path = new Path()
+            ) {
+                path.of(configuration.getRoot()).concat("x");
+                symbolCache.of(configuration, path, "a", 0);
+
+                Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, symbolCache.getSymbolKey("abc"));
+                Assert.assertEquals(0, symbolCache.getCacheValueCount());
+
+                // key published by the writer is found without reading the dictionary
+                symbolCache.put("abc", 0);
+                Assert.assertEquals(0, symbolCache.getSymbolKey("abc"));
+                Assert.assertEquals(1, symbolCache.getCacheValueCount());
+
+                // cached keys are not replaced
+                symbolCache.put("abc", 1);
+                Assert.assertEquals(0, symbolCache.getSymbolKey("abc"));
+                Assert.assertEquals(1, symbolCache.getCacheValueCount());
+            }
+        });
+    }
+
     @Test
     public void testSimpleInteraction() throws Exception {
         String tableName = "tb1";
@@ -25,6 +25,7 @@
 package io.questdb.cutlass.pgwire;
 
 import io.questdb.cairo.GeoHashes;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cairo.TableWriter;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
@@ -33,6 +34,7 @@ import io.questdb.cutlass.NetUtils;
 import io.questdb.griffin.AbstractGriffinTest;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.mp.SOCountDownLatch;
 import io.questdb.network.DefaultIODispatcherConfiguration;
 import io.questdb.network.IODispatcherConfiguration;
 import io.questdb.network.NetworkFacade;
@@ -43,6 +45,7 @@ import io.questdb.std.Os;
 import io.questdb.std.Rnd;
 import io.questdb.std.datetime.microtime.TimestampFormatUtils;
 import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.str.CharSink;
 import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
@@ -58,12 +61,16 @@ import org.postgresql.core.BaseConnection;
 import org.postgresql.util.PGTimestamp;
 import org.postgresql.util.PSQLException;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.sql.Date;
 import java.sql.*;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
@@ -669,6 +676,157 @@ public class PGJobContextTest extends AbstractGriffinTest {
         }
     }
 
+    @Test
+    public void testCopyOutBinary() throws Exception {
+        assertMemoryLeak(() -> {
+            try (
+                    final PGWireServer ignored = createPGServer(1);
+                    final Connection connection = getConnection(false, true)
+            ) {
+                createCopyOutTable(connection);
+
+                final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                Assert.assertEquals(3, copyManager.copyOut("copy (select i, l, d, s from x) to stdout with (format binary)", out));
+
+                final ByteBuffer buf = ByteBuffer.wrap(out.toByteArray());
+                final byte[] signature = new byte[11];
+                buf.get(signature);
+                Assert.assertArrayEquals("PGCOPY\n\377\r\n\0".getBytes(StandardCharsets.ISO_8859_1), signature);
+                Assert.assertEquals(0, buf.getInt()); // flags
+                Assert.assertEquals(0, buf.getInt()); // header extension length
+
+                final String[] expected = {"1,10,1.5,a,b", "2,null,null,null", "3,30,3.5,x\ty"};
+                for (String row : expected) {
+                    Assert.assertEquals(4, buf.getShort());
+                    final StringSink sink = new StringSink();
+                    Assert.assertEquals(4, buf.getInt());
+                    sink.put(buf.getInt());
+                    int len = buf.getInt();
+                    sink.put(',');
+                    if (len == -1) {
+                        sink.put("null");
+                    } else {
+                        Assert.assertEquals(8, len);
+                        sink.put(buf.getLong());
+                    }
+                    len = buf.getInt();
+                    sink.put(',');
+                    if (len == -1) {
+                        sink.put("null");
+                    } else {
+                        Assert.assertEquals(8, len);
+                        sink.put(buf.getDouble());
+                    }
+                    len = buf.getInt();
+                    sink.put(',');
+                    if (len == -1) {
+                        sink.put("null");
+                    } else {
+                        final byte[] bytes = new byte[len];
+                        buf.get(bytes);
+                        sink.put(new String(bytes, StandardCharsets.UTF_8));
+                    }
+                    TestUtils.assertEquals(row, sink);
+                }
+                Assert.assertEquals(-1, buf.getShort());
+                Assert.assertFalse(buf.hasRemaining());
+            }
+        });
+    }
+
+    @Test
+    public void testCopyOutCsv() throws Exception {
+        assertMemoryLeak(() -> {
+            try (
+                    final PGWireServer ignored = createPGServer(1);
+                    final Connection connection = getConnection(false, true)
+            ) {
+                createCopyOutTable(connection);
+
+                final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                Assert.assertEquals(3, copyManager.copyOut("copy x to stdout with (format csv, header true)", out));
+                TestUtils.assertEquals(
+                        "i,l,d,s,b,ts\n" +
+                                "1,10,1.5,\"a,b\",t,1970-01-01 00:00:00.000001\n" +
+                                "2,,,,f,\n" +
+                                "3,30,3.5,x\ty,t,1970-01-01 00:00:00.000003\n",
+                        out.toString(StandardCharsets.UTF_8.name())
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testCopyOutManyRowsSmallSendBuffer() throws Exception {
+        assertMemoryLeak(() -> {
+            final PGWireConfiguration configuration = new DefaultPGWireConfiguration() {
+                @Override
+                public int getSendBufferSize() {
+                    return 256;
+                }
+
+                @Override
+                public int[] getWorkerAffinity() {
+                    return new int[]{-1};
+                }
+
+                @Override
+                public int getWorkerCount() {
+                    return 1;
+                }
+            };
+
+            try (
+                    final PGWireServer ignored = createPGServer(configuration);
+                    final Connection connection = getConnection(false, true)
+            ) {
+                final int rowCount = 10_000;
+                connection.prepareStatement("create table x as (select x, 'row' || x s from long_sequence(" + rowCount + "))").execute();
+
+                final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                for (String format : new String[]{"text", "csv"}) {
+                    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    Assert.assertEquals(rowCount, copyManager.copyOut("copy x to stdout with format " + format, out));
+                    final String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+                    Assert.assertEquals(rowCount, lines.length);
+                    final String delimiter = "text".equals(format) ? "\t" : ",";
+                    for (int i = 0; i < rowCount; i++) {
+                        Assert.assertEquals((i + 1) + delimiter + "row" + (i + 1), lines[i]);
+                    }
+                }
+
+                // connection remains usable
+                try (ResultSet rs = connection.prepareStatement("select count() from x").executeQuery()) {
+                    Assert.assertTrue(rs.next());
+                    Assert.assertEquals(rowCount, rs.getLong(1));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testCopyOutText() throws Exception {
+        assertMemoryLeak(() -> {
+            try (
+                    final PGWireServer ignored = createPGServer(1);
+                    final Connection connection = getConnection(false, true)
+            ) {
+                createCopyOutTable(connection);
+
+                final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                Assert.assertEquals(2, copyManager.copyOut("copy (x where l != null) to stdout", out));
+                TestUtils.assertEquals(
+                        "1\t10\t1.5\ta,b\tt\t1970-01-01 00:00:00.000001\n" +
+                                "3\t30\t3.5\tx\\ty\tt\t1970-01-01 00:00:00.000003\n",
+                        out.toString(StandardCharsets.UTF_8.name())
+                );
+            }
+        });
+    }
+
     @Test
     public void testCursorFetch() throws Exception {
         assertMemoryLeak(() -> {
@@ -1136,6 +1294,70 @@ nodejs code:
         );
     }
 
+    @Test
+    public void testInsertGroupCommitAcrossConnections() throws Exception {
+        testInsertGroupCommitAcrossConnections(4);
+    }
+
+    @Test
+    public void testInsertGroupCommitAcrossConnectionsFewerWorkers() throws Exception {
+        // connections that wait for the commit must not hold on to the only worker
+        testInsertGroupCommitAcrossConnections(1);
+    }
+
+    @Test
+    public void testInsertGroupCommitSingleConnection() throws Exception {
+        assertMemoryLeak(() -> {
+            final PGWireConfiguration configuration = new DefaultPGWireConfiguration() {
+                @Override
+                public long getInsertGroupCommitInterval() {
+                    return 1_000;
+                }
+
+                @Override
+                public int[] getWorkerAffinity() {
+                    return new int[]{-1};
+                }
+
+                @Override
+                public int getWorkerCount() {
+                    return 1;
+                }
+            };
+
+            try (
+                    final PGWireServer ignored = createPGServer(configuration);
+                    final Connection connection = getConnection(false, true)
+            ) {
+                connection.prepareStatement("create table x (a int, t timestamp) timestamp(t)").execute();
+                final PreparedStatement insert = connection.prepareStatement("insert into x values (?, ?)");
+                for (int i = 0; i < 10; i++) {
+                    insert.setInt(1, i);
+                    insert.setTimestamp(2, new Timestamp(i * 1000L));
+                    Assert.assertEquals(1, insert.executeUpdate());
+                }
+
+                // failed insert must not affect inserts that follow it
+                insert.setInt(1, 10);
+                insert.setTimestamp(2, new Timestamp(-1_000_000L));
+                try {
+                    insert.executeUpdate();
+                    Assert.fail();
+                } catch (PSQLException ignore) {
+                }
+
+                insert.setInt(1, 11);
+                insert.setTimestamp(2, new Timestamp(11_000L));
+                Assert.assertEquals(1, insert.executeUpdate());
+
+                // rows are committed and writer is released by the time client is acknowledged
+                try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "testing")) {
+                    Assert.assertEquals(11, writer.size());
+                }
+            }
+        });
+    }
+
     @Test
     @Ignore
     public void testInsertSimpleText() throws Exception {
@@ -1877,6 +2099,193 @@ nodejs code:
         });
     }
 
+    @Test
+    public void testNamedPortalEvictedWhenIdle() throws Exception {
+        assertMemoryLeak(() -> {
+            final long[] ticks = {0};
+            final PGWireConfiguration configuration = new DefaultPGWireConfiguration() {
+                @Override
+                public MillisecondClock getClock() {
+                    return () -> ticks[0];
+                }
+
+                @Override
+                public long getNamedPortalIdleTimeout() {
+                    return 1_000;
+                }
+
+                @Override
+                public int[] getWorkerAffinity() {
+                    return new int[]{-1};
+                }
+
+                @Override
+                public int getWorkerCount() {
+                    return 1;
+                }
+            };
+
+            try (
+                    final PGWireServer ignored = createPGServer(configuration);
+                    final Connection connection = getConnection(false, true)
+            ) {
+                connection.setAutoCommit(false);
+                connection.prepareStatement("create table x as (select cast(x as int) a from long_sequence(20))").execute();
+
+                final PreparedStatement select = connection.prepareStatement("x");
+                select.setFetchSize(5);
+                try (ResultSet rs = select.executeQuery()) {
+                    for (int i = 1; i <= 5; i++) {
+                        Assert.assertTrue(rs.next());
+                        Assert.assertEquals(i, rs.getInt(1));
+                    }
+
+                    // another query sends Sync after the portal has been idle for too long
+                    ticks[0] = 2_000;
+                    try (ResultSet rs2 = connection.prepareStatement("select count() from x").executeQuery()) {
+                        Assert.assertTrue(rs2.next());
+                        Assert.assertEquals(20, rs2.getLong(1));
+                    }
+
+                    try {
+                        rs.next();
+                        Assert.fail();
+                    } catch (PSQLException e) {
+                        TestUtils.assertContains(e.getMessage(), "portal cursor was closed after being idle");
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testNamedPortalEvictedWhenConnectionIsIdle() throws Exception {
+        assertMemoryLeak(() -> {
+            final long[] ticks = {0};
+            final IODispatcherConfiguration dispatcherConfiguration = new DefaultIODispatcherConfiguration() {
+                @Override
+                public int getBindPort() {
+                    return 8812;
+                }
+
+                @Override
+                public long getHeartbeatInterval() {
+                    return 10;
+                }
+            };
+            final PGWireConfiguration configuration = new DefaultPGWireConfiguration() {
+                @Override
+                public MillisecondClock getClock() {
+                    return () -> ticks[0];
+                }
+
+                @Override
+                public IODispatcherConfiguration getDispatcherConfiguration() {
+                    return dispatcherConfiguration;
+                }
+
+                @Override
+                public long getNamedPortalIdleTimeout() {
+                    return 1_000;
+                }
+
+                @Override
+                public int[] getWorkerAffinity() {
+                    return new int[]{-1};
+                }
+
+                @Override
+                public int getWorkerCount() {
+                    return 1;
+                }
+            };
+
+            try (
+                    final PGWireServer ignored = createPGServer(configuration);
+                    final Connection connection = getConnection(false, true)
+            ) {
+                connection.setAutoCommit(false);
+                connection.prepareStatement("create table x as (select cast(x as int) a from long_sequence(20))").execute();
+
+                final PreparedStatement select = connection.prepareStatement("x");
+                select.setFetchSize(5);
+                try (ResultSet rs = select.executeQuery()) {
+                    for (int i = 1; i <= 5; i++) {
+                        Assert.assertTrue(rs.next());
+                        Assert.assertEquals(i, rs.getInt(1));
+                    }
+                    // suspended portal keeps its reader
+                    Assert.assertEquals(1, engine.getBusyReaderCount());
+
+                    // connection sends nothing, heartbeat of the dispatcher closes the cursor
+                    ticks[0] = 2_000;
+                    final long deadline = System.currentTimeMillis() + 10_000;
+                    while (engine.getBusyReaderCount() > 0 && System.currentTimeMillis() < deadline) {
+                        Os.sleep(10);
+                    }
+                    Assert.assertEquals(0, engine.getBusyReaderCount());
+
+                    try {
+                        rs.next();
+                        Assert.fail();
+                    } catch (PSQLException e) {
+                        TestUtils.assertContains(e.getMessage(), "portal cursor was closed after being idle");
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testNamedPortalsInterleaved() throws Exception {
+        assertMemoryLeak(() -> {
+            try (
+                    final PGWireServer ignored = createPGServer(2);
+                    final Connection connection = getConnection(false, true)
+            ) {
+                connection.setAutoCommit(false);
+                connection.prepareStatement("create table x as (select cast(x as int) a from long_sequence(1000))").execute();
+
+                // filtered cursor does not know its size upfront
+                final PreparedStatement odd = connection.prepareStatement("x where a % 2 = 1");
+                odd.setFetchSize(7);
+                final PreparedStatement all = connection.prepareStatement("x");
+                all.setFetchSize(13);
+                final PreparedStatement count = connection.prepareStatement("select count() from x where a < ?");
+
+                try (
+                        ResultSet rsOdd = odd.executeQuery();
+                        ResultSet rsAll = all.executeQuery()
+                ) {
+                    int expectedOdd = 1;
+                    int expectedAll = 1;
+                    boolean hasOdd = true;
+                    boolean hasAll = true;
+                    while (hasOdd || hasAll) {
+                        if (hasOdd && (hasOdd = rsOdd.next())) {
+                            Assert.assertEquals(expectedOdd, rsOdd.getInt(1));
+                            expectedOdd += 2;
+                        }
+                        if (hasAll && (hasAll = rsAll.next())) {
+                            Assert.assertEquals(expectedAll, rsAll.getInt(1));
+                            expectedAll++;
+                        }
+                        if (expectedAll % 100 == 0) {
+                            // unrelated query between fetches of suspended portals
+                            count.setInt(1, expectedAll);
+                            try (ResultSet rs = count.executeQuery()) {
+                                Assert.assertTrue(rs.next());
+                                Assert.assertEquals(expectedAll - 1, rs.getLong(1));
+                            }
+                        }
+                    }
+                    Assert.assertEquals(1001, expectedOdd);
+                    Assert.assertEquals(1001, expectedAll);
+                }
+            }
+        });
+    }
+
     @Test
     public void testNamedStatementWithoutParameterTypeHex() throws Exception {
         String script = ">0000006e00030000757365720078797a0064617461626173650071646200636c69656e745f656e636f64696e67005554463800446174655374796c650049534f0054696d655a6f6e65004575726f70652f4c6f6e646f6e0065787472615f666c6f61745f64696769747300320000\n" +
@@ -4167,6 +4576,13 @@ nodejs code:
         });
     }
 
+    private void createCopyOutTable(Connection connection) throws SQLException {
+        connection.prepareStatement("create table x (i int, l long, d double, s string, b boolean, ts timestamp)").execute();
+        connection.prepareStatement("insert into x values (1, 10, 1.5, 'a,b', true, 1)").execute();
+        connection.prepareStatement("insert into x values (2, null, null, null, false, null)").execute();
+        connection.prepareStatement("insert into x values (3, 30, 3.5, 'x\ty', true, 3)").execute();
+    }
+
     private PGWireServer createPGServer(PGWireConfiguration configuration) {
         return PGWireServer.create(
                 configuration,
@@ -4407,6 +4823,93 @@ nodejs code:
         });
     }
 
+    private void testInsertGroupCommitAcrossConnections(int workerCount) throws Exception {
+        assertMemoryLeak(() -> {
+            final int connectionCount = 4;
+            final int insertCount = 50;
+            final int[] affinity = new int[workerCount];
+            Arrays.fill(affinity, -1);
+            final PGWireConfiguration configuration = new DefaultPGWireConfiguration() {
+                @Override
+                public long getInsertGroupCommitInterval() {
+                    // long enough to only ever commit on row count
+                    return 60_000_000;
+                }
+
+                @Override
+                public int getInsertGroupCommitRowCount() {
+                    return connectionCount;
+                }
+
+                @Override
+                public int[] getWorkerAffinity() {
+                    return affinity;
+                }
+
+                @Override
+                public int getWorkerCount() {
+                    return workerCount;
+                }
+            };
+
+            try (final PGWireServer ignored = createPGServer(configuration)) {
+                try (final Connection connection = getConnection(false, true)) {
+                    connection.prepareStatement("create table x (a int, b int)").execute();
+                }
+
+                final long txnBefore;
+                try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "testing")) {
+                    txnBefore = writer.getTxn();
+                }
+
+                final CyclicBarrier start = new CyclicBarrier(connectionCount);
+                final SOCountDownLatch done = new SOCountDownLatch(connectionCount);
+                final AtomicInteger errors = new AtomicInteger();
+                for (int i = 0; i < connectionCount; i++) {
+                    final int id = i;
+                    new Thread(() -> {
+                        try (final Connection connection = getConnection(false, true)) {
+                            final PreparedStatement insert = connection.prepareStatement("insert into x values (?, ?)");
+                            start.await();
+                            for (int j = 0; j < insertCount; j++) {
+                                insert.setInt(1, id);
+                                insert.setInt(2, j);
+                                Assert.assertEquals(1, insert.executeUpdate());
+                            }
+                        } catch (Throwable e) {
+                            LOG.error().$(e).$();
+                            errors.incrementAndGet();
+                        } finally {
+                            done.countDown();
+                        }
+                    }).start();
+                }
+                done.await();
+                Assert.assertEquals(0, errors.get());
+
+                try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "testing")) {
+                    // each connection waits for its insert to be committed, so every commit takes one row from each
+                    Assert.assertEquals(insertCount, writer.getTxn() - txnBefore);
+                }
+
+                try (final Connection connection = getConnection(false, true)) {
+                    try (ResultSet resultSet = connection.prepareStatement("select a, count(), sum(b) from x order by a").executeQuery()) {
+                        sink.clear();
+                        assertResultSet(
+                                "a[INTEGER],count[BIGINT],sum[BIGINT]\n" +
+                                        "0,50,1225\n" +
+                                        "1,50,1225\n" +
+                                        "2,50,1225\n" +
+                                        "3,50,1225\n",
+                                sink,
+                                resultSet
+                        );
+                    }
+                }
+            }
+        });
+    }
+
     private void testInsert0(boolean simpleQueryMode, boolean binary) throws Exception {
         assertMemoryLeak(() -> {
 
@@ -30,15 +30,21 @@ import io.questdb.cutlass.json.JsonException;
 import io.questdb.cutlass.json.JsonLexer;
 import io.questdb.cutlass.text.DefaultTextConfiguration;
 import io.questdb.cutlass.text.TextConfiguration;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
 import io.questdb.std.datetime.DateLocaleFactory;
 import io.questdb.std.datetime.microtime.TimestampFormatFactory;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
 import io.questdb.std.datetime.millitime.DateFormatFactory;
 import io.questdb.std.datetime.millitime.DateFormatUtils;
+import io.questdb.std.str.DirectByteCharSequence;
 import io.questdb.std.str.DirectCharSink;
 import io.questdb.test.tools.TestUtils;
 import org.junit.*;
 
+import java.nio.charset.StandardCharsets;
+
 public class TypeManagerTest {
     private static DirectCharSink utf8Sink;
     private static JsonLexer jsonLexer;
@@ -171,6 +177,31 @@ public class TypeManagerTest {
         assertFailure("/textloader/types/timestamp_obj.json", 244, "array expected (obj)");
     }
 
+    @Test
+    public void testTimestampUtf8AdapterDecodesValue() throws Exception {
+        final TypeManager typeManager = new TypeManager(new DefaultTextConfiguration(), utf8Sink);
+        final TimestampAdapter adapter = (TimestampAdapter) typeManager.nextTimestampAdapter(
+                true,
+                new TimestampFormatFactory().get("yyyy-MM-dd\"HH"),
+                TimestampFormatUtils.enLocale
+        );
+        final long expected = TimestampFormatUtils.parseTimestamp("2022-01-02T10:00:00.000000Z");
+        // escaped quote, as lexer leaves it in quoted value
+        final byte[] bytes = "2022-01-02\"\"10".getBytes(StandardCharsets.UTF_8);
+        final long mem = Unsafe.malloc(bytes.length, MemoryTag.NATIVE_DEFAULT);
+        try (DirectCharSink sink = new DirectCharSink(16)) {
+            for (int i = 0; i < bytes.length; i++) {
+                Unsafe.getUnsafe().putByte(mem + i, bytes[i]);
+            }
+            final DirectByteCharSequence value = new DirectByteCharSequence().of(mem, mem + bytes.length);
+            Assert.assertEquals(expected, adapter.getTimestamp(value));
+            Assert.assertEquals(expected, adapter.getTimestamp(value, sink));
+            TestUtils.assertEquals("2022-01-02\"10", sink);
+        } finally {
+            Unsafe.free(mem, bytes.length, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
     @Test
     public void testTimestampUnknownLocale() {
         assertFailure("/textloader/types/timestamp_unknown_locale.json", 313, "invalid [locale=zyx]");
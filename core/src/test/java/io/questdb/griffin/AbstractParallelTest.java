@@ -0,0 +1,213 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.WorkerPoolAwareConfiguration;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.griffin.engine.table.SelectedRecordCursorFactory;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.Misc;
+import io.questdb.std.Rnd;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.jetbrains.annotations.Nullable;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+/**
+ * Runs queries on an engine with a worker pool that executes parallel query tasks and
+ * compares the results to the results of the same queries executed serially.
+ */
+public abstract class AbstractParallelTest {
+    protected static final StringSink sink = new StringSink();
+    protected static final StringSink expectedSink = new StringSink();
+    private static final Log LOG = LogFactory.getLog(AbstractParallelTest.class);
+    private static final int PARALLEL_WORKER_COUNT = 4;
+    @ClassRule
+    public static TemporaryFolder temp = new TemporaryFolder();
+    protected static CharSequence root;
+    // configurations of tests that switch between serial and parallel plans with a flag return this value
+    protected static boolean parallelEnabled;
+
+    @BeforeClass
+    public static void setupStatic() {
+        try {
+            root = temp.newFolder("dbRoot").getAbsolutePath();
+        } catch (IOException e) {
+            throw new ExceptionInInitializerError();
+        }
+    }
+
+    @Before
+    public void setUp() {
+        SharedRandom.RANDOM.set(new Rnd());
+        TestUtils.createTestPath(root);
+    }
+
+    @After
+    public void tearDown() {
+        TestUtils.removeTestPath(root);
+    }
+
+    protected static void assertFactory(RecordCursorFactory factory, Class<?> expectedFactoryClass) {
+        if (factory instanceof SelectedRecordCursorFactory) {
+            // column selection wraps the factory, look for it in the plan
+            sink.clear();
+            factory.toSink(sink);
+            TestUtils.assertEquals(
+                    "{\"name\":\"SelectedRecordCursorFactory\", \"base\":{\"name\":\"" + expectedFactoryClass.getSimpleName() + "\"}}",
+                    sink
+            );
+        } else {
+            Assert.assertSame(expectedFactoryClass, factory.getClass());
+        }
+    }
+
+    /**
+     * Executes the query serially and then in parallel, twice to exercise cursor reuse, and
+     * compares the results.
+     *
+     * @param configuration        engine configuration
+     * @param workerCount          number of pool workers, 0 to have the query thread execute all tasks
+     * @param query                query to execute
+     * @param expectedFactoryClass factory class of the parallel plan, null to skip the check
+     * @param ddl                  statements that create tables for the query
+     */
+    protected static void assertParallel(
+            CairoConfiguration configuration,
+            int workerCount,
+            String query,
+            @Nullable Class<?> expectedFactoryClass,
+            String... ddl
+    ) throws Exception {
+        execute(configuration, workerCount, (engine, compiler, serialContext, parallelContext) -> {
+            for (int i = 0, n = ddl.length; i < n; i++) {
+                compiler.compile(ddl[i], serialContext);
+            }
+
+            parallelEnabled = false;
+            try (RecordCursorFactory factory = compiler.compile(query, serialContext).getRecordCursorFactory()) {
+                try (RecordCursor cursor = factory.getCursor(serialContext)) {
+                    expectedSink.clear();
+                    TestUtils.printCursor(cursor, factory.getMetadata(), true, expectedSink, TestUtils.printer);
+                }
+            }
+
+            parallelEnabled = true;
+            RecordCursorFactory factory = compiler.compile(query, parallelContext).getRecordCursorFactory();
+            try {
+                if (expectedFactoryClass != null) {
+                    assertFactory(factory, expectedFactoryClass);
+                }
+                // run twice to exercise cursor reuse
+                for (int i = 0; i < 2; i++) {
+                    try (RecordCursor cursor = factory.getCursor(parallelContext)) {
+                        TestUtils.assertCursor(expectedSink, cursor, factory.getMetadata(), true, sink);
+                    }
+                }
+            } finally {
+                Misc.free(factory);
+            }
+        });
+    }
+
+    protected static void execute(CairoConfiguration configuration, int workerCount, ParallelRunnable code) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            WorkerPool pool = null;
+            if (workerCount > 0) {
+                final int[] affinity = new int[workerCount];
+                for (int i = 0; i < workerCount; i++) {
+                    affinity[i] = -1;
+                }
+                pool = new WorkerPool(
+                        new WorkerPoolAwareConfiguration() {
+                            @Override
+                            public int[] getWorkerAffinity() {
+                                return affinity;
+                            }
+
+                            @Override
+                            public int getWorkerCount() {
+                                return workerCount;
+                            }
+
+                            @Override
+                            public boolean haltOnError() {
+                                return false;
+                            }
+
+                            @Override
+                            public boolean isEnabled() {
+                                return true;
+                            }
+                        }
+                );
+            }
+
+            try (
+                    final CairoEngine engine = new CairoEngine(configuration);
+                    final SqlCompiler compiler = new SqlCompiler(engine);
+                    final SqlExecutionContext serialContext = new SqlExecutionContextImpl(engine, 1);
+                    final SqlExecutionContext parallelContext = new SqlExecutionContextImpl(engine, Math.max(workerCount, PARALLEL_WORKER_COUNT))
+            ) {
+                try {
+                    if (pool != null) {
+                        pool.assignCleaner(Path.CLEANER);
+                        engine.assignQueryJobs(pool);
+                        pool.start(LOG);
+                    }
+
+                    code.run(engine, compiler, serialContext, parallelContext);
+
+                    Assert.assertEquals(0, engine.getBusyReaderCount());
+                    Assert.assertEquals(0, engine.getQueryAdmissionController().getActiveQueryCount());
+                } finally {
+                    if (pool != null) {
+                        pool.halt();
+                    }
+                }
+            }
+        });
+    }
+
+    @FunctionalInterface
+    protected interface ParallelRunnable {
+        void run(
+                CairoEngine engine,
+                SqlCompiler compiler,
+                SqlExecutionContext serialContext,
+                SqlExecutionContext parallelContext
+        ) throws Exception;
+    }
+}
@@ -24,6 +24,12 @@
 
 package io.questdb.griffin;
 
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.join.AsOfJoinLightRecordCursorFactory;
+import io.questdb.griffin.engine.join.AsOfJoinSymbolRecordCursorFactory;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
 import org.junit.Test;
 
 public class AsOfJoinTest extends AbstractGriffinTest {
@@ -71,6 +77,43 @@ public class AsOfJoinTest extends AbstractGriffinTest {
         );
     }
 
+    @Test
+    public void testAsOfJoinOnSymbolMatchesFullFat() throws Exception {
+        assertMemoryLeak(() -> {
+            createSymbolJoinTables();
+            assertSymbolJoin("select * from x asof join y on (sym)", AsOfJoinSymbolRecordCursorFactory.class);
+            assertSymbolJoin("select * from x asof join y on x.sym = y.sym", AsOfJoinSymbolRecordCursorFactory.class);
+            assertSymbolJoin("select * from (x where sym <> 'c') asof join y on (sym)", AsOfJoinSymbolRecordCursorFactory.class);
+            assertSymbolJoin("select * from x asof join (y where ts in '1970-01-02') on (sym)", AsOfJoinSymbolRecordCursorFactory.class);
+            // filtered slave is not a full scan
+            assertSymbolJoin("select * from x asof join (y where v > 10) on (sym)", AsOfJoinLightRecordCursorFactory.class);
+        });
+    }
+
+    @Test
+    public void testAsOfJoinOnSymbolToTop() throws Exception {
+        assertMemoryLeak(() -> {
+            createSymbolJoinTables();
+            try (RecordCursorFactory factory = compiler.compile("select * from x asof join y on (sym)", sqlExecutionContext).getRecordCursorFactory()) {
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    final StringSink expected = new StringSink();
+                    TestUtils.printCursor(cursor, factory.getMetadata(), true, expected, TestUtils.printer);
+                    cursor.toTop();
+                    TestUtils.assertCursor(expected, cursor, factory.getMetadata(), true, sink);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testLtJoinOnSymbolMatchesFullFat() throws Exception {
+        assertMemoryLeak(() -> {
+            createSymbolJoinTables();
+            assertSymbolJoin("select * from x lt join y on (sym)", AsOfJoinSymbolRecordCursorFactory.class);
+            assertSymbolJoin("select * from x a lt join x b on (sym)", AsOfJoinSymbolRecordCursorFactory.class);
+        });
+    }
+
     @Test
     public void testAsofJoinDynamicTimestamp() throws Exception {
         compiler.compile(
@@ -661,5 +704,59 @@ public class AsOfJoinTest extends AbstractGriffinTest {
         });
     }
 
-}
+    private static void assertSymbolJoin(String query, Class<?> expectedFactoryClass) throws SqlException {
+        final StringSink expected = new StringSink();
+        try {
+            compiler.setFullFatJoins(true);
+            try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    TestUtils.printCursor(cursor, factory.getMetadata(), true, expected, TestUtils.printer);
+                }
+            }
+        } finally {
+            compiler.setFullFatJoins(false);
+        }
+
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            sink.clear();
+            factory.toSink(sink);
+            TestUtils.assertEquals("{\"name\":\"SelectedRecordCursorFactory\", \"base\":{\"name\":\"" + expectedFactoryClass.getSimpleName() + "\"}}", sink);
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                TestUtils.assertCursor(expected, cursor, factory.getMetadata(), true, sink);
+            }
+        }
+    }
 
+    private static void createSymbolJoinTables() throws SqlException {
+        // duplicate timestamps on both sides, null symbols and a master symbol missing from slave
+        compiler.compile(
+                "create table x as (" +
+                        "select" +
+                        " rnd_symbol('a', 'b', 'c', 'd', null) sym," +
+                        " x i," +
+                        " timestamp_sequence(0, (x % 3) * 3600000000L) ts" +
+                        " from long_sequence(200)" +
+                        ") timestamp(ts) partition by DAY",
+                sqlExecutionContext
+        );
+        compiler.compile(
+                "create table y as (" +
+                        "select" +
+                        " rnd_int(0, 100, 0) v," +
+                        " timestamp_sequence(0, (x % 2) * 7200000000L) ts" +
+                        " from long_sequence(100)" +
+                        ") timestamp(ts) partition by DAY",
+                sqlExecutionContext
+        );
+        // symbol column added later has a column top in existing partitions
+        compiler.compile("alter table y add column sym symbol", sqlExecutionContext);
+        compiler.compile(
+                "insert into y select" +
+                        " rnd_int(0, 100, 0) v," +
+                        " timestamp_sequence(100 * 3600000000L, (x % 2) * 3600000000L) ts," +
+                        " rnd_symbol('a', 'b', 'e', null) sym" +
+                        " from long_sequence(200)",
+                sqlExecutionContext
+        );
+    }
+}
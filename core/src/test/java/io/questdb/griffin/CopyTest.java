@@ -24,13 +24,31 @@
 
 package io.questdb.griffin;
 
+import io.questdb.WorkerPoolAwareConfiguration;
 import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cutlass.text.TextImportJob;
+import io.questdb.griffin.model.CopyModel;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.NumericException;
+import io.questdb.std.Rnd;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
 
 public class CopyTest extends AbstractGriffinTest {
+    private static final Log LOG = LogFactory.getLog(CopyTest.class);
+
     @BeforeClass
     public static void setUpStatic() {
         inputRoot = new File(".").getAbsolutePath();
@@ -67,6 +85,172 @@ public class CopyTest extends AbstractGriffinTest {
         ));
     }
 
+    @Test
+    public void testCopyPartitionByInvalid() throws Exception {
+        assertMemoryLeak(() -> assertFailure(
+                "copy x from 'a.csv' with timestamp ts partition by WEEK",
+                null,
+                51,
+                "'NONE', 'DAY', 'MONTH' or 'YEAR' expected"
+        ));
+    }
+
+    @Test
+    public void testCopyPartitionByWithoutTimestamp() throws Exception {
+        assertMemoryLeak(() -> assertFailure(
+                "copy x from 'a.csv' with header true partition by DAY",
+                null,
+                37,
+                "timestamp column is required to partition table"
+        ));
+    }
+
+    @Test
+    public void testCopyQueryToStdout() throws Exception {
+        assertMemoryLeak(() -> {
+            final CompiledQuery cc = compiler.compile("copy (select x, x * 2 y from long_sequence(3)) to stdout with (format csv, header true)", sqlExecutionContext);
+            Assert.assertEquals(CompiledQuery.COPY_OUT, cc.getType());
+            Assert.assertEquals(CopyModel.FORMAT_CSV, cc.getCopyFormat());
+            Assert.assertTrue(cc.isCopyHeader());
+            try (RecordCursorFactory factory = cc.getRecordCursorFactory()) {
+                assertCursor(
+                        "x\ty\n" +
+                                "1\t2\n" +
+                                "2\t4\n" +
+                                "3\t6\n",
+                        factory,
+                        true,
+                        true,
+                        true
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testCopyTableToStdout() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table y as (select x a from long_sequence(2))", sqlExecutionContext);
+            final CompiledQuery cc = compiler.compile("copy y to stdout with format binary", sqlExecutionContext);
+            Assert.assertEquals(CompiledQuery.COPY_OUT, cc.getType());
+            Assert.assertEquals(CopyModel.FORMAT_BINARY, cc.getCopyFormat());
+            Assert.assertFalse(cc.isCopyHeader());
+            try (RecordCursorFactory factory = cc.getRecordCursorFactory()) {
+                assertCursor(
+                        "a\n" +
+                                "1\n" +
+                                "2\n",
+                        factory,
+                        true,
+                        true,
+                        true
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testCopyToStdoutBinaryHeader() throws Exception {
+        assertMemoryLeak(() -> assertFailure(
+                "copy (long_sequence(1)) to stdout with (format binary, header true)",
+                null,
+                66,
+                "header is not supported in binary format"
+        ));
+    }
+
+    @Test
+    public void testCopyToStdoutInvalidFormat() throws Exception {
+        assertMemoryLeak(() -> assertFailure(
+                "copy (long_sequence(1)) to stdout with (format json)",
+                null,
+                47,
+                "'text', 'csv' or 'binary' expected"
+        ));
+    }
+
+    @Test
+    public void testCopyToFile() throws Exception {
+        assertMemoryLeak(() -> assertFailure(
+                "copy (long_sequence(1)) to 'x.csv'",
+                null,
+                27,
+                "'stdout' expected"
+        ));
+    }
+
+    @Test
+    public void testParallelCopyIntoExistingTable() throws Exception {
+        final int workerCount = 2;
+        final int[] affinity = new int[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            affinity[i] = -1;
+        }
+        final WorkerPool pool = new WorkerPool(
+                new WorkerPoolAwareConfiguration() {
+                    @Override
+                    public int[] getWorkerAffinity() {
+                        return affinity;
+                    }
+
+                    @Override
+                    public int getWorkerCount() {
+                        return workerCount;
+                    }
+
+                    @Override
+                    public boolean haltOnError() {
+                        return false;
+                    }
+
+                    @Override
+                    public boolean isEnabled() {
+                        return true;
+                    }
+                }
+        );
+        pool.assignCleaner(Path.CLEANER);
+        pool.assign(new TextImportJob(engine.getMessageBus()));
+        pool.start(LOG);
+        try {
+            assertParallelCopy(
+                    "create table x (ts timestamp, sym symbol, value int) timestamp(ts) partition by DAY",
+                    "copy x from 'unordered.csv' with header true",
+                    5000
+            );
+        } finally {
+            pool.halt();
+        }
+    }
+
+    @Test
+    public void testParallelCopyQuotedNewLines() throws Exception {
+        final String oldInputRoot = inputRoot;
+        inputRoot = temp.getRoot().getAbsolutePath();
+        try {
+            assertMemoryLeak(() -> {
+                final StringSink expected = new StringSink();
+                writeQuotedCsv(new File(inputRoot, "quoted.csv"), 300, expected);
+                // chunks are smaller than lines, most of boundaries fall into quoted values
+                configOverrideSqlCopyChunkSize = 16;
+                compiler.compile("create table x (ts timestamp, note string, value int) timestamp(ts) partition by DAY", sqlExecutionContext);
+                compiler.compile("copy x from 'quoted.csv' with header true", sqlExecutionContext);
+                assertQuery(expected.toString(), "x", "ts", true);
+            });
+        } finally {
+            inputRoot = oldInputRoot;
+        }
+    }
+
+    @Test
+    public void testParallelCopyUnordered() throws Exception {
+        assertParallelCopy(
+                null,
+                "copy x from 'unordered.csv' with header true timestamp ts partition by DAY",
+                3000
+        );
+    }
+
     @Test
     public void testSimpleCopy() throws Exception {
         assertMemoryLeak(() -> {
@@ -254,6 +438,105 @@ public class CopyTest extends AbstractGriffinTest {
         });
     }
 
+    private void assertParallelCopy(String ddl, String copy, int rowCount) throws Exception {
+        final String oldInputRoot = inputRoot;
+        inputRoot = temp.getRoot().getAbsolutePath();
+        try {
+            assertMemoryLeak(() -> {
+                final StringSink expected = new StringSink();
+                writeUnorderedCsv(new File(inputRoot, "unordered.csv"), rowCount, expected);
+                // many chunks, each spanning a number of partitions
+                configOverrideSqlCopyChunkSize = 1024;
+                if (ddl != null) {
+                    compiler.compile(ddl, sqlExecutionContext);
+                }
+                compiler.compile(copy, sqlExecutionContext);
+                assertQuery(expected.toString(), "x", "ts", true);
+            });
+        } finally {
+            inputRoot = oldInputRoot;
+        }
+    }
+
+    /**
+     * Writes rows with hourly timestamps in reverse order, notes are quoted and contain
+     * new lines, delimiters and escaped quotes.
+     */
+    private static void writeQuotedCsv(File file, int rowCount, StringSink expected) throws IOException, NumericException {
+        final long start = TimestampFormatUtils.parseTimestamp("2022-01-01T00:00:00.000000Z");
+        final StringSink line = new StringSink();
+        try (Writer writer = new FileWriter(file)) {
+            writer.write("ts,note,value\n");
+            for (int row = rowCount - 1; row > -1; row--) {
+                line.clear();
+                TimestampFormatUtils.appendDateTimeUSec(line, start + row * Timestamps.HOUR_MICROS);
+                line.put(",\"note \"\"").put(row).put("\"\"\n,\n").put(row).put("\",").put(row).put('\n');
+                writer.write(line.toString());
+            }
+        }
+
+        expected.put("ts\tnote\tvalue\n");
+        for (int row = 0; row < rowCount; row++) {
+            TimestampFormatUtils.appendDateTimeUSec(expected, start + row * Timestamps.HOUR_MICROS);
+            expected.put("\tnote \"").put(row).put("\"\n,\n").put(row).put('\t').put(row).put('\n');
+        }
+    }
+
+    /**
+     * Writes rows hourly timestamps in random order, the last line has no line end.
+     * One row, outside of analysed lines, has bad timestamp and is expected to be skipped.
+     */
+    private static void writeUnorderedCsv(File file, int rowCount, StringSink expected) throws IOException, NumericException {
+        final long start = TimestampFormatUtils.parseTimestamp("2022-01-01T00:00:00.000000Z");
+        final int badRow = rowCount - 10;
+        final int[] rows = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            rows[i] = i;
+        }
+        final Rnd rnd = new Rnd();
+        for (int i = rowCount - 1; i > 0; i--) {
+            final int j = rnd.nextPositiveInt() % (i + 1);
+            final int t = rows[i];
+            rows[i] = rows[j];
+            rows[j] = t;
+        }
+        // keep analysed lines free of the bad row
+        for (int i = 0; i < rowCount; i++) {
+            if (rows[i] == badRow) {
+                rows[i] = rows[rowCount - 1];
+                rows[rowCount - 1] = badRow;
+                break;
+            }
+        }
+
+        final StringSink line = new StringSink();
+        try (Writer writer = new FileWriter(file)) {
+            writer.write("ts,sym,value\n");
+            for (int i = 0; i < rowCount; i++) {
+                final int row = rows[i];
+                line.clear();
+                if (row == badRow) {
+                    line.put("not a timestamp");
+                } else {
+                    TimestampFormatUtils.appendDateTimeUSec(line, start + row * Timestamps.HOUR_MICROS);
+                }
+                line.put(",s").put(row % 7).put(',').put(row);
+                if (i < rowCount - 1) {
+                    line.put('\n');
+                }
+                writer.write(line.toString());
+            }
+        }
+
+        expected.put("ts\tsym\tvalue\n");
+        for (int row = 0; row < rowCount; row++) {
+            if (row != badRow) {
+                TimestampFormatUtils.appendDateTimeUSec(expected, start + row * Timestamps.HOUR_MICROS);
+                expected.put("\ts").put(row % 7).put('\t').put(row).put('\n');
+            }
+        }
+    }
+
     protected void assertQuery(String expected, String query, String expectedTimestamp, boolean supportsRandomAccess) throws SqlException {
         try (final RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
             assertFactoryCursor(expected, expectedTimestamp, factory, supportsRandomAccess, sqlExecutionContext, true, true);
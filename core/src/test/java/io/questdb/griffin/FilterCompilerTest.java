@@ -0,0 +1,162 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.engine.table.FilterCompiler;
+import io.questdb.griffin.model.ExpressionNode;
+import io.questdb.griffin.model.QueryModel;
+import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.Misc;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FilterCompilerTest extends AbstractGriffinTest {
+    private static final String DDL = "create table x as (" +
+            "select" +
+            " rnd_byte(0, 20) b," +
+            " rnd_short(0, 20) s," +
+            " rnd_int(0, 20, 2) i," +
+            " rnd_long(0, 20, 2) l," +
+            " cast(rnd_float(2) * 20 as float) f," +
+            " rnd_double(2) * 20 d," +
+            " cast(rnd_long(0, 20, 2) as date) dt," +
+            " cast(rnd_long(0, 20000, 2) as timestamp) t," +
+            " rnd_symbol('A', 'BB', 'C') sy," +
+            " rnd_symbol(4, 1, 1, 2) sn," +
+            " rnd_boolean() bo," +
+            " rnd_str('A', 'BB', 'C') st" +
+            " from long_sequence(1000)" +
+            ")";
+    private static final StringSink expectedSink = new StringSink();
+
+    @Test
+    public void testBoolean() throws Exception {
+        assertCompiled("bo", "not bo", "bo and i < 5", "not bo or d > 10");
+    }
+
+    @Test
+    public void testDate() throws Exception {
+        assertCompiled("dt < 10", "dt >= 10", "dt = 10", "dt <> 10", "dt < l", "dt = l", "dt = i", "dt < i", "dt > 3000000000", "dt = 3000000000");
+    }
+
+    @Test
+    public void testDouble() throws Exception {
+        assertCompiled("f < 10", "f = d", "f >= i", "d >= 10.5", "d = 5", "d != 5", "d < l", "d <= -2.5", "i < 1.5", "i = 5.0", "l > 7.5");
+    }
+
+    @Test
+    public void testInt() throws Exception {
+        assertCompiled("i < 10", "i >= 10", "i > 10", "i <= 10", "i = 10", "i != 10", "i <> 10", "10 < i", "i > -5", "b = 5", "b < s", "s >= 7", "i < 40000", "i != 100000", "i > -100000");
+    }
+
+    @Test
+    public void testLogical() throws Exception {
+        assertCompiled(
+                "not (i < 5)",
+                "not (t < 10000)",
+                "i < 5 and l > 5 or d < 3",
+                "(i < 5 or l > 5) and not (d < 3 or f > 10)",
+                "sy = 'A' and (b < 10 or dt > 5) and not bo"
+        );
+    }
+
+    @Test
+    public void testLong() throws Exception {
+        assertCompiled("l < 10", "l = 10", "l != i", "l > i", "l = 10000000000", "l < 3000000000", "l = -5", "i = l");
+    }
+
+    @Test
+    public void testSymbol() throws Exception {
+        assertCompiled("sy = 'BB'", "sy != 'A'", "sy = 'Z'", "'C' = sy", "sy = 'C' or sy = 'A'", "sn = 'Q'", "sn != 'Q'");
+    }
+
+    @Test
+    public void testTimestamp() throws Exception {
+        assertCompiled("t < 10000", "t > dt", "t = dt", "t < i", "t = i", "t = l", "t < l", "t = 5000", "t = 10000000000", "5000 >= t", "s = t", "b = t");
+    }
+
+    @Test
+    public void testUnsupported() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(DDL, sqlExecutionContext);
+            assertNotCompiled("i + 1 < 10");
+            assertNotCompiled("i in (1, 2)");
+            assertNotCompiled("i = null");
+            assertNotCompiled("d = NaN");
+            assertNotCompiled("st = 'A'");
+            assertNotCompiled("sy = null");
+            assertNotCompiled("t < '1970-01-01'");
+            assertNotCompiled("bo = true");
+            assertNotCompiled("i < 10 and st = 'A'");
+            assertNotCompiled("dt < dt");
+        });
+    }
+
+    private void assertCompiled(String... filters) throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(DDL, sqlExecutionContext);
+            final CairoConfiguration interpreterConfiguration = new DefaultCairoConfiguration(root) {
+                @Override
+                public boolean isSqlJitFilterEnabled() {
+                    return false;
+                }
+            };
+            try (
+                    CairoEngine interpreterEngine = new CairoEngine(interpreterConfiguration);
+                    SqlCompiler interpreter = new SqlCompiler(interpreterEngine);
+                    SqlExecutionContext interpreterContext = new SqlExecutionContextImpl(interpreterEngine, 1)
+            ) {
+                for (String filter : filters) {
+                    Assert.assertNotNull(filter, compile(filter));
+                    final String query = "select * from x where " + filter;
+                    TestUtils.printSql(interpreter, interpreterContext, query, expectedSink);
+                    TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+                    TestUtils.assertEquals(filter, expectedSink, sink);
+                }
+            }
+        });
+    }
+
+    private void assertNotCompiled(String filter) throws SqlException {
+        Assert.assertNull(filter, compile(filter));
+    }
+
+    private Function compile(String filter) throws SqlException {
+        final QueryModel model = QueryModel.FACTORY.newInstance();
+        final ExpressionNode node = compiler.testParseExpression(filter, model);
+        try (TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), "x")) {
+            final Function f = new FilterCompiler(new BytecodeAssembler()).compile(node, reader.getMetadata());
+            Misc.free(f);
+            return f;
+        }
+    }
+}
@@ -910,6 +910,48 @@ public class KeyedAggregationTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testSymbolPairKey() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table tab as (select rnd_symbol('s1','s2','s3', null) s1, rnd_symbol('a1','a2', null) s2, rnd_int(0, 100, 2) i, rnd_long(0, 100000, 2) l, rnd_double(2) d from long_sequence(200000))", sqlExecutionContext);
+            assertSymbolPairKey("select s1, s2, count(), sum(l), min(i), max(d) from tab", "s1, s2");
+            assertSymbolPairKey("select count() c, s2, sum(l), s1 from tab", "s2, s1");
+        });
+    }
+
+    @Test
+    public void testSymbolPairKeyAddKeyMidTable() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table tab as (select rnd_symbol('s1','s2','s3', null) s1, rnd_long(0, 100000, 2) l from long_sequence(100000))", sqlExecutionContext);
+            compiler.compile("alter table tab add column s2 symbol", sqlExecutionContext);
+            compiler.compile("insert into tab select rnd_symbol('s1','s2','s3', null), rnd_long(0, 100000, 2), rnd_symbol('a1','a2', null) from long_sequence(100000)", sqlExecutionContext);
+            assertSymbolPairKey("select s1, s2, count(), sum(l) from tab", "s1, s2");
+        });
+    }
+
+    @Test
+    public void testSymbolPairKeyHighCardinality() throws Exception {
+        // symbol counts multiply beyond int range, key pairs are enumerated instead
+        assertMemoryLeak(() -> {
+            compiler.compile("create table tab as (select cast(x % 50000 as symbol) s1, cast(x % 49999 as symbol) s2, x l from long_sequence(150000))", sqlExecutionContext);
+            assertSymbolPairKey("select s1, s2, count(), sum(l) from tab", "s1, s2");
+        });
+    }
+
+    private void assertSymbolPairKey(String query, String orderBy) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertTrue(factory instanceof io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory);
+        }
+        // force not-vector execution for the expected result
+        TestUtils.assertSqlCursors(
+                compiler,
+                sqlExecutionContext,
+                query + " where now() > '1000-01-01' order by " + orderBy,
+                query + " order by " + orderBy,
+                LOG
+        );
+    }
+
     @Test
     public void testMinMaxAggregations() throws Exception {
         String[] aggregateFunctions = {"max", "min"};
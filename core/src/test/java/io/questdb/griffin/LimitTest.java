@@ -208,6 +208,79 @@ public class LimitTest extends AbstractGriffinTest {
         testLimit(expected, expected2, query);
     }
 
+    @Test
+    public void testOrderByTopN() throws Exception {
+        assertQuery(
+                "i\tsym\n" +
+                        "9\ta\n" +
+                        "2\ta\n" +
+                        "1\ta\n" +
+                        "10\tb\n",
+                "select i, sym from x order by sym limit 4",
+                "create table x as (" +
+                        "select cast(x as int) i, rnd_symbol('a','b','c') sym from long_sequence(10)" +
+                        ")",
+                null,
+                true,
+                false,
+                true
+        );
+    }
+
+    @Test
+    public void testOrderByTopNSameAsFullSort() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x as (" +
+                            "select" +
+                            " rnd_int(0, 20, 0) a," +
+                            " rnd_str(1, 2, 2) s," +
+                            " rnd_symbol(5, 2, 4, 2) sym," +
+                            " rnd_double(2) d," +
+                            " timestamp_sequence(0, 1000000) ts" +
+                            " from long_sequence(1000)" +
+                            ") timestamp(ts) partition by NONE",
+                    sqlExecutionContext
+            );
+
+            // limit given by bind variable is not constant, such query sorts all rows
+            final String[] orderBys = {
+                    "a",
+                    "a desc",
+                    "s, a desc",
+                    "sym desc, d",
+                    "d desc, ts",
+                    "a, s desc, sym"
+            };
+            for (String orderBy : orderBys) {
+                bindVariableService.clear();
+                bindVariableService.setLong("lo", 10);
+                bindVariableService.setLong("hi", 25);
+                TestUtils.assertSqlCursors(
+                        compiler,
+                        sqlExecutionContext,
+                        "select * from x order by " + orderBy + " limit :hi",
+                        "select * from x order by " + orderBy + " limit 25",
+                        LOG
+                );
+                TestUtils.assertSqlCursors(
+                        compiler,
+                        sqlExecutionContext,
+                        "select * from x order by " + orderBy + " limit :lo, :hi",
+                        "select * from x order by " + orderBy + " limit 10, 25",
+                        LOG
+                );
+                TestUtils.assertSqlCursors(
+                        compiler,
+                        sqlExecutionContext,
+                        "select * from x order by " + orderBy,
+                        "select * from x order by " + orderBy + " limit 2000",
+                        LOG
+                );
+            }
+        });
+    }
+
     @Test
     public void testRangeVariable() throws Exception {
         String query = "select * from y limit :lo,:hi";
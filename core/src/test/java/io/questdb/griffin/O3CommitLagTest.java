@@ -40,6 +40,7 @@ import io.questdb.std.IntList;
 import io.questdb.std.NumericException;
 import io.questdb.std.Rnd;
 import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
 import org.junit.Before;
@@ -251,6 +252,103 @@ public class O3CommitLagTest extends AbstractO3Test {
         executeWithPool(2, this::testNoLagWithRollback);
     }
 
+    @Test
+    public void testPartitionLimitDefersNewerPartitions() throws Exception {
+        executeVanilla(() -> execute(null, (CairoEngine engine, SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) -> {
+            compiler.compile("create table x (" +
+                    "i int, " +
+                    "ts timestamp" +
+                    ") timestamp(ts) partition by DAY " +
+                    " WITH maxUncommittedRows=1000, commitLag=1h", sqlExecutionContext);
+
+            String[] dates = new String[]{
+                    "2021-01-04T12:00:00.000000Z",
+                    "2021-01-03T12:00:00.000000Z",
+                    "2021-01-02T12:00:00.000000Z",
+                    "2021-01-01T12:00:00.000000Z",
+                    "2021-01-05T23:00:00.000000Z",
+            };
+
+            try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "test")) {
+                for (int i = 0; i < dates.length; i++) {
+                    Row r = writer.newRow(IntervalUtils.parseFloorPartialDate(dates[i]));
+                    r.putInt(0, i);
+                    r.append();
+                }
+
+                // two oldest partitions are merged, the other two are left with the lag
+                writer.commitWithLag();
+                Assert.assertEquals(2, writer.getO3DeferredRowCount());
+                TestUtils.assertSql(compiler, sqlExecutionContext, "x", sink,
+                        "i\tts\n" +
+                                "3\t2021-01-01T12:00:00.000000Z\n" +
+                                "2\t2021-01-02T12:00:00.000000Z\n"
+                );
+
+                writer.commitWithLag();
+                Assert.assertEquals(0, writer.getO3DeferredRowCount());
+                TestUtils.assertSql(compiler, sqlExecutionContext, "x", sink,
+                        "i\tts\n" +
+                                "3\t2021-01-01T12:00:00.000000Z\n" +
+                                "2\t2021-01-02T12:00:00.000000Z\n" +
+                                "1\t2021-01-03T12:00:00.000000Z\n" +
+                                "0\t2021-01-04T12:00:00.000000Z\n"
+                );
+
+                // commit without lag is not limited
+                writer.commit();
+                TestUtils.assertSql(compiler, sqlExecutionContext, "x", sink,
+                        "i\tts\n" +
+                                "3\t2021-01-01T12:00:00.000000Z\n" +
+                                "2\t2021-01-02T12:00:00.000000Z\n" +
+                                "1\t2021-01-03T12:00:00.000000Z\n" +
+                                "0\t2021-01-04T12:00:00.000000Z\n" +
+                                "4\t2021-01-05T23:00:00.000000Z\n"
+                );
+            }
+        }, new DefaultCairoConfiguration(root) {
+            @Override
+            public int getO3CommitLagMaxPartitions() {
+                return 2;
+            }
+        }));
+    }
+
+    @Test
+    public void testPartitionLimitIsOffByDefault() throws Exception {
+        executeVanilla(() -> execute(null, (CairoEngine engine, SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) -> {
+            compiler.compile("create table x (" +
+                    "i int, " +
+                    "ts timestamp" +
+                    ") timestamp(ts) partition by DAY " +
+                    " WITH maxUncommittedRows=1000, commitLag=1h", sqlExecutionContext);
+
+            try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "test")) {
+                // late data for 6 days in reverse order, followed by a row that is within commit lag
+                final long ts = IntervalUtils.parseFloorPartialDate("2021-01-07T00:00:00.000000Z");
+                for (int i = 0; i < 7; i++) {
+                    Row r = writer.newRow(i < 6 ? ts - (i + 1) * Timestamps.DAY_MICROS + Timestamps.HOUR_MICROS : ts);
+                    r.putInt(0, i);
+                    r.append();
+                }
+                Assert.assertEquals(0, engine.getConfiguration().getO3CommitLagMaxPartitions());
+
+                // all late rows are committed, only the row within commit lag is kept
+                writer.commitWithLag();
+                Assert.assertEquals(0, writer.getO3DeferredRowCount());
+                TestUtils.assertSql(compiler, sqlExecutionContext, "select count() from x", sink,
+                        "count\n6\n"
+                );
+
+                writer.commit();
+                Assert.assertEquals(0, writer.getO3DeferredRowCount());
+                TestUtils.assertSql(compiler, sqlExecutionContext, "select count() from x", sink,
+                        "count\n7\n"
+                );
+            }
+        }, new DefaultCairoConfiguration(root)));
+    }
+
     @Test
     public void testRowCountWhenLagIsNextDay() throws Exception {
         executeWithPool(0, (CairoEngine engine, SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) -> {
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.functions.BooleanFunction;
+import io.questdb.griffin.engine.table.DataFrameRecordCursorFactory;
+import io.questdb.griffin.engine.table.FilteredRecordCursorFactory;
+import io.questdb.griffin.engine.table.ParallelFilteredRecordCursorFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.FilesFacadeImpl;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelFilterTest extends AbstractParallelTest {
+    private static final String DDL = "create table x as (" +
+            "select" +
+            " rnd_double(0)*100 a," +
+            " rnd_int(0, 30, 0) b," +
+            " rnd_str('AA', 'BB', 'CC') s," +
+            " timestamp_sequence(0, 100000000) k" +
+            " from long_sequence(5000)" +
+            ") timestamp(k) partition by DAY";
+
+    @Test
+    public void testFilterDescending() throws Exception {
+        assertParallel(4, 1000, 64, "select * from x where a > 40 and b < 20 order by k desc", null);
+    }
+
+    @Test
+    public void testFilterFrameSplit() throws Exception {
+        assertParallel(4, 100, 64, "select * from x where a > 40 and b < 20", ParallelFilteredRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testFilterFailure() throws Exception {
+        execute(newConfiguration(100, 64, 0), 4, (engine, compiler, serialContext, parallelContext) -> {
+            compiler.compile(DDL, serialContext);
+            final RecordCursorFactory base = compiler.compile("x", parallelContext).getRecordCursorFactory();
+            Assert.assertTrue(base instanceof DataFrameRecordCursorFactory);
+            final BooleanFunction filter = new BooleanFunction() {
+                @Override
+                public boolean getBool(Record rec) {
+                    if (rec.getInt(1) == 7) {
+                        throw new UnsupportedOperationException("filter failure");
+                    }
+                    return true;
+                }
+
+                @Override
+                public boolean isReadThreadSafe() {
+                    return true;
+                }
+            };
+            try (
+                    RecordCursorFactory factory = new ParallelFilteredRecordCursorFactory(
+                            engine.getConfiguration(),
+                            (DataFrameRecordCursorFactory) base,
+                            filter,
+                            parallelContext.getWorkerCount()
+                    )
+            ) {
+                // run twice to check that failure of the first query does not leak into the second one
+                for (int i = 0; i < 2; i++) {
+                    try (RecordCursor cursor = factory.getCursor(parallelContext)) {
+                        //noinspection StatementWithEmptyBody
+                        while (cursor.hasNext()) {
+                        }
+                        Assert.fail();
+                    } catch (CairoException e) {
+                        TestUtils.assertContains(e.getFlyweightMessage(), "page frame filter failed");
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testFilterLimit() throws Exception {
+        assertParallel(4, 100, 64, "select * from x where a > 40 limit 15", null);
+    }
+
+    @Test
+    public void testFilterNoWorkers() throws Exception {
+        assertParallel(0, 100, 2, "select * from x where b = 5 or not (a < 50)", ParallelFilteredRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testFilterNotThreadSafe() throws Exception {
+        assertParallel(4, 100, 64, "select * from x where s = 'BB' and a > 10", FilteredRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testFilterQueueFull() throws Exception {
+        assertParallel(4, 100, 2, "select * from x where b = 5 or not (a < 50)", ParallelFilteredRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testFilterTaskLimit() throws Exception {
+        assertParallel(4, 100, 64, 3, "select * from x where b = 5 or not (a < 50)", ParallelFilteredRecordCursorFactory.class);
+    }
+
+    private static void assertParallel(
+            int workerCount,
+            int frameMaxRows,
+            int queueCapacity,
+            String query,
+            Class<?> expectedFactoryClass
+    ) throws Exception {
+        assertParallel(workerCount, frameMaxRows, queueCapacity, 0, query, expectedFactoryClass);
+    }
+
+    private static void assertParallel(
+            int workerCount,
+            int frameMaxRows,
+            int queueCapacity,
+            int taskLimit,
+            String query,
+            Class<?> expectedFactoryClass
+    ) throws Exception {
+        assertParallel(newConfiguration(frameMaxRows, queueCapacity, taskLimit), workerCount, query, expectedFactoryClass, DDL);
+    }
+
+    private static CairoConfiguration newConfiguration(int frameMaxRows, int queueCapacity, int taskLimit) {
+        return new DefaultCairoConfiguration(root) {
+            @Override
+            public FilesFacade getFilesFacade() {
+                return FilesFacadeImpl.INSTANCE;
+            }
+
+            @Override
+            public int getPageFrameFilterQueueCapacity() {
+                return queueCapacity;
+            }
+
+            @Override
+            public int getSqlPageFrameMaxRows() {
+                return frameMaxRows;
+            }
+
+            @Override
+            public int getSqlParallelQueryTaskLimit() {
+                return taskLimit;
+            }
+        };
+    }
+}
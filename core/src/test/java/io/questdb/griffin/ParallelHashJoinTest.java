@@ -0,0 +1,190 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.join.HashJoinLightRecordCursorFactory;
+import io.questdb.griffin.engine.join.ParallelHashJoinLightRecordCursorFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.FilesFacadeImpl;
+import io.questdb.std.Numbers;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelHashJoinTest extends AbstractParallelTest {
+    private static final String[] DDL = {
+            "create table x as (" +
+                    "select" +
+                    " rnd_int(0, 50, 10) i," +
+                    " rnd_long(0, 30, 10) l," +
+                    " rnd_symbol(5, 1, 3, 2) sy," +
+                    " timestamp_sequence(0, 100000000) ts" +
+                    " from long_sequence(3000)" +
+                    ") timestamp(ts) partition by DAY",
+            "create table y as (" +
+                    "select" +
+                    " rnd_int(0, 50, 10) i," +
+                    " rnd_long(0, 30, 10) l," +
+                    " rnd_symbol(5, 1, 3, 2) sy," +
+                    " rnd_str(3, 6, 2) v," +
+                    " timestamp_sequence(0, 1000000000) ts" +
+                    " from long_sequence(400)" +
+                    ") timestamp(ts) partition by DAY",
+            "create table z (i int, v string)"
+    };
+    private static int valuePageSize;
+    private static int valueMaxPages;
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        valuePageSize = Numbers.SIZE_1MB;
+        valueMaxPages = Integer.MAX_VALUE;
+    }
+
+    @Test
+    public void testJoinEmptySlave() throws Exception {
+        assertJoin(4, 100, 64, "x join z on (i)", ParallelHashJoinLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testJoinInt() throws Exception {
+        assertJoin(4, 100, 64, "x join y on (i)", ParallelHashJoinLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testJoinInterval() throws Exception {
+        assertJoin(4, 100, 64, "x join y on (i) where x.ts in '1970-01-02'", ParallelHashJoinLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testJoinLargeFrames() throws Exception {
+        assertJoin(4, 1_000_000, 64, "x join y on (l)", ParallelHashJoinLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testJoinLong() throws Exception {
+        assertJoin(4, 100, 64, "x join y on (l)", ParallelHashJoinLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testJoinMultipleKeys() throws Exception {
+        assertJoin(4, 100, 64, "x join y on (i, l)", ParallelHashJoinLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testJoinNoWorkers() throws Exception {
+        assertJoin(0, 100, 64, "x join y on (i)", ParallelHashJoinLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testJoinQueueFull() throws Exception {
+        assertJoin(4, 100, 2, "x join y on (i)", ParallelHashJoinLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testJoinSelf() throws Exception {
+        assertJoin(4, 100, 64, "x a join x b on (i)", ParallelHashJoinLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testJoinSymbolStaysSerial() throws Exception {
+        assertJoin(4, 100, 64, "x join y on (sy)", HashJoinLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testJoinValueLimit() throws Exception {
+        // the parallel join is bound by the same page limit as the serial join, it reports
+        // the failure of the build task that breached the limit
+        final String[] expectedErrors = {"Maximum number of pages (1) breached", "hash join failed"};
+        valuePageSize = 4096;
+        valueMaxPages = 1;
+        execute(newConfiguration(100, 64), 0, (engine, compiler, serialContext, parallelContext) -> {
+            compiler.compile(DDL[0], serialContext);
+            for (int i = 0; i < 2; i++) {
+                parallelEnabled = i > 0;
+                try (RecordCursorFactory factory = compiler.compile("x a join x b on (i)", parallelContext).getRecordCursorFactory()) {
+                    try (RecordCursor cursor = factory.getCursor(parallelContext)) {
+                        cursor.hasNext();
+                        Assert.fail();
+                    } catch (CairoException e) {
+                        TestUtils.assertContains(e.getFlyweightMessage(), expectedErrors[i]);
+                    }
+                }
+            }
+        });
+    }
+
+    private static void assertJoin(
+            int workerCount,
+            int frameMaxRows,
+            int queueCapacity,
+            String query,
+            Class<?> expectedFactoryClass
+    ) throws Exception {
+        assertParallel(newConfiguration(frameMaxRows, queueCapacity), workerCount, query, expectedFactoryClass, DDL);
+    }
+
+    private static CairoConfiguration newConfiguration(int frameMaxRows, int queueCapacity) {
+        return new DefaultCairoConfiguration(root) {
+            @Override
+            public FilesFacade getFilesFacade() {
+                return FilesFacadeImpl.INSTANCE;
+            }
+
+            @Override
+            public int getHashJoinQueueCapacity() {
+                return queueCapacity;
+            }
+
+            @Override
+            public int getSqlHashJoinLightValueMaxPages() {
+                return valueMaxPages;
+            }
+
+            @Override
+            public int getSqlHashJoinLightValuePageSize() {
+                return valuePageSize;
+            }
+
+            @Override
+            public int getSqlPageFrameMaxRows() {
+                return frameMaxRows;
+            }
+
+            @Override
+            public boolean isSqlParallelHashJoinEnabled() {
+                return parallelEnabled;
+            }
+        };
+    }
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.griffin.engine.groupby.ParallelSampleByRecordCursorFactory;
+import io.questdb.griffin.engine.groupby.SampleByFillNoneNotKeyedRecordCursorFactory;
+import io.questdb.griffin.engine.groupby.SampleByFillNoneRecordCursorFactory;
+import io.questdb.griffin.engine.groupby.SampleByFillPrevRecordCursorFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.FilesFacadeImpl;
+import org.junit.Test;
+
+public class ParallelSampleByTest extends AbstractParallelTest {
+
+    @Test
+    public void testSampleByFillPrev() throws Exception {
+        assertParallel(4, 100, 64, "select k, sy, sum(b) from x sample by 1h fill(prev)", SampleByFillPrevRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSampleByInterval() throws Exception {
+        assertParallel(4, 100, 64, "select k, sy, max(a), sum(b) from x where k in '1970-01-02' sample by 30m", ParallelSampleByRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSampleByKeyed() throws Exception {
+        assertParallel(4, 100, 64, "select k, sy, first(a), last(a), min(a), max(a), sum(b), count() from x sample by 1h", ParallelSampleByRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSampleByLargeFrames() throws Exception {
+        assertParallel(4, 1_000_000, 64, "select k, sy, sum(a), count() from x sample by 1d", ParallelSampleByRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSampleByMonth() throws Exception {
+        assertParallel(4, 100, 64, "select k, sy, avg(a), min(k), max(b) from x sample by 1M", ParallelSampleByRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSampleByNoWorkers() throws Exception {
+        assertParallel(0, 100, 2, "select k, sy, avg(a), count() from x sample by 7h", ParallelSampleByRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSampleByNotKeyed() throws Exception {
+        assertParallel(4, 100, 64, "select k, first(a), last(b), count() from x sample by 7h", ParallelSampleByRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSampleByNotKeyedSerial() throws Exception {
+        assertParallel(4, 100, 64, "select k, first(a), last(b), count() from x sample by 7h align to calendar time zone 'Europe/London'", SampleByFillNoneNotKeyedRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSampleByNotThreadSafe() throws Exception {
+        assertParallel(4, 100, 64, "select k, s, sum(b) from x sample by 1h", SampleByFillNoneRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSampleByQueueFull() throws Exception {
+        assertParallel(4, 100, 2, "select k, sy, first(a), last(a), count() from x sample by 1h", ParallelSampleByRecordCursorFactory.class);
+    }
+
+    private static void assertParallel(
+            int workerCount,
+            int frameMaxRows,
+            int queueCapacity,
+            String query,
+            Class<?> expectedFactoryClass
+    ) throws Exception {
+        final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+            @Override
+            public FilesFacade getFilesFacade() {
+                return FilesFacadeImpl.INSTANCE;
+            }
+
+            @Override
+            public int getSampleByQueueCapacity() {
+                return queueCapacity;
+            }
+
+            @Override
+            public int getSqlPageFrameMaxRows() {
+                return frameMaxRows;
+            }
+        };
+        assertParallel(
+                configuration,
+                workerCount,
+                query,
+                expectedFactoryClass,
+                "create table x as (" +
+                        "select" +
+                        " rnd_double(0)*100 a," +
+                        " rnd_int(0, 30, 0) b," +
+                        " rnd_str('AA', 'BB', 'CC') s," +
+                        " rnd_symbol('A', 'B', 'C', 'D') sy," +
+                        " timestamp_sequence(0, 100000000) k" +
+                        " from long_sequence(5000)" +
+                        ") timestamp(k) partition by DAY"
+        );
+    }
+}
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.griffin.engine.orderby.RadixSortLightRecordCursorFactory;
+import io.questdb.griffin.engine.orderby.SortedLightRecordCursorFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.FilesFacadeImpl;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RadixSortTest extends AbstractParallelTest {
+
+    @Test
+    public void testSortBoolean() throws Exception {
+        assertSort(4, 100, 64, "select * from x order by bo desc", RadixSortLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSortByte() throws Exception {
+        assertSort(4, 100, 64, "select * from x order by by", RadixSortLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSortChar() throws Exception {
+        assertSort(4, 100, 64, "select * from x order by ch desc", RadixSortLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSortDate() throws Exception {
+        assertSort(4, 100, 64, "select * from x order by dt", RadixSortLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSortDouble() throws Exception {
+        assertSort(4, 100, 64, "select * from x order by d", RadixSortLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSortDoubleDesc() throws Exception {
+        assertSort(4, 100, 64, "select * from x order by d desc", RadixSortLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSortFiltered() throws Exception {
+        assertSort(4, 100, 64, "select * from x where i > 0 order by l desc", RadixSortLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSortFloat() throws Exception {
+        assertSort(4, 100, 64, "select * from x order by f", RadixSortLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSortInt() throws Exception {
+        assertSort(4, 100, 64, "select * from x order by i", RadixSortLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSortLong() throws Exception {
+        assertSort(4, 100, 64, "select * from x order by l", RadixSortLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSortMemoryLimit() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public long getSqlSortLightValuePageSize() {
+                    return 1024;
+                }
+
+                @Override
+                public int getSqlSortLightValueMaxPages() {
+                    return 4;
+                }
+            };
+            try (
+                    final CairoEngine engine = new CairoEngine(configuration);
+                    final SqlCompiler compiler = new SqlCompiler(engine);
+                    final SqlExecutionContext executionContext = new SqlExecutionContextImpl(engine, 1)
+            ) {
+                compiler.compile("create table x as (select x l from long_sequence(1000))", executionContext);
+                try (RecordCursorFactory factory = compiler.compile("x order by l desc", executionContext).getRecordCursorFactory()) {
+                    Assert.assertSame(RadixSortLightRecordCursorFactory.class, factory.getClass());
+                    try (RecordCursor ignored = factory.getCursor(executionContext)) {
+                        Assert.fail();
+                    } catch (LimitOverflowException e) {
+                        TestUtils.assertContains(e.getFlyweightMessage(), "Maximum number of pages (4) breached");
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testSortMultipleKeys() throws Exception {
+        assertSort(4, 100, 64, "select * from x order by sy, l", SortedLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSortNoWorkers() throws Exception {
+        assertSort(0, 100, 64, "select * from x order by i desc", RadixSortLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSortQueueFull() throws Exception {
+        assertSort(4, 100, 2, "select * from x order by l desc", RadixSortLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSortShort() throws Exception {
+        assertSort(4, 100, 64, "select * from x order by sh desc", RadixSortLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSortSingleChunk() throws Exception {
+        assertSort(4, 1_000_000, 64, "select * from x order by d", RadixSortLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSortSymbol() throws Exception {
+        assertSort(4, 100, 64, "select * from x order by sy", RadixSortLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSortSymbolDesc() throws Exception {
+        assertSort(4, 100, 64, "select * from x order by sy desc", RadixSortLightRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testSortTimestampDesc() throws Exception {
+        assertSort(4, 100, 64, "select * from x order by k desc", RadixSortLightRecordCursorFactory.class);
+    }
+
+    private static void assertSort(
+            int workerCount,
+            int frameMaxRows,
+            int queueCapacity,
+            String query,
+            Class<?> expectedFactoryClass
+    ) throws Exception {
+        final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+            @Override
+            public FilesFacade getFilesFacade() {
+                return FilesFacadeImpl.INSTANCE;
+            }
+
+            @Override
+            public int getRadixSortQueueCapacity() {
+                return queueCapacity;
+            }
+
+            @Override
+            public int getSqlPageFrameMaxRows() {
+                return frameMaxRows;
+            }
+
+            @Override
+            public boolean isSqlRadixSortEnabled() {
+                return parallelEnabled;
+            }
+        };
+        assertParallel(
+                configuration,
+                workerCount,
+                query,
+                expectedFactoryClass,
+                "create table x as (" +
+                        "select" +
+                        " rnd_boolean() bo," +
+                        " rnd_byte(0, 10) by," +
+                        " rnd_short(-20, 20) sh," +
+                        " rnd_char() ch," +
+                        " rnd_int(-100, 100, 5) i," +
+                        " rnd_long(-1000, 1000, 5) l," +
+                        // negative ints make negative zeros, null ints make NaNs
+                        " case when x % 3 = 0 then rnd_int(-3, 3, 5) * 0.0 else rnd_double(5) * 100 - 50 end d," +
+                        " rnd_float(5) f," +
+                        " rnd_symbol(20, 1, 3, 5) sy," +
+                        " rnd_date(to_date('2020', 'yyyy'), to_date('2021', 'yyyy'), 5) dt," +
+                        " timestamp_sequence(0, 100000000) k" +
+                        " from long_sequence(2000)" +
+                        ") timestamp(k) partition by DAY"
+        );
+    }
+}
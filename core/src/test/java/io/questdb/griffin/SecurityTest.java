@@ -44,6 +44,7 @@ public class SecurityTest extends AbstractGriffinTest {
     private static CairoEngine memoryRestrictedEngine;
     private static final AtomicInteger nCheckInterruptedCalls = new AtomicInteger();
     private static int maxNCheckInterruptedCalls = Integer.MAX_VALUE;
+    private static boolean radixSortEnabled = true;
 
     @BeforeClass
     public static void setUpReadOnlyExecutionContext() {
@@ -87,6 +88,11 @@ public class SecurityTest extends AbstractGriffinTest {
             public int getSqlSortLightValueMaxPages() {
                 return 11;
             }
+
+            @Override
+            public boolean isSqlRadixSortEnabled() {
+                return radixSortEnabled;
+            }
         };
         memoryRestrictedEngine = new CairoEngine(readOnlyConfiguration);
         SqlExecutionInterruptor dummyInterruptor = () -> {
@@ -119,6 +125,7 @@ public class SecurityTest extends AbstractGriffinTest {
             try {
                 maxNCheckInterruptedCalls = Integer.MAX_VALUE;
                 nCheckInterruptedCalls.set(0);
+                radixSortEnabled = true;
                 code.run();
                 engine.releaseInactive();
                 Assert.assertEquals(0, engine.getBusyWriterCount());
@@ -269,9 +276,53 @@ public class SecurityTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testMemoryRestrictionsWithRadixSortOrderBy() throws Exception {
+        assertMemoryLeak(() -> {
+            sqlExecutionContext.getRandom().reset();
+            compiler.compile("create table tb1 as (select" +
+                    " rnd_symbol(4,4,4,20000) sym," +
+                    " rnd_double(2) d," +
+                    " timestamp_sequence(0, 1000000000) ts" +
+                    " from long_sequence(10)) timestamp(ts)", sqlExecutionContext);
+            // radix sort keeps no tree, sort key memory limit does not apply to it,
+            // the same query breaches the limit with tree sort
+            assertQuery(
+                    memoryRestrictedCompiler,
+                    "sym\td\n" +
+                            "VTJW\t0.1985581797355932\n" +
+                            "VTJW\t0.21583224269349388\n" +
+                            "PEHN\t0.3288176907679504\n" +
+                            "CPSW\t0.3491070363730514\n" +
+                            "PEHN\t0.38179758047769774\n",
+                    "select sym, d from tb1 where d < 0.5 ORDER BY d",
+                    null,
+                    true, readOnlyExecutionContext);
+            compiler.compile("create table tb2 as (select" +
+                    " rnd_symbol(4,4,4,20000) sym," +
+                    " rnd_double(2) d," +
+                    " timestamp_sequence(0, 1000000000) ts" +
+                    " from long_sequence(2000)) timestamp(ts)", sqlExecutionContext);
+            // (key, row id) pairs are limited by the light sort value memory settings
+            try {
+                assertQuery(
+                        memoryRestrictedCompiler,
+                        "sym\td\n",
+                        "select sym, d from tb2 ORDER BY d",
+                        null,
+                        true, readOnlyExecutionContext);
+                Assert.fail();
+            } catch (Exception ex) {
+                Assert.assertTrue(ex.toString().contains("Maximum number of pages (11) breached"));
+            }
+        });
+    }
+
     @Test
     public void testMemoryRestrictionsWithRandomAccessOrderBy() throws Exception {
         assertMemoryLeak(() -> {
+            // sort key memory limit is specific to the tree sort
+            radixSortEnabled = false;
             sqlExecutionContext.getRandom().reset();
             compiler.compile("create table tb1 as (select" +
                     " rnd_symbol(4,4,4,20000) sym," +
@@ -637,6 +688,7 @@ public class SecurityTest extends AbstractGriffinTest {
                         -1,
                         null);
         assertMemoryLeak(() -> {
+            radixSortEnabled = false;
             sqlExecutionContext.getRandom().reset();
             compiler.compile("create table tb1 as (select" +
                     " rnd_symbol(4,4,4,20000) sym1," +
@@ -0,0 +1,220 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.jetbrains.annotations.Nullable;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+public class SpillToDiskTest {
+    private static final Log LOG = LogFactory.getLog(SpillToDiskTest.class);
+    private static final StringSink sink = new StringSink();
+    private static final StringSink expectedSink = new StringSink();
+    private static final String DDL = "create table x as (" +
+            "select" +
+            " rnd_int(0, 500, 0) k," +
+            " rnd_long() l," +
+            " rnd_double() d," +
+            " rnd_str(5, 20, 2) s," +
+            " rnd_symbol('a', 'b', 'c', null) sy," +
+            " timestamp_sequence(0, 1000000) ts" +
+            " from long_sequence(20000)" +
+            ") timestamp(ts)";
+    private static final String DDL2 = "create table y as (" +
+            "select" +
+            " rnd_int(0, 500, 0) k," +
+            " rnd_str(5, 20, 2) v" +
+            " from long_sequence(2000)" +
+            ")";
+    @ClassRule
+    public static TemporaryFolder temp = new TemporaryFolder();
+    private static CharSequence root;
+    private static String spillRoot;
+
+    @BeforeClass
+    public static void setupStatic() {
+        try {
+            root = temp.newFolder("dbRoot").getAbsolutePath();
+            spillRoot = temp.getRoot().getAbsolutePath() + File.separator + "spill";
+        } catch (IOException e) {
+            throw new ExceptionInInitializerError();
+        }
+    }
+
+    @Before
+    public void setUp() {
+        TestUtils.createTestPath(root);
+    }
+
+    @After
+    public void tearDown() {
+        TestUtils.removeTestPath(root);
+    }
+
+    @Test
+    public void testHashJoin() throws Exception {
+        assertSpill("select x.ts, x.k, x.l, y.v from x join y on (k) order by ts, v", true);
+    }
+
+    @Test
+    public void testHashJoinWithoutSpillRoot() throws Exception {
+        assertLimitOverflow("select x.k, x.l, y.v from x join y on (k)", true);
+    }
+
+    @Test
+    public void testSortLight() throws Exception {
+        assertSpill("select * from x order by s, l", false);
+    }
+
+    @Test
+    public void testSortLightWithoutSpillRoot() throws Exception {
+        assertLimitOverflow("select * from x order by s, l", false);
+    }
+
+    @Test
+    public void testSortRadix() throws Exception {
+        assertSpill("select * from x order by l desc", false);
+    }
+
+    @Test
+    public void testSortRecords() throws Exception {
+        assertSpill("select sy, k, sum(d) from x order by 3, 1, 2", false);
+    }
+
+    private static CairoConfiguration limitedConfiguration(@Nullable String spillRoot) {
+        return new DefaultCairoConfiguration(root) {
+            @Override
+            public int getSqlHashJoinValueMaxPages() {
+                return 2;
+            }
+
+            @Override
+            public int getSqlHashJoinValuePageSize() {
+                return 4096;
+            }
+
+            @Override
+            public int getSqlSortLightValueMaxPages() {
+                return 2;
+            }
+
+            @Override
+            public long getSqlSortLightValuePageSize() {
+                return 4096;
+            }
+
+            @Override
+            public int getSqlSortValueMaxPages() {
+                return 2;
+            }
+
+            @Override
+            public int getSqlSortValuePageSize() {
+                return 4096;
+            }
+
+            @Override
+            public CharSequence getSqlSpillRoot() {
+                return spillRoot;
+            }
+        };
+    }
+
+    private static void printResult(CairoConfiguration configuration, String query, boolean fullFatJoins, StringSink sink) throws SqlException {
+        try (
+                final CairoEngine engine = new CairoEngine(configuration);
+                final SqlCompiler compiler = new SqlCompiler(engine);
+                final SqlExecutionContext executionContext = new SqlExecutionContextImpl(engine, 1)
+        ) {
+            compiler.setFullFatJoins(fullFatJoins);
+            try (RecordCursorFactory factory = compiler.compile(query, executionContext).getRecordCursorFactory()) {
+                // second run reuses the chains after they spilled once
+                for (int i = 0; i < 2; i++) {
+                    try (RecordCursor cursor = factory.getCursor(executionContext)) {
+                        sink.clear();
+                        TestUtils.printCursor(cursor, factory.getMetadata(), true, sink, TestUtils.printer);
+                    }
+                }
+            }
+        }
+    }
+
+    private void assertLimitOverflow(String query, boolean fullFatJoins) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CairoConfiguration configuration = limitedConfiguration(null);
+            try (
+                    final CairoEngine engine = new CairoEngine(configuration);
+                    final SqlCompiler compiler = new SqlCompiler(engine);
+                    final SqlExecutionContext executionContext = new SqlExecutionContextImpl(engine, 1)
+            ) {
+                compiler.compile(DDL, executionContext);
+                compiler.compile(DDL2, executionContext);
+                compiler.setFullFatJoins(fullFatJoins);
+                try (RecordCursorFactory factory = compiler.compile(query, executionContext).getRecordCursorFactory()) {
+                    try (RecordCursor cursor = factory.getCursor(executionContext)) {
+                        TestUtils.printCursor(cursor, factory.getMetadata(), true, sink, TestUtils.printer);
+                        Assert.fail();
+                    } catch (LimitOverflowException e) {
+                        TestUtils.assertContains(e.getFlyweightMessage(), "Maximum number of pages (2) breached");
+                    }
+                }
+            }
+        });
+    }
+
+    private void assertSpill(String query, boolean fullFatJoins) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root);
+            try (
+                    final CairoEngine engine = new CairoEngine(configuration);
+                    final SqlCompiler compiler = new SqlCompiler(engine);
+                    final SqlExecutionContext executionContext = new SqlExecutionContextImpl(engine, 1)
+            ) {
+                compiler.compile(DDL, executionContext);
+                compiler.compile(DDL2, executionContext);
+            }
+
+            printResult(configuration, query, fullFatJoins, expectedSink);
+            printResult(limitedConfiguration(spillRoot), query, fullFatJoins, sink);
+            TestUtils.assertEquals(expectedSink, sink);
+
+            final String[] files = new File(spillRoot).list();
+            Assert.assertNotNull(files);
+            Assert.assertEquals(0, files.length);
+        });
+    }
+}
@@ -722,6 +722,18 @@ public class SqlParserTest extends AbstractSqlParserTest {
         );
     }
 
+    @Test
+    public void testCreateTableAsSelectBloom() throws SqlException {
+        assertCreateTable(
+                "create table X as (select-choose a, b, c from (select [a, b, c] from tab)), bloom(a), bloom(c)",
+                "create table X as ( select a, b, c from tab ), bloom(a), bloom(c)",
+                modelOf("tab")
+                        .col("a", ColumnType.INT)
+                        .col("b", ColumnType.DOUBLE)
+                        .col("c", ColumnType.STRING)
+        );
+    }
+
     @Test
     public void testCreateTableAsSelectIndex() throws SqlException {
         assertCreateTable(
@@ -780,6 +792,32 @@ public class SqlParserTest extends AbstractSqlParserTest {
         );
     }
 
+    @Test
+    public void testCreateTableBloom() throws SqlException {
+        assertCreateTable(
+                "create table x (a INT, b DOUBLE, c LONG, t TIMESTAMP), bloom(a), bloom(c) timestamp(t) partition by DAY",
+                "create table x (a INT, b DOUBLE, c LONG, t TIMESTAMP), bloom(c), bloom(a) timestamp(t) partition by DAY"
+        );
+    }
+
+    @Test
+    public void testCreateTableBloomInvalidColumn() throws Exception {
+        assertSyntaxError(
+                "create table x (a INT, b DOUBLE, t TIMESTAMP), bloom(z)",
+                53,
+                "Invalid column: z"
+        );
+    }
+
+    @Test
+    public void testCreateTableBloomUnsupportedType() throws Exception {
+        assertSyntaxError(
+                "create table x (a INT, b DOUBLE, t TIMESTAMP), bloom(b)",
+                53,
+                "bloom filter is supported only for INT, LONG and STRING columns"
+        );
+    }
+
     @Test
     public void testCreateTableCacheCapacity() throws SqlException {
         assertCreateTable("create table x (" +
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.griffin.engine.functions.regex;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Test;
+
+public class SymbolMatchFunctionTest extends AbstractGriffinTest {
+
+    @Test
+    public void testInSymbol() throws Exception {
+        assertMemoryLeak(() -> {
+            createHosts();
+            assertSql(
+                    "select host from x where host in ('prod-1', null, 'unknown')",
+                    "host\n" +
+                            "prod-1\n" +
+                            "\n" +
+                            "prod-1\n"
+            );
+        });
+    }
+
+    @Test
+    public void testLikeBindVariable() throws Exception {
+        assertMemoryLeak(() -> {
+            createHosts();
+            try (RecordCursorFactory factory = compiler.compile("select host from x where host like $1", sqlExecutionContext).getRecordCursorFactory()) {
+                bindVariableService.setStr(0, "dev%");
+                assertCursor(factory, "host\n" +
+                        "dev-1\n");
+
+                bindVariableService.setStr(0, "prod-_");
+                assertCursor(factory, "host\n" +
+                        "prod-1\n" +
+                        "prod-2\n" +
+                        "prod-1\n");
+
+                // symbol added after the query was compiled
+                executeInsert("insert into x values('prod-9', 8)");
+                assertCursor(factory, "host\n" +
+                        "prod-1\n" +
+                        "prod-2\n" +
+                        "prod-1\n" +
+                        "prod-9\n");
+
+                bindVariableService.setStr(0, null);
+                assertCursor(factory, "host\n");
+            }
+        });
+    }
+
+    @Test
+    public void testLikeSymbol() throws Exception {
+        assertMemoryLeak(() -> {
+            createHosts();
+            assertSql(
+                    "select host from x where host like 'prod-%'",
+                    "host\n" +
+                            "prod-1\n" +
+                            "prod-2\n" +
+                            "prod-1\n"
+            );
+            assertSql(
+                    "select host from x where not host like 'prod-%'",
+                    "host\n" +
+                            "dev-1\n" +
+                            "\n" +
+                            "Prod-3\n" +
+                            "staging\n"
+            );
+        });
+    }
+
+    @Test
+    public void testMatchRuntimeConstant() throws Exception {
+        assertMemoryLeak(() -> {
+            createHosts();
+            try (RecordCursorFactory factory = compiler.compile("select host from x where host ~ $1", sqlExecutionContext).getRecordCursorFactory()) {
+                bindVariableService.setStr(0, "od-[12]");
+                assertCursor(factory, "host\n" +
+                        "prod-1\n" +
+                        "prod-2\n" +
+                        "prod-1\n");
+
+                bindVariableService.setStr(0, "ing$");
+                assertCursor(factory, "host\n" +
+                        "staging\n");
+            }
+        });
+    }
+
+    @Test
+    public void testMatchSymbol() throws Exception {
+        assertMemoryLeak(() -> {
+            createHosts();
+            assertSql(
+                    "select host from x where host ~ '^[Pp]rod'",
+                    "host\n" +
+                            "prod-1\n" +
+                            "prod-2\n" +
+                            "Prod-3\n" +
+                            "prod-1\n"
+            );
+        });
+    }
+
+    @Test
+    public void testNotMatchSymbol() throws Exception {
+        assertMemoryLeak(() -> {
+            createHosts();
+            assertSql(
+                    "select host from x where host !~ 'prod'",
+                    "host\n" +
+                            "dev-1\n" +
+                            "\n" +
+                            "Prod-3\n" +
+                            "staging\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSymbolWithoutStaticTable() throws Exception {
+        assertMemoryLeak(() -> assertSql(
+                "select s from (select cast(x as symbol) s from long_sequence(12)) where s like '1_'",
+                "s\n" +
+                        "10\n" +
+                        "11\n" +
+                        "12\n"
+        ));
+    }
+
+    private void assertCursor(RecordCursorFactory factory, CharSequence expected) throws SqlException {
+        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+            TestUtils.printCursor(cursor, factory.getMetadata(), true, sink, TestUtils.printer);
+        }
+        TestUtils.assertEquals(expected, sink);
+    }
+
+    private void createHosts() throws SqlException {
+        compiler.compile("create table x (host symbol, ts timestamp) timestamp(ts)", sqlExecutionContext);
+        final String[] hosts = {"'prod-1'", "'dev-1'", "'prod-2'", "null", "'Prod-3'", "'prod-1'", "'staging'"};
+        for (int i = 0; i < hosts.length; i++) {
+            executeInsert("insert into x values(" + hosts[i] + ", " + (i + 1) + ")");
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.mp;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class WorkerPoolTest {
+
+    @Test
+    public void testEventDrivenWorkerWakesUpOnPublish() {
+        final RingQueue<Event> queue = new RingQueue<>(Event.FACTORY, 16);
+        final ParkingWaitStrategy waitStrategy = new ParkingWaitStrategy(4, TimeUnit.MINUTES.toNanos(1));
+        final MPSequence pubSeq = new MPSequence(queue.getCycle());
+        final MCSequence subSeq = new MCSequence(queue.getCycle(), waitStrategy);
+        pubSeq.then(subSeq).then(pubSeq);
+
+        final SOCountDownLatch consumed = new SOCountDownLatch(1);
+        final AtomicLong value = new AtomicLong();
+        // worker would not wake up on its own during the test
+        final WorkerPool pool = new WorkerPool(new TestWorkerPoolConfiguration(1, 60_000, true));
+        pool.assignWaitStrategy(waitStrategy);
+        pool.assign(new AbstractQueueConsumerJob<Event>(queue, subSeq) {
+            @Override
+            protected boolean doRun(int workerId, long cursor) {
+                value.set(queue.get(cursor).value);
+                subSeq.done(cursor);
+                consumed.countDown();
+                return true;
+            }
+        });
+        pool.start(null);
+        try {
+            while (waitStrategy.getParkedCount() == 0) {
+                Thread.yield();
+            }
+
+            final long cursor = pubSeq.next();
+            Assert.assertTrue(cursor > -1);
+            queue.get(cursor).value = 42;
+            pubSeq.done(cursor);
+
+            Assert.assertTrue(consumed.await(TimeUnit.SECONDS.toNanos(10)));
+            Assert.assertEquals(42, value.get());
+        } finally {
+            pool.halt();
+        }
+    }
+
+    @Test
+    public void testEventDrivenWorkerWakesUpOnFallbackSignal() {
+        final RingQueue<Event> queue = new RingQueue<>(Event.FACTORY, 16);
+        final ParkingWaitStrategy sharedWaitStrategy = new ParkingWaitStrategy(4, TimeUnit.MINUTES.toNanos(1));
+        // nobody parks on this strategy, signals go to workers parked on the shared one
+        final ParkingWaitStrategy dedicatedWaitStrategy = new ParkingWaitStrategy(4, TimeUnit.MINUTES.toNanos(1), sharedWaitStrategy);
+        final MPSequence pubSeq = new MPSequence(queue.getCycle());
+        final MCSequence subSeq = new MCSequence(queue.getCycle(), dedicatedWaitStrategy);
+        pubSeq.then(subSeq).then(pubSeq);
+
+        final SOCountDownLatch consumed = new SOCountDownLatch(1);
+        final WorkerPool pool = new WorkerPool(new TestWorkerPoolConfiguration(1, 60_000, true));
+        pool.assignWaitStrategy(sharedWaitStrategy);
+        pool.assign(new AbstractQueueConsumerJob<Event>(queue, subSeq) {
+            @Override
+            protected boolean doRun(int workerId, long cursor) {
+                subSeq.done(cursor);
+                consumed.countDown();
+                return true;
+            }
+        });
+        pool.start(null);
+        try {
+            while (sharedWaitStrategy.getParkedCount() == 0) {
+                Thread.yield();
+            }
+
+            final long cursor = pubSeq.next();
+            Assert.assertTrue(cursor > -1);
+            pubSeq.done(cursor);
+
+            Assert.assertTrue(consumed.await(TimeUnit.SECONDS.toNanos(10)));
+        } finally {
+            pool.halt();
+        }
+    }
+
+    @Test
+    public void testJobPriorities() {
+        final AtomicLong high = new AtomicLong();
+        final AtomicLong normal = new AtomicLong();
+        final AtomicLong low = new AtomicLong();
+
+        final WorkerPool pool = new WorkerPool(new TestWorkerPoolConfiguration(1, 1, false));
+        pool.assign(new CountingJob(low, Job.PRIORITY_LOW));
+        pool.assign(new CountingJob(normal, Job.PRIORITY_NORMAL));
+        pool.assign(new CountingJob(high, Job.PRIORITY_HIGH));
+        pool.start(null);
+        while (high.get() < 100_000) {
+            Thread.yield();
+        }
+        pool.halt();
+
+        // jobs always do useful work, the worker is never idle
+        final long passes = high.get();
+        Assert.assertEquals(passes / 2, normal.get(), 1);
+        Assert.assertEquals(passes / 8, low.get(), 1);
+    }
+
+    @Test
+    public void testJobPrioritiesAreRelative() {
+        final AtomicLong normal = new AtomicLong();
+        final AtomicLong low = new AtomicLong();
+
+        final WorkerPool pool = new WorkerPool(new TestWorkerPoolConfiguration(1, 1, false));
+        pool.assign(new CountingJob(low, Job.PRIORITY_LOW));
+        pool.assign(new CountingJob(normal, Job.PRIORITY_NORMAL));
+        pool.start(null);
+        while (normal.get() < 100_000) {
+            Thread.yield();
+        }
+        pool.halt();
+
+        // normal jobs are the highest priority jobs in the pool and run on every pass
+        Assert.assertEquals(normal.get() / 2, low.get(), 1);
+    }
+
+    private static class CountingJob implements Job {
+        private final AtomicLong counter;
+        private final int priority;
+
+        private CountingJob(AtomicLong counter, int priority) {
+            this.counter = counter;
+            this.priority = priority;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public boolean run(int workerId) {
+            counter.incrementAndGet();
+            return true;
+        }
+    }
+
+    private static class TestWorkerPoolConfiguration implements WorkerPoolConfiguration {
+        private final int workerCount;
+        private final long sleepTimeout;
+        private final boolean eventDriven;
+
+        private TestWorkerPoolConfiguration(int workerCount, long sleepTimeout, boolean eventDriven) {
+            this.workerCount = workerCount;
+            this.sleepTimeout = sleepTimeout;
+            this.eventDriven = eventDriven;
+        }
+
+        @Override
+        public long getSleepThreshold() {
+            return 0;
+        }
+
+        @Override
+        public long getSleepTimeout() {
+            return sleepTimeout;
+        }
+
+        @Override
+        public int[] getWorkerAffinity() {
+            final int[] affinity = new int[workerCount];
+            Arrays.fill(affinity, -1);
+            return affinity;
+        }
+
+        @Override
+        public int getWorkerCount() {
+            return workerCount;
+        }
+
+        @Override
+        public long getYieldThreshold() {
+            return 0;
+        }
+
+        @Override
+        public boolean haltOnError() {
+            return false;
+        }
+
+        @Override
+        public boolean isEventDriven() {
+            return eventDriven;
+        }
+    }
+}
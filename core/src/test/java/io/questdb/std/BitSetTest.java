@@ -0,0 +1,53 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.std;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BitSetTest {
+    @Test
+    public void testGetSetClear() {
+        BitSet set = new BitSet(10);
+        Assert.assertEquals(64, set.capacity());
+
+        Rnd rnd = new Rnd();
+        IntHashSet expected = new IntHashSet();
+        for (int i = 0; i < 1000; i++) {
+            int bit = rnd.nextInt(10_000);
+            expected.add(bit);
+            set.set(bit);
+        }
+        Assert.assertTrue(set.capacity() >= 10_000);
+
+        for (int i = 0; i < 20_000; i++) {
+            Assert.assertEquals(expected.contains(i), set.get(i));
+        }
+
+        set.clear();
+        for (int i = 0; i < 20_000; i++) {
+            Assert.assertFalse(set.get(i));
+        }
+    }
+}
@@ -78,6 +78,15 @@ public class NumbersTest {
         Assert.assertEquals(32, Numbers.ceilPow2(17));
     }
 
+    @Test
+    public void testCompareDoubleNaN() {
+        Assert.assertEquals(0, Numbers.compare(Double.NaN, Double.NaN));
+        Assert.assertEquals(-1, Numbers.compare(Double.NaN, 2.5));
+        Assert.assertEquals(1, Numbers.compare(2.5, Double.NaN));
+        Assert.assertEquals(-1, Numbers.compare(Double.NaN, -2.5));
+        Assert.assertEquals(1, Numbers.compare(-2.5, Double.NaN));
+    }
+
     @Test(expected = NumericException.class)
     public void testEmptyDouble() throws Exception {
         Numbers.parseDouble("D");